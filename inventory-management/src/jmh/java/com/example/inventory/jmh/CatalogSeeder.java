@@ -0,0 +1,85 @@
+package com.example.inventory.jmh;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds a synthetic catalog straight through JDBC batches so that even the 1M-SKU shape is ready in
+ * seconds. Shape: {@value #SKUS_PER_PRODUCT} SKUs per product, {@value #PRODUCTS_PER_CATEGORY} products per category.
+ */
+public final class CatalogSeeder {
+    public static final int SKUS_PER_PRODUCT = 10;
+    public static final int PRODUCTS_PER_CATEGORY = 100;
+    private static final int CHUNK = 10_000;
+    static final String[] WORDS = {"Acme", "Widget", "Gadget", "Turbo", "Classic", "Ultra", "Mini", "Smart", "Eco", "Pro"};
+
+    private CatalogSeeder() {
+    }
+
+    public static final class Catalog {
+        public final long[] categoryIds;
+        public final long[] productIds;
+        public final long[] skuIds;
+
+        Catalog(long[] categoryIds, long[] productIds, long[] skuIds) {
+            this.categoryIds = categoryIds;
+            this.productIds = productIds;
+            this.skuIds = skuIds;
+        }
+    }
+
+    public static String productName(int index) {
+        return WORDS[index % WORDS.length] + " " + WORDS[(index / WORDS.length) % WORDS.length] + " " + index;
+    }
+
+    public static String skuCode(int index) {
+        return "SKU-" + index;
+    }
+
+    public static Catalog seed(JdbcTemplate jdbc, int skuCount) {
+        int productCount = Math.max(1, skuCount / SKUS_PER_PRODUCT);
+        int categoryCount = Math.max(1, productCount / PRODUCTS_PER_CATEGORY);
+
+        List<Object[]> rows = new ArrayList<>(Math.min(CHUNK, categoryCount));
+        for (int i = 0; i < categoryCount; i++) {
+            rows.add(new Object[]{"Category " + i});
+            rows = flushIfFull(jdbc, "INSERT INTO category (name) VALUES (?)", rows, false);
+        }
+        flushIfFull(jdbc, "INSERT INTO category (name) VALUES (?)", rows, true);
+        long[] categoryIds = ids(jdbc, "SELECT id FROM category ORDER BY id");
+
+        rows = new ArrayList<>(CHUNK);
+        for (int i = 0; i < productCount; i++) {
+            rows.add(new Object[]{productName(i), categoryIds[i / PRODUCTS_PER_CATEGORY % categoryIds.length]});
+            rows = flushIfFull(jdbc, "INSERT INTO product (name, category_id) VALUES (?, ?)", rows, false);
+        }
+        flushIfFull(jdbc, "INSERT INTO product (name, category_id) VALUES (?, ?)", rows, true);
+        long[] productIds = ids(jdbc, "SELECT id FROM product ORDER BY id");
+
+        // Ids come from the same pooled sequence Hibernate uses, so later inserts never collide
+        String skuInsert = "INSERT INTO sku (id, code, quantity, price, product_id, version) VALUES (NEXT VALUE FOR sku_seq, ?, ?, ?, ?, 0)";
+        rows = new ArrayList<>(CHUNK);
+        for (int i = 0; i < skuCount; i++) {
+            rows.add(new Object[]{skuCode(i), i % 500, 1.0 + (i % 10_000) / 100.0, productIds[i / SKUS_PER_PRODUCT % productIds.length]});
+            rows = flushIfFull(jdbc, skuInsert, rows, false);
+        }
+        flushIfFull(jdbc, skuInsert, rows, true);
+        long[] skuIds = ids(jdbc, "SELECT id FROM sku ORDER BY id");
+
+        return new Catalog(categoryIds, productIds, skuIds);
+    }
+
+    private static List<Object[]> flushIfFull(JdbcTemplate jdbc, String sql, List<Object[]> rows, boolean force) {
+        if (rows.size() >= CHUNK || (force && !rows.isEmpty())) {
+            jdbc.batchUpdate(sql, rows);
+            return new ArrayList<>(CHUNK);
+        }
+        return rows;
+    }
+
+    private static long[] ids(JdbcTemplate jdbc, String sql) {
+        return jdbc.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.inventory.jmh;
+
+import com.example.inventory.InventoryManagementApplication;
+import com.example.inventory.search.ProductSearchIndexLoader;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.SkuService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the JPA layer (no web server) against a fresh in-memory H2 and seeds a catalog of
+ * {@code skuCount} SKUs once per trial.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+    @Param({"1000"})
+    public int skuCount;
+
+    public ConfigurableApplicationContext context;
+    public CategoryService categoryService;
+    public ProductService productService;
+    public SkuService skuService;
+    public CatalogSeeder.Catalog catalog;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(InventoryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                // Command-line arguments, unlike builder default properties, take precedence over application.yml
+                .run("--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:jmh-" + skuCount + ";DB_CLOSE_DELAY=-1");
+        categoryService = context.getBean(CategoryService.class);
+        productService = context.getBean(ProductService.class);
+        skuService = context.getBean(SkuService.class);
+        catalog = CatalogSeeder.seed(context.getBean(JdbcTemplate.class), skuCount);
+        // Seeding bypasses the services, so rebuild the search index the same way startup does
+        context.getBean(ProductSearchIndexLoader.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public long nextUnique() {
+        return sequence.incrementAndGet();
+    }
+
+    public Long randomCategoryId() {
+        return catalog.categoryIds[ThreadLocalRandom.current().nextInt(catalog.categoryIds.length)];
+    }
+
+    public Long randomProductId() {
+        return catalog.productIds[ThreadLocalRandom.current().nextInt(catalog.productIds.length)];
+    }
+
+    public int randomSkuIndex() {
+        return ThreadLocalRandom.current().nextInt(catalog.skuIds.length);
+    }
+
+    public String randomWord() {
+        return CatalogSeeder.WORDS[ThreadLocalRandom.current().nextInt(CatalogSeeder.WORDS.length)];
+    }
+}
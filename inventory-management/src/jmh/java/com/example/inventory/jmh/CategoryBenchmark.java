@@ -0,0 +1,39 @@
+package com.example.inventory.jmh;
+
+import com.example.inventory.dto.CategoryDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CategoryBenchmark {
+
+    @Benchmark
+    public CategoryDto createCategory(CatalogState state) {
+        CategoryDto dto = new CategoryDto();
+        dto.setName("Benchmark Category " + state.nextUnique());
+        return state.categoryService.createCategory(dto);
+    }
+
+    @Benchmark
+    public CategoryDto getCategoryById(CatalogState state) {
+        return state.categoryService.getCategoryById(state.randomCategoryId());
+    }
+
+    @Benchmark
+    public CategoryDto updateCategory(CatalogState state) {
+        CategoryDto dto = new CategoryDto();
+        dto.setName("Renamed Category " + state.nextUnique());
+        return state.categoryService.updateCategory(state.randomCategoryId(), dto);
+    }
+
+    @Benchmark
+    public List<CategoryDto> listCategories(CatalogState state) {
+        return state.categoryService.getAllCategories();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.inventory.jmh;
+
+import com.example.inventory.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProductBenchmark {
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Benchmark
+    public ProductDto createProduct(CatalogState state) {
+        ProductDto dto = new ProductDto();
+        dto.setName("Benchmark Product " + state.nextUnique());
+        dto.setCategoryId(state.randomCategoryId());
+        return state.productService.createProduct(dto);
+    }
+
+    @Benchmark
+    public ProductDto getProductById(CatalogState state) {
+        return state.productService.getProductById(state.randomProductId());
+    }
+
+    @Benchmark
+    public ProductDto updateProduct(CatalogState state) {
+        ProductDto dto = new ProductDto();
+        dto.setName("Renamed Product " + state.nextUnique());
+        return state.productService.updateProduct(state.randomProductId(), dto);
+    }
+
+    @Benchmark
+    public Page<ProductDto> searchByName(CatalogState state) {
+        return state.productService.searchProducts(state.randomWord(), null, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<ProductDto> searchByNameAndCategory(CatalogState state) {
+        return state.productService.searchProducts(state.randomWord(), state.randomCategoryId(), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<ProductDto> listProducts(CatalogState state) {
+        return state.productService.searchProducts(null, null, FIRST_PAGE);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.inventory.jmh;
+
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.SkuQuantityDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SkuBenchmark {
+
+    @Benchmark
+    public SkuDto addSku(CatalogState state) {
+        SkuDto dto = new SkuDto();
+        dto.setCode("BENCH-" + state.nextUnique());
+        dto.setQuantity(10);
+        dto.setPrice(9.99);
+        return state.skuService.addSkuToProduct(state.randomProductId(), dto);
+    }
+
+    @Benchmark
+    public SkuDto updateSku(CatalogState state) {
+        int index = state.randomSkuIndex();
+        Long productId = state.catalog.productIds[index / CatalogSeeder.SKUS_PER_PRODUCT % state.catalog.productIds.length];
+        SkuDto dto = new SkuDto();
+        dto.setCode(CatalogSeeder.skuCode(index));
+        dto.setQuantity(index % 500);
+        dto.setPrice(19.99);
+        return state.skuService.updateSku(productId, state.catalog.skuIds[index], dto);
+    }
+
+    @Benchmark
+    public SkuQuantityDto adjustQuantity(CatalogState state) {
+        int index = state.randomSkuIndex();
+        Long productId = state.catalog.productIds[index / CatalogSeeder.SKUS_PER_PRODUCT % state.catalog.productIds.length];
+        return state.skuService.adjustQuantity(productId, state.catalog.skuIds[index], 1, null);
+    }
+
+    @Benchmark
+    public List<SkuDto> getSkusByProduct(CatalogState state) {
+        return state.skuService.getSkusByProduct(state.randomProductId());
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.inventory.cache;
+
+import com.example.inventory.jdbc.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters behind the strong ETags on the catalog read endpoints. Each product, category and
+ * product SKU list hashes to a slot in a fixed array; a mutation stamps the slot with the next value
+ * of one global counter, so a tag can be built and compared without touching the database. Ids that
+ * share a slot only cost each other an extra full response, never a wrong 304. Tags carry the start
+ * time and a generation that {@link #invalidateAll()} bumps, so tags from before a restart or a bulk
+ * load never match. Changes made inside a transaction are stamped after it commits, so a tag read
+ * before the commit is always the older one.
+ */
+@Component
+public class ResourceVersions {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int mask;
+    private final AtomicLongArray products;
+    private final AtomicLongArray categories;
+    private final AtomicLongArray productSkus;
+    private final AtomicLong categoryList = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResourceVersions(@Value("${inventory.etag.slots:65536}") int slots) {
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.mask = size - 1;
+        this.products = new AtomicLongArray(size);
+        this.categories = new AtomicLongArray(size);
+        this.productSkus = new AtomicLongArray(size);
+    }
+
+    /** Tag for {@code GET /api/products/{id}} without expand. */
+    public String productTag(long id) {
+        return tag("p" + products.get(slot(id)));
+    }
+
+    /** Tag for {@code GET /api/products/{id}?expand=skus}. */
+    public String productWithSkusTag(long id) {
+        return tag("p" + products.get(slot(id)) + "s" + productSkus.get(slot(id)));
+    }
+
+    /** Tag for {@code GET /api/categories/{id}} without expand. */
+    public String categoryTag(long id) {
+        return tag("c" + categories.get(slot(id)));
+    }
+
+    /** Tag for {@code GET /api/categories} without expand. */
+    public String categoryListTag() {
+        return tag("l" + categoryList.get());
+    }
+
+    /** Tag for {@code GET /api/products/{productId}/skus}. */
+    public String productSkusTag(long productId) {
+        return tag("s" + productSkus.get(slot(productId)));
+    }
+
+    public void productChanged(long id) {
+        AfterCommit.run(() -> products.set(slot(id), clock.incrementAndGet()));
+    }
+
+    /** A created, updated or deleted category; also changes the category list. */
+    public void categoryChanged(long id) {
+        AfterCommit.run(() -> {
+            categories.set(slot(id), clock.incrementAndGet());
+            categoryList.set(clock.incrementAndGet());
+        });
+    }
+
+    public void skusChanged(long productId) {
+        AfterCommit.run(() -> productSkus.set(slot(productId), clock.incrementAndGet()));
+    }
+
+    /** Retires every tag handed out so far, for writes that bypass the service layer. */
+    public void invalidateAll() {
+        AfterCommit.run(generation::incrementAndGet);
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private String tag(String version) {
+        return "\"" + epoch + "." + generation.get() + "." + version + "\"";
+    }
+}
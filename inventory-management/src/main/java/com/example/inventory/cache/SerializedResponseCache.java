@@ -0,0 +1,223 @@
+package com.example.inventory.cache;
+
+import com.example.inventory.jdbc.AfterCommit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded near cache of fully serialized JSON responses keyed by entity id. A hit returns the stored
+ * bytes as-is, skipping the database, the DTO mapper and Jackson. Entries are evicted least recently
+ * used first once the region exceeds its byte budget; the map is split into independently locked
+ * segments so concurrent readers of different ids do not contend. An eviction made inside a
+ * transaction happens once it commits: evicting earlier would let a read of the row that is about to
+ * change put the old bytes straight back.
+ */
+public class SerializedResponseCache {
+    private static final int SEGMENTS = 16;
+    // Rough per-entry cost of the map node, key and array header on top of the payload itself
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final String name;
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SerializedResponseCache(String name, ObjectMapper objectMapper, long maxBytes) {
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxBytes / SEGMENTS);
+        }
+    }
+
+    public byte[] get(Long id, Supplier<?> loader) {
+        Segment segment = segmentFor(id);
+        byte[] cached = segment.get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long stamp = segment.invalidations();
+        byte[] body = serialize(loader.get());
+        segment.putIfNotInvalidated(id, body, stamp);
+        return body;
+    }
+
+    public void evict(Long id) {
+        AfterCommit.run(() -> segmentFor(id).remove(id));
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.bytes();
+        }
+        return bytes;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment segmentFor(Long id) {
+        int h = id.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private final class Segment {
+        // Not a monitor: a virtual thread that finds the segment locked parks instead of pinning its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long maxBytes;
+        private final LinkedHashMap<Long, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+        // Bumped on every eviction from this segment; a load that raced with one is not stored, so
+        // stale bytes never land, while loads of ids in other segments are unaffected
+        private long invalidations;
+
+        private Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        byte[] get(Long id) {
+            lock.lock();
+            try {
+                return entries.get(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long invalidations() {
+            lock.lock();
+            try {
+                return invalidations;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void putIfNotInvalidated(Long id, byte[] body, long stamp) {
+            lock.lock();
+            try {
+                if (invalidations != stamp) {
+                    return;
+                }
+                long cost = cost(body);
+                if (cost > maxBytes) {
+                    return;
+                }
+                byte[] previous = entries.put(id, body);
+                if (previous != null) {
+                    bytes -= cost(previous);
+                }
+                bytes += cost;
+                Iterator<Map.Entry<Long, byte[]>> eldest = entries.entrySet().iterator();
+                while (bytes > maxBytes && eldest.hasNext()) {
+                    bytes -= cost(eldest.next().getValue());
+                    eldest.remove();
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.lock();
+            try {
+                invalidations++;
+                byte[] previous = entries.remove(id);
+                if (previous != null) {
+                    bytes -= cost(previous);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                invalidations++;
+                entries.clear();
+                bytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long bytes() {
+            lock.lock();
+            try {
+                return bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long cost(byte[] body) {
+            return body.length + ENTRY_OVERHEAD_BYTES;
+        }
+    }
+}
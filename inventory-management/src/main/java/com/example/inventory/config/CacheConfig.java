@@ -0,0 +1,22 @@
+package com.example.inventory.config;
+
+import com.example.inventory.cache.SerializedResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+    @Bean
+    public SerializedResponseCache productResponseCache(ObjectMapper objectMapper,
+                                                        @Value("${inventory.cache.product.max-bytes:33554432}") long maxBytes) {
+        return new SerializedResponseCache("product", objectMapper, maxBytes);
+    }
+
+    @Bean
+    public SerializedResponseCache categoryResponseCache(ObjectMapper objectMapper,
+                                                         @Value("${inventory.cache.category.max-bytes:8388608}") long maxBytes) {
+        return new SerializedResponseCache("category", objectMapper, maxBytes);
+    }
+}
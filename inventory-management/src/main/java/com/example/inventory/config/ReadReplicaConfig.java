@@ -0,0 +1,61 @@
+package com.example.inventory.config;
+
+import com.example.inventory.jdbc.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@code inventory.datasource.replica.enabled} splits the connection pool in two: read-only
+ * transactions ({@code @Transactional(readOnly = true)} service methods and Spring Data's finders)
+ * take connections from a replica pool, everything else from the primary pool behind
+ * {@code spring.datasource}. Without a replica URL the second pool opens the primary's database,
+ * which still keeps search traffic off the connections that stock writes wait for.
+ */
+@Configuration
+public class ReadReplicaConfig {
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaConfig.class);
+    private static final String PREFIX = "inventory.datasource.replica.";
+
+    // Static so it is registered before the DataSource exists; ordered so it still sees the bare pool,
+    // with statement timing and the virtual-thread limiter applied on top of both targets
+    @Bean
+    public static BeanPostProcessor readReplicaPostProcessor(Environment environment) {
+        return new OrderedPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource) || !environment.getProperty(PREFIX + "enabled", Boolean.class, true)) {
+                    return bean;
+                }
+                HikariDataSource primary = (HikariDataSource) bean;
+                HikariDataSource replica = new HikariDataSource();
+                replica.setPoolName("replica");
+                replica.setJdbcUrl(property(environment, "url", primary.getJdbcUrl()));
+                replica.setUsername(property(environment, "username", primary.getUsername()));
+                replica.setPassword(property(environment, "password", primary.getPassword()));
+                replica.setMaximumPoolSize(environment.getProperty(PREFIX + "pool-size", Integer.class, 10));
+                log.info("Routing read-only transactions to {}", replica.getJdbcUrl());
+                return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+            }
+        };
+    }
+
+    private static String property(Environment environment, String name, String primaryValue) {
+        String value = environment.getProperty(PREFIX + name);
+        return StringUtils.hasText(value) ? value : primaryValue;
+    }
+
+    private interface OrderedPostProcessor extends BeanPostProcessor, Ordered {
+        @Override
+        default int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
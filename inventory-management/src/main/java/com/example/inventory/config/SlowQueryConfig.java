@@ -0,0 +1,27 @@
+package com.example.inventory.config;
+
+import com.example.inventory.jdbc.SlowQueryDataSource;
+import com.example.inventory.jdbc.SlowQueryLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SlowQueryConfig {
+    // Static so the post-processor is registered before the DataSource is created; the log is looked up lazily
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource((DataSource) bean, slowQueryLog);
+                }
+                return bean;
+            }
+        };
+    }
+}
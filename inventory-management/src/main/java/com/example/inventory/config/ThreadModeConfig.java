@@ -0,0 +1,96 @@
+package com.example.inventory.config;
+
+import com.example.inventory.jdbc.ConcurrencyLimitingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@code inventory.threads.mode=virtual} runs each servlet request, and therefore its service and
+ * repository calls, on its own virtual thread instead of Tomcat's fixed worker pool, and puts a
+ * {@link ConcurrencyLimitingDataSource} in front of the connection pool.
+ */
+@Configuration
+public class ThreadModeConfig implements WebMvcConfigurer {
+    public static final String PLATFORM = "platform";
+    public static final String VIRTUAL = "virtual";
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadModeConfig.class);
+
+    private final ExecutorService virtualExecutor;
+
+    public ThreadModeConfig(@Value("${inventory.threads.mode:platform}") String mode) {
+        this.virtualExecutor = isVirtual(mode) ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        if (virtualExecutor != null) {
+            log.info("Serving requests on virtual threads");
+        }
+    }
+
+    // Tomcat has stopped by the time beans are destroyed, so no request is still being handed over
+    @PreDestroy
+    public void shutdown() {
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
+    }
+
+    static boolean isVirtual(String mode) {
+        if (VIRTUAL.equalsIgnoreCase(mode)) {
+            return true;
+        }
+        if (PLATFORM.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        throw new IllegalStateException("inventory.threads.mode must be '" + PLATFORM + "' or '" + VIRTUAL + "', got '" + mode + "'");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (virtualExecutor != null) {
+                protocolHandler.setExecutor(virtualExecutor);
+            }
+        };
+    }
+
+    // StreamingResponseBody and other async MVC work (export, import) follow the same mode
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (virtualExecutor != null) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(virtualExecutor));
+        }
+    }
+
+    // Static so it is registered before the DataSource exists
+    @Bean
+    public static BeanPostProcessor dbConcurrencyLimitPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ConcurrencyLimitingDataSource
+                        || !isVirtual(environment.getProperty("inventory.threads.mode", PLATFORM))) {
+                    return bean;
+                }
+                int maxConcurrency = environment.getProperty("inventory.threads.db-max-concurrency", Integer.class, 10);
+                if (maxConcurrency <= 0) {
+                    return bean;
+                }
+                long timeout = environment.getProperty("inventory.threads.db-acquire-timeout-ms", Long.class, 30000L);
+                return new ConcurrencyLimitingDataSource((DataSource) bean, maxConcurrency, timeout);
+            }
+        };
+    }
+}
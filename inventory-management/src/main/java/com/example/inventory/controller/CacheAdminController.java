@@ -0,0 +1,56 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.dto.CacheStatsDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+public class CacheAdminController {
+    @Autowired
+    private List<SerializedResponseCache> caches;
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Operation(summary = "Response cache statistics", responses = {
+        @ApiResponse(responseCode = "200", description = "Hit, miss and eviction counters per cache region", content = @Content(schema = @Schema(implementation = CacheStatsDto.class)))
+    })
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        return ResponseEntity.ok(caches.stream().map(this::toDto).collect(Collectors.toList()));
+    }
+
+    @Operation(summary = "Clear all response caches", description = "Also retires every ETag handed out so far.", responses = {
+        @ApiResponse(responseCode = "204", description = "Caches cleared")
+    })
+    @DeleteMapping
+    public ResponseEntity<Void> clearCaches() {
+        caches.forEach(SerializedResponseCache::clear);
+        resourceVersions.invalidateAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    private CacheStatsDto toDto(SerializedResponseCache cache) {
+        CacheStatsDto dto = new CacheStatsDto();
+        dto.setName(cache.getName());
+        dto.setEntries(cache.getSize());
+        dto.setBytes(cache.getBytes());
+        dto.setMaxBytes(cache.getMaxBytes());
+        dto.setHits(cache.getHits());
+        dto.setMisses(cache.getMisses());
+        dto.setEvictions(cache.getEvictions());
+        long lookups = cache.getHits() + cache.getMisses();
+        dto.setHitRatio(lookups == 0 ? 0.0 : (double) cache.getHits() / lookups);
+        return dto;
+    }
+}
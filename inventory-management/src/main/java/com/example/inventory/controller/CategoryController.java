@@ -1,16 +1,23 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.dto.CategoryDeleteJobDto;
 import com.example.inventory.dto.CategoryDto;
 import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ExpandOptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.net.URI;
 import java.util.List;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -24,6 +31,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 public class CategoryController {
     @Autowired
     private CategoryService categoryService;
+    @Autowired
+    private SerializedResponseCache categoryResponseCache;
+    @Autowired
+    private ResourceVersions resourceVersions;
 
     @Operation(summary = "Create a new category", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = CategoryRequest.class))), responses = {
         @ApiResponse(responseCode = "201", description = "Category created", content = @Content(schema = @Schema(implementation = CategoryDto.class)))
@@ -36,13 +47,23 @@ public class CategoryController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Get category by ID", responses = {
+    @Operation(summary = "Get category by ID", description = "expand=products includes the category's products; expand=products,skus (or skus) also includes each product's SKUs. Without expand the response carries a strong ETag.", responses = {
         @ApiResponse(responseCode = "200", description = "Category found", content = @Content(schema = @Schema(implementation = CategoryDto.class))),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Unsupported expand value"),
         @ApiResponse(responseCode = "404", description = "Category not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+    public ResponseEntity<?> getCategoryById(@PathVariable Long id, @RequestParam(required = false) String expand, WebRequest request) {
+        ExpandOptions options = ExpandOptions.parse(expand, ExpandOptions.PRODUCTS, ExpandOptions.SKUS);
+        if (!options.isNone()) {
+            return ResponseEntity.ok(categoryService.getCategoryById(id, options));
+        }
+        if (request.checkNotModified(resourceVersions.categoryTag(id))) {
+            return null;
+        }
+        byte[] body = categoryResponseCache.get(id, () -> categoryService.getCategoryById(id));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @Operation(summary = "Update category", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = CategoryRequest.class))), responses = {
@@ -56,22 +77,44 @@ public class CategoryController {
         return ResponseEntity.ok(updated);
     }
 
-    @Operation(summary = "Delete category", responses = {
+    @Operation(summary = "Delete category", description = "async=true deletes the category's products and SKUs in the background, in set-based chunks, "
+            + "and returns a job whose progress is at the Location URL.", responses = {
         @ApiResponse(responseCode = "204", description = "Category deleted"),
+        @ApiResponse(responseCode = "202", description = "Delete job queued", content = @Content(schema = @Schema(implementation = CategoryDeleteJobDto.class))),
         @ApiResponse(responseCode = "404", description = "Category not found")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
+    public ResponseEntity<?> deleteCategory(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            CategoryDeleteJobDto job = categoryService.deleteCategoryAsync(id);
+            return ResponseEntity.accepted().location(URI.create("/api/categories/deletions/" + job.getId())).body(job);
+        }
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "List all categories", responses = {
-        @ApiResponse(responseCode = "200", description = "List of categories", content = @Content(schema = @Schema(implementation = CategoryDto.class)))
+    @Operation(summary = "Get category delete job", responses = {
+        @ApiResponse(responseCode = "200", description = "Job status and rows deleted so far", content = @Content(schema = @Schema(implementation = CategoryDeleteJobDto.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown job, or finished long enough ago to be dropped")
+    })
+    @GetMapping("/deletions/{jobId}")
+    public ResponseEntity<CategoryDeleteJobDto> getDeleteJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(categoryService.getDeleteJob(jobId));
+    }
+
+    @Operation(summary = "List all categories", description = "Supports the same expand values as the single-category read. Without expand the response carries a strong ETag.", responses = {
+        @ApiResponse(responseCode = "200", description = "List of categories", content = @Content(schema = @Schema(implementation = CategoryDto.class))),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Unsupported expand value")
     })
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<List<CategoryDto>> getAllCategories(@RequestParam(required = false) String expand, WebRequest request) {
+        ExpandOptions options = ExpandOptions.parse(expand, ExpandOptions.PRODUCTS, ExpandOptions.SKUS);
+        // Expanded lists change with every product and SKU underneath, so only the plain list is tagged
+        if (options.isNone() && request.checkNotModified(resourceVersions.categoryListTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(categoryService.getAllCategories(options));
     }
 
     // Request DTO for validation
@@ -0,0 +1,30 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.feed.ChangeFeedStreams;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeFeedController {
+    @Autowired
+    private ChangeFeedStreams changeFeedStreams;
+
+    @Operation(summary = "Stream catalog changes as server-sent events", description = "Each committed category, product or SKU create/update/delete arrives as a 'change' event "
+            + "whose id is '<stream>:<sequence>'. Reconnect with the Last-Event-ID header (or lastEventId) to resume without gaps. A 'resync' event means events were dropped "
+            + "(the client fell too far behind, or its position is no longer retained): reconnect from the id it carries, then reload the catalog.", responses = {
+        @ApiResponse(responseCode = "200", description = "text/event-stream of change events", content = @Content(schema = @Schema(implementation = ChangeEventDto.class))),
+        @ApiResponse(responseCode = "503", description = "Too many open change streams")
+    })
+    @GetMapping
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                    @RequestParam(required = false) String lastEventId) {
+        return changeFeedStreams.open(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    @Autowired
+    private ExportService exportService;
+
+    @Operation(summary = "Stream the full catalog as NDJSON", description = "One JSON object per line: each category is followed by its products and each product by its SKUs. "
+            + "Sent gzip-encoded when the client sends Accept-Encoding: gzip.", responses = {
+        @ApiResponse(responseCode = "200", description = "NDJSON stream of category, product and sku records")
+    })
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                exportService.exportCatalog(compressed);
+                compressed.finish();
+            } else {
+                exportService.exportCatalog(out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(APPLICATION_NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).body(body);
+    }
+}
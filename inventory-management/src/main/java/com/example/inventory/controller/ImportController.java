@@ -0,0 +1,41 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.ImportResultDto;
+import com.example.inventory.service.ImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    @Autowired
+    private ImportService importService;
+
+    @Operation(summary = "Bulk import a catalog file", description = "Accepts the NDJSON written by GET /api/export, or CSV with a header row naming the columns "
+            + "(type,id,categoryId,productId,name,code,quantity,price). id, categoryId and productId are references within the file. "
+            + "The body is read as a stream and committed in chunks; invalid rows are skipped and reported. Send Content-Encoding: gzip for a compressed body.", responses = {
+        @ApiResponse(responseCode = "200", description = "Import report", content = @Content(schema = @Schema(implementation = ImportResultDto.class)))
+    })
+    @PostMapping(consumes = {ExportController.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<ImportResultDto> importCatalog(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                         @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                         InputStream body) throws IOException {
+        ImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                ? ImportService.Format.CSV : ImportService.Format.NDJSON;
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+        return ResponseEntity.ok(importService.importCatalog(in, format));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.LowStockCountDto;
+import com.example.inventory.dto.LowStockPageDto;
+import com.example.inventory.service.SkuService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/skus/low-stock")
+public class LowStockController {
+    @Autowired
+    private SkuService skuService;
+
+    @Operation(summary = "Page through low-stock SKUs", description = "With below, SKUs whose quantity is under it, lowest quantity first; without it, SKUs under their own "
+            + "reorder threshold, furthest under first. Keyset paged over an index: pass the returned nextCursor to continue. Optionally limited to one category.", responses = {
+        @ApiResponse(responseCode = "200", description = "One page of low-stock SKUs", content = @Content(schema = @Schema(implementation = LowStockPageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or below value")
+    })
+    @GetMapping
+    public ResponseEntity<LowStockPageDto> getLowStock(
+            @RequestParam(required = false) Integer below,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int pageSize) {
+        return ResponseEntity.ok(skuService.getLowStock(below, categoryId, cursor, pageSize));
+    }
+
+    @Operation(summary = "Count low-stock SKUs", description = "Same filters as the paged query, counted over the same index range.", responses = {
+        @ApiResponse(responseCode = "200", description = "Number of low-stock SKUs", content = @Content(schema = @Schema(implementation = LowStockCountDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid below value")
+    })
+    @GetMapping("/count")
+    public ResponseEntity<LowStockCountDto> countLowStock(
+            @RequestParam(required = false) Integer below,
+            @RequestParam(required = false) Long categoryId) {
+        return ResponseEntity.ok(skuService.countLowStock(below, categoryId));
+    }
+}
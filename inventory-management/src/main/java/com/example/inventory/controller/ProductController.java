@@ -1,6 +1,9 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
 import com.example.inventory.dto.ProductDto;
+import com.example.inventory.service.ExpandOptions;
 import com.example.inventory.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,9 +15,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -27,6 +32,10 @@ import java.util.List;
 public class ProductController {
     @Autowired
     private ProductService productService;
+    @Autowired
+    private SerializedResponseCache productResponseCache;
+    @Autowired
+    private ResourceVersions resourceVersions;
 
     @Operation(summary = "Create a new product", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = ProductRequest.class))), responses = {
         @ApiResponse(responseCode = "201", description = "Product created", content = @Content(schema = @Schema(implementation = ProductDto.class)))
@@ -40,13 +49,24 @@ public class ProductController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Get product by ID", responses = {
+    @Operation(summary = "Get product by ID", description = "expand=skus includes the product's SKUs. Responses carry a strong ETag.", responses = {
         @ApiResponse(responseCode = "200", description = "Product found", content = @Content(schema = @Schema(implementation = ProductDto.class))),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Unsupported expand value"),
         @ApiResponse(responseCode = "404", description = "Product not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<?> getProductById(@PathVariable Long id, @RequestParam(required = false) String expand, WebRequest request) {
+        ExpandOptions options = ExpandOptions.parse(expand, ExpandOptions.SKUS);
+        // Checked before the lookup, so a matching If-None-Match costs no query and no serialization
+        if (request.checkNotModified(options.isNone() ? resourceVersions.productTag(id) : resourceVersions.productWithSkusTag(id))) {
+            return null;
+        }
+        if (!options.isNone()) {
+            return ResponseEntity.ok(productService.getProductById(id, options));
+        }
+        byte[] body = productResponseCache.get(id, () -> productService.getProductById(id));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @Operation(summary = "Update product", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = ProductRequest.class))), responses = {
@@ -71,17 +91,26 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Search and filter products", responses = {
-        @ApiResponse(responseCode = "200", description = "List of products", content = @Content(schema = @Schema(implementation = ProductDto.class)))
+    @Operation(summary = "Search and filter products", description = "Offset paging (page/pageSize) by default. Pass cursor (empty for the first page) to switch to keyset paging: "
+            + "the response carries an opaque nextCursor, sorts by id or name (sort), and skips the total count query. expand=skus includes each product's SKUs.", responses = {
+        @ApiResponse(responseCode = "200", description = "List of products", content = @Content(schema = @Schema(implementation = ProductDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or expand value")
     })
     @GetMapping
-    public ResponseEntity<Page<ProductDto>> searchProducts(
+    public ResponseEntity<?> searchProducts(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int pageSize) {
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String expand) {
+        ExpandOptions options = ExpandOptions.parse(expand, ExpandOptions.SKUS);
+        if (cursor != null) {
+            return ResponseEntity.ok(productService.searchProductsByCursor(name, categoryId, cursor, pageSize, sort, options));
+        }
         Pageable pageable = PageRequest.of(page, pageSize);
-        Page<ProductDto> result = productService.searchProducts(name, categoryId, pageable);
+        Page<ProductDto> result = productService.searchProducts(name, categoryId, pageable, options);
         return ResponseEntity.ok(result);
     }
 
@@ -0,0 +1,67 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.ReservationDto;
+import com.example.inventory.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+
+@RestController
+@RequestMapping("/api/products/{productId}/skus/{skuId}/reservations")
+@Validated
+public class ReservationController {
+    @Autowired
+    private ReservationService reservationService;
+
+    @Operation(summary = "Reserve stock on a SKU", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = ReservationRequest.class))), responses = {
+        @ApiResponse(responseCode = "201", description = "Stock reserved", content = @Content(schema = @Schema(implementation = ReservationDto.class))),
+        @ApiResponse(responseCode = "400", description = "Insufficient stock"),
+        @ApiResponse(responseCode = "404", description = "SKU not found")
+    })
+    @PostMapping
+    public ResponseEntity<ReservationDto> reserve(@PathVariable Long productId, @PathVariable Long skuId, @org.springframework.web.bind.annotation.RequestBody @Valid ReservationRequest request) {
+        ReservationDto created = reservationService.reserve(productId, skuId, request.getQuantity(), request.getTtlSeconds());
+        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Commit a reservation, decrementing on-hand stock", responses = {
+        @ApiResponse(responseCode = "200", description = "Reservation committed", content = @Content(schema = @Schema(implementation = ReservationDto.class))),
+        @ApiResponse(responseCode = "404", description = "Reservation not found or expired")
+    })
+    @PostMapping("/{reservationId}/commit")
+    public ResponseEntity<ReservationDto> commit(@PathVariable Long productId, @PathVariable Long skuId, @PathVariable String reservationId) {
+        return ResponseEntity.ok(reservationService.commit(productId, skuId, reservationId));
+    }
+
+    @Operation(summary = "Release a reservation", responses = {
+        @ApiResponse(responseCode = "204", description = "Reservation released"),
+        @ApiResponse(responseCode = "404", description = "Reservation not found or expired")
+    })
+    @DeleteMapping("/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable Long productId, @PathVariable Long skuId, @PathVariable String reservationId) {
+        reservationService.release(productId, skuId, reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Request DTO for validation
+    public static class ReservationRequest {
+        @Min(value = 1, message = "Quantity must be >= 1")
+        private int quantity;
+        @Min(value = 1, message = "TTL must be >= 1 second")
+        private Integer ttlSeconds;
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+        public Integer getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(Integer ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.SkuBatchResultDto;
 import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.SkuQuantityDto;
 import com.example.inventory.service.SkuService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.stream.Collectors;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -24,6 +30,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 public class SkuController {
     @Autowired
     private SkuService skuService;
+    @Autowired
+    private ResourceVersions resourceVersions;
 
     @Operation(summary = "Add SKU to product", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = SkuRequest.class))), responses = {
         @ApiResponse(responseCode = "201", description = "SKU created", content = @Content(schema = @Schema(implementation = SkuDto.class)))
@@ -34,10 +42,33 @@ public class SkuController {
         dto.setCode(request.getCode());
         dto.setQuantity(request.getQuantity());
         dto.setPrice(request.getPrice());
+        dto.setReorderThreshold(request.getReorderThreshold());
         SkuDto created = skuService.addSkuToProduct(productId, dto);
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Add SKUs to product in bulk", description = "Validates the whole payload, checks duplicate codes in one set-based query and inserts in JDBC batches. Invalid items, including null ones, are reported per index and do not abort the rest of the batch.", responses = {
+        @ApiResponse(responseCode = "200", description = "Per-item ingest results", content = @Content(schema = @Schema(implementation = SkuBatchResultDto.class))),
+        @ApiResponse(responseCode = "400", description = "More items than inventory.sku.max-batch-items"),
+        @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<SkuBatchResultDto> addSkusBatch(@PathVariable Long productId, @org.springframework.web.bind.annotation.RequestBody List<SkuRequest> requests) {
+        // A null item is passed on as null so the service rejects it at its index
+        List<SkuDto> dtos = requests.stream().map(request -> {
+            if (request == null) {
+                return null;
+            }
+            SkuDto dto = new SkuDto();
+            dto.setCode(request.getCode());
+            dto.setQuantity(request.getQuantity());
+            dto.setPrice(request.getPrice());
+            dto.setReorderThreshold(request.getReorderThreshold());
+            return dto;
+        }).collect(Collectors.toList());
+        return ResponseEntity.ok(skuService.addSkusToProduct(productId, dtos));
+    }
+
     @Operation(summary = "Update SKU", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = SkuRequest.class))), responses = {
         @ApiResponse(responseCode = "200", description = "SKU updated", content = @Content(schema = @Schema(implementation = SkuDto.class)))
     })
@@ -47,25 +78,41 @@ public class SkuController {
         dto.setCode(request.getCode());
         dto.setQuantity(request.getQuantity());
         dto.setPrice(request.getPrice());
-        SkuDto updated = skuService.updateSku(skuId, dto);
+        dto.setReorderThreshold(request.getReorderThreshold());
+        SkuDto updated = skuService.updateSku(productId, skuId, dto);
         return ResponseEntity.ok(updated);
     }
 
+    @Operation(summary = "Adjust SKU quantity by a signed delta", description = "Runs as a single conditional UPDATE; quantity never goes below zero. Pass expectedVersion for optimistic concurrency.", requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = QuantityAdjustmentRequest.class))), responses = {
+        @ApiResponse(responseCode = "200", description = "Quantity adjusted", content = @Content(schema = @Schema(implementation = SkuQuantityDto.class))),
+        @ApiResponse(responseCode = "400", description = "Adjustment would make quantity negative"),
+        @ApiResponse(responseCode = "404", description = "SKU not found"),
+        @ApiResponse(responseCode = "409", description = "Expected version does not match")
+    })
+    @PatchMapping("/{skuId}/quantity")
+    public ResponseEntity<SkuQuantityDto> adjustQuantity(@PathVariable Long productId, @PathVariable Long skuId, @org.springframework.web.bind.annotation.RequestBody @Valid QuantityAdjustmentRequest request) {
+        return ResponseEntity.ok(skuService.adjustQuantity(productId, skuId, request.getDelta(), request.getExpectedVersion()));
+    }
+
     @Operation(summary = "Delete SKU", responses = {
         @ApiResponse(responseCode = "204", description = "SKU deleted"),
         @ApiResponse(responseCode = "404", description = "SKU not found")
     })
     @DeleteMapping("/{skuId}")
     public ResponseEntity<Void> deleteSku(@PathVariable Long productId, @PathVariable Long skuId) {
-        skuService.deleteSku(skuId);
+        skuService.deleteSku(productId, skuId);
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Get all SKUs for a product", responses = {
-        @ApiResponse(responseCode = "200", description = "List of SKUs", content = @Content(schema = @Schema(implementation = SkuDto.class)))
+    @Operation(summary = "Get all SKUs for a product", description = "Responses carry a strong ETag.", responses = {
+        @ApiResponse(responseCode = "200", description = "List of SKUs", content = @Content(schema = @Schema(implementation = SkuDto.class))),
+        @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match")
     })
     @GetMapping
-    public ResponseEntity<List<SkuDto>> getSkusByProduct(@PathVariable Long productId) {
+    public ResponseEntity<List<SkuDto>> getSkusByProduct(@PathVariable Long productId, WebRequest request) {
+        if (request.checkNotModified(resourceVersions.productSkusTag(productId))) {
+            return null;
+        }
         return ResponseEntity.ok(skuService.getSkusByProduct(productId));
     }
 
@@ -76,13 +123,27 @@ public class SkuController {
         @Min(value = 0, message = "Quantity must be >= 0")
         private int quantity;
         @NotNull(message = "Price must not be null")
-        @Min(value = 1, message = "Price must be > 0")
+        @DecimalMin(value = "0", inclusive = false, message = "Price must be greater than 0")
         private Double price;
+        @Min(value = 0, message = "Reorder threshold must be >= 0")
+        private Integer reorderThreshold;
         public String getCode() { return code; }
         public void setCode(String code) { this.code = code; }
         public int getQuantity() { return quantity; }
         public void setQuantity(int quantity) { this.quantity = quantity; }
         public Double getPrice() { return price; }
         public void setPrice(Double price) { this.price = price; }
+        public Integer getReorderThreshold() { return reorderThreshold; }
+        public void setReorderThreshold(Integer reorderThreshold) { this.reorderThreshold = reorderThreshold; }
+    }
+
+    public static class QuantityAdjustmentRequest {
+        @NotNull(message = "Delta must not be null")
+        private Integer delta;
+        private Long expectedVersion;
+        public Integer getDelta() { return delta; }
+        public void setDelta(Integer delta) { this.delta = delta; }
+        public Long getExpectedVersion() { return expectedVersion; }
+        public void setExpectedVersion(Long expectedVersion) { this.expectedVersion = expectedVersion; }
     }
-} 
\ No newline at end of file
+}
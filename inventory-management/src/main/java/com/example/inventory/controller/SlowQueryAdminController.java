@@ -0,0 +1,51 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.SlowQueryReportDto;
+import com.example.inventory.dto.SlowQuerySettingsDto;
+import com.example.inventory.jdbc.SlowQueryLog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/slow-queries")
+public class SlowQueryAdminController {
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Operation(summary = "Captured slow statements", responses = {
+        @ApiResponse(responseCode = "200", description = "Current settings and the buffered statements, slowest first", content = @Content(schema = @Schema(implementation = SlowQueryReportDto.class)))
+    })
+    @GetMapping
+    public ResponseEntity<SlowQueryReportDto> getSlowQueries() {
+        SlowQueryReportDto report = new SlowQueryReportDto();
+        report.setSettings(slowQueryLog.getSettings());
+        report.setCaptured(slowQueryLog.getCaptured());
+        report.setEntries(slowQueryLog.snapshot());
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(summary = "Change capture settings", description = "Omitted fields keep their current value. Applies to connections obtained after the change.",
+            requestBody = @RequestBody(content = @Content(schema = @Schema(implementation = SlowQuerySettingsDto.class))), responses = {
+        @ApiResponse(responseCode = "200", description = "Settings applied", content = @Content(schema = @Schema(implementation = SlowQuerySettingsDto.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid settings")
+    })
+    @PutMapping("/settings")
+    public ResponseEntity<SlowQuerySettingsDto> updateSettings(@org.springframework.web.bind.annotation.RequestBody SlowQuerySettingsDto settings) {
+        return ResponseEntity.ok(slowQueryLog.updateSettings(settings));
+    }
+
+    @Operation(summary = "Clear captured statements", responses = {
+        @ApiResponse(responseCode = "204", description = "Buffer cleared")
+    })
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
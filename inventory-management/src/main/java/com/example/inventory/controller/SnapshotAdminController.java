@@ -0,0 +1,36 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.SnapshotInfoDto;
+import com.example.inventory.snapshot.CatalogSnapshotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/snapshot")
+public class SnapshotAdminController {
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Operation(summary = "Last catalog snapshot written by this instance", responses = {
+        @ApiResponse(responseCode = "200", description = "Snapshot file, size, row counts and checksum", content = @Content(schema = @Schema(implementation = SnapshotInfoDto.class))),
+        @ApiResponse(responseCode = "204", description = "No snapshot written yet")
+    })
+    @GetMapping
+    public ResponseEntity<SnapshotInfoDto> getLastSnapshot() {
+        SnapshotInfoDto last = catalogSnapshotService.getLastSnapshot();
+        return last != null ? ResponseEntity.ok(last) : ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Write a catalog snapshot now", description = "Replaces the file at inventory.snapshot.path once the new snapshot is complete.", responses = {
+        @ApiResponse(responseCode = "200", description = "Snapshot written", content = @Content(schema = @Schema(implementation = SnapshotInfoDto.class)))
+    })
+    @PostMapping
+    public ResponseEntity<SnapshotInfoDto> writeSnapshot() {
+        return ResponseEntity.ok(catalogSnapshotService.writeSnapshot());
+    }
+}
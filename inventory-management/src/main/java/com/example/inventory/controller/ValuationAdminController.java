@@ -0,0 +1,36 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.ValuationReconciliationDto;
+import com.example.inventory.service.ValuationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/valuation/reconciliation")
+public class ValuationAdminController {
+    @Autowired
+    private ValuationService valuationService;
+
+    @Operation(summary = "Result of the last valuation reconciliation", responses = {
+        @ApiResponse(responseCode = "200", description = "Products checked, drift found and whether it was repaired", content = @Content(schema = @Schema(implementation = ValuationReconciliationDto.class))),
+        @ApiResponse(responseCode = "204", description = "No reconciliation has run yet")
+    })
+    @GetMapping
+    public ResponseEntity<ValuationReconciliationDto> getLastReconciliation() {
+        ValuationReconciliationDto last = valuationService.getLastReconciliation();
+        return last != null ? ResponseEntity.ok(last) : ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Recompute valuation from the database and compare with the running counters", description = "Drifted products are reset from the database when inventory.valuation.reconcile.repair is true.", responses = {
+        @ApiResponse(responseCode = "200", description = "Reconciliation finished", content = @Content(schema = @Schema(implementation = ValuationReconciliationDto.class)))
+    })
+    @PostMapping
+    public ResponseEntity<ValuationReconciliationDto> reconcile() {
+        return ResponseEntity.ok(valuationService.reconcile());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.StockValuationDto;
+import com.example.inventory.service.ValuationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/valuation")
+public class ValuationController {
+    @Autowired
+    private ValuationService valuationService;
+
+    @Operation(summary = "On-hand units and stock value of every category", description = "Value is the sum of quantity * price, exact to the cent; served from running counters.", responses = {
+        @ApiResponse(responseCode = "200", description = "One entry per category, ordered by id", content = @Content(schema = @Schema(implementation = StockValuationDto.class)))
+    })
+    @GetMapping("/categories")
+    public ResponseEntity<List<StockValuationDto>> getCategoryValuations() {
+        return ResponseEntity.ok(valuationService.getCategoryValuations());
+    }
+
+    @Operation(summary = "On-hand units and stock value of one category", responses = {
+        @ApiResponse(responseCode = "200", description = "Category totals", content = @Content(schema = @Schema(implementation = StockValuationDto.class))),
+        @ApiResponse(responseCode = "404", description = "Category not found")
+    })
+    @GetMapping("/categories/{id}")
+    public ResponseEntity<StockValuationDto> getCategoryValuation(@PathVariable Long id) {
+        return ResponseEntity.ok(valuationService.getCategoryValuation(id));
+    }
+
+    @Operation(summary = "On-hand units and stock value of one product", responses = {
+        @ApiResponse(responseCode = "200", description = "Product totals", content = @Content(schema = @Schema(implementation = StockValuationDto.class))),
+        @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @GetMapping("/products/{id}")
+    public ResponseEntity<StockValuationDto> getProductValuation(@PathVariable Long id) {
+        return ResponseEntity.ok(valuationService.getProductValuation(id));
+    }
+}
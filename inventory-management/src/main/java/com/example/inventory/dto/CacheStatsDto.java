@@ -0,0 +1,15 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDto {
+    private String name;
+    private long entries;
+    private long bytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRatio;
+}
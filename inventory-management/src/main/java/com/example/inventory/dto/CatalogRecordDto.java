@@ -0,0 +1,19 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+/**
+ * One line of the catalog NDJSON/CSV format shared by export and import. {@code id},
+ * {@code categoryId} and {@code productId} are references within the file, not database ids.
+ */
+@Data
+public class CatalogRecordDto {
+    private String type;
+    private String id;
+    private String categoryId;
+    private String productId;
+    private String name;
+    private String code;
+    private Integer quantity;
+    private Double price;
+}
@@ -0,0 +1,21 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class CategoryDeleteJobDto {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private String id;
+    private Long categoryId;
+    private Status status;
+    private long productsDeleted;
+    private long skusDeleted;
+    private int chunksCommitted;
+    private Instant submittedAt;
+    private Instant finishedAt;
+    private long elapsedMillis;
+    private String error;
+}
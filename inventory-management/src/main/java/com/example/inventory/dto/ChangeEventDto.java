@@ -0,0 +1,23 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+/**
+ * One committed catalog mutation. {@code parentId} is the owning category of a product or the owning
+ * product of a SKU; {@code version} is the SKU's row version when the writer knows it. Deleting a
+ * product also deletes its SKUs without separate events for them; deleting a category publishes a
+ * delete for each of its products first.
+ */
+@Data
+public class ChangeEventDto {
+    public enum Entity { CATEGORY, PRODUCT, SKU }
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private long sequence;
+    private Entity entity;
+    private Type type;
+    private Long id;
+    private Long parentId;
+    private Long version;
+}
@@ -0,0 +1,19 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ImportResultDto {
+    private String format;
+    private boolean completed;
+    private long lines;
+    private long categoriesCreated;
+    private long productsCreated;
+    private long skusCreated;
+    private long rejected;
+    private int chunksCommitted;
+    private long elapsedMillis;
+    private List<ImportErrorDto> errors;
+    private boolean errorsTruncated;
+}
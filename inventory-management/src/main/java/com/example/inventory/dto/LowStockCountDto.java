@@ -0,0 +1,11 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class LowStockCountDto {
+    /** The fixed limit counted against, or null when each SKU's own reorder threshold was used. */
+    private Integer below;
+    private Long categoryId;
+    private long count;
+}
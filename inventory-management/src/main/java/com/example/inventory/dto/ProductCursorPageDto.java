@@ -0,0 +1,12 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ProductCursorPageDto {
+    private List<ProductDto> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import java.time.Instant;
+
+@Data
+public class ReservationDto {
+    public enum Status { HELD, COMMITTED }
+
+    private String id;
+    private Long productId;
+    private Long skuId;
+    private int quantity;
+    private Status status;
+    private Instant expiresAt;
+}
@@ -0,0 +1,14 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class SkuBatchItemDto {
+    public enum Status { CREATED, REJECTED }
+
+    private int index;
+    private String code;
+    private Status status;
+    private Long id;
+    private String message;
+}
@@ -0,0 +1,12 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SkuBatchResultDto {
+    private int received;
+    private int created;
+    private int rejected;
+    private List<SkuBatchItemDto> items;
+}
@@ -9,6 +9,8 @@ public class SkuDto {
     private int quantity;
     private Long productId;
     private Double price;
+    private Integer reorderThreshold;
+    private Long version;
 
     public Double getPrice() { return price; }
     public void setPrice(Double price) { this.price = price; }
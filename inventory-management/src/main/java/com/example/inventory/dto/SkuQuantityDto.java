@@ -0,0 +1,10 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class SkuQuantityDto {
+    private Long skuId;
+    private int quantity;
+    private Long version;
+}
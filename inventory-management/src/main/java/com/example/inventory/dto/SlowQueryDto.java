@@ -0,0 +1,16 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import java.time.Instant;
+
+@Data
+public class SlowQueryDto {
+    private String sql;
+    private String parameterShape;
+    private int batchSize;
+    private double durationMillis;
+    private long rows;
+    private String caller;
+    private String thread;
+    private Instant executedAt;
+}
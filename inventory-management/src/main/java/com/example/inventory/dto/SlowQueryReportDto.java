@@ -0,0 +1,11 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SlowQueryReportDto {
+    private SlowQuerySettingsDto settings;
+    private long captured;
+    private List<SlowQueryDto> entries;
+}
@@ -0,0 +1,11 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class SlowQuerySettingsDto {
+    private Boolean enabled;
+    private Double sampleRate;
+    private Long thresholdMillis;
+    private Integer capacity;
+}
@@ -0,0 +1,18 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class SnapshotInfoDto {
+    private String path;
+    private int formatVersion;
+    private Instant createdAt;
+    private long bytes;
+    private long categories;
+    private long products;
+    private long skus;
+    private String checksum;
+    private long durationMillis;
+}
@@ -0,0 +1,15 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class StockValuationDto {
+    private Long id;
+    private long skuCount;
+    private long units;
+    // Sum of quantity * price, exact to the cent
+    private BigDecimal value;
+    private long valueMinorUnits;
+}
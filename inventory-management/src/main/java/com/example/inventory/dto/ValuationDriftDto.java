@@ -0,0 +1,14 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+@Data
+public class ValuationDriftDto {
+    private Long productId;
+    private Long expectedCategoryId;
+    private Long actualCategoryId;
+    // Recomputed from the database
+    private StockValuationDto expected;
+    // Held by the running counters before any repair
+    private StockValuationDto actual;
+}
@@ -0,0 +1,19 @@
+package com.example.inventory.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+public class ValuationReconciliationDto {
+    private Instant startedAt;
+    private long elapsedMillis;
+    private long skusScanned;
+    private long productsChecked;
+    private long productsDrifted;
+    private List<Long> categoriesRepaired;
+    private boolean repaired;
+    private List<ValuationDriftDto> drifts;
+    private boolean driftsTruncated;
+}
@@ -0,0 +1,7 @@
+package com.example.inventory.exception;
+
+public class ChangeFeedUnavailableException extends RuntimeException {
+    public ChangeFeedUnavailableException(String message) {
+        super(message);
+    }
+}
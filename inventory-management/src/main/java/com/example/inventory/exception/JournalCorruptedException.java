@@ -0,0 +1,7 @@
+package com.example.inventory.exception;
+
+public class JournalCorruptedException extends RuntimeException {
+    public JournalCorruptedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.inventory.exception;
+
+public class SnapshotFormatException extends RuntimeException {
+    public SnapshotFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.inventory.feed;
+
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.exception.ChangeFeedUnavailableException;
+import com.example.inventory.jdbc.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sequenced feed of committed catalog mutations. Each event gets the next sequence number and goes
+ * into a ring of the most recent {@code history-size} events, so a client can resume from the last
+ * event it saw, and into every subscriber's bounded queue. Publishing never blocks: a subscriber
+ * whose queue is full is dropped to a resync state (queue cleared, no further events) and must
+ * reload from the REST API. A resume position older than the ring, or from before a restart, gets
+ * the same resync. Event ids are {@code <stream>:<sequence>}, where the stream id changes on every
+ * start, because sequences restart at 1. Changes made inside a transaction are published after it
+ * commits.
+ */
+@Component
+public class ChangeFeed {
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+    private final int bufferSize;
+    private final int maxSubscribers;
+
+    // A ReentrantLock rather than a monitor, so a virtual thread waiting for it releases its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private final ChangeEventDto[] history;
+    private long sequence;
+    private final List<Subscription> subscribers = new ArrayList<>();
+
+    private final AtomicLong resyncs = new AtomicLong();
+
+    public ChangeFeed(@Value("${inventory.feed.history-size:10000}") int historySize,
+                      @Value("${inventory.feed.subscriber-buffer:1000}") int bufferSize,
+                      @Value("${inventory.feed.max-subscribers:100}") int maxSubscribers) {
+        this.history = new ChangeEventDto[historySize];
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /** A subscriber's bounded queue. The listener runs on the publishing thread and must not block. */
+    public static final class Subscription {
+        private final ArrayBlockingQueue<ChangeEventDto> queue;
+        private final Runnable listener;
+        private volatile boolean resyncRequired;
+        private volatile long resyncSequence;
+
+        private Subscription(int capacity, Runnable listener) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.listener = listener;
+        }
+
+        /** The next queued event, or null when there is none. */
+        public ChangeEventDto poll() {
+            return queue.poll();
+        }
+
+        public boolean hasPending() {
+            return resyncRequired || !queue.isEmpty();
+        }
+
+        /** Once set, no further events arrive; the client must reload and resume from {@link #getResyncSequence()}. */
+        public boolean isResyncRequired() {
+            return resyncRequired;
+        }
+
+        public long getResyncSequence() {
+            return resyncSequence;
+        }
+
+        private void offer(ChangeEventDto event) {
+            if (resyncRequired) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                resync(event.getSequence() - 1);
+            }
+            listener.run();
+        }
+
+        private void resync(long sequence) {
+            resyncSequence = sequence;
+            resyncRequired = true;
+            queue.clear();
+        }
+    }
+
+    public String getStreamId() {
+        return streamId;
+    }
+
+    public String eventId(long sequence) {
+        return streamId + ":" + sequence;
+    }
+
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSubscriberCount() {
+        lock.lock();
+        try {
+            return subscribers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getResyncs() {
+        return resyncs.get();
+    }
+
+    public void publish(ChangeEventDto.Entity entity, ChangeEventDto.Type type, long id, Long parentId) {
+        publish(entity, type, id, parentId, null);
+    }
+
+    public void publish(ChangeEventDto.Entity entity, ChangeEventDto.Type type, long id, Long parentId, Long version) {
+        AfterCommit.run(() -> append(entity, type, id, parentId, version));
+    }
+
+    /**
+     * Registers a subscriber positioned after {@code lastEventId} (null or empty for "from now"). Retained
+     * events after that position are queued straight away; if they do not fit, or the position cannot be
+     * resumed, the subscription starts out needing a resync.
+     */
+    public Subscription subscribe(String lastEventId, Runnable listener) {
+        lock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ChangeFeedUnavailableException("Change feed has " + maxSubscribers + " subscribers already");
+            }
+            Subscription subscription = new Subscription(bufferSize, listener);
+            subscribers.add(subscription);
+            if (lastEventId == null || lastEventId.isEmpty()) {
+                return subscription;
+            }
+            long after = resumePosition(lastEventId);
+            long oldest = Math.max(1, sequence - history.length + 1);
+            if (after < 0 || after > sequence || after + 1 < oldest || sequence - after > bufferSize) {
+                resync(subscription);
+                return subscription;
+            }
+            for (long s = after + 1; s <= sequence; s++) {
+                subscription.queue.add(history[(int) ((s - 1) % history.length)]);
+            }
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        lock.lock();
+        try {
+            subscribers.remove(subscription);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(ChangeEventDto.Entity entity, ChangeEventDto.Type type, long id, Long parentId, Long version) {
+        lock.lock();
+        try {
+            ChangeEventDto event = new ChangeEventDto();
+            event.setSequence(++sequence);
+            event.setEntity(entity);
+            event.setType(type);
+            event.setId(id);
+            event.setParentId(parentId);
+            event.setVersion(version);
+            history[(int) ((sequence - 1) % history.length)] = event;
+            for (Subscription subscription : subscribers) {
+                boolean wasResyncing = subscription.resyncRequired;
+                subscription.offer(event);
+                if (!wasResyncing && subscription.resyncRequired) {
+                    resyncs.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resync(Subscription subscription) {
+        subscription.resync(sequence);
+        resyncs.incrementAndGet();
+    }
+
+    // The sequence after "<stream>:", or -1 when the id belongs to another stream or is malformed
+    private long resumePosition(String lastEventId) {
+        int colon = lastEventId.lastIndexOf(':');
+        if (colon < 0 || !streamId.equals(lastEventId.substring(0, colon))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
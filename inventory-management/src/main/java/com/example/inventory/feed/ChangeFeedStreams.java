@@ -0,0 +1,146 @@
+package com.example.inventory.feed;
+
+import com.example.inventory.dto.ChangeEventDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves {@link ChangeFeed} subscriptions as server-sent events. A publish only marks the stream as
+ * having work; a small pool of sender threads drains each stream's queue into its emitter, so the
+ * network write to a slow client happens off the writer's thread. A stream that needs a resync gets
+ * one {@code resync} event carrying the id to resume from and is then closed. Idle streams get a
+ * comment line every {@code heartbeat-ms} so dead connections are noticed and proxies keep them open.
+ */
+@Component
+public class ChangeFeedStreams {
+    public static final String CHANGE_EVENT = "change";
+    public static final String RESYNC_EVENT = "resync";
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    private final long timeoutMillis;
+    private final ExecutorService senders;
+    private final Set<Stream> streams = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public ChangeFeedStreams(@Value("${inventory.feed.sender-threads:2}") int senderThreads,
+                             @Value("${inventory.feed.timeout-ms:1800000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-feed-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final class Stream implements Runnable {
+        private final SseEmitter emitter = new SseEmitter(timeoutMillis);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile ChangeFeed.Subscription subscription;
+        private volatile boolean closed;
+
+        void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        // Runs on one sender thread at a time: the flag stays set while draining, so a publish meanwhile does not
+        // start a second drain, and anything queued after the last poll is picked up by the re-check below
+        @Override
+        public void run() {
+            ChangeFeed.Subscription current = subscription;
+            if (closed || current == null) {
+                scheduled.set(false);
+                return;
+            }
+            try {
+                for (ChangeEventDto event = current.poll(); event != null; event = current.poll()) {
+                    emitter.send(SseEmitter.event().id(changeFeed.eventId(event.getSequence())).name(CHANGE_EVENT)
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+                if (current.isResyncRequired()) {
+                    String resumeFrom = changeFeed.eventId(current.getResyncSequence());
+                    emitter.send(SseEmitter.event().id(resumeFrom).name(RESYNC_EVENT)
+                            .data(Collections.singletonMap("resumeFrom", resumeFrom), MediaType.APPLICATION_JSON));
+                    close();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                close();
+            }
+            scheduled.set(false);
+            if (!closed && current.hasPending() && scheduled.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        void heartbeat() {
+            senders.execute(() -> {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                }
+            });
+        }
+
+        void close() {
+            closed = true;
+            streams.remove(this);
+            ChangeFeed.Subscription current = subscription;
+            if (current != null) {
+                changeFeed.unsubscribe(current);
+            }
+        }
+    }
+
+    /** Opens a stream resuming after {@code lastEventId}, or from now when it is null or empty. */
+    public SseEmitter open(String lastEventId) {
+        Stream stream = new Stream();
+        stream.subscription = changeFeed.subscribe(lastEventId, stream::schedule);
+        streams.add(stream);
+        stream.emitter.onCompletion(stream::close);
+        stream.emitter.onTimeout(stream::close);
+        stream.emitter.onError(error -> stream.close());
+        // Replayed history (or a resync) is already queued
+        stream.schedule();
+        return stream.emitter;
+    }
+
+    public int getOpenStreams() {
+        return streams.size();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Stream stream : streams) {
+            stream.heartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Stream stream : streams) {
+            stream.close();
+            stream.emitter.complete();
+        }
+        senders.shutdown();
+    }
+}
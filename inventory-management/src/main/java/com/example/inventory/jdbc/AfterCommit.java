@@ -0,0 +1,49 @@
+package com.example.inventory.jdbc;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects of a write (journal records, aggregates, change events, cache
+ * versions) until the surrounding transaction commits, so a rollback leaves them untouched. Outside
+ * a transaction the change runs straight away.
+ */
+public final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable change) {
+        if (inTransaction()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /** As {@link #run(Runnable)}, running {@code rollback} instead when the transaction does not commit. */
+    public static void run(Runnable change, Runnable rollback) {
+        if (inTransaction()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        change.run();
+                    } else {
+                        rollback.run();
+                    }
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static boolean inTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive() && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+}
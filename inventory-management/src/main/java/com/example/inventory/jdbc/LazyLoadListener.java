@@ -0,0 +1,45 @@
+package com.example.inventory.jdbc;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Counts lazy initializations for {@link QueryCounter}: collection initializations and proxy
+ * loads (Hibernate's {@code IMMEDIATE_LOAD}, which is only used when an uninitialized proxy is touched).
+ */
+@Component
+public class LazyLoadListener implements InitializeCollectionEventListener, LoadEventListener {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+        registry.appendListeners(EventType.LOAD, this);
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        QueryCounter.recordLazyLoad(event.getCollection().getRole());
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            QueryCounter.recordLazyLoad(event.getEntityClassName());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.inventory.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Opens a {@link QueryCounter} for each request and reports its statement and lazy-load counts in
+ * the {@value #QUERY_COUNT_HEADER} and {@value #LAZY_LOAD_COUNT_HEADER} response headers. The headers
+ * are set just before the response commits, so they include everything the handler did. Requests
+ * over budget, and SQL repeated {@code n-plus-one-threshold} times, are logged; with
+ * {@code action: fail} the statement that breaks the budget throws instead.
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String LAZY_LOAD_COUNT_HEADER = "X-Lazy-Load-Count";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    @Value("${inventory.query-budget.enabled:true}")
+    private boolean enabled;
+    @Value("${inventory.query-budget.max-statements:25}")
+    private int maxStatements;
+    @Value("${inventory.query-budget.max-lazy-loads:10}")
+    private int maxLazyLoads;
+    @Value("${inventory.query-budget.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+    @Value("${inventory.query-budget.action:log}")
+    private String action;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        QueryCounter counter = QueryCounter.open(maxStatements, maxLazyLoads, "fail".equalsIgnoreCase(action));
+        CountingResponse countingResponse = new CountingResponse(response, counter);
+        try {
+            chain.doFilter(request, countingResponse);
+            countingResponse.writeCounts();
+        } finally {
+            counter.close();
+            report(request, counter);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryCounter counter) {
+        if (counter.isOverBudget()) {
+            log.warn("{} {} ran {} statements (budget {}) and {} lazy loads (budget {})", request.getMethod(), request.getRequestURI(),
+                    counter.getStatements(), counter.getMaxStatements(), counter.getLazyLoads(), counter.getMaxLazyLoads());
+        }
+        for (Map.Entry<String, Integer> repeated : counter.getRepeatedStatements(nPlusOneThreshold).entrySet()) {
+            log.warn("Possible N+1 in {} {}: statement ran {} times: {}", request.getMethod(), request.getRequestURI(),
+                    repeated.getValue(), repeated.getKey());
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private final QueryCounter counter;
+        private boolean written;
+
+        CountingResponse(HttpServletResponse response, QueryCounter counter) {
+            super(response);
+            this.counter = counter;
+        }
+
+        void writeCounts() {
+            if (!written && !isCommitted()) {
+                written = true;
+                setHeader(QUERY_COUNT_HEADER, Integer.toString(counter.getStatements()));
+                setHeader(LAZY_LOAD_COUNT_HEADER, Integer.toString(counter.getLazyLoads()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeCounts();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeCounts();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeCounts();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeCounts();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeCounts();
+            super.sendError(sc, msg);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.inventory.jdbc;
+
+/**
+ * The repository method currently executing on this thread, maintained by
+ * {@link RepositoryCallSiteAspect}. One mutable instance per thread, so tracking allocates nothing.
+ */
+public final class QueryCallSite {
+    private static final ThreadLocal<QueryCallSite> CURRENT = ThreadLocal.withInitial(QueryCallSite::new);
+
+    String repository;
+    String method;
+
+    private QueryCallSite() {
+    }
+
+    static QueryCallSite current() {
+        return CURRENT.get();
+    }
+
+    public static String describe() {
+        QueryCallSite site = CURRENT.get();
+        return site.repository == null ? null : site.repository + "." + site.method;
+    }
+}
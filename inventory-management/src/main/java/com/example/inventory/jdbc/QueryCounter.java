@@ -0,0 +1,141 @@
+package com.example.inventory.jdbc;
+
+import com.example.inventory.exception.QueryBudgetExceededException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts SQL statements and lazy initializations on the current thread while open. Counters nest:
+ * every open counter on the thread sees the statements of the counters opened inside it, so a test
+ * can count across requests that each open their own. A counter opened with {@code failOnExceed}
+ * throws {@link QueryBudgetExceededException} from the statement or load that breaks its budget.
+ * Statements are counted as they execute on the JDBC connections of every pool, so Hibernate,
+ * {@code JdbcTemplate} and SKU shard queries all count; work handed to another thread counts
+ * only when wrapped with {@link #propagate(Callable)}.
+ */
+public final class QueryCounter implements AutoCloseable {
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private final QueryCounter parent;
+    private final int maxStatements;
+    private final int maxLazyLoads;
+    private final boolean failOnExceed;
+    private final Map<String, Integer> statementCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger lazyLoads = new AtomicInteger();
+
+    private QueryCounter(QueryCounter parent, int maxStatements, int maxLazyLoads, boolean failOnExceed) {
+        this.parent = parent;
+        this.maxStatements = maxStatements;
+        this.maxLazyLoads = maxLazyLoads;
+        this.failOnExceed = failOnExceed;
+    }
+
+    public static QueryCounter open() {
+        return open(Integer.MAX_VALUE, Integer.MAX_VALUE, false);
+    }
+
+    public static QueryCounter open(int maxStatements, int maxLazyLoads, boolean failOnExceed) {
+        QueryCounter counter = new QueryCounter(CURRENT.get(), maxStatements, maxLazyLoads, failOnExceed);
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    public static boolean isCounting() {
+        return CURRENT.get() != null;
+    }
+
+    /** Runs {@code task} with the calling thread's counters open, wherever it is eventually run. */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        QueryCounter counter = CURRENT.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            QueryCounter previous = CURRENT.get();
+            CURRENT.set(counter);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static void recordStatement(String sql) {
+        for (QueryCounter counter = CURRENT.get(); counter != null; counter = counter.parent) {
+            counter.onStatement(sql);
+        }
+    }
+
+    static void recordLazyLoad(String what) {
+        for (QueryCounter counter = CURRENT.get(); counter != null; counter = counter.parent) {
+            counter.onLazyLoad(what);
+        }
+    }
+
+    private void onStatement(String sql) {
+        int statements = this.statements.incrementAndGet();
+        statementCounts.merge(sql, 1, Integer::sum);
+        if (failOnExceed && statements > maxStatements) {
+            throw new QueryBudgetExceededException("Query budget exceeded: " + statements + " statements (budget " + maxStatements + ")");
+        }
+    }
+
+    private void onLazyLoad(String what) {
+        int lazyLoads = this.lazyLoads.incrementAndGet();
+        if (failOnExceed && lazyLoads > maxLazyLoads) {
+            throw new QueryBudgetExceededException("Lazy load budget exceeded loading " + what + ": " + lazyLoads + " lazy loads (budget " + maxLazyLoads + ")");
+        }
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public int getLazyLoads() {
+        return lazyLoads.get();
+    }
+
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    public int getMaxLazyLoads() {
+        return maxLazyLoads;
+    }
+
+    public boolean isOverBudget() {
+        return statements.get() > maxStatements || lazyLoads.get() > maxLazyLoads;
+    }
+
+    public Map<String, Integer> getStatementCounts() {
+        return new LinkedHashMap<>(statementCounts);
+    }
+
+    // The same SQL text executed this often in one scope usually means a per-row load (N+1)
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statementCounts.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    public void reset() {
+        statements.set(0);
+        lazyLoads.set(0);
+        statementCounts.clear();
+    }
+
+    @Override
+    public void close() {
+        CURRENT.set(parent);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.inventory.jdbc;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything
+ * else. Must sit under a {@link LazyConnectionDataSourceProxy}: the transaction manager asks for its
+ * connection before the transaction's read-only flag is published, so the target has to be picked
+ * when the first statement runs. Using the primary outside a read-only transaction pins the current
+ * {@link ReadYourWrites} scope to it.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public enum Target { PRIMARY, REPLICA }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Target.PRIMARY, primary);
+        targets.put(Target.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /** Where a connection requested now would come from. */
+    public static Target currentTarget() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.pinnedToPrimary()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        pinIfWriting();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        pinIfWriting();
+        return connection;
+    }
+
+    private static void pinIfWriting() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.primaryWritten();
+        }
+    }
+}
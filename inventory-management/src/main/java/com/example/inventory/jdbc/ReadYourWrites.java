@@ -0,0 +1,52 @@
+package com.example.inventory.jdbc;
+
+/**
+ * Remembers, for the current thread, that the primary was used outside a read-only transaction, so
+ * the read-only transactions that follow stay on the primary rather than a replica that may not have
+ * applied the write yet. Scopes nest like {@link QueryCounter}: a write seen by an inner scope pins
+ * the outer ones too. {@link ReadYourWritesFilter} opens one per request; with no scope open nothing
+ * is pinned and read-only transactions always go to the replica.
+ */
+public final class ReadYourWrites implements AutoCloseable {
+    private static final ThreadLocal<ReadYourWrites> CURRENT = new ThreadLocal<>();
+
+    private final ReadYourWrites parent;
+    private boolean pinned;
+
+    private ReadYourWrites(ReadYourWrites parent) {
+        this.parent = parent;
+    }
+
+    public static ReadYourWrites open() {
+        ReadYourWrites scope = new ReadYourWrites(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void primaryWritten() {
+        for (ReadYourWrites scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.pinned = true;
+        }
+    }
+
+    static boolean pinnedToPrimary() {
+        ReadYourWrites scope = CURRENT.get();
+        return scope != null && scope.pinned;
+    }
+
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.inventory.jdbc;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Opens a {@link ReadYourWrites} scope for each request, so once a request has written, its later
+ * reads go to the primary. Other requests keep reading from the replica.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    @Value("${inventory.datasource.replica.read-your-writes:true}")
+    private boolean enabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (ReadYourWrites scope = ReadYourWrites.open()) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.inventory.jdbc;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records which repository method is running so captured statements can name their caller, e.g.
+ * {@code ProductRepository.search}. Inherited methods such as {@code findById} are attributed to the
+ * application repository interface the proxy implements.
+ */
+@Aspect
+@Component
+public class RepositoryCallSiteAspect {
+    private static final String REPOSITORY_PACKAGE = "com.example.inventory.repository.";
+
+    private final ClassValue<String> repositoryNames = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (candidate.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        }
+    };
+
+    @Around("execution(* com.example.inventory.repository..*.*(..))")
+    public Object trackCallSite(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryCallSite site = QueryCallSite.current();
+        String previousRepository = site.repository;
+        String previousMethod = site.method;
+        site.repository = repositoryNames.get(joinPoint.getThis().getClass());
+        site.method = joinPoint.getSignature().getName();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            site.repository = previousRepository;
+            site.method = previousMethod;
+        }
+    }
+}
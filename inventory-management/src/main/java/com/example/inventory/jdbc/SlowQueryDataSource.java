@@ -0,0 +1,45 @@
+package com.example.inventory.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Wraps the pool so statements can be timed and counted. While capture is disabled and no
+ * {@link QueryCounter} is open on the thread, connections are handed out untouched;
+ * {@code unwrap} still reaches the pool for its metrics.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+    private volatile SlowQueryLog slowQueryLog;
+
+    public SlowQueryDataSource(DataSource target, ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        super(target);
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        SlowQueryLog log = slowQueryLog;
+        if (log == null) {
+            log = slowQueryLogProvider.getIfAvailable();
+            if (log == null) {
+                return connection;
+            }
+            slowQueryLog = log;
+        }
+        return log.isEnabled() || QueryCounter.isCounting() ? StatementTimingProxies.connection(connection, log) : connection;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.inventory.jdbc;
+
+import com.example.inventory.dto.SlowQueryDto;
+import com.example.inventory.dto.SlowQuerySettingsDto;
+import com.example.inventory.exception.CustomValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded capture of the {@code capacity} slowest statements over the threshold, kept in a min-heap
+ * by duration so a new statement only displaces the fastest one held. Once the heap is full, its
+ * fastest duration is published as a volatile floor and statements at or below it are dropped
+ * without taking the lock; {@link #snapshot()} returns the entries slowest first. Settings are
+ * volatile and can be changed while the application runs.
+ */
+@Component
+public class SlowQueryLog {
+    private static final int MAX_CAPACITY = 10_000;
+
+    private volatile boolean enabled;
+    private volatile double sampleRate;
+    private volatile long thresholdNanos;
+    private volatile Slowest slowest;
+    private final LongAdder captured = new LongAdder();
+
+    public SlowQueryLog(@Value("${inventory.slow-query.enabled:true}") boolean enabled,
+                        @Value("${inventory.slow-query.sample-rate:1.0}") double sampleRate,
+                        @Value("${inventory.slow-query.threshold-ms:100}") long thresholdMillis,
+                        @Value("${inventory.slow-query.capacity:100}") int capacity) {
+        SlowQuerySettingsDto settings = new SlowQuerySettingsDto();
+        settings.setEnabled(enabled);
+        settings.setSampleRate(sampleRate);
+        settings.setThresholdMillis(thresholdMillis);
+        settings.setCapacity(capacity);
+        updateSettings(settings);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Decided once per statement, before it is prepared; unsampled statements are never wrapped
+    public boolean sample() {
+        if (!enabled) {
+            return false;
+        }
+        double rate = sampleRate;
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    public void record(SlowQueryDto entry) {
+        Slowest current = slowest;
+        if (entry.getDurationMillis() > current.floor) {
+            current.offer(entry);
+        }
+        captured.increment();
+    }
+
+    public List<SlowQueryDto> snapshot() {
+        List<SlowQueryDto> entries = slowest.entries();
+        entries.sort(Comparator.comparingDouble(SlowQueryDto::getDurationMillis).reversed());
+        return entries;
+    }
+
+    public long getCaptured() {
+        return captured.sum();
+    }
+
+    public void clear() {
+        slowest = new Slowest(slowest.capacity);
+        captured.reset();
+    }
+
+    public SlowQuerySettingsDto getSettings() {
+        SlowQuerySettingsDto settings = new SlowQuerySettingsDto();
+        settings.setEnabled(enabled);
+        settings.setSampleRate(sampleRate);
+        settings.setThresholdMillis(TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+        settings.setCapacity(slowest.capacity);
+        return settings;
+    }
+
+    // Null fields keep their current value; changing the capacity keeps the slowest entries that fit
+    public synchronized SlowQuerySettingsDto updateSettings(SlowQuerySettingsDto settings) {
+        if (settings.getSampleRate() != null && (settings.getSampleRate() < 0.0 || settings.getSampleRate() > 1.0)) {
+            throw new CustomValidationException("Sample rate must be between 0 and 1");
+        }
+        if (settings.getThresholdMillis() != null && settings.getThresholdMillis() < 0) {
+            throw new CustomValidationException("Threshold must be >= 0");
+        }
+        if (settings.getCapacity() != null && (settings.getCapacity() < 1 || settings.getCapacity() > MAX_CAPACITY)) {
+            throw new CustomValidationException("Capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        if (settings.getEnabled() != null) {
+            enabled = settings.getEnabled();
+        }
+        if (settings.getSampleRate() != null) {
+            sampleRate = settings.getSampleRate();
+        }
+        if (settings.getThresholdMillis() != null) {
+            thresholdNanos = TimeUnit.MILLISECONDS.toNanos(settings.getThresholdMillis());
+        }
+        if (settings.getCapacity() != null && (slowest == null || slowest.capacity != settings.getCapacity())) {
+            Slowest resized = new Slowest(settings.getCapacity());
+            if (slowest != null) {
+                for (SlowQueryDto entry : slowest.entries()) {
+                    resized.offer(entry);
+                }
+            }
+            slowest = resized;
+        }
+        return getSettings();
+    }
+
+    private static final class Slowest {
+        private final int capacity;
+        private final PriorityQueue<SlowQueryDto> heap;
+        // Duration of the fastest entry held once the heap is full; anything not slower is dropped
+        private volatile double floor = Double.NEGATIVE_INFINITY;
+
+        Slowest(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity, Comparator.comparingDouble(SlowQueryDto::getDurationMillis));
+        }
+
+        synchronized void offer(SlowQueryDto entry) {
+            if (heap.size() == capacity) {
+                if (entry.getDurationMillis() <= heap.peek().getDurationMillis()) {
+                    return;
+                }
+                heap.poll();
+            }
+            heap.add(entry);
+            if (heap.size() == capacity) {
+                floor = heap.peek().getDurationMillis();
+            }
+        }
+
+        synchronized List<SlowQueryDto> entries() {
+            return new ArrayList<>(heap);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.inventory.jdbc;
+
+import com.example.inventory.dto.SlowQueryDto;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * JDK proxies that time statement execution for {@link SlowQueryLog} and count it for
+ * {@link QueryCounter}. Whether to wrap is decided when a statement is created: statements that
+ * are neither sampled nor created while a counter is open are the driver's own objects. Only
+ * the types of bound parameters are kept, never their values. Query row counts are the rows the
+ * caller actually read, recorded when the result set or statement is closed.
+ */
+final class StatementTimingProxies {
+    private StatementTimingProxies() {
+    }
+
+    static Connection connection(Connection target, SlowQueryLog log) {
+        return (Connection) Proxy.newProxyInstance(StatementTimingProxies.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(target, log));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final SlowQueryLog log;
+
+        ConnectionHandler(Connection target, SlowQueryLog log) {
+            this.target = target;
+            this.log = log;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SlowQuery[" + target + "]";
+                default:
+                    break;
+            }
+            Object result = StatementTimingProxies.invoke(target, method, args);
+            if (!(result instanceof Statement)) {
+                return result;
+            }
+            boolean timed = log.sample();
+            if (!timed && !QueryCounter.isCounting()) {
+                return result;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return Proxy.newProxyInstance(StatementTimingProxies.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) result, sql, log, timed));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final SlowQueryLog log;
+        private final boolean timed;
+        private String sql;
+        private String[] parameterTypes = new String[0];
+        private int batchSize;
+        private SlowQueryDto pending;
+        private long rowsRead;
+
+        StatementHandler(Statement target, String sql, SlowQueryLog log, boolean timed) {
+            this.target = target;
+            this.sql = sql;
+            this.log = log;
+            this.timed = timed;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], "setNull".equals(name) || args[1] == null ? "null" : args[1].getClass().getSimpleName());
+            } else if ("addBatch".equals(name)) {
+                batchSize++;
+                if (args != null && args.length > 0 && args[0] instanceof String) {
+                    sql = (String) args[0];
+                }
+            } else if ("clearParameters".equals(name)) {
+                parameterTypes = new String[0];
+            } else if ("close".equals(name)) {
+                flush();
+            } else if ("equals".equals(name)) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = StatementTimingProxies.invoke(target, method, args);
+            if ("getResultSet".equals(name) && result != null && pending != null) {
+                return countingResultSet((ResultSet) result);
+            }
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            flush();
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+            }
+            // A batch counts once, as Hibernate's batched inserts always have
+            QueryCounter.recordStatement(sql != null ? sql : "(unknown)");
+            if (!timed) {
+                batchSize = 0;
+                return StatementTimingProxies.invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = StatementTimingProxies.invoke(target, method, args);
+                return result = wrapResult(result, start);
+            } finally {
+                if (result == null) {
+                    // Failed execution: record it if it was slow, with an unknown row count
+                    capture(System.nanoTime() - start, -1);
+                    flush();
+                }
+            }
+        }
+
+        private Object wrapResult(Object result, long start) throws Throwable {
+            long elapsed = System.nanoTime() - start;
+            if (!log.isSlow(elapsed)) {
+                batchSize = 0;
+                return result;
+            }
+            if (result instanceof ResultSet) {
+                capture(elapsed, 0);
+                return countingResultSet((ResultSet) result);
+            }
+            if (result instanceof Boolean) {
+                // execute(): a result set is read later through getResultSet
+                capture(elapsed, (Boolean) result ? 0 : target.getUpdateCount());
+                if (!(Boolean) result) {
+                    flush();
+                }
+                return result;
+            }
+            long rows;
+            if (result instanceof int[]) {
+                rows = Arrays.stream((int[]) result).filter(count -> count > 0).asLongStream().sum();
+            } else if (result instanceof long[]) {
+                rows = Arrays.stream((long[]) result).filter(count -> count > 0).sum();
+            } else {
+                rows = ((Number) result).longValue();
+            }
+            capture(elapsed, rows);
+            flush();
+            return result;
+        }
+
+        private void bind(int index, String type) {
+            if (index > parameterTypes.length) {
+                parameterTypes = Arrays.copyOf(parameterTypes, Math.max(index, parameterTypes.length * 2));
+            }
+            parameterTypes[index - 1] = type;
+        }
+
+        private void capture(long nanos, long rows) {
+            if (!log.isSlow(nanos)) {
+                return;
+            }
+            SlowQueryDto entry = new SlowQueryDto();
+            entry.setSql(sql);
+            entry.setParameterShape(parameterShape());
+            entry.setBatchSize(batchSize);
+            entry.setDurationMillis(nanos / 1_000_000.0);
+            entry.setCaller(QueryCallSite.describe());
+            entry.setThread(Thread.currentThread().getName());
+            entry.setExecutedAt(Instant.now());
+            pending = entry;
+            rowsRead = rows;
+            batchSize = 0;
+        }
+
+        private String parameterShape() {
+            StringBuilder shape = new StringBuilder("(");
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (parameterTypes[i] == null) {
+                    continue;
+                }
+                if (shape.length() > 1) {
+                    shape.append(", ");
+                }
+                shape.append(parameterTypes[i]);
+            }
+            return shape.append(')').toString();
+        }
+
+        private void flush() {
+            SlowQueryDto entry = pending;
+            if (entry != null) {
+                pending = null;
+                entry.setRows(rowsRead);
+                log.record(entry);
+            }
+        }
+
+        private ResultSet countingResultSet(ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(StatementTimingProxies.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                Object hasRow = StatementTimingProxies.invoke(resultSet, method, args);
+                                if (Boolean.TRUE.equals(hasRow)) {
+                                    rowsRead++;
+                                }
+                                return hasRow;
+                            case "close":
+                                flush();
+                                return StatementTimingProxies.invoke(resultSet, method, args);
+                            case "getStatement":
+                                return resultSet.getStatement();
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return StatementTimingProxies.invoke(resultSet, method, args);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.inventory.journal;
+
+import com.example.inventory.dto.SkuDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One SKU mutation. Payload layout, big-endian:
+ * <pre>
+ * byte type, long sequence, long timestamp millis, long id
+ * UPSERT          long productId, string code, int quantity, double price, long version
+ * QUANTITY        int quantity, long version
+ * DELETE          (nothing; id is the SKU)
+ * DELETE_PRODUCT  (nothing; id is the product, and all of its SKUs are gone)
+ * string          int UTF-8 length (-1 for null), bytes
+ * </pre>
+ * The sequence is assigned by the journal writer when the record is appended.
+ */
+public final class JournalRecord {
+    public enum Type {
+        UPSERT, QUANTITY, DELETE, DELETE_PRODUCT
+    }
+
+    private final Type type;
+    private final long sequence;
+    private final long timestampMillis;
+    private final long id;
+    private final long productId;
+    private final String code;
+    private final int quantity;
+    private final double price;
+    private final long version;
+
+    private JournalRecord(Type type, long sequence, long timestampMillis, long id, long productId, String code, int quantity,
+                          double price, long version) {
+        this.type = type;
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.id = id;
+        this.productId = productId;
+        this.code = code;
+        this.quantity = quantity;
+        this.price = price;
+        this.version = version;
+    }
+
+    public static JournalRecord upsert(SkuDto sku) {
+        return new JournalRecord(Type.UPSERT, 0, System.currentTimeMillis(), sku.getId(), sku.getProductId(), sku.getCode(),
+                sku.getQuantity(), sku.getPrice(), sku.getVersion() != null ? sku.getVersion() : 0L);
+    }
+
+    public static JournalRecord quantity(long skuId, int quantity, long version) {
+        return new JournalRecord(Type.QUANTITY, 0, System.currentTimeMillis(), skuId, 0, null, quantity, 0, version);
+    }
+
+    public static JournalRecord delete(long skuId) {
+        return new JournalRecord(Type.DELETE, 0, System.currentTimeMillis(), skuId, 0, null, 0, 0, 0);
+    }
+
+    public static JournalRecord deleteProduct(long productId) {
+        return new JournalRecord(Type.DELETE_PRODUCT, 0, System.currentTimeMillis(), productId, 0, null, 0, 0, 0);
+    }
+
+    int encodedSize() {
+        int size = 1 + 8 + 8 + 8;
+        switch (type) {
+            case UPSERT:
+                return size + 8 + 4 + (code == null ? 0 : code.getBytes(StandardCharsets.UTF_8).length) + 4 + 8 + 8;
+            case QUANTITY:
+                return size + 4 + 8;
+            default:
+                return size;
+        }
+    }
+
+    void encode(ByteBuffer out, long assignedSequence) {
+        out.put((byte) type.ordinal());
+        out.putLong(assignedSequence);
+        out.putLong(timestampMillis);
+        out.putLong(id);
+        switch (type) {
+            case UPSERT:
+                out.putLong(productId);
+                if (code == null) {
+                    out.putInt(-1);
+                } else {
+                    byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+                    out.putInt(bytes.length);
+                    out.put(bytes);
+                }
+                out.putInt(quantity);
+                out.putDouble(price);
+                out.putLong(version);
+                break;
+            case QUANTITY:
+                out.putInt(quantity);
+                out.putLong(version);
+                break;
+            default:
+                break;
+        }
+    }
+
+    static JournalRecord decode(ByteBuffer in) {
+        int ordinal = in.get();
+        if (ordinal < 0 || ordinal >= Type.values().length) {
+            throw new IllegalArgumentException("Unknown record type " + ordinal);
+        }
+        Type type = Type.values()[ordinal];
+        long sequence = in.getLong();
+        long timestamp = in.getLong();
+        long id = in.getLong();
+        switch (type) {
+            case UPSERT: {
+                long productId = in.getLong();
+                int length = in.getInt();
+                String code = null;
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    in.get(bytes);
+                    code = new String(bytes, StandardCharsets.UTF_8);
+                }
+                int quantity = in.getInt();
+                double price = in.getDouble();
+                long version = in.getLong();
+                return new JournalRecord(type, sequence, timestamp, id, productId, code, quantity, price, version);
+            }
+            case QUANTITY: {
+                int quantity = in.getInt();
+                long version = in.getLong();
+                return new JournalRecord(type, sequence, timestamp, id, 0, null, quantity, 0, version);
+            }
+            default:
+                return new JournalRecord(type, sequence, timestamp, id, 0, null, 0, 0, 0);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
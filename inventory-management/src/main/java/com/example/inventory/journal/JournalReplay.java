@@ -0,0 +1,93 @@
+package com.example.inventory.journal;
+
+import com.example.inventory.dto.SkuDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds SKU state from a journal directory. Records are applied in sequence order, but since
+ * concurrent commits can reach the journal out of order, an upsert or quantity change only wins
+ * over a newer version already seen, and a deleted SKU stays deleted. Can be run standalone:
+ * {@code java -cp app.jar -Dloader.main=com.example.inventory.journal.JournalReplay
+ * org.springframework.boot.loader.PropertiesLauncher data/journal} prints one JSON SKU per line.
+ */
+public final class JournalReplay {
+    private JournalReplay() {
+    }
+
+    /** SKU state keyed by SKU id. */
+    public static Map<Long, SkuDto> replay(Path directory) throws IOException {
+        Map<Long, SkuDto> skus = new TreeMap<>();
+        Set<Long> deleted = new HashSet<>();
+        List<Path> segments = JournalSegments.list(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            boolean newest = i == segments.size() - 1;
+            JournalSegments.scan(segments.get(i), newest, record -> apply(record, skus, deleted));
+        }
+        return skus;
+    }
+
+    private static void apply(JournalRecord record, Map<Long, SkuDto> skus, Set<Long> deleted) {
+        long id = record.getId();
+        switch (record.getType()) {
+            case UPSERT: {
+                SkuDto current = skus.get(id);
+                if (deleted.contains(id) || (current != null && current.getVersion() > record.getVersion())) {
+                    return;
+                }
+                SkuDto sku = new SkuDto();
+                sku.setId(id);
+                sku.setProductId(record.getProductId());
+                sku.setCode(record.getCode());
+                sku.setQuantity(record.getQuantity());
+                sku.setPrice(record.getPrice());
+                sku.setVersion(record.getVersion());
+                skus.put(id, sku);
+                break;
+            }
+            case QUANTITY: {
+                SkuDto current = skus.get(id);
+                if (current != null && current.getVersion() <= record.getVersion()) {
+                    current.setQuantity(record.getQuantity());
+                    current.setVersion(record.getVersion());
+                }
+                break;
+            }
+            case DELETE:
+                deleted.add(id);
+                skus.remove(id);
+                break;
+            case DELETE_PRODUCT:
+                for (Iterator<SkuDto> it = skus.values().iterator(); it.hasNext(); ) {
+                    SkuDto sku = it.next();
+                    if (sku.getProductId() == id) {
+                        deleted.add(sku.getId());
+                        it.remove();
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unhandled record type " + record.getType());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "data/journal");
+        ObjectWriter writer = new ObjectMapper().writer();
+        PrintStream out = System.out;
+        for (SkuDto sku : replay(directory).values()) {
+            out.println(writer.writeValueAsString(sku));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.inventory.journal;
+
+import com.example.inventory.exception.JournalCorruptedException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Segment files and record framing. Each segment is named after the sequence of its first record
+ * ({@code journal-00000000000000000001.log}) and holds frames of
+ * {@code int payload length, int CRC32 of payload, payload}. Only the newest segment can end in a
+ * torn frame (a crash mid-write); anywhere else a bad frame means corruption.
+ */
+final class JournalSegments {
+    static final String PREFIX = "journal-";
+    static final String SUFFIX = ".log";
+    static final int FRAME_HEADER_BYTES = 8;
+    static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    private JournalSegments() {
+    }
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /** Segments in sequence order; zero-padded names sort numerically. */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    static int crc(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Hands every valid record in {@code segment} to {@code consumer} and returns the byte offset
+     * just past the last one. With {@code tolerateTornTail} an invalid frame ends the scan;
+     * otherwise it throws.
+     */
+    static long scan(Path segment, boolean tolerateTornTail, Consumer<JournalRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long valid = 0;
+            while (buffer.remaining() > 0) {
+                String problem = null;
+                int length = 0;
+                if (buffer.remaining() < FRAME_HEADER_BYTES) {
+                    problem = "truncated frame header";
+                } else {
+                    length = buffer.getInt(buffer.position());
+                    if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                        problem = "invalid frame length " + length;
+                    } else if (buffer.remaining() < FRAME_HEADER_BYTES + length) {
+                        problem = "truncated frame";
+                    }
+                }
+                if (problem == null) {
+                    int storedCrc = buffer.getInt(buffer.position() + 4);
+                    ByteBuffer payload = buffer.duplicate();
+                    payload.position(buffer.position() + FRAME_HEADER_BYTES).limit(buffer.position() + FRAME_HEADER_BYTES + length);
+                    if (crc(payload) != storedCrc) {
+                        problem = "checksum mismatch";
+                    } else {
+                        consumer.accept(JournalRecord.decode(payload.slice()));
+                        buffer.position(buffer.position() + FRAME_HEADER_BYTES + length);
+                        valid = buffer.position();
+                        continue;
+                    }
+                }
+                if (tolerateTornTail) {
+                    break;
+                }
+                throw new JournalCorruptedException("Journal segment " + segment + " is corrupt at offset " + valid + ": " + problem);
+            }
+            return valid;
+        }
+    }
+}
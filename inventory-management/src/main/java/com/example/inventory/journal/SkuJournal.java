@@ -0,0 +1,321 @@
+package com.example.inventory.journal;
+
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.jdbc.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of SKU mutations. Callers enqueue records and a single writer thread appends
+ * them. Whatever has queued up while the previous fsync was running is written and forced as one
+ * group, so concurrent requests share fsyncs instead of each paying for one. With
+ * {@code await-sync} a caller returns only once its record is on disk or its write has failed. Records
+ * made inside a transaction are enqueued after it commits, so the journal never holds a change the
+ * database rolled back. By then the change is committed, so a record that cannot be journaled is logged
+ * and counted in {@link #getFailed()} rather than thrown: failing the request would report a committed
+ * write as lost and invite a retry that applies it twice. On startup a torn frame at the end of the newest segment (a crash mid-write) is
+ * truncated away; a group whose write fails at runtime is cut off the segment the same way, and if
+ * that is not possible the journal stops rather than append behind the partial frames.
+ */
+@Component
+public class SkuJournal {
+    private static final Logger log = LoggerFactory.getLogger(SkuJournal.class);
+    private static final int MAX_GROUP = 4096;
+    private static final long SYNC_TIMEOUT_SECONDS = 30;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean awaitSync;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private FileChannel channel;
+    private long nextSequence;
+    // Set by the writer once the segment could not be restored after a failed group
+    private IOException broken;
+    private Thread writer;
+    private volatile boolean running;
+
+    private static final class Pending {
+        private final List<JournalRecord> records;
+        private final CompletableFuture<Long> synced = new CompletableFuture<>();
+
+        private Pending(List<JournalRecord> records) {
+            this.records = records;
+        }
+    }
+
+    public SkuJournal(@Value("${inventory.journal.enabled:false}") boolean enabled,
+                      @Value("${inventory.journal.directory:data/journal}") String directory,
+                      @Value("${inventory.journal.segment-bytes:67108864}") long segmentBytes,
+                      @Value("${inventory.journal.await-sync:true}") boolean awaitSync) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.awaitSync = awaitSync;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled || running) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> segments = JournalSegments.list(directory);
+        if (segments.isEmpty()) {
+            nextSequence = 1;
+            channel = openSegment(nextSequence);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            long[] lastSequence = {JournalSegments.firstSequence(last) - 1};
+            long valid = JournalSegments.scan(last, true, record -> lastSequence[0] = record.getSequence());
+            channel = FileChannel.open(last, StandardOpenOption.WRITE);
+            if (channel.size() > valid) {
+                log.warn("Truncating {} torn bytes at the end of journal segment {}", channel.size() - valid, last);
+                channel.truncate(valid);
+                channel.force(true);
+            }
+            channel.position(valid);
+            nextSequence = lastSequence[0] + 1;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "sku-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("SKU journal open in {}; next sequence {}", directory.toAbsolutePath(), nextSequence);
+    }
+
+    /** Stops accepting records, writes and syncs what is queued, and closes the segment. */
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = writer;
+        }
+        // No interrupt: it would close the FileChannel under a write in progress
+        thread.join();
+        channel.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getAppended() {
+        return appended.get();
+    }
+
+    public long getSyncs() {
+        return syncs.get();
+    }
+
+    /** Records of committed changes that never reached the journal. */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public void skuSaved(SkuDto sku) {
+        submit(Collections.singletonList(JournalRecord.upsert(sku)));
+    }
+
+    public void skusSaved(List<SkuDto> skus) {
+        if (skus.isEmpty()) {
+            return;
+        }
+        List<JournalRecord> records = new ArrayList<>(skus.size());
+        for (SkuDto sku : skus) {
+            records.add(JournalRecord.upsert(sku));
+        }
+        submit(records);
+    }
+
+    public void quantityChanged(long skuId, int quantity, long version) {
+        submit(Collections.singletonList(JournalRecord.quantity(skuId, quantity, version)));
+    }
+
+    public void skuDeleted(long skuId) {
+        submit(Collections.singletonList(JournalRecord.delete(skuId)));
+    }
+
+    public void productsDeleted(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<JournalRecord> records = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            records.add(JournalRecord.deleteProduct(productId));
+        }
+        submit(records);
+    }
+
+    private void submit(List<JournalRecord> records) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> append(records));
+    }
+
+    private void append(List<JournalRecord> records) {
+        if (!running) {
+            failed.addAndGet(records.size());
+            log.error("SKU journal is not open; {} committed records were not journaled", records.size());
+            return;
+        }
+        Pending pending = new Pending(records);
+        queue.add(pending);
+        if (!awaitSync) {
+            return;
+        }
+        try {
+            pending.synced.get(SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for the SKU journal; {} records are still queued", records.size());
+        } catch (ExecutionException e) {
+            // Already logged and counted by the writer
+        } catch (TimeoutException e) {
+            log.warn("SKU journal did not sync within {}s; {} records are still queued", SYNC_TIMEOUT_SECONDS, records.size());
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        while (true) {
+            if (queue.isEmpty() && !running) {
+                return;
+            }
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(group, MAX_GROUP - 1);
+            try {
+                if (broken != null) {
+                    throw broken;
+                }
+                buffer = writeGroup(group, buffer);
+                for (Pending pending : group) {
+                    pending.synced.complete(nextSequence - 1);
+                }
+            } catch (IOException e) {
+                long records = 0;
+                for (Pending pending : group) {
+                    records += pending.records.size();
+                    pending.synced.completeExceptionally(e);
+                }
+                failed.addAndGet(records);
+                log.error("SKU journal write failed; {} committed records were not journaled", records, e);
+            }
+            group.clear();
+        }
+    }
+
+    private ByteBuffer writeGroup(List<Pending> group, ByteBuffer buffer) throws IOException {
+        long groupStart = channel.position();
+        long firstSequence = nextSequence;
+        long appendedBefore = appended.get();
+        try {
+            buffer = appendGroup(group, buffer);
+        } catch (IOException e) {
+            buffer.clear();
+            discardGroup(groupStart, firstSequence, appendedBefore, e);
+            throw e;
+        }
+        if (channel.position() >= segmentBytes) {
+            channel.close();
+            channel = openSegment(nextSequence);
+        }
+        return buffer;
+    }
+
+    // Cuts the frames of a failed group off the segment so the next group does not land behind them
+    private void discardGroup(long groupStart, long firstSequence, long appendedBefore, IOException failure) {
+        nextSequence = firstSequence;
+        appended.set(appendedBefore);
+        try {
+            channel.truncate(groupStart);
+            channel.position(groupStart);
+            channel.force(false);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            log.error("Could not truncate the failed group off the SKU journal segment; the journal is stopped", e);
+            broken = failure;
+            running = false;
+        }
+    }
+
+    private ByteBuffer appendGroup(List<Pending> group, ByteBuffer buffer) throws IOException {
+        for (Pending pending : group) {
+            for (JournalRecord record : pending.records) {
+                int payload = record.encodedSize();
+                if (buffer.remaining() < JournalSegments.FRAME_HEADER_BYTES + payload) {
+                    flush(buffer);
+                    if (buffer.capacity() < JournalSegments.FRAME_HEADER_BYTES + payload) {
+                        buffer = ByteBuffer.allocateDirect(JournalSegments.FRAME_HEADER_BYTES + payload);
+                    }
+                }
+                int start = buffer.position();
+                buffer.position(start + JournalSegments.FRAME_HEADER_BYTES);
+                record.encode(buffer, nextSequence++);
+                ByteBuffer written = buffer.duplicate();
+                written.position(start + JournalSegments.FRAME_HEADER_BYTES).limit(buffer.position());
+                buffer.putInt(start, payload);
+                buffer.putInt(start + 4, JournalSegments.crc(written));
+                appended.incrementAndGet();
+            }
+        }
+        flush(buffer);
+        channel.force(false);
+        syncs.incrementAndGet();
+        return buffer;
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private FileChannel openSegment(long firstSequence) throws IOException {
+        return FileChannel.open(JournalSegments.segmentPath(directory, firstSequence),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.inventory.metrics;
+
+import com.example.inventory.journal.SkuJournal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the {@link SkuJournal} counters. {@code inventory.journal.failed} is the one to alert on:
+ * it counts committed SKU changes that never reached the journal, which requests no longer report.
+ */
+@Component
+public class JournalMetrics implements MeterBinder {
+    @Autowired
+    private SkuJournal skuJournal;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("inventory.journal.records", skuJournal, SkuJournal::getAppended)
+                .register(registry);
+        FunctionCounter.builder("inventory.journal.syncs", skuJournal, SkuJournal::getSyncs)
+                .register(registry);
+        FunctionCounter.builder("inventory.journal.failed", skuJournal, SkuJournal::getFailed)
+                .description("Committed SKU changes that could not be journaled")
+                .register(registry);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.inventory.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every REST controller handler and service implementation method, tagged with the class and
+ * method name. Timers are built once per {@link Method} and cached, so recording is a map lookup,
+ * two clock reads and a lock-free histogram update.
+ */
+@Aspect
+@Component
+public class MethodTimingAspect {
+    public static final String CONTROLLER_TIMER = "inventory.controller.requests";
+    public static final String SERVICE_TIMER = "inventory.service.calls";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("within(com.example.inventory.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, CONTROLLER_TIMER);
+    }
+
+    @Around("within(com.example.inventory.service.impl..*) && @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.get(method);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(method, m -> register(name, m));
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer register(String name, Method method) {
+        Timer.Builder builder = Timer.builder(name)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .publishPercentiles(0.5, 0.95, 0.99);
+        // Buckets only for the endpoint timers so they can also be aggregated across instances
+        if (CONTROLLER_TIMER.equals(name)) {
+            builder.publishPercentileHistogram();
+        }
+        return builder.register(meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.inventory.metrics;
+
+import com.example.inventory.cache.SerializedResponseCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes the counters every {@link SerializedResponseCache} already keeps; values are read at
+ * scrape time, so nothing is added to the cache hot path.
+ */
+@Component
+public class ResponseCacheMetrics implements MeterBinder {
+    @Autowired
+    private List<SerializedResponseCache> caches;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (SerializedResponseCache cache : caches) {
+            Gauge.builder("inventory.cache.entries", cache, SerializedResponseCache::getSize)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            Gauge.builder("inventory.cache.size", cache, SerializedResponseCache::getBytes)
+                    .tag("cache", cache.getName())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("inventory.cache.max.size", cache, SerializedResponseCache::getMaxBytes)
+                    .tag("cache", cache.getName())
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("inventory.cache.requests", cache, SerializedResponseCache::getHits)
+                    .tags("cache", cache.getName(), "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("inventory.cache.requests", cache, SerializedResponseCache::getMisses)
+                    .tags("cache", cache.getName(), "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("inventory.cache.evictions", cache, SerializedResponseCache::getEvictions)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        }
+    }
+}
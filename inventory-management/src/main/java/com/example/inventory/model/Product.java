@@ -8,6 +8,8 @@ import java.util.List;
 @Entity
 @Data
 @NoArgsConstructor
+// Mirrors the Flyway migrations, which own the schema; category_id is covered by the foreign key's index
+@Table(indexes = @Index(name = "idx_product_name", columnList = "name, id"))
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
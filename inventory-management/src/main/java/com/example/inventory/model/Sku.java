@@ -1,25 +1,48 @@
 package com.example.inventory.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import javax.persistence.*;
 
 @Entity
 @Data
 @NoArgsConstructor
+// Mirrors the Flyway migrations, which own the schema
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_sku_product_code", columnNames = {"product_id", "code"}), indexes = {
+        @Index(name = "idx_sku_code", columnList = "code"),
+        // Range scans for low-stock queries, in (key, id) order so keyset pages need no sort
+        @Index(name = "idx_sku_quantity", columnList = "quantity, id"),
+        @Index(name = "idx_sku_reorder_gap", columnList = "reorder_gap, id")
+})
 public class Sku {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sku_seq")
+    @SequenceGenerator(name = "sku_seq", sequenceName = "sku_seq", allocationSize = 50)
     private Long id;
 
     private String code;
     private int quantity;
     private double price;
 
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold;
+
+    // quantity - reorder_threshold, computed by the database on every write path (including the
+    // single-statement quantity updates) so "below own threshold" is an index range; only read in queries
+    @Setter(AccessLevel.NONE)
+    @Column(name = "reorder_gap", insertable = false, updatable = false,
+            columnDefinition = "integer generated always as (quantity - reorder_threshold)")
+    private Integer reorderGap;
+
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
     public double getPrice() { return price; }
     public void setPrice(double price) { this.price = price; }
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,114 @@
+package com.example.inventory.reactive;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.exception.CustomValidationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Non-blocking counterparts of the category, product and SKU read endpoints, with the same paths,
+ * DTOs and error bodies as the MVC controllers. Product search streams in id order and can resume
+ * from {@code afterId}; clients asking for {@code application/x-ndjson} get one product per line
+ * as rows arrive.
+ */
+@Component
+@Profile(ReactiveReadServer.PROFILE)
+public class ReactiveCatalogHandler {
+    static final int MAX_LIMIT = 10000;
+
+    @Autowired
+    private ReactiveCatalogRepository repository;
+
+    public RouterFunction<ServerResponse> routes() {
+        return route(GET("/api/categories/{id}"), this::getCategory)
+                .andRoute(GET("/api/categories"), this::getCategories)
+                .andRoute(GET("/api/products/{productId}/skus"), this::getSkus)
+                .andRoute(GET("/api/products/{id}"), this::getProduct)
+                .andRoute(GET("/api/products"), this::searchProducts)
+                // Deferred so parameter errors thrown while building the response are mapped too
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(EntityNotFoundException.class, e -> error(HttpStatus.NOT_FOUND, "Not Found", e.getMessage()))
+                        .onErrorResume(CustomValidationException.class, e -> error(HttpStatus.BAD_REQUEST, "Validation Error", e.getMessage())));
+    }
+
+    private Mono<ServerResponse> getCategory(ServerRequest request) {
+        return repository.findCategory(pathId(request, "id"))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Category not found")))
+                .flatMap(category -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(category));
+    }
+
+    private Mono<ServerResponse> getCategories(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(repository.findCategories(), CategoryDto.class);
+    }
+
+    private Mono<ServerResponse> getProduct(ServerRequest request) {
+        return repository.findProduct(pathId(request, "id"))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Product not found")))
+                .flatMap(product -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(product));
+    }
+
+    private Mono<ServerResponse> getSkus(ServerRequest request) {
+        Long productId = pathId(request, "productId");
+        return repository.findProduct(productId)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Product not found")))
+                .flatMap(product -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                        .body(repository.findSkusByProduct(productId), SkuDto.class));
+    }
+
+    private Mono<ServerResponse> searchProducts(ServerRequest request) {
+        String name = request.queryParam("name").filter(value -> !value.isEmpty()).orElse(null);
+        Long categoryId = queryLong(request, "categoryId").orElse(null);
+        long afterId = queryLong(request, "afterId").orElse(0L);
+        Integer limit = queryLong(request, "limit").map(Long::intValue).orElse(null);
+        if (afterId < 0) {
+            throw new CustomValidationException("afterId must not be negative");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new CustomValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType)
+                .body(repository.searchProducts(name, categoryId, afterId, limit), ProductDto.class);
+    }
+
+    private static Long pathId(ServerRequest request, String variable) {
+        return parseLong(variable, request.pathVariable(variable));
+    }
+
+    private static Optional<Long> queryLong(ServerRequest request, String param) {
+        return request.queryParam(param).filter(value -> !value.isEmpty()).map(value -> parseLong(param, value));
+    }
+
+    private static Long parseLong(String name, String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new CustomValidationException(name + " must be a number");
+        }
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String error, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", error);
+        body.put("message", message);
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+}
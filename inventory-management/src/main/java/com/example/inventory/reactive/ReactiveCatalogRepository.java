@@ -0,0 +1,134 @@
+package com.example.inventory.reactive;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Read-only R2DBC queries behind the reactive API, against the same H2 database the JPA side
+ * writes. The pool is built here rather than exposed as a {@code ConnectionFactory} bean, because
+ * such a bean would switch off the JDBC {@code DataSource} auto-configuration.
+ */
+@Component
+@Profile(ReactiveReadServer.PROFILE)
+public class ReactiveCatalogRepository {
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactiveCatalogRepository(@Value("${inventory.reactive.r2dbc-url}") String url,
+                                     @Value("${spring.datasource.username:}") String username,
+                                     @Value("${spring.datasource.password:}") String password,
+                                     @Value("${inventory.reactive.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(1)
+                .maxSize(poolSize)
+                .build());
+        this.client = DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    public Mono<CategoryDto> findCategory(Long id) {
+        return client.sql("SELECT id, name FROM category WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toCategory)
+                .one();
+    }
+
+    public Flux<CategoryDto> findCategories() {
+        return client.sql("SELECT id, name FROM category ORDER BY id")
+                .map(ReactiveCatalogRepository::toCategory)
+                .all();
+    }
+
+    public Mono<ProductDto> findProduct(Long id) {
+        return client.sql("SELECT id, name, category_id FROM product WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toProduct)
+                .one();
+    }
+
+    /**
+     * Products in id order after {@code afterId}, same filters as the MVC search. Rows are pulled
+     * from the driver as the subscriber requests them, so a slow client slows the query down
+     * instead of buffering the result.
+     */
+    public Flux<ProductDto> searchProducts(String name, Long categoryId, long afterId, Integer limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, name, category_id FROM product WHERE id > :afterId");
+        if (name != null) {
+            sql.append(" AND LOWER(name) LIKE :name");
+        }
+        if (categoryId != null) {
+            sql.append(" AND category_id = :categoryId");
+        }
+        sql.append(" ORDER BY id");
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+        }
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString()).bind("afterId", afterId);
+        if (name != null) {
+            spec = spec.bind("name", "%" + name.toLowerCase() + "%");
+        }
+        if (categoryId != null) {
+            spec = spec.bind("categoryId", categoryId);
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.map(ReactiveCatalogRepository::toProduct).all();
+    }
+
+    public Flux<SkuDto> findSkusByProduct(Long productId) {
+        return client.sql("SELECT id, code, quantity, price, reorder_threshold, product_id, version FROM sku WHERE product_id = :productId ORDER BY id")
+                .bind("productId", productId)
+                .map(ReactiveCatalogRepository::toSku)
+                .all();
+    }
+
+    private static CategoryDto toCategory(Row row) {
+        CategoryDto dto = new CategoryDto();
+        dto.setId(row.get("id", Long.class));
+        dto.setName(row.get("name", String.class));
+        return dto;
+    }
+
+    private static ProductDto toProduct(Row row) {
+        ProductDto dto = new ProductDto();
+        dto.setId(row.get("id", Long.class));
+        dto.setName(row.get("name", String.class));
+        dto.setCategoryId(row.get("category_id", Long.class));
+        return dto;
+    }
+
+    private static SkuDto toSku(Row row) {
+        SkuDto dto = new SkuDto();
+        dto.setId(row.get("id", Long.class));
+        dto.setCode(row.get("code", String.class));
+        dto.setQuantity(row.get("quantity", Integer.class));
+        dto.setPrice(row.get("price", Double.class));
+        dto.setReorderThreshold(row.get("reorder_threshold", Integer.class));
+        dto.setProductId(row.get("product_id", Long.class));
+        dto.setVersion(row.get("version", Long.class));
+        return dto;
+    }
+}
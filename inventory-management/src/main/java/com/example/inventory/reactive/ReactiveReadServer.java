@@ -0,0 +1,73 @@
+package com.example.inventory.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Serves {@link ReactiveCatalogHandler} from its own Reactor Netty server on
+ * {@code inventory.reactive.port}, next to the servlet container, when the {@code reactive}
+ * profile is active. Only the routes are handed to Netty, so none of the MVC infrastructure is
+ * shared or replaced.
+ */
+@Component
+@Profile(ReactiveReadServer.PROFILE)
+public class ReactiveReadServer implements SmartLifecycle {
+    public static final String PROFILE = "reactive";
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+    @Autowired
+    private ReactiveCatalogHandler handler;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${inventory.reactive.port:8081}")
+    private int port;
+
+    private volatile DisposableServer server;
+
+    @Override
+    public void start() {
+        // Same ObjectMapper as the MVC side so the DTOs serialize identically
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(
+                        new Jackson2JsonEncoder(objectMapper, MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON)))
+                .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(handler.routes(), strategies);
+        server = HttpServer.create().port(port).handle(new ReactorHttpHandlerAdapter(httpHandler)).bindNow();
+        log.info("Reactive read API listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /** The bound port, which differs from the configured one when that is 0. */
+    public int getPort() {
+        DisposableServer running = server;
+        return running != null ? running.port() : -1;
+    }
+}
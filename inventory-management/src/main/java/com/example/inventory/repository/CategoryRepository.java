@@ -1,7 +1,35 @@
 package com.example.inventory.repository;
 
 import com.example.inventory.model.Category;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-} 
\ No newline at end of file
+    // Category plus its products in one statement; DISTINCT only de-duplicates the fetch-joined roots in memory
+    @org.springframework.data.jpa.repository.QueryHints(@QueryHint(name = QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("SELECT DISTINCT c FROM Category c LEFT JOIN FETCH c.products WHERE c.id = :id")
+    Optional<Category> findWithProductsById(@Param("id") Long id);
+
+    @org.springframework.data.jpa.repository.QueryHints(@QueryHint(name = QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("SELECT DISTINCT c FROM Category c LEFT JOIN FETCH c.products")
+    List<Category> findAllWithProducts();
+
+    @Query("SELECT c.id FROM Category c")
+    List<Long> findAllIds();
+
+    // Flat, ordered category/product/SKU rows over a forward-only cursor; scalar columns so nothing enters the persistence context
+    @org.springframework.data.jpa.repository.QueryHints({
+        @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT c.id, c.name, p.id, p.name, s.id, s.code, s.quantity, s.price FROM Category c"
+            + " LEFT JOIN c.products p LEFT JOIN p.skus s ORDER BY c.id, p.id, s.id")
+    Stream<Object[]> streamCatalogRows();
+}
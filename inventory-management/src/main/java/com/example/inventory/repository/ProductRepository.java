@@ -7,7 +7,30 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND (:categoryId IS NULL OR p.category.id = :categoryId)")
     Page<Product> search(@Param("name") String name, @Param("categoryId") Long categoryId, Pageable pageable);
-} 
\ No newline at end of file
+
+    // Keyset variants of search: no OFFSET and no count query; pass a Pageable of (0, limit) to cap the rows
+    @Query("SELECT p FROM Product p WHERE (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND (:categoryId IS NULL OR p.category.id = :categoryId)"
+            + " AND p.id > :afterId ORDER BY p.id")
+    List<Product> searchAfterId(@Param("name") String name, @Param("categoryId") Long categoryId, @Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT p FROM Product p WHERE (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND (:categoryId IS NULL OR p.category.id = :categoryId)"
+            + " AND (:afterName IS NULL OR p.name > :afterName OR (p.name = :afterName AND p.id > :afterId)) ORDER BY p.name, p.id")
+    List<Product> searchAfterName(@Param("name") String name, @Param("categoryId") Long categoryId, @Param("afterName") String afterName,
+                                  @Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // Keyset-paged (id, name, categoryId) rows for rebuilding the search index without loading entities
+    @Query("SELECT p.id, p.name, p.category.id FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findIndexRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.id, p.category.id FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findCategoryIdsByIdIn(@Param("ids") Collection<Long> ids);
+}
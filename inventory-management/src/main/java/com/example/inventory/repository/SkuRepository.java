@@ -2,11 +2,73 @@ package com.example.inventory.repository;
 
 import com.example.inventory.model.Sku;
 import com.example.inventory.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface SkuRepository extends JpaRepository<Sku, Long> {
     List<Sku> findByProduct(Product product);
-    Optional<Sku> findByProductAndCode(Product product, String code);
-} 
\ No newline at end of file
+
+    // One statement for the SKUs of many products; callers chunk the id list
+    @Query("SELECT s FROM Sku s WHERE s.product.id IN :productIds ORDER BY s.product.id, s.id")
+    List<Sku> findByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT s.code FROM Sku s WHERE s.product.id = :productId AND s.code IN :codes")
+    List<String> findExistingCodes(@Param("productId") Long productId, @Param("codes") Collection<String> codes);
+
+    // Keyset-paged (id, productId, quantity, price, version) rows for rebuilding and reconciling stock valuation
+    @Query("SELECT s.id, s.product.id, s.quantity, s.price, s.version FROM Sku s WHERE s.id > :afterId ORDER BY s.id")
+    List<Object[]> findValuationRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT s.id, s.product.id, s.quantity, s.price, s.version FROM Sku s WHERE s.product.id IN :productIds")
+    List<Object[]> findValuationRowsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Keyset pages of low stock in index order: (quantity, id) for a fixed limit, (reorderGap, id) for each SKU's own
+    // threshold. The redundant ">= :after" bound is what lets the planner seek into the index instead of scanning from the start
+    @Query("SELECT s FROM Sku s WHERE s.quantity < :below AND s.quantity >= :afterQuantity"
+            + " AND (s.quantity > :afterQuantity OR s.id > :afterId) ORDER BY s.quantity, s.id")
+    List<Sku> findQuantityBelow(@Param("below") int below, @Param("afterQuantity") int afterQuantity, @Param("afterId") long afterId,
+                                Pageable limit);
+
+    @Query("SELECT s FROM Sku s WHERE s.product.category.id = :categoryId AND s.quantity < :below AND s.quantity >= :afterQuantity"
+            + " AND (s.quantity > :afterQuantity OR s.id > :afterId) ORDER BY s.quantity, s.id")
+    List<Sku> findQuantityBelowInCategory(@Param("below") int below, @Param("categoryId") Long categoryId,
+                                          @Param("afterQuantity") int afterQuantity, @Param("afterId") long afterId, Pageable limit);
+
+    @Query("SELECT s FROM Sku s WHERE s.reorderGap < 0 AND s.reorderGap >= :afterGap"
+            + " AND (s.reorderGap > :afterGap OR s.id > :afterId) ORDER BY s.reorderGap, s.id")
+    List<Sku> findBelowReorderThreshold(@Param("afterGap") int afterGap, @Param("afterId") long afterId, Pageable limit);
+
+    @Query("SELECT s FROM Sku s WHERE s.product.category.id = :categoryId AND s.reorderGap < 0 AND s.reorderGap >= :afterGap"
+            + " AND (s.reorderGap > :afterGap OR s.id > :afterId) ORDER BY s.reorderGap, s.id")
+    List<Sku> findBelowReorderThresholdInCategory(@Param("categoryId") Long categoryId, @Param("afterGap") int afterGap,
+                                                  @Param("afterId") long afterId, Pageable limit);
+
+    @Query("SELECT COUNT(s) FROM Sku s WHERE s.quantity < :below")
+    long countQuantityBelow(@Param("below") int below);
+
+    @Query("SELECT COUNT(s) FROM Sku s WHERE s.product.category.id = :categoryId AND s.quantity < :below")
+    long countQuantityBelowInCategory(@Param("below") int below, @Param("categoryId") Long categoryId);
+
+    @Query("SELECT COUNT(s) FROM Sku s WHERE s.reorderGap < 0")
+    long countBelowReorderThreshold();
+
+    @Query("SELECT COUNT(s) FROM Sku s WHERE s.product.category.id = :categoryId AND s.reorderGap < 0")
+    long countBelowReorderThresholdInCategory(@Param("categoryId") Long categoryId);
+
+    // Single-statement delta updates; FINAL TABLE hands back the post-update row so nothing is reloaded
+    @Transactional
+    @Query(value = "SELECT quantity, version FROM FINAL TABLE (UPDATE sku SET quantity = quantity + :delta, version = version + 1"
+            + " WHERE id = :id AND product_id = :productId AND quantity + :delta >= 0)", nativeQuery = true)
+    List<Object[]> adjustQuantity(@Param("productId") Long productId, @Param("id") Long id, @Param("delta") int delta);
+
+    @Transactional
+    @Query(value = "SELECT quantity, version FROM FINAL TABLE (UPDATE sku SET quantity = quantity + :delta, version = version + 1"
+            + " WHERE id = :id AND product_id = :productId AND quantity + :delta >= 0 AND version = :expectedVersion)", nativeQuery = true)
+    List<Object[]> adjustQuantity(@Param("productId") Long productId, @Param("id") Long id, @Param("delta") int delta,
+                                  @Param("expectedVersion") long expectedVersion);
+}
@@ -0,0 +1,273 @@
+package com.example.inventory.search;
+
+import com.example.inventory.jdbc.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram index over product names. A substring query of three or more characters is
+ * answered by intersecting the posting lists of its trigrams (smallest first) and verifying the few
+ * surviving candidates, so cost tracks the size of the rarest trigram rather than the catalog.
+ * Shorter queries fall back to a scan of the in-memory names. Changes made inside a transaction are
+ * applied once it commits, so a rolled-back write never shows up in (or drops out of) search results.
+ * A rebuild loads a fresh index beside the live one and swaps it in whole, replaying the changes
+ * committed while it loaded.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; replaced wholesale when a rebuild finishes
+    private Trigrams current = new Trigrams();
+    // Guarded by lock; the latest change per product (null for a removal) applied while a rebuild loads
+    private Map<Long, Entry> changedDuringRebuild;
+    private volatile boolean ready;
+
+    private static final class Entry {
+        private final String name;
+        private final Long categoryId;
+
+        private Entry(String name, Long categoryId) {
+            this.name = name;
+            this.categoryId = categoryId;
+        }
+    }
+
+    /**
+     * An index being loaded off to the side. Searches keep using the current index until
+     * {@link #finishRebuild} swaps this one in.
+     */
+    public static final class Rebuild {
+        private final Trigrams trigrams = new Trigrams();
+
+        private Rebuild() {
+        }
+
+        /** Adds a product as read from the database; only the loading thread calls this. */
+        public void add(Long id, String name, Long categoryId) {
+            trigrams.set(id, new Entry(normalize(name), categoryId));
+        }
+
+        public int size() {
+            return trigrams.entries.size();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Long id, String name, Long categoryId) {
+        Entry entry = new Entry(normalize(name), categoryId);
+        AfterCommit.run(() -> apply(id, entry));
+    }
+
+    public void remove(Long id) {
+        AfterCommit.run(() -> apply(id, null));
+    }
+
+    private void apply(Long id, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            current.set(id, entry);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(id, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts recording live changes and returns an empty index to load. Changes committed from here on
+     * are replayed onto it when it is swapped in, so they win over the rows it read from the database,
+     * which may already be stale by then.
+     */
+    public Rebuild startRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+            return new Rebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Replays the changes recorded since {@link #startRebuild} onto {@code rebuild} and swaps it in. */
+    public void finishRebuild(Rebuild rebuild) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Entry> change : changedDuringRebuild.entrySet()) {
+                rebuild.trigrams.set(change.getKey(), change.getValue());
+            }
+            current = rebuild.trigrams;
+            changedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids, in ascending order, of products whose name contains {@code query}
+     * (case-insensitive) and, when given, that belong to {@code categoryId}.
+     */
+    public long[] search(String query, Long categoryId) {
+        String needle = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM) {
+                return scan(needle, categoryId);
+            }
+            long[] grams = grams(needle);
+            List<Postings> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                Postings list = current.postings.get(gram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            Postings smallest = lists.get(0);
+            long[] matches = new long[smallest.size];
+            int count = 0;
+            for (int i = 0; i < smallest.size; i++) {
+                long id = smallest.ids[i];
+                if (containsInAll(lists, id) && matches(current.entries.get(id), needle, categoryId)) {
+                    matches[count++] = id;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] scan(String needle, Long categoryId) {
+        long[] matches = new long[current.entries.size()];
+        int count = 0;
+        for (Map.Entry<Long, Entry> entry : current.entries.entrySet()) {
+            if (matches(entry.getValue(), needle, categoryId)) {
+                matches[count++] = entry.getKey();
+            }
+        }
+        long[] result = Arrays.copyOf(matches, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static boolean containsInAll(List<Postings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(Entry entry, String needle, Long categoryId) {
+        return entry != null
+                && (categoryId == null || categoryId.equals(entry.categoryId))
+                && entry.name.contains(needle);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    // Packs each distinct run of three UTF-16 chars into one long key
+    private static long[] grams(String value) {
+        if (value.length() < GRAM) {
+            return new long[0];
+        }
+        long[] grams = new long[value.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    // Names and posting lists of one index; not thread-safe on its own
+    private static final class Trigrams {
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+
+        // Adds, replaces or, for a null entry, removes a product
+        void set(Long id, Entry entry) {
+            Entry previous = entry == null ? entries.remove(id) : entries.put(id, entry);
+            if (previous != null) {
+                for (long gram : grams(previous.name)) {
+                    Postings list = postings.get(gram);
+                    if (list != null && list.remove(id) && list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            if (entry != null) {
+                for (long gram : grams(entry.name)) {
+                    postings.computeIfAbsent(gram, key -> new Postings()).add(id);
+                }
+            }
+        }
+    }
+
+    // Sorted, growable array of ids; new products get increasing ids so adds are almost always appends
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0 && position < size) {
+                return;
+            }
+            int insertAt = position >= 0 ? position : -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
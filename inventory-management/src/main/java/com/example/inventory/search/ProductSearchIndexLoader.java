@@ -0,0 +1,62 @@
+package com.example.inventory.search;
+
+import com.example.inventory.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Rebuilds {@link ProductSearchIndex} from the database once the application is up. The rows are
+ * loaded into a separate index while the current one keeps serving, and writes committed meanwhile are
+ * replayed onto it before it is swapped in. Until the first rebuild finishes the index reports not
+ * ready and searches use the database query instead.
+ */
+@Component
+public class ProductSearchIndexLoader {
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexLoader.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.search.index.enabled:true}")
+    private boolean enabled = true;
+    @Value("${inventory.search.index.rebuild-chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        ProductSearchIndex.Rebuild rebuild = productSearchIndex.startRebuild();
+        // Not read-only, so the pages come from the primary: a lagging replica could miss a write
+        // committed just before the rebuild started, which the replay would not cover
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            long from = afterId;
+            rows = transaction.execute(status -> productRepository.findIndexRows(from, PageRequest.of(0, chunkSize)));
+            for (Object[] row : rows) {
+                rebuild.add((Long) row[0], (String) row[1], (Long) row[2]);
+                afterId = (Long) row[0];
+            }
+        } while (rows.size() == chunkSize);
+        productSearchIndex.finishRebuild(rebuild);
+        log.info("Product search index rebuilt with {} products in {} ms", rebuild.size(), System.currentTimeMillis() - start);
+    }
+}
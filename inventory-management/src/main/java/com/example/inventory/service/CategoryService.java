@@ -1,5 +1,6 @@
 package com.example.inventory.service;
 
+import com.example.inventory.dto.CategoryDeleteJobDto;
 import com.example.inventory.dto.CategoryDto;
 import com.example.inventory.model.Category;
 import java.util.List;
@@ -7,7 +8,11 @@ import java.util.List;
 public interface CategoryService {
     CategoryDto createCategory(CategoryDto categoryDto);
     CategoryDto getCategoryById(Long id);
+    CategoryDto getCategoryById(Long id, ExpandOptions expand);
     CategoryDto updateCategory(Long id, CategoryDto categoryDto);
     void deleteCategory(Long id);
+    CategoryDeleteJobDto deleteCategoryAsync(Long id);
+    CategoryDeleteJobDto getDeleteJob(String jobId);
     List<CategoryDto> getAllCategories();
+    List<CategoryDto> getAllCategories(ExpandOptions expand);
 } 
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.inventory.service;
+
+import com.example.inventory.exception.CustomValidationException;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parsed {@code expand} request parameter: which child collections a read should populate.
+ * Expanding SKUs on a category implies expanding its products.
+ */
+public final class ExpandOptions {
+    public static final String PRODUCTS = "products";
+    public static final String SKUS = "skus";
+    public static final ExpandOptions NONE = new ExpandOptions(false, false);
+
+    private final boolean products;
+    private final boolean skus;
+
+    private ExpandOptions(boolean products, boolean skus) {
+        this.products = products;
+        this.skus = skus;
+    }
+
+    public static ExpandOptions parse(String expand, String... allowed) {
+        if (!StringUtils.hasText(expand)) {
+            return NONE;
+        }
+        List<String> allowedValues = Arrays.asList(allowed);
+        boolean products = false;
+        boolean skus = false;
+        for (String token : expand.split(",")) {
+            String value = token.trim();
+            if (!allowedValues.contains(value)) {
+                throw new CustomValidationException("Unsupported expand value '" + value + "'; allowed: " + String.join(", ", allowedValues));
+            }
+            products |= PRODUCTS.equals(value);
+            skus |= SKUS.equals(value);
+        }
+        return new ExpandOptions(products, skus);
+    }
+
+    public boolean isProducts() {
+        return products || skus;
+    }
+
+    public boolean isSkus() {
+        return skus;
+    }
+
+    public boolean isNone() {
+        return !products && !skus;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.inventory.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+    long exportCatalog(OutputStream out) throws IOException;
+}
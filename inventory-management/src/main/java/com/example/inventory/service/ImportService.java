@@ -0,0 +1,12 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.ImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImportService {
+    enum Format { NDJSON, CSV }
+
+    ImportResultDto importCatalog(InputStream in, Format format) throws IOException;
+}
@@ -1,5 +1,6 @@
 package com.example.inventory.service;
 
+import com.example.inventory.dto.ProductCursorPageDto;
 import com.example.inventory.dto.ProductDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,7 +8,11 @@ import org.springframework.data.domain.Pageable;
 public interface ProductService {
     ProductDto createProduct(ProductDto productDto);
     ProductDto getProductById(Long id);
+    ProductDto getProductById(Long id, ExpandOptions expand);
     ProductDto updateProduct(Long id, ProductDto productDto);
     void deleteProduct(Long id);
     Page<ProductDto> searchProducts(String name, Long categoryId, Pageable pageable);
+    Page<ProductDto> searchProducts(String name, Long categoryId, Pageable pageable, ExpandOptions expand);
+    ProductCursorPageDto searchProductsByCursor(String name, Long categoryId, String cursor, int size, String sort);
+    ProductCursorPageDto searchProductsByCursor(String name, Long categoryId, String cursor, int size, String sort, ExpandOptions expand);
 } 
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.ReservationDto;
+
+public interface ReservationService {
+    ReservationDto reserve(Long productId, Long skuId, int quantity, Integer ttlSeconds);
+    ReservationDto commit(Long productId, Long skuId, String reservationId);
+    void release(Long productId, Long skuId, String reservationId);
+    int expireReservations();
+}
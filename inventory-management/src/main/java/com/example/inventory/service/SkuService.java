@@ -1,11 +1,22 @@
 package com.example.inventory.service;
 
+import com.example.inventory.dto.LowStockCountDto;
+import com.example.inventory.dto.LowStockPageDto;
+import com.example.inventory.dto.SkuBatchResultDto;
 import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.SkuQuantityDto;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface SkuService {
     SkuDto addSkuToProduct(Long productId, SkuDto skuDto);
-    SkuDto updateSku(Long skuId, SkuDto skuDto);
-    void deleteSku(Long skuId);
+    SkuBatchResultDto addSkusToProduct(Long productId, List<SkuDto> skuDtos);
+    SkuDto updateSku(Long productId, Long skuId, SkuDto skuDto);
+    SkuQuantityDto adjustQuantity(Long productId, Long skuId, int delta, Long expectedVersion);
+    void deleteSku(Long productId, Long skuId);
     List<SkuDto> getSkusByProduct(Long productId);
-} 
\ No newline at end of file
+    Map<Long, List<SkuDto>> getSkusByProductIds(Collection<Long> productIds);
+    LowStockPageDto getLowStock(Integer below, Long categoryId, String cursor, int size);
+    LowStockCountDto countLowStock(Integer below, Long categoryId);
+}
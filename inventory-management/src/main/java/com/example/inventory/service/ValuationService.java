@@ -0,0 +1,15 @@
+package com.example.inventory.service;
+
+import com.example.inventory.dto.StockValuationDto;
+import com.example.inventory.dto.ValuationReconciliationDto;
+
+import java.util.List;
+
+public interface ValuationService {
+    StockValuationDto getProductValuation(Long productId);
+    StockValuationDto getCategoryValuation(Long categoryId);
+    List<StockValuationDto> getCategoryValuations();
+    void rebuild();
+    ValuationReconciliationDto reconcile();
+    ValuationReconciliationDto getLastReconciliation();
+}
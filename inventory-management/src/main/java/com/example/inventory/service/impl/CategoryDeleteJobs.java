@@ -0,0 +1,250 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.dto.CategoryDeleteJobDto;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
+import com.example.inventory.search.ProductSearchIndex;
+import com.example.inventory.shard.ShardedSkuRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background deletes of whole categories. The JPA cascade behind a plain delete loads every product
+ * and SKU of the category into one persistence context and removes them row by row in a single
+ * transaction; a job instead takes {@code chunk-size} of the category's product ids at a time and
+ * removes those products and their SKUs with two set-based statements per committed chunk. Only one
+ * chunk of ids is held at once, and other writers wait at most one chunk for the rows it locks. The
+ * category row goes last, once no product refers to it, so products added meanwhile are picked up by
+ * a later chunk. Jobs run one at a time; a job cut short by a failure or a shutdown leaves whatever it
+ * had not reached yet, and can simply be submitted again. Finished jobs stay readable until
+ * {@code retained-jobs} newer ones have finished.
+ */
+@Component
+public class CategoryDeleteJobs {
+    private static final Logger log = LoggerFactory.getLogger(CategoryDeleteJobs.class);
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private SerializedResponseCache categoryResponseCache;
+    @Autowired
+    private SerializedResponseCache productResponseCache;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private SkuJournal skuJournal;
+    @Autowired
+    private StockAggregates stockAggregates;
+    @Autowired
+    private StockLedger stockLedger;
+    @Autowired
+    private ChangeFeed changeFeed;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
+
+    private final int chunkSize;
+    private final int retainedJobs;
+    private final ExecutorService worker;
+    // Guarded by itself; iteration order is submission order
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    public CategoryDeleteJobs(@Value("${inventory.category-delete.chunk-size:500}") int chunkSize,
+                              @Value("${inventory.category-delete.retained-jobs:100}") int retainedJobs) {
+        this.chunkSize = chunkSize;
+        this.retainedJobs = retainedJobs;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "category-delete");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Written only by the worker thread
+    private static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final long categoryId;
+        private final Instant submittedAt = Instant.now();
+        private volatile CategoryDeleteJobDto.Status status = CategoryDeleteJobDto.Status.QUEUED;
+        private volatile long productsDeleted;
+        private volatile long skusDeleted;
+        private volatile int chunksCommitted;
+        private volatile Instant finishedAt;
+        private volatile long elapsedMillis;
+        private volatile String error;
+
+        private Job(long categoryId) {
+            this.categoryId = categoryId;
+        }
+
+        private boolean isFinished() {
+            return status == CategoryDeleteJobDto.Status.COMPLETED || status == CategoryDeleteJobDto.Status.FAILED;
+        }
+    }
+
+    // What one committed chunk removed; products is empty for the final chunk that removes the category
+    private static final class Chunk {
+        private final List<Long> products;
+        private final int skus;
+        private final boolean categoryGone;
+
+        private Chunk(List<Long> products, int skus, boolean categoryGone) {
+            this.products = products;
+            this.skus = skus;
+            this.categoryGone = categoryGone;
+        }
+    }
+
+    /** Queues a delete of {@code categoryId}, or returns the job already queued or running for it. */
+    public CategoryDeleteJobDto submit(long categoryId) {
+        synchronized (jobs) {
+            for (Job job : jobs.values()) {
+                if (job.categoryId == categoryId && !job.isFinished()) {
+                    return toDto(job);
+                }
+            }
+            Job job = new Job(categoryId);
+            jobs.put(job.id, job);
+            prune();
+            worker.execute(() -> run(job));
+            return toDto(job);
+        }
+    }
+
+    public CategoryDeleteJobDto get(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new EntityNotFoundException("Category delete job not found");
+        }
+        return toDto(job);
+    }
+
+    private void run(Job job) {
+        long start = System.nanoTime();
+        job.status = CategoryDeleteJobDto.Status.RUNNING;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CategoryDeleteJobDto.Status outcome = CategoryDeleteJobDto.Status.FAILED;
+        try {
+            Chunk chunk;
+            do {
+                chunk = transaction.execute(status -> deleteChunk(job.categoryId));
+                job.productsDeleted += chunk.products.size();
+                job.skusDeleted += chunk.skus;
+                // Sharded SKUs of the chunk's products go once the products are committed gone
+                if (shardedSkuRepository.isEnabled() && !chunk.products.isEmpty()) {
+                    job.skusDeleted += shardedSkuRepository.deleteByProducts(chunk.products);
+                }
+                job.chunksCommitted++;
+            } while (!chunk.categoryGone);
+            outcome = CategoryDeleteJobDto.Status.COMPLETED;
+            log.info("Deleted category {}: {} products, {} SKUs in {} chunks", job.categoryId, job.productsDeleted, job.skusDeleted,
+                    job.chunksCommitted);
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            log.warn("Delete of category {} failed after {} products", job.categoryId, job.productsDeleted, e);
+        } finally {
+            job.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            job.finishedAt = Instant.now();
+            job.status = outcome;
+        }
+    }
+
+    // Runs inside the chunk's transaction; the caches, search index, journal and ledger below all defer
+    // their changes until it commits, so a chunk that rolls back leaves them as they were
+    private Chunk deleteChunk(long categoryId) {
+        MapSqlParameterSource category = new MapSqlParameterSource("categoryId", categoryId).addValue("limit", chunkSize);
+        List<Long> productIds = jdbcTemplate.queryForList(
+                "SELECT id FROM product WHERE category_id = :categoryId FETCH FIRST :limit ROWS ONLY", category, Long.class);
+        if (productIds.isEmpty()) {
+            // A product created since the select keeps the category; the next chunk takes it
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM category WHERE id = :categoryId AND NOT EXISTS (SELECT 1 FROM product WHERE category_id = :categoryId)", category);
+            if (deleted == 0) {
+                Integer remaining = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM category WHERE id = :categoryId", category, Integer.class);
+                return new Chunk(productIds, 0, remaining == null || remaining == 0);
+            }
+            categoryResponseCache.evict(categoryId);
+            stockAggregates.categoryRemoved(categoryId);
+            changeFeed.publish(ChangeEventDto.Entity.CATEGORY, ChangeEventDto.Type.DELETED, categoryId, null);
+            resourceVersions.categoryChanged(categoryId);
+            return new Chunk(productIds, 0, true);
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", productIds);
+        int skus = jdbcTemplate.update("DELETE FROM sku WHERE product_id IN (:ids)", ids);
+        jdbcTemplate.update("DELETE FROM product WHERE id IN (:ids)", ids);
+        for (Long productId : productIds) {
+            productResponseCache.evict(productId);
+            productSearchIndex.remove(productId);
+            changeFeed.publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.DELETED, productId, categoryId);
+            resourceVersions.productChanged(productId);
+            resourceVersions.skusChanged(productId);
+        }
+        skuJournal.productsDeleted(productIds);
+        stockAggregates.productsRemoved(productIds);
+        stockLedger.productsRemoved(productIds);
+        return new Chunk(productIds, skus, false);
+    }
+
+    // Drops the oldest finished jobs beyond the retention count
+    private void prune() {
+        int finished = 0;
+        for (Job job : jobs.values()) {
+            if (job.isFinished()) {
+                finished++;
+            }
+        }
+        for (Iterator<Job> it = jobs.values().iterator(); it.hasNext() && finished > retainedJobs; ) {
+            if (it.next().isFinished()) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+
+    private static CategoryDeleteJobDto toDto(Job job) {
+        CategoryDeleteJobDto dto = new CategoryDeleteJobDto();
+        dto.setId(job.id);
+        dto.setCategoryId(job.categoryId);
+        dto.setStatus(job.status);
+        dto.setProductsDeleted(job.productsDeleted);
+        dto.setSkusDeleted(job.skusDeleted);
+        dto.setChunksCommitted(job.chunksCommitted);
+        dto.setSubmittedAt(job.submittedAt);
+        dto.setFinishedAt(job.finishedAt);
+        dto.setElapsedMillis(job.elapsedMillis);
+        dto.setError(job.error);
+        return dto;
+    }
+
+    @PreDestroy
+    public void close() {
+        worker.shutdown();
+    }
+}
@@ -1,24 +1,67 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.dto.CategoryDeleteJobDto;
 import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
 import com.example.inventory.model.Category;
+import com.example.inventory.model.Product;
 import com.example.inventory.repository.CategoryRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.search.ProductSearchIndex;
 import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ExpandOptions;
+import com.example.inventory.service.SkuService;
+import com.example.inventory.shard.ShardedSkuRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SerializedResponseCache categoryResponseCache;
+    @Autowired
+    private SerializedResponseCache productResponseCache;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private SkuJournal skuJournal;
+    @Autowired
+    private StockAggregates stockAggregates;
+    @Autowired
+    private StockLedger stockLedger;
+    @Autowired
+    private ChangeFeed changeFeed;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private CategoryDeleteJobs categoryDeleteJobs;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
 
     private void validateCategoryName(String name) {
         if (!StringUtils.hasText(name) || name.length() < 4) {
-            throw new IllegalArgumentException("Category name must not be null and must be at least 4 characters long.");
+            throw new CustomValidationException("Category name must not be null and must be at least 4 characters long.");
         }
     }
 
@@ -26,10 +69,39 @@ public class CategoryServiceImpl implements CategoryService {
         CategoryDto dto = new CategoryDto();
         dto.setId(category.getId());
         dto.setName(category.getName());
-        // Not including products for simplicity
         return dto;
     }
 
+    // Products come from the fetch join; SKUs for every product are loaded with one IN query, never per row
+    private List<CategoryDto> toExpandedDtos(List<Category> categories, ExpandOptions expand) {
+        List<Long> productIds = new ArrayList<>();
+        for (Category category : categories) {
+            for (Product product : category.getProducts()) {
+                productIds.add(product.getId());
+            }
+        }
+        Map<Long, List<SkuDto>> skus = expand.isSkus() && !productIds.isEmpty()
+                ? skuService.getSkusByProductIds(productIds) : Collections.emptyMap();
+        List<CategoryDto> dtos = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            CategoryDto dto = toDto(category);
+            List<ProductDto> products = new ArrayList<>(category.getProducts().size());
+            for (Product product : category.getProducts()) {
+                ProductDto productDto = new ProductDto();
+                productDto.setId(product.getId());
+                productDto.setName(product.getName());
+                productDto.setCategoryId(category.getId());
+                if (expand.isSkus()) {
+                    productDto.setSkus(skus.getOrDefault(product.getId(), Collections.emptyList()));
+                }
+                products.add(productDto);
+            }
+            dto.setProducts(products);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
     private Category toEntity(CategoryDto dto) {
         Category category = new Category();
         category.setId(dto.getId());
@@ -42,10 +114,14 @@ public class CategoryServiceImpl implements CategoryService {
         validateCategoryName(categoryDto.getName());
         Category category = toEntity(categoryDto);
         Category saved = categoryRepository.save(category);
+        stockAggregates.categorySaved(saved.getId());
+        changeFeed.publish(ChangeEventDto.Entity.CATEGORY, ChangeEventDto.Type.CREATED, saved.getId(), null);
+        resourceVersions.categoryChanged(saved.getId());
         return toDto(saved);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CategoryDto getCategoryById(Long id) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category not found"));
@@ -53,12 +129,27 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CategoryDto getCategoryById(Long id, ExpandOptions expand) {
+        if (expand.isNone()) {
+            return getCategoryById(id);
+        }
+        Category category = categoryRepository.findWithProductsById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Category not found"));
+        return toExpandedDtos(Collections.singletonList(category), expand).get(0);
+    }
+
+    @Override
+    @Transactional
     public CategoryDto updateCategory(Long id, CategoryDto categoryDto) {
         validateCategoryName(categoryDto.getName());
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Category not found"));
         category.setName(categoryDto.getName());
         Category updated = categoryRepository.save(category);
+        categoryResponseCache.evict(id);
+        changeFeed.publish(ChangeEventDto.Entity.CATEGORY, ChangeEventDto.Type.UPDATED, id, null);
+        resourceVersions.categoryChanged(id);
         return toDto(updated);
     }
 
@@ -67,11 +158,53 @@ public class CategoryServiceImpl implements CategoryService {
         if (!categoryRepository.existsById(id)) {
             throw new EntityNotFoundException("Category not found");
         }
+        // Products go with the category via cascade, so their cached responses must go too
+        List<Long> productIds = productRepository.findIdsByCategoryId(id);
         categoryRepository.deleteById(id);
+        if (shardedSkuRepository.isEnabled() && !productIds.isEmpty()) {
+            shardedSkuRepository.deleteByProducts(productIds);
+        }
+        categoryResponseCache.evict(id);
+        for (Long productId : productIds) {
+            productResponseCache.evict(productId);
+            productSearchIndex.remove(productId);
+            changeFeed.publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.DELETED, productId, id);
+            resourceVersions.productChanged(productId);
+            resourceVersions.skusChanged(productId);
+        }
+        skuJournal.productsDeleted(productIds);
+        stockAggregates.productsRemoved(productIds);
+        stockLedger.productsRemoved(productIds);
+        stockAggregates.categoryRemoved(id);
+        changeFeed.publish(ChangeEventDto.Entity.CATEGORY, ChangeEventDto.Type.DELETED, id, null);
+        resourceVersions.categoryChanged(id);
+    }
+
+    @Override
+    public CategoryDeleteJobDto deleteCategoryAsync(Long id) {
+        if (!categoryRepository.existsById(id)) {
+            throw new EntityNotFoundException("Category not found");
+        }
+        return categoryDeleteJobs.submit(id);
+    }
+
+    @Override
+    public CategoryDeleteJobDto getDeleteJob(String jobId) {
+        return categoryDeleteJobs.get(jobId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CategoryDto> getAllCategories() {
         return categoryRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CategoryDto> getAllCategories(ExpandOptions expand) {
+        if (expand.isNone()) {
+            return getAllCategories();
+        }
+        return toExpandedDtos(categoryRepository.findAllWithProducts(), expand);
+    }
 } 
\ No newline at end of file
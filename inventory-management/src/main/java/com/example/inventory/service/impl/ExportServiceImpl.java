@@ -0,0 +1,141 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.repository.CategoryRepository;
+import com.example.inventory.service.ExportService;
+import com.example.inventory.shard.ShardedSkuRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog as NDJSON: each category line is followed by its products, each product
+ * line by its SKUs. Rows are pulled one at a time from a forward-only cursor and written straight to
+ * the generator, so heap use does not depend on catalog size. With SKU shards the cursor yields no
+ * SKUs; products are then held back {@value #FLUSH_EVERY} at a time and written with the SKUs of the
+ * whole group, fetched from the shards in one round.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+    private static final int FLUSH_EVERY = 1000;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCatalog(OutputStream out) throws IOException {
+        boolean sharded = shardedSkuRepository.isEnabled();
+        long records = 0;
+        try (Stream<Object[]> rows = categoryRepository.streamCatalogRows();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            List<Object[]> heldProducts = new ArrayList<>(FLUSH_EVERY);
+            Long currentCategory = null;
+            Long currentProduct = null;
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Long categoryId = (Long) row[0];
+                Long productId = (Long) row[2];
+                Long skuId = (Long) row[4];
+                if (!Objects.equals(categoryId, currentCategory)) {
+                    records = writeHeldProducts(generator, heldProducts, records);
+                    currentCategory = categoryId;
+                    currentProduct = null;
+                    generator.writeStartObject();
+                    generator.writeStringField("type", "category");
+                    generator.writeNumberField("id", categoryId);
+                    generator.writeStringField("name", (String) row[1]);
+                    generator.writeEndObject();
+                    records = newline(generator, records);
+                }
+                if (productId != null && !productId.equals(currentProduct)) {
+                    currentProduct = productId;
+                    if (sharded) {
+                        heldProducts.add(row);
+                        if (heldProducts.size() == FLUSH_EVERY) {
+                            records = writeHeldProducts(generator, heldProducts, records);
+                        }
+                    } else {
+                        records = writeProduct(generator, row, records);
+                    }
+                }
+                if (skuId != null) {
+                    records = writeSku(generator, skuId, productId, (String) row[5], (Integer) row[6], (Double) row[7], records);
+                }
+            }
+            records = writeHeldProducts(generator, heldProducts, records);
+            generator.flush();
+        }
+        return records;
+    }
+
+    private long writeHeldProducts(JsonGenerator generator, List<Object[]> heldProducts, long records) throws IOException {
+        if (heldProducts.isEmpty()) {
+            return records;
+        }
+        List<Long> productIds = new ArrayList<>(heldProducts.size());
+        for (Object[] row : heldProducts) {
+            productIds.add((Long) row[2]);
+        }
+        Map<Long, List<SkuDto>> skus = shardedSkuRepository.findByProductIds(productIds);
+        long written = records;
+        for (Object[] row : heldProducts) {
+            written = writeProduct(generator, row, written);
+            for (SkuDto sku : skus.getOrDefault((Long) row[2], Collections.emptyList())) {
+                written = writeSku(generator, sku.getId(), sku.getProductId(), sku.getCode(), sku.getQuantity(), sku.getPrice(), written);
+            }
+        }
+        heldProducts.clear();
+        return written;
+    }
+
+    private long writeProduct(JsonGenerator generator, Object[] row, long records) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "product");
+        generator.writeNumberField("id", (Long) row[2]);
+        generator.writeNumberField("categoryId", (Long) row[0]);
+        generator.writeStringField("name", (String) row[3]);
+        generator.writeEndObject();
+        return newline(generator, records);
+    }
+
+    private long writeSku(JsonGenerator generator, Long id, Long productId, String code, int quantity, double price, long records)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "sku");
+        generator.writeNumberField("id", id);
+        generator.writeNumberField("productId", productId);
+        generator.writeStringField("code", code);
+        generator.writeNumberField("quantity", quantity);
+        generator.writeNumberField("price", price);
+        generator.writeEndObject();
+        return newline(generator, records);
+    }
+
+    private long newline(JsonGenerator generator, long records) throws IOException {
+        generator.writeRaw('\n');
+        long written = records + 1;
+        if (written % FLUSH_EVERY == 0) {
+            generator.flush();
+        }
+        return written;
+    }
+}
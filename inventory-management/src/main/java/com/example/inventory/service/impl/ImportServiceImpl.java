@@ -0,0 +1,472 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.CatalogRecordDto;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.ImportErrorDto;
+import com.example.inventory.dto.ImportResultDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
+import com.example.inventory.model.Category;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.Sku;
+import com.example.inventory.repository.SkuRepository;
+import com.example.inventory.search.ProductSearchIndex;
+import com.example.inventory.service.ImportService;
+import com.example.inventory.shard.ShardedSkuRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a catalog file line by line and commits it in chunks of {@code inventory.import.chunk-size}
+ * records. File-local ids are resolved to database ids through in-memory maps, parents are attached
+ * with {@link EntityManager#getReference} instead of being loaded, and the persistence context is
+ * flushed and cleared every {@code inventory.sku.batch-size} records. Invalid rows are rejected
+ * individually; a chunk that fails in the database is rolled back and stops the import. With SKU
+ * shards, a chunk's SKUs are written to their shards once its products have committed; a failure
+ * there stops the import with the chunk's categories and products kept and its SKUs not counted.
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+    private static final Logger log = LoggerFactory.getLogger(ImportServiceImpl.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private SkuJournal skuJournal;
+    @Autowired
+    private StockAggregates stockAggregates;
+    @Autowired
+    private ChangeFeed changeFeed;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private SkuRepository skuRepository;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Value("${inventory.import.chunk-size:1000}")
+    private int chunkSize;
+    @Value("${inventory.sku.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public ImportResultDto importCatalog(InputStream in, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportResultDto result = new ImportResultDto();
+        result.setFormat(format.name());
+        result.setErrors(new ArrayList<>());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        IdMaps committed = new IdMaps();
+        List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String[] header = null;
+        boolean completed = true;
+        long lineNumber = 0;
+        String line;
+        while (completed && (line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = parseCsv(line).toArray(new String[0]);
+                continue;
+            }
+            try {
+                CatalogRecordDto record = format == Format.CSV
+                        ? fromCsv(header, parseCsv(line))
+                        : objectMapper.readValue(line, CatalogRecordDto.class);
+                chunk.add(new ParsedLine(lineNumber, record));
+            } catch (JsonProcessingException e) {
+                reject(result, lineNumber, "Malformed record: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                reject(result, lineNumber, "Malformed record: " + e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                completed = commitChunk(transaction, chunk, committed, result);
+                chunk.clear();
+            }
+        }
+        if (completed && !chunk.isEmpty()) {
+            completed = commitChunk(transaction, chunk, committed, result);
+        }
+        result.setLines(lineNumber);
+        result.setCompleted(completed);
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private boolean commitChunk(TransactionTemplate transaction, List<ParsedLine> chunk, IdMaps committed, ImportResultDto result) {
+        IdMaps pending = new IdMaps();
+        List<ImportErrorDto> rejections = new ArrayList<>();
+        try {
+            transaction.executeWithoutResult(status -> {
+                pending.existingSkuKeys.addAll(existingSkuKeys(chunk, committed));
+                int sinceFlush = 0;
+                for (ParsedLine parsed : chunk) {
+                    String error = apply(parsed.record, committed, pending);
+                    if (error != null) {
+                        rejections.add(new ImportErrorDto(parsed.line, error));
+                    } else if (++sinceFlush == batchSize) {
+                        entityManager.flush();
+                        entityManager.clear();
+                        sinceFlush = 0;
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            reject(result, chunk.get(0).line, "Chunk starting at this line was rolled back and the import stopped: " + e.getMessage());
+            return false;
+        }
+        boolean skusStored = true;
+        if (!pending.shardSkus.isEmpty()) {
+            try {
+                shardedSkuRepository.insertAll(pending.shardSkus);
+            } catch (RuntimeException e) {
+                reject(result, chunk.get(0).line, "SKUs of the chunk starting at this line could not be stored and the import stopped: "
+                        + e.getMessage());
+                skusStored = false;
+                pending.newSkus.clear();
+                pending.skus = 0;
+            }
+        }
+        committed.categoryIds.putAll(pending.categoryIds);
+        committed.productIds.putAll(pending.productIds);
+        for (Long categoryId : pending.newCategoryIds) {
+            stockAggregates.categorySaved(categoryId);
+            changeFeed.publish(ChangeEventDto.Entity.CATEGORY, ChangeEventDto.Type.CREATED, categoryId, null);
+            resourceVersions.categoryChanged(categoryId);
+        }
+        for (PendingProduct product : pending.products) {
+            productSearchIndex.index(product.id, product.name, product.categoryId);
+            stockAggregates.productSaved(product.id, product.categoryId);
+            changeFeed.publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.CREATED, product.id, product.categoryId);
+            resourceVersions.productChanged(product.id);
+            resourceVersions.skusChanged(product.id);
+        }
+        if (skuJournal.isEnabled()) {
+            List<SkuDto> journaled = new ArrayList<>(pending.newSkus.size());
+            for (PendingSku sku : pending.newSkus) {
+                journaled.add(sku.toDto());
+            }
+            skuJournal.skusSaved(journaled);
+        }
+        for (PendingSku sku : pending.newSkus) {
+            stockAggregates.skuSaved(sku.id, sku.productId, sku.quantity, sku.price, 0L);
+            changeFeed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.CREATED, sku.id, sku.productId, 0L);
+            resourceVersions.skusChanged(sku.productId);
+        }
+        for (ImportErrorDto rejection : rejections) {
+            reject(result, rejection.getLine(), rejection.getMessage());
+        }
+        result.setCategoriesCreated(result.getCategoriesCreated() + pending.categories);
+        result.setProductsCreated(result.getProductsCreated() + pending.products.size());
+        result.setSkusCreated(result.getSkusCreated() + pending.skus);
+        result.setChunksCommitted(result.getChunksCommitted() + 1);
+        log.info("Import chunk {} committed through line {} ({} categories, {} products, {} SKUs so far)",
+                result.getChunksCommitted(), chunk.get(chunk.size() - 1).line,
+                result.getCategoriesCreated(), result.getProductsCreated(), result.getSkusCreated());
+        return skusStored;
+    }
+
+    private String apply(CatalogRecordDto record, IdMaps committed, IdMaps pending) {
+        String type = record.getType() == null ? "" : record.getType().toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "category":
+                return importCategory(record, committed, pending);
+            case "product":
+                return importProduct(record, committed, pending);
+            case "sku":
+                return importSku(record, committed, pending);
+            default:
+                return "Unknown record type: " + record.getType();
+        }
+    }
+
+    private String importCategory(CatalogRecordDto record, IdMaps committed, IdMaps pending) {
+        if (!StringUtils.hasText(record.getName()) || record.getName().length() < 4) {
+            return "Category name must not be null and must be at least 4 characters long.";
+        }
+        if (record.getId() != null && resolve(record.getId(), committed.categoryIds, pending.categoryIds) != null) {
+            return "Duplicate category id " + record.getId();
+        }
+        Category category = new Category();
+        category.setName(record.getName());
+        entityManager.persist(category);
+        if (record.getId() != null) {
+            pending.categoryIds.put(record.getId(), category.getId());
+        }
+        pending.newCategoryIds.add(category.getId());
+        pending.categories++;
+        return null;
+    }
+
+    private String importProduct(CatalogRecordDto record, IdMaps committed, IdMaps pending) {
+        if (!StringUtils.hasText(record.getName())) {
+            return "Product name must not be null";
+        }
+        if (record.getCategoryId() == null) {
+            return "Product must belong to a category";
+        }
+        Long categoryId = resolve(record.getCategoryId(), committed.categoryIds, pending.categoryIds);
+        if (categoryId == null) {
+            return "Unknown category id " + record.getCategoryId();
+        }
+        if (record.getId() != null && resolve(record.getId(), committed.productIds, pending.productIds) != null) {
+            return "Duplicate product id " + record.getId();
+        }
+        Product product = new Product();
+        product.setName(record.getName());
+        product.setCategory(entityManager.getReference(Category.class, categoryId));
+        entityManager.persist(product);
+        if (record.getId() != null) {
+            pending.productIds.put(record.getId(), product.getId());
+        }
+        pending.products.add(new PendingProduct(product.getId(), product.getName(), categoryId));
+        return null;
+    }
+
+    private String importSku(CatalogRecordDto record, IdMaps committed, IdMaps pending) {
+        if (record.getProductId() == null) {
+            return "SKU must belong to a product";
+        }
+        if (!StringUtils.hasText(record.getCode())) {
+            return "Code must not be null";
+        }
+        if (record.getPrice() == null || record.getPrice() <= 0) {
+            return "Price must be greater than 0";
+        }
+        if (record.getQuantity() == null || record.getQuantity() < 0) {
+            return "Quantity must be >= 0";
+        }
+        Long productId = resolve(record.getProductId(), committed.productIds, pending.productIds);
+        if (productId == null) {
+            return "Unknown product id " + record.getProductId();
+        }
+        // Every referenced product was created by this import: earlier chunks are checked against the
+        // database up front, this chunk against the keys it has added so far
+        String key = skuKey(productId, record.getCode());
+        if (pending.existingSkuKeys.contains(key) || !pending.skuKeys.add(key)) {
+            return "SKU code already exists for this product";
+        }
+        Long skuId;
+        if (shardedSkuRepository.isEnabled()) {
+            // Held until the products it refers to have committed
+            SkuDto sku = new SkuDto();
+            sku.setId(shardedSkuRepository.nextId());
+            sku.setProductId(productId);
+            sku.setCode(record.getCode());
+            sku.setQuantity(record.getQuantity());
+            sku.setPrice(record.getPrice());
+            pending.shardSkus.add(sku);
+            skuId = sku.getId();
+        } else {
+            Sku sku = new Sku();
+            sku.setCode(record.getCode());
+            sku.setQuantity(record.getQuantity());
+            sku.setPrice(record.getPrice());
+            sku.setProduct(entityManager.getReference(Product.class, productId));
+            entityManager.persist(sku);
+            skuId = sku.getId();
+        }
+        pending.newSkus.add(new PendingSku(skuId, productId, record.getCode(), record.getQuantity(), record.getPrice()));
+        pending.skus++;
+        return null;
+    }
+
+    /**
+     * Keys of the chunk's SKUs that already exist under products committed by earlier chunks, read with
+     * one query per such product. Only the current chunk's keys are held, however long the import runs;
+     * a product's SKUs usually follow it in the file, so there are rarely more than one or two queries.
+     */
+    private Set<String> existingSkuKeys(List<ParsedLine> chunk, IdMaps committed) {
+        Map<Long, Set<String>> codesByProduct = new HashMap<>();
+        for (ParsedLine parsed : chunk) {
+            CatalogRecordDto record = parsed.record;
+            if (!"sku".equalsIgnoreCase(record.getType()) || record.getProductId() == null || record.getCode() == null) {
+                continue;
+            }
+            Long productId = committed.productIds.get(record.getProductId());
+            if (productId != null) {
+                codesByProduct.computeIfAbsent(productId, id -> new HashSet<>()).add(record.getCode());
+            }
+        }
+        Set<String> keys = new HashSet<>();
+        for (Map.Entry<Long, Set<String>> entry : codesByProduct.entrySet()) {
+            List<String> existing = shardedSkuRepository.isEnabled()
+                    ? shardedSkuRepository.findExistingCodes(entry.getKey(), entry.getValue())
+                    : skuRepository.findExistingCodes(entry.getKey(), entry.getValue());
+            for (String code : existing) {
+                keys.add(skuKey(entry.getKey(), code));
+            }
+        }
+        return keys;
+    }
+
+    private static String skuKey(Long productId, String code) {
+        return productId + ":" + code;
+    }
+
+    private static Long resolve(String ref, Map<String, Long> committed, Map<String, Long> pending) {
+        Long id = pending.get(ref);
+        return id != null ? id : committed.get(ref);
+    }
+
+    private static void reject(ImportResultDto result, long line, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ImportErrorDto(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static CatalogRecordDto fromCsv(String[] header, List<String> values) {
+        CatalogRecordDto record = new CatalogRecordDto();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (header[i].trim()) {
+                case "type": record.setType(value); break;
+                case "id": record.setId(value); break;
+                case "categoryId": record.setCategoryId(value); break;
+                case "productId": record.setProductId(value); break;
+                case "name": record.setName(value); break;
+                case "code": record.setCode(value); break;
+                case "quantity": record.setQuantity(Integer.valueOf(value)); break;
+                case "price": record.setPrice(Double.valueOf(value)); break;
+                default: break;
+            }
+        }
+        return record;
+    }
+
+    // RFC 4180 quoting within a single line; quoted fields may not span lines
+    static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static class ParsedLine {
+        private final long line;
+        private final CatalogRecordDto record;
+
+        ParsedLine(long line, CatalogRecordDto record) {
+            this.line = line;
+            this.record = record;
+        }
+    }
+
+    private static class PendingProduct {
+        private final Long id;
+        private final String name;
+        private final Long categoryId;
+
+        PendingProduct(Long id, String name, Long categoryId) {
+            this.id = id;
+            this.name = name;
+            this.categoryId = categoryId;
+        }
+    }
+
+    private static class PendingSku {
+        private final Long id;
+        private final Long productId;
+        private final String code;
+        private final int quantity;
+        private final double price;
+
+        PendingSku(Long id, Long productId, String code, int quantity, double price) {
+            this.id = id;
+            this.productId = productId;
+            this.code = code;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        SkuDto toDto() {
+            SkuDto dto = new SkuDto();
+            dto.setId(id);
+            dto.setProductId(productId);
+            dto.setCode(code);
+            dto.setQuantity(quantity);
+            dto.setPrice(price);
+            dto.setVersion(0L);
+            return dto;
+        }
+    }
+
+    private static class IdMaps {
+        private final Map<String, Long> categoryIds = new HashMap<>();
+        private final Map<String, Long> productIds = new HashMap<>();
+        private final Set<String> skuKeys = new HashSet<>();
+        private final Set<String> existingSkuKeys = new HashSet<>();
+        private final List<PendingProduct> products = new ArrayList<>();
+        private final List<Long> newCategoryIds = new ArrayList<>();
+        private final List<PendingSku> newSkus = new ArrayList<>();
+        private final List<SkuDto> shardSkus = new ArrayList<>();
+        private long categories;
+        private long skus;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.exception.CustomValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for low-stock paging: the mode plus the sort key (quantity, or quantity minus
+ * reorder threshold) and id of the last row returned. Encoded as unpadded base64url of
+ * {@code v1:<mode>:<lastKey>:<lastId>}.
+ */
+final class LowStockCursor {
+    static final String MODE_BELOW = "below";
+    static final String MODE_THRESHOLD = "threshold";
+    private static final String VERSION = "v1";
+
+    final String mode;
+    final int lastKey;
+    final long lastId;
+
+    LowStockCursor(String mode, int lastKey, long lastId) {
+        this.mode = mode;
+        this.lastKey = lastKey;
+        this.lastId = lastId;
+    }
+
+    static LowStockCursor first(String mode) {
+        return new LowStockCursor(mode, Integer.MIN_VALUE, 0L);
+    }
+
+    String encode() {
+        String raw = VERSION + ":" + mode + ":" + lastKey + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static LowStockCursor decode(String cursor, String mode) {
+        if (cursor == null || cursor.isEmpty()) {
+            return first(mode);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0]) || !parts[1].equals(mode)) {
+                throw new CustomValidationException("Invalid cursor");
+            }
+            return new LowStockCursor(parts[1], Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new CustomValidationException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.exception.CustomValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for product search: the sort field plus the sort key and id of the last row
+ * returned. Encoded as unpadded base64url of {@code v1:<sort>:<lastId>:<lastName>}.
+ */
+final class ProductCursor {
+    static final String SORT_ID = "id";
+    static final String SORT_NAME = "name";
+    private static final String VERSION = "v1";
+
+    final String sort;
+    final long lastId;
+    final String lastName;
+
+    ProductCursor(String sort, long lastId, String lastName) {
+        this.sort = sort;
+        this.lastId = lastId;
+        this.lastName = lastName;
+    }
+
+    static ProductCursor first(String sort) {
+        return new ProductCursor(sort, 0L, null);
+    }
+
+    String encode() {
+        String raw = VERSION + ":" + sort + ":" + lastId + ":" + (lastName != null ? lastName : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor, String sort) {
+        if (cursor == null || cursor.isEmpty()) {
+            return first(sort);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0]) || !parts[1].equals(sort)) {
+                throw new CustomValidationException("Invalid cursor");
+            }
+            return new ProductCursor(parts[1], Long.parseLong(parts[2]), SORT_NAME.equals(sort) ? parts[3] : null);
+        } catch (IllegalArgumentException e) {
+            throw new CustomValidationException("Invalid cursor");
+        }
+    }
+}
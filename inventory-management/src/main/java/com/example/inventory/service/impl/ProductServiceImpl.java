@@ -1,20 +1,39 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.ProductCursorPageDto;
 import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
 import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
 import com.example.inventory.model.Category;
 import com.example.inventory.model.Product;
 import com.example.inventory.repository.CategoryRepository;
 import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.search.ProductSearchIndex;
+import com.example.inventory.service.ExpandOptions;
 import com.example.inventory.service.ProductService;
+import com.example.inventory.service.SkuService;
+import com.example.inventory.shard.ShardedSkuRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +42,24 @@ public class ProductServiceImpl implements ProductService {
     private ProductRepository productRepository;
     @Autowired
     private CategoryRepository categoryRepository;
+    @Autowired
+    private SerializedResponseCache productResponseCache;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private SkuJournal skuJournal;
+    @Autowired
+    private StockAggregates stockAggregates;
+    @Autowired
+    private StockLedger stockLedger;
+    @Autowired
+    private ChangeFeed changeFeed;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
 
     private ProductDto toDto(Product product) {
         ProductDto dto = new ProductDto();
@@ -32,6 +69,18 @@ public class ProductServiceImpl implements ProductService {
         return dto;
     }
 
+    // One IN query for the SKUs of every product in the result instead of one query per product
+    private void attachSkus(List<ProductDto> dtos, ExpandOptions expand) {
+        if (!expand.isSkus() || dtos.isEmpty()) {
+            return;
+        }
+        List<Long> ids = dtos.stream().map(ProductDto::getId).collect(Collectors.toList());
+        Map<Long, List<SkuDto>> skus = skuService.getSkusByProductIds(ids);
+        for (ProductDto dto : dtos) {
+            dto.setSkus(skus.getOrDefault(dto.getId(), Collections.emptyList()));
+        }
+    }
+
     private Product toEntity(ProductDto dto) {
         Product product = new Product();
         product.setId(dto.getId());
@@ -55,10 +104,16 @@ public class ProductServiceImpl implements ProductService {
         product.setName(productDto.getName());
         product.setCategory(category);
         Product saved = productRepository.save(product);
+        productSearchIndex.index(saved.getId(), saved.getName(), category.getId());
+        stockAggregates.productSaved(saved.getId(), category.getId());
+        changeFeed.publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.CREATED, saved.getId(), category.getId());
+        resourceVersions.productChanged(saved.getId());
+        resourceVersions.skusChanged(saved.getId());
         return toDto(saved);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ProductDto getProductById(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
@@ -66,6 +121,15 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ProductDto getProductById(Long id, ExpandOptions expand) {
+        ProductDto dto = getProductById(id);
+        attachSkus(Collections.singletonList(dto), expand);
+        return dto;
+    }
+
+    @Override
+    @Transactional
     public ProductDto updateProduct(Long id, ProductDto productDto) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
@@ -78,6 +142,12 @@ public class ProductServiceImpl implements ProductService {
             product.setCategory(category);
         }
         Product updated = productRepository.save(product);
+        productResponseCache.evict(id);
+        Long categoryId = updated.getCategory() != null ? updated.getCategory().getId() : null;
+        productSearchIndex.index(id, updated.getName(), categoryId);
+        stockAggregates.productSaved(id, categoryId);
+        changeFeed.publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.UPDATED, id, categoryId);
+        resourceVersions.productChanged(id);
         return toDto(updated);
     }
 
@@ -87,12 +157,103 @@ public class ProductServiceImpl implements ProductService {
             throw new EntityNotFoundException("Product not found");
         }
         productRepository.deleteById(id);
+        // Sharded SKUs are not reached by the cascade; they go once the product is gone
+        if (shardedSkuRepository.isEnabled()) {
+            shardedSkuRepository.deleteByProducts(Collections.singletonList(id));
+        }
+        productResponseCache.evict(id);
+        productSearchIndex.remove(id);
+        skuJournal.productsDeleted(Collections.singletonList(id));
+        stockAggregates.productsRemoved(Collections.singletonList(id));
+        stockLedger.productsRemoved(Collections.singletonList(id));
+        changeFeed.publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.DELETED, id, null);
+        resourceVersions.productChanged(id);
+        resourceVersions.skusChanged(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ProductDto> searchProducts(String name, Long categoryId, Pageable pageable) {
+        if (name != null && productSearchIndex.isReady() && pageable.getSort().isUnsorted()) {
+            return searchIndexed(name, categoryId, pageable);
+        }
         Page<Product> page = productRepository.search(name, categoryId, pageable);
         List<ProductDto> dtos = page.getContent().stream().map(this::toDto).collect(Collectors.toList());
         return new PageImpl<>(dtos, pageable, page.getTotalElements());
     }
-} 
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDto> searchProducts(String name, Long categoryId, Pageable pageable, ExpandOptions expand) {
+        Page<ProductDto> page = searchProducts(name, categoryId, pageable);
+        attachSkus(page.getContent(), expand);
+        return page;
+    }
+
+    // The index picks the matching ids (ascending); only the requested page is loaded from the database
+    private Page<ProductDto> searchIndexed(String name, Long categoryId, Pageable pageable) {
+        long[] ids = productSearchIndex.search(name, categoryId);
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<ProductDto> dtos = loadInOrder(ids, from, to).stream().map(this::toDto).collect(Collectors.toList());
+        return new PageImpl<>(dtos, pageable, ids.length);
+    }
+
+    private List<Product> loadInOrder(long[] ids, int from, int to) {
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(ids[i]);
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(pageIds)) {
+            products.put(product.getId(), product);
+        }
+        return pageIds.stream().map(products::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductCursorPageDto searchProductsByCursor(String name, Long categoryId, String cursor, int size, String sort) {
+        if (size < 1) {
+            throw new CustomValidationException("Page size must be >= 1");
+        }
+        String sortField = sort != null ? sort : ProductCursor.SORT_ID;
+        if (!ProductCursor.SORT_ID.equals(sortField) && !ProductCursor.SORT_NAME.equals(sortField)) {
+            throw new CustomValidationException("Cursor sort must be 'id' or 'name'");
+        }
+        ProductCursor after = ProductCursor.decode(cursor, sortField);
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<Product> rows;
+        if (ProductCursor.SORT_ID.equals(sortField) && name != null && productSearchIndex.isReady()) {
+            long[] ids = productSearchIndex.search(name, categoryId);
+            int position = Arrays.binarySearch(ids, after.lastId);
+            int from = position >= 0 ? position + 1 : -position - 1;
+            rows = loadInOrder(ids, from, Math.min(from + size + 1, ids.length));
+        } else if (ProductCursor.SORT_ID.equals(sortField)) {
+            rows = productRepository.searchAfterId(name, categoryId, after.lastId, PageRequest.of(0, size + 1));
+        } else {
+            rows = productRepository.searchAfterName(name, categoryId, after.lastName, after.lastId, PageRequest.of(0, size + 1));
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<Product> page = hasNext ? rows.subList(0, size) : rows;
+        ProductCursorPageDto dto = new ProductCursorPageDto();
+        dto.setContent(page.stream().map(this::toDto).collect(Collectors.toList()));
+        dto.setSize(page.size());
+        dto.setHasNext(hasNext);
+        if (hasNext) {
+            Product last = page.get(page.size() - 1);
+            dto.setNextCursor(new ProductCursor(sortField, last.getId(), last.getName()).encode());
+        }
+        return dto;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductCursorPageDto searchProductsByCursor(String name, Long categoryId, String cursor, int size, String sort, ExpandOptions expand) {
+        ProductCursorPageDto page = searchProductsByCursor(name, categoryId, cursor, size, sort);
+        attachSkus(page.getContent(), expand);
+        return page;
+    }
+}
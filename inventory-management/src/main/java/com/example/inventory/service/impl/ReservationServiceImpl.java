@@ -0,0 +1,178 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.ReservationDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.jdbc.AfterCommit;
+import com.example.inventory.journal.SkuJournal;
+import com.example.inventory.model.Sku;
+import com.example.inventory.repository.SkuRepository;
+import com.example.inventory.service.ReservationService;
+import com.example.inventory.shard.ShardedSkuRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ReservationServiceImpl implements ReservationService {
+    @Autowired
+    private SkuRepository skuRepository;
+    @Autowired
+    private StockLedger stockLedger;
+    @Autowired
+    private SkuJournal skuJournal;
+    @Autowired
+    private StockAggregates stockAggregates;
+    @Autowired
+    private ChangeFeed changeFeed;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
+
+    @Value("${inventory.reservation.default-ttl-seconds:900}")
+    private int defaultTtlSeconds = 900;
+    @Value("${inventory.reservation.max-ttl-seconds:3600}")
+    private int maxTtlSeconds = 3600;
+
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private static final class Reservation {
+        private final String id;
+        private final Long productId;
+        private final Long skuId;
+        private final int quantity;
+        private final Instant expiresAt;
+
+        private Reservation(String id, Long productId, Long skuId, int quantity, Instant expiresAt) {
+            this.id = id;
+            this.productId = productId;
+            this.skuId = skuId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private ReservationDto toDto(Reservation reservation, ReservationDto.Status status) {
+        ReservationDto dto = new ReservationDto();
+        dto.setId(reservation.id);
+        dto.setProductId(reservation.productId);
+        dto.setSkuId(reservation.skuId);
+        dto.setQuantity(reservation.quantity);
+        dto.setStatus(status);
+        dto.setExpiresAt(reservation.expiresAt);
+        return dto;
+    }
+
+    // Sharded, only the product's shard is asked, so a SKU of another product is simply not found
+    private StockLedger.SkuStock loadStock(Long productId, Long skuId) {
+        if (shardedSkuRepository.isEnabled()) {
+            SkuDto sku = shardedSkuRepository.findInProduct(productId, skuId)
+                    .orElseThrow(() -> new EntityNotFoundException("SKU not found"));
+            return new StockLedger.SkuStock(productId, sku.getQuantity());
+        }
+        Sku sku = skuRepository.findById(skuId)
+                .orElseThrow(() -> new EntityNotFoundException("SKU not found"));
+        return new StockLedger.SkuStock(sku.getProduct().getId(), sku.getQuantity());
+    }
+
+    private Reservation take(Long productId, Long skuId, String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.skuId.equals(skuId) || !reservation.productId.equals(productId)
+                || !reservations.remove(reservationId, reservation)) {
+            throw new EntityNotFoundException("Reservation not found");
+        }
+        return reservation;
+    }
+
+    @Override
+    public ReservationDto reserve(Long productId, Long skuId, int quantity, Integer ttlSeconds) {
+        if (quantity < 1) {
+            throw new CustomValidationException("Quantity must be >= 1");
+        }
+        int ttl = ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+        if (ttl < 1 || ttl > maxTtlSeconds) {
+            throw new CustomValidationException("TTL must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+        StockLedger.SkuStock stock = stockLedger.getOrLoad(skuId, id -> loadStock(productId, id));
+        if (!stock.getProductId().equals(productId)) {
+            throw new EntityNotFoundException("SKU not found");
+        }
+        if (!stock.tryReserve(quantity)) {
+            throw new CustomValidationException("Insufficient stock");
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), productId, skuId, quantity,
+                Instant.now().plusSeconds(ttl));
+        reservations.put(reservation.id, reservation);
+        return toDto(reservation, ReservationDto.Status.HELD);
+    }
+
+    @Override
+    @Transactional
+    public ReservationDto commit(Long productId, Long skuId, String reservationId) {
+        Reservation reservation = take(productId, skuId, reservationId);
+        StockLedger.SkuStock stock = stockLedger.getOrLoad(skuId, id -> loadStock(productId, id));
+        List<Object[]> rows;
+        try {
+            // Conditional decrement that hands back the new quantity and version for the journal
+            rows = shardedSkuRepository.isEnabled()
+                    ? shardedSkuRepository.adjustQuantity(productId, skuId, -reservation.quantity, null)
+                    : skuRepository.adjustQuantity(productId, skuId, -reservation.quantity);
+        } catch (RuntimeException e) {
+            // The reservation is already taken out of the map, so its hold must not outlive it
+            stock.release(reservation.quantity);
+            throw e;
+        }
+        if (rows.isEmpty()) {
+            // On-hand stock was lowered underneath us (e.g. a full PUT); the database refuses to oversell
+            stock.release(reservation.quantity);
+            throw new CustomValidationException("Insufficient stock");
+        }
+        // The hold becomes a sale only once the decrement commits; a rollback hands it back
+        AfterCommit.run(() -> stock.consume(reservation.quantity), () -> stock.release(reservation.quantity));
+        skuJournal.quantityChanged(skuId, ((Number) rows.get(0)[0]).intValue(), ((Number) rows.get(0)[1]).longValue());
+        stockAggregates.quantityDecremented(skuId, reservation.quantity);
+        changeFeed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.UPDATED, skuId, productId);
+        resourceVersions.skusChanged(productId);
+        return toDto(reservation, ReservationDto.Status.COMMITTED);
+    }
+
+    @Override
+    public void release(Long productId, Long skuId, String reservationId) {
+        Reservation reservation = take(productId, skuId, reservationId);
+        releaseHold(reservation);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:1000}")
+    public int expireReservations() {
+        Instant now = Instant.now();
+        int expired = 0;
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.expiresAt.isBefore(now) && reservations.remove(reservation.id, reservation)) {
+                releaseHold(reservation);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    private void releaseHold(Reservation reservation) {
+        StockLedger.SkuStock stock = stockLedger.get(reservation.skuId);
+        if (stock != null) {
+            stock.release(reservation.quantity);
+        }
+    }
+}
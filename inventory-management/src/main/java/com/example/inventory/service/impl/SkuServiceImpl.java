@@ -1,34 +1,103 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.LowStockCountDto;
+import com.example.inventory.dto.LowStockPageDto;
+import com.example.inventory.dto.SkuBatchItemDto;
+import com.example.inventory.dto.SkuBatchResultDto;
 import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.SkuQuantityDto;
 import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
 import com.example.inventory.model.Product;
 import com.example.inventory.model.Sku;
 import com.example.inventory.repository.ProductRepository;
 import com.example.inventory.repository.SkuRepository;
 import com.example.inventory.service.SkuService;
+import com.example.inventory.shard.ShardedSkuRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class SkuServiceImpl implements SkuService {
+    // Upper bound on bind parameters per IN-list when checking existing codes
+    private static final int IN_CLAUSE_CHUNK = 1000;
+    private static final String DUPLICATE_CODE = "SKU with this code already exists for the product";
+    // The (product_id, code) unique constraint from the schema migrations
+    private static final String UNIQUE_CODE_CONSTRAINT = "UK_SKU_PRODUCT_CODE";
+
     @Autowired
     private SkuRepository skuRepository;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private StockLedger stockLedger;
+    @Autowired
+    private SkuJournal skuJournal;
+    @Autowired
+    private StockAggregates stockAggregates;
+    @Autowired
+    private ChangeFeed changeFeed;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${inventory.sku.batch-size:500}")
+    private int batchSize = 500;
+    @Value("${inventory.sku.max-batch-items:10000}")
+    private int maxBatchItems = 10000;
 
     private void validateSkuFields(SkuDto skuDto) {
-        if (skuDto.getPrice() <= 0) {
-            throw new CustomValidationException("Price must be greater than 0");
+        String error = checkSkuFields(skuDto);
+        if (error != null) {
+            throw new CustomValidationException(error);
+        }
+    }
+
+    private String checkSkuFields(SkuDto skuDto) {
+        if (skuDto == null) {
+            return "SKU must not be null";
+        }
+        if (!StringUtils.hasText(skuDto.getCode())) {
+            return "Code must not be null";
+        }
+        if (skuDto.getPrice() == null || skuDto.getPrice() <= 0) {
+            return "Price must be greater than 0";
         }
         if (skuDto.getQuantity() < 0) {
-            throw new CustomValidationException("Quantity must be >= 0");
+            return "Quantity must be >= 0";
+        }
+        if (skuDto.getReorderThreshold() != null && skuDto.getReorderThreshold() < 0) {
+            return "Reorder threshold must be >= 0";
         }
+        return null;
     }
 
     private SkuDto toDto(Sku sku) {
@@ -37,8 +106,9 @@ public class SkuServiceImpl implements SkuService {
         dto.setCode(sku.getCode());
         dto.setQuantity(sku.getQuantity());
         dto.setProductId(sku.getProduct() != null ? sku.getProduct().getId() : null);
-        // Add price if present in SkuDto/Sku
-        try { dto.setPrice((Double) Sku.class.getDeclaredField("price").get(sku)); } catch (Exception ignored) {}
+        dto.setPrice(sku.getPrice());
+        dto.setReorderThreshold(sku.getReorderThreshold());
+        dto.setVersion(sku.getVersion());
         return dto;
     }
 
@@ -48,50 +118,388 @@ public class SkuServiceImpl implements SkuService {
         sku.setCode(dto.getCode());
         sku.setQuantity(dto.getQuantity());
         sku.setProduct(product);
-        // Add price if present in SkuDto/Sku
-        try { Sku.class.getDeclaredField("price").set(sku, dto.getPrice()); } catch (Exception ignored) {}
+        sku.setPrice(dto.getPrice());
+        sku.setReorderThreshold(dto.getReorderThreshold());
         return sku;
     }
 
     @Override
     public SkuDto addSkuToProduct(Long productId, SkuDto skuDto) {
         validateSkuFields(skuDto);
+        SkuDto dto;
+        if (shardedSkuRepository.isEnabled()) {
+            if (!productRepository.existsById(productId)) {
+                throw new EntityNotFoundException("Product not found");
+            }
+            dto = unique(() -> shardedSkuRepository.insert(productId, skuDto));
+        } else {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Product not found"));
+            Sku sku = toEntity(skuDto, product);
+            dto = toDto(unique(() -> skuRepository.save(sku)));
+        }
+        skuJournal.skuSaved(dto);
+        stockAggregates.skuSaved(dto.getId(), productId, dto.getQuantity(), dto.getPrice(), dto.getVersion());
+        changeFeed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.CREATED, dto.getId(), productId, dto.getVersion());
+        resourceVersions.skusChanged(productId);
+        return dto;
+    }
+
+    @Override
+    @Transactional
+    public SkuBatchResultDto addSkusToProduct(Long productId, List<SkuDto> skuDtos) {
+        if (skuDtos.size() > maxBatchItems) {
+            throw new CustomValidationException("Batch must not contain more than " + maxBatchItems + " SKUs");
+        }
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
-        Optional<Sku> existing = skuRepository.findByProductAndCode(product, skuDto.getCode());
-        if (existing.isPresent()) {
-            throw new CustomValidationException("SKU with this code already exists for the product");
+
+        // Validate the whole payload in memory before touching the database
+        List<SkuBatchItemDto> items = new ArrayList<>(skuDtos.size());
+        Set<String> payloadCodes = new HashSet<>();
+        for (int i = 0; i < skuDtos.size(); i++) {
+            SkuDto dto = skuDtos.get(i);
+            SkuBatchItemDto item = new SkuBatchItemDto();
+            item.setIndex(i);
+            item.setCode(dto != null ? dto.getCode() : null);
+            String error = checkSkuFields(dto);
+            if (error == null && !payloadCodes.add(dto.getCode())) {
+                error = "Duplicate SKU code in request";
+            }
+            if (error != null) {
+                reject(item, error);
+            }
+            items.add(item);
+        }
+
+        // One set-based lookup per chunk instead of one query per SKU
+        Set<String> existingCodes = new HashSet<>();
+        List<String> codes = new ArrayList<>(payloadCodes);
+        for (int from = 0; from < codes.size(); from += IN_CLAUSE_CHUNK) {
+            List<String> chunk = codes.subList(from, Math.min(from + IN_CLAUSE_CHUNK, codes.size()));
+            existingCodes.addAll(shardedSkuRepository.isEnabled()
+                    ? shardedSkuRepository.findExistingCodes(productId, chunk) : skuRepository.findExistingCodes(productId, chunk));
+        }
+
+        int created = shardedSkuRepository.isEnabled()
+                ? insertIntoShard(productId, skuDtos, items, existingCodes) : persistBatches(product, skuDtos, items, existingCodes);
+
+        SkuBatchResultDto result = new SkuBatchResultDto();
+        result.setReceived(skuDtos.size());
+        result.setCreated(created);
+        result.setRejected(skuDtos.size() - created);
+        result.setItems(items);
+        return result;
+    }
+
+    private int persistBatches(Product product, List<SkuDto> skuDtos, List<SkuBatchItemDto> items, Set<String> existingCodes) {
+        List<Sku> pending = new ArrayList<>(batchSize);
+        List<SkuBatchItemDto> pendingItems = new ArrayList<>(batchSize);
+        int created = 0;
+        for (int i = 0; i < skuDtos.size(); i++) {
+            SkuBatchItemDto item = items.get(i);
+            if (!accept(item, existingCodes)) {
+                continue;
+            }
+            Sku sku = toEntity(skuDtos.get(i), product);
+            sku.setId(null);
+            entityManager.persist(sku);
+            pending.add(sku);
+            pendingItems.add(item);
+            if (pending.size() >= batchSize) {
+                created += flushBatch(pending, pendingItems);
+            }
         }
-        Sku sku = toEntity(skuDto, product);
-        Sku saved = skuRepository.save(sku);
-        return toDto(saved);
+        return created + flushBatch(pending, pendingItems);
+    }
+
+    // All SKUs of a product live on one shard, so the whole payload goes in one shard transaction
+    private int insertIntoShard(Long productId, List<SkuDto> skuDtos, List<SkuBatchItemDto> items, Set<String> existingCodes) {
+        List<SkuDto> accepted = new ArrayList<>();
+        List<SkuBatchItemDto> acceptedItems = new ArrayList<>();
+        for (int i = 0; i < skuDtos.size(); i++) {
+            if (accept(items.get(i), existingCodes)) {
+                accepted.add(skuDtos.get(i));
+                acceptedItems.add(items.get(i));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+        List<SkuDto> inserted = unique(() -> shardedSkuRepository.insertAll(productId, accepted));
+        for (int i = 0; i < inserted.size(); i++) {
+            acceptedItems.get(i).setStatus(SkuBatchItemDto.Status.CREATED);
+            acceptedItems.get(i).setId(inserted.get(i).getId());
+        }
+        skusCreated(productId, inserted);
+        return inserted.size();
+    }
+
+    private boolean accept(SkuBatchItemDto item, Set<String> existingCodes) {
+        if (item.getStatus() == SkuBatchItemDto.Status.REJECTED) {
+            return false;
+        }
+        if (existingCodes.contains(item.getCode())) {
+            reject(item, DUPLICATE_CODE);
+            return false;
+        }
+        return true;
+    }
+
+    // Pushes the pending inserts as one JDBC batch and detaches them so the persistence context stays small
+    private int flushBatch(List<Sku> pending, List<SkuBatchItemDto> pendingItems) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        try {
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            // A concurrent request took one of the codes after the lookup above
+            if (isDuplicateCode(e)) {
+                throw new CustomValidationException(DUPLICATE_CODE);
+            }
+            throw e;
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            SkuBatchItemDto item = pendingItems.get(i);
+            item.setStatus(SkuBatchItemDto.Status.CREATED);
+            item.setId(pending.get(i).getId());
+        }
+        skusCreated(pending.get(0).getProduct().getId(), pending.stream().map(this::toDto).collect(Collectors.toList()));
+        entityManager.clear();
+        int flushed = pending.size();
+        pending.clear();
+        pendingItems.clear();
+        return flushed;
+    }
+
+    private void skusCreated(Long productId, List<SkuDto> created) {
+        for (SkuDto sku : created) {
+            stockAggregates.skuSaved(sku.getId(), productId, sku.getQuantity(), sku.getPrice(), sku.getVersion());
+            changeFeed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.CREATED, sku.getId(), productId, sku.getVersion());
+        }
+        resourceVersions.skusChanged(productId);
+        if (skuJournal.isEnabled()) {
+            skuJournal.skusSaved(created);
+        }
+    }
+
+    // No lookup first: the unique constraint rejects a duplicate code, which also holds for two concurrent requests
+    private static <T> T unique(Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateCode(e)) {
+                throw new CustomValidationException(DUPLICATE_CODE);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isDuplicateCode(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toUpperCase(Locale.ROOT).contains(UNIQUE_CODE_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(SkuBatchItemDto item, String message) {
+        item.setStatus(SkuBatchItemDto.Status.REJECTED);
+        item.setMessage(message);
     }
 
     @Override
-    public SkuDto updateSku(Long skuId, SkuDto skuDto) {
+    @Transactional
+    public SkuDto updateSku(Long productId, Long skuId, SkuDto skuDto) {
         validateSkuFields(skuDto);
-        Sku sku = skuRepository.findById(skuId)
+        SkuDto dto;
+        if (shardedSkuRepository.isEnabled()) {
+            SkuDto current = shardedSkuRepository.findInProduct(productId, skuId)
+                    .orElseThrow(() -> new EntityNotFoundException("SKU not found"));
+            dto = unique(() -> shardedSkuRepository.update(current, skuDto));
+        } else {
+            Sku sku = findInProduct(productId, skuId);
+            sku.setCode(skuDto.getCode());
+            sku.setQuantity(skuDto.getQuantity());
+            sku.setPrice(skuDto.getPrice());
+            sku.setReorderThreshold(skuDto.getReorderThreshold());
+            // Flushed so a duplicate code surfaces here and the returned version is the new one
+            dto = toDto(unique(() -> skuRepository.saveAndFlush(sku)));
+        }
+        stockLedger.updateOnHand(skuId, dto.getQuantity());
+        skuJournal.skuSaved(dto);
+        stockAggregates.skuSaved(skuId, dto.getProductId(), dto.getQuantity(), dto.getPrice(), dto.getVersion());
+        changeFeed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.UPDATED, skuId, dto.getProductId(), dto.getVersion());
+        resourceVersions.skusChanged(dto.getProductId());
+        return dto;
+    }
+
+    // A SKU addressed under another product is reported as missing, as on the sharded path
+    private Sku findInProduct(Long productId, Long skuId) {
+        return skuRepository.findById(skuId)
+                .filter(found -> found.getProduct() != null && productId.equals(found.getProduct().getId()))
                 .orElseThrow(() -> new EntityNotFoundException("SKU not found"));
-        sku.setCode(skuDto.getCode());
-        sku.setQuantity(skuDto.getQuantity());
-        // Add price if present
-        try { Sku.class.getDeclaredField("price").set(sku, skuDto.getPrice()); } catch (Exception ignored) {}
-        Sku updated = skuRepository.save(sku);
-        return toDto(updated);
     }
 
     @Override
-    public void deleteSku(Long skuId) {
-        if (!skuRepository.existsById(skuId)) {
-            throw new EntityNotFoundException("SKU not found");
+    public SkuQuantityDto adjustQuantity(Long productId, Long skuId, int delta, Long expectedVersion) {
+        boolean sharded = shardedSkuRepository.isEnabled();
+        List<Object[]> rows;
+        if (sharded) {
+            rows = shardedSkuRepository.adjustQuantity(productId, skuId, delta, expectedVersion);
+        } else {
+            rows = expectedVersion == null
+                    ? skuRepository.adjustQuantity(productId, skuId, delta)
+                    : skuRepository.adjustQuantity(productId, skuId, delta, expectedVersion);
+        }
+        if (rows.isEmpty()) {
+            // Only the failure path pays for a lookup, to report why the conditional update matched nothing
+            Optional<SkuDto> current = sharded ? shardedSkuRepository.findInProduct(productId, skuId) : skuRepository.findById(skuId)
+                    .filter(found -> found.getProduct() != null && productId.equals(found.getProduct().getId()))
+                    .map(this::toDto);
+            SkuDto sku = current.orElseThrow(() -> new EntityNotFoundException("SKU not found"));
+            if (expectedVersion != null && !expectedVersion.equals(sku.getVersion())) {
+                throw new OptimisticLockingFailureException("SKU was modified concurrently; expected version " + expectedVersion
+                        + " but found " + sku.getVersion());
+            }
+            throw new CustomValidationException("Quantity must be >= 0");
         }
-        skuRepository.deleteById(skuId);
+        Object[] row = rows.get(0);
+        SkuQuantityDto dto = new SkuQuantityDto();
+        dto.setSkuId(skuId);
+        dto.setQuantity(((Number) row[0]).intValue());
+        dto.setVersion(((Number) row[1]).longValue());
+        stockLedger.updateOnHand(skuId, dto.getQuantity());
+        skuJournal.quantityChanged(skuId, dto.getQuantity(), dto.getVersion());
+        stockAggregates.quantityChanged(skuId, dto.getQuantity(), dto.getVersion());
+        changeFeed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.UPDATED, skuId, productId, dto.getVersion());
+        resourceVersions.skusChanged(productId);
+        return dto;
     }
 
     @Override
+    @Transactional
+    public void deleteSku(Long productId, Long skuId) {
+        if (shardedSkuRepository.isEnabled()) {
+            if (shardedSkuRepository.delete(productId, skuId) == 0) {
+                throw new EntityNotFoundException("SKU not found");
+            }
+        } else {
+            skuRepository.delete(findInProduct(productId, skuId));
+        }
+        stockLedger.remove(skuId);
+        skuJournal.skuDeleted(skuId);
+        stockAggregates.skuRemoved(skuId);
+        changeFeed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.DELETED, skuId, productId);
+        resourceVersions.skusChanged(productId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<SkuDto> getSkusByProduct(Long productId) {
+        if (shardedSkuRepository.isEnabled()) {
+            if (!productRepository.existsById(productId)) {
+                throw new EntityNotFoundException("Product not found");
+            }
+            return shardedSkuRepository.findByProduct(productId);
+        }
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
         return skuRepository.findByProduct(product).stream().map(this::toDto).collect(Collectors.toList());
     }
-} 
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<SkuDto>> getSkusByProductIds(Collection<Long> productIds) {
+        if (shardedSkuRepository.isEnabled()) {
+            return shardedSkuRepository.findByProductIds(productIds);
+        }
+        Map<Long, List<SkuDto>> skusByProduct = new HashMap<>();
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()));
+            for (Sku sku : skuRepository.findByProductIdIn(chunk)) {
+                SkuDto dto = toDto(sku);
+                skusByProduct.computeIfAbsent(dto.getProductId(), id -> new ArrayList<>()).add(dto);
+            }
+        }
+        return skusByProduct;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LowStockPageDto getLowStock(Integer below, Long categoryId, String cursor, int size) {
+        if (size < 1) {
+            throw new CustomValidationException("Page size must be >= 1");
+        }
+        String mode = lowStockMode(below);
+        LowStockCursor after = LowStockCursor.decode(cursor, mode);
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<SkuDto> rows;
+        if (shardedSkuRepository.isEnabled()) {
+            rows = shardedSkuRepository.findLowStock(below, categoryProductIds(categoryId), after.lastKey, after.lastId, size + 1);
+        } else {
+            PageRequest limit = PageRequest.of(0, size + 1);
+            List<Sku> skus;
+            if (below != null) {
+                skus = categoryId == null
+                        ? skuRepository.findQuantityBelow(below, after.lastKey, after.lastId, limit)
+                        : skuRepository.findQuantityBelowInCategory(below, categoryId, after.lastKey, after.lastId, limit);
+            } else {
+                skus = categoryId == null
+                        ? skuRepository.findBelowReorderThreshold(after.lastKey, after.lastId, limit)
+                        : skuRepository.findBelowReorderThresholdInCategory(categoryId, after.lastKey, after.lastId, limit);
+            }
+            rows = skus.stream().map(this::toDto).collect(Collectors.toList());
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<SkuDto> page = hasNext ? rows.subList(0, size) : rows;
+        LowStockPageDto dto = new LowStockPageDto();
+        dto.setContent(new ArrayList<>(page));
+        dto.setSize(page.size());
+        dto.setHasNext(hasNext);
+        if (hasNext) {
+            SkuDto last = page.get(page.size() - 1);
+            int lastKey = below != null ? last.getQuantity() : last.getQuantity() - last.getReorderThreshold();
+            dto.setNextCursor(new LowStockCursor(mode, lastKey, last.getId()).encode());
+        }
+        return dto;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LowStockCountDto countLowStock(Integer below, Long categoryId) {
+        lowStockMode(below);
+        long count;
+        if (shardedSkuRepository.isEnabled()) {
+            count = shardedSkuRepository.countLowStock(below, categoryProductIds(categoryId));
+        } else if (below != null) {
+            count = categoryId == null ? skuRepository.countQuantityBelow(below) : skuRepository.countQuantityBelowInCategory(below, categoryId);
+        } else {
+            count = categoryId == null ? skuRepository.countBelowReorderThreshold() : skuRepository.countBelowReorderThresholdInCategory(categoryId);
+        }
+        LowStockCountDto dto = new LowStockCountDto();
+        dto.setBelow(below);
+        dto.setCategoryId(categoryId);
+        dto.setCount(count);
+        return dto;
+    }
+
+    // Shards hold no categories, so a category filter becomes the list of its product ids
+    private List<Long> categoryProductIds(Long categoryId) {
+        return categoryId == null ? null : productRepository.findIdsByCategoryId(categoryId);
+    }
+
+    // A fixed limit when one is given, otherwise each SKU's own reorder threshold
+    private static String lowStockMode(Integer below) {
+        if (below != null && below < 0) {
+            throw new CustomValidationException("below must be >= 0");
+        }
+        return below != null ? LowStockCursor.MODE_BELOW : LowStockCursor.MODE_THRESHOLD;
+    }
+}
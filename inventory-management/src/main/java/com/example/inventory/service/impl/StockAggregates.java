@@ -0,0 +1,405 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.jdbc.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running SKU count, on-hand units and stock value per product and per category, adjusted on every
+ * SKU mutation so valuation reads are a map lookup. The last applied quantity, price and version of
+ * each SKU are kept to turn a mutation into a delta; a mutation older than the version already
+ * applied (two updates finishing out of order) is ignored. Value is held in minor currency units
+ * ({@link #PRICE_SCALE} decimal places) as a long, so sums stay exact. Changes made inside a
+ * transaction are applied after it commits. Writers serialize on one lock; readers see immutable
+ * {@link Totals} and never block.
+ */
+@Component
+public class StockAggregates {
+    public static final int PRICE_SCALE = 2;
+
+    // A ReentrantLock rather than a monitor, so a virtual thread waiting for it releases its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private final Map<Long, SkuEntry> skus = new HashMap<>();
+    private final Map<Long, Long> productCategories = new HashMap<>();
+
+    private final ConcurrentHashMap<Long, Totals> productTotals = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Totals> categoryTotals = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public static final class Totals {
+        public static final Totals ZERO = new Totals(0, 0, 0);
+
+        private final long skuCount;
+        private final long units;
+        private final long valueMinorUnits;
+
+        public Totals(long skuCount, long units, long valueMinorUnits) {
+            this.skuCount = skuCount;
+            this.units = units;
+            this.valueMinorUnits = valueMinorUnits;
+        }
+
+        public long getSkuCount() {
+            return skuCount;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public long getValueMinorUnits() {
+            return valueMinorUnits;
+        }
+
+        public Totals plus(long skuCount, long units, long valueMinorUnits) {
+            return new Totals(this.skuCount + skuCount, this.units + units, this.valueMinorUnits + valueMinorUnits);
+        }
+
+        public Totals minus(Totals other) {
+            return plus(-other.skuCount, -other.units, -other.valueMinorUnits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Totals)) {
+                return false;
+            }
+            Totals other = (Totals) o;
+            return skuCount == other.skuCount && units == other.units && valueMinorUnits == other.valueMinorUnits;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(skuCount) * 31 * 31 + Long.hashCode(units) * 31 + Long.hashCode(valueMinorUnits);
+        }
+
+        @Override
+        public String toString() {
+            return skuCount + " SKUs, " + units + " units, value " + toMajorUnits(valueMinorUnits);
+        }
+    }
+
+    private static final class SkuEntry {
+        private final long productId;
+        private final int quantity;
+        private final long priceMinorUnits;
+        private final long version;
+
+        private SkuEntry(long productId, int quantity, long priceMinorUnits, long version) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.priceMinorUnits = priceMinorUnits;
+            this.version = version;
+        }
+    }
+
+    /** Price in minor units, rounded half-up from its shortest decimal form so 1.005 becomes 101. */
+    public static long toMinorUnits(double price) {
+        return BigDecimal.valueOf(price).setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toMajorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, PRICE_SCALE);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public Totals getProduct(Long productId) {
+        return productTotals.get(productId);
+    }
+
+    public Totals getCategory(Long categoryId) {
+        return categoryTotals.get(categoryId);
+    }
+
+    /** Every known category, ordered by id. */
+    public Map<Long, Totals> getCategories() {
+        return new TreeMap<>(categoryTotals);
+    }
+
+    public Long getProductCategory(Long productId) {
+        lock.lock();
+        try {
+            return productCategories.get(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Every known product with its category (which may be null). */
+    public Map<Long, Long> getProductCategories() {
+        lock.lock();
+        try {
+            return new HashMap<>(productCategories);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void categorySaved(long categoryId) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                categoryTotals.putIfAbsent(categoryId, Totals.ZERO);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public void categoryRemoved(long categoryId) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                categoryTotals.remove(categoryId);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /** Registers a product, or moves its totals to {@code categoryId} if it changed category. */
+    public void productSaved(long productId, Long categoryId) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                Totals totals = productTotals.computeIfAbsent(productId, id -> Totals.ZERO);
+                boolean known = productCategories.containsKey(productId);
+                Long previous = productCategories.put(productId, categoryId);
+                if (categoryId != null) {
+                    categoryTotals.putIfAbsent(categoryId, Totals.ZERO);
+                }
+                if (known && equal(previous, categoryId)) {
+                    return;
+                }
+                if (known) {
+                    addToCategory(previous, Totals.ZERO.minus(totals));
+                }
+                addToCategory(categoryId, totals);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /** Drops the products, their SKUs and their contribution to category totals. */
+    public void productsRemoved(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Set<Long> removed = new HashSet<>(productIds);
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                // A full pass over the SKUs; product deletes are rare next to SKU writes
+                skus.values().removeIf(entry -> removed.contains(entry.productId));
+                for (Long productId : removed) {
+                    Totals totals = productTotals.remove(productId);
+                    Long categoryId = productCategories.remove(productId);
+                    if (totals != null) {
+                        addToCategory(categoryId, Totals.ZERO.minus(totals));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /** Applies the SKU's full state; a null version is treated as newer than anything applied. */
+    public void skuSaved(long skuId, long productId, int quantity, double price, Long version) {
+        long priceMinorUnits = toMinorUnits(price);
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                SkuEntry current = skus.get(skuId);
+                long next = version != null ? version : current != null ? current.version + 1 : 0;
+                if (current != null && next < current.version) {
+                    return;
+                }
+                replace(skuId, current, new SkuEntry(productId, quantity, priceMinorUnits, next));
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public void quantityChanged(long skuId, int quantity, long version) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                SkuEntry current = skus.get(skuId);
+                if (current == null || version < current.version) {
+                    return;
+                }
+                replace(skuId, current, new SkuEntry(current.productId, quantity, current.priceMinorUnits, version));
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /** A relative change whose resulting version the caller does not know, e.g. a reservation commit. */
+    public void quantityDecremented(long skuId, int amount) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                SkuEntry current = skus.get(skuId);
+                if (current == null) {
+                    return;
+                }
+                replace(skuId, current, new SkuEntry(current.productId, current.quantity - amount, current.priceMinorUnits,
+                        current.version + 1));
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    public void skuRemoved(long skuId) {
+        AfterCommit.run(() -> {
+            lock.lock();
+            try {
+                SkuEntry current = skus.get(skuId);
+                if (current != null) {
+                    replace(skuId, current, null);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Replaces what is held for one product with rows read from the database
+     * ({@code skuId, productId, quantity, price, version}), used by reconciliation to repair drift. With
+     * {@code exists == false} the product is dropped.
+     */
+    public void resetProduct(long productId, boolean exists, Long categoryId, List<Object[]> skuRows) {
+        lock.lock();
+        try {
+            List<Long> stale = new ArrayList<>();
+            for (Map.Entry<Long, SkuEntry> entry : skus.entrySet()) {
+                if (entry.getValue().productId == productId) {
+                    stale.add(entry.getKey());
+                }
+            }
+            for (Long skuId : stale) {
+                replace(skuId, skus.get(skuId), null);
+            }
+            Totals leftover = productTotals.remove(productId);
+            Long previousCategory = productCategories.remove(productId);
+            if (leftover != null) {
+                addToCategory(previousCategory, Totals.ZERO.minus(leftover));
+            }
+            if (!exists) {
+                return;
+            }
+            productTotals.put(productId, Totals.ZERO);
+            productCategories.put(productId, categoryId);
+            if (categoryId != null) {
+                categoryTotals.putIfAbsent(categoryId, Totals.ZERO);
+            }
+            for (Object[] row : skuRows) {
+                long skuId = ((Number) row[0]).longValue();
+                long version = row[4] != null ? ((Number) row[4]).longValue() : 0;
+                replace(skuId, null, new SkuEntry(productId, ((Number) row[2]).intValue(), toMinorUnits(((Number) row[3]).doubleValue()), version));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recomputes every category total from the product totals, replaces those that differ and
+     * returns their ids.
+     */
+    public List<Long> repairCategoryTotals() {
+        lock.lock();
+        try {
+            Map<Long, Totals> expected = new HashMap<>();
+            for (Long categoryId : categoryTotals.keySet()) {
+                expected.put(categoryId, Totals.ZERO);
+            }
+            for (Map.Entry<Long, Totals> product : productTotals.entrySet()) {
+                Long categoryId = productCategories.get(product.getKey());
+                if (categoryId != null) {
+                    expected.merge(categoryId, product.getValue(), (a, b) -> a.plus(b.skuCount, b.units, b.valueMinorUnits));
+                }
+            }
+            List<Long> repaired = new ArrayList<>();
+            for (Map.Entry<Long, Totals> category : expected.entrySet()) {
+                if (!category.getValue().equals(categoryTotals.get(category.getKey()))) {
+                    categoryTotals.put(category.getKey(), category.getValue());
+                    repaired.add(category.getKey());
+                }
+            }
+            return repaired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            ready = false;
+            skus.clear();
+            productCategories.clear();
+            productTotals.clear();
+            categoryTotals.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void replace(long skuId, SkuEntry previous, SkuEntry next) {
+        if (previous != null) {
+            addToProduct(previous.productId, -1, -previous.quantity, -previous.quantity * previous.priceMinorUnits);
+        }
+        if (next != null) {
+            skus.put(skuId, next);
+            addToProduct(next.productId, 1, next.quantity, next.quantity * next.priceMinorUnits);
+        } else {
+            skus.remove(skuId);
+        }
+    }
+
+    private void addToProduct(long productId, long skuCount, long units, long valueMinorUnits) {
+        productTotals.put(productId, productTotals.getOrDefault(productId, Totals.ZERO).plus(skuCount, units, valueMinorUnits));
+        addToCategory(productCategories.get(productId), Totals.ZERO.plus(skuCount, units, valueMinorUnits));
+    }
+
+    private void addToCategory(Long categoryId, Totals delta) {
+        if (categoryId == null) {
+            return;
+        }
+        Totals current = categoryTotals.get(categoryId);
+        if (current != null) {
+            categoryTotals.put(categoryId, current.plus(delta.skuCount, delta.units, delta.valueMinorUnits));
+        }
+    }
+
+    private static boolean equal(Long a, Long b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
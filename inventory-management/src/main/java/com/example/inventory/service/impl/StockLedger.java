@@ -0,0 +1,135 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.jdbc.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory view of on-hand and reserved units per SKU. Reservations are admitted here with a
+ * CAS on a single packed word, so concurrent checkouts of a hot SKU never queue on its database row.
+ * The database stays the source of truth: commits still go through a conditional decrement.
+ */
+@Component
+public class StockLedger {
+    private final ConcurrentHashMap<Long, SkuStock> stocks = new ConcurrentHashMap<>();
+
+    public SkuStock getOrLoad(Long skuId, Function<Long, SkuStock> loader) {
+        return stocks.computeIfAbsent(skuId, loader);
+    }
+
+    public SkuStock get(Long skuId) {
+        return stocks.get(skuId);
+    }
+
+    // Applied once the write commits, so a rolled-back update never admits reservations against
+    // units the database does not have
+    public void updateOnHand(Long skuId, int onHand) {
+        AfterCommit.run(() -> {
+            SkuStock stock = stocks.get(skuId);
+            if (stock != null) {
+                stock.setOnHand(onHand);
+            }
+        });
+    }
+
+    public void remove(Long skuId) {
+        AfterCommit.run(() -> stocks.remove(skuId));
+    }
+
+    // Evicts every SKU of the deleted products once the delete commits, so a recreated SKU id never
+    // inherits stale reservations
+    public void productsRemoved(Collection<Long> productIds) {
+        Set<Long> removed = new HashSet<>(productIds);
+        AfterCommit.run(() -> stocks.values().removeIf(stock -> removed.contains(stock.getProductId())));
+    }
+
+    public static final class SkuStock {
+        private final Long productId;
+        // High 32 bits: on-hand units, low 32 bits: reserved units
+        private final AtomicLong state;
+
+        public SkuStock(Long productId, int onHand) {
+            this.productId = productId;
+            this.state = new AtomicLong(pack(onHand, 0));
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public int getOnHand() {
+            return onHand(state.get());
+        }
+
+        public int getReserved() {
+            return reserved(state.get());
+        }
+
+        public int getAvailable() {
+            long current = state.get();
+            return onHand(current) - reserved(current);
+        }
+
+        public boolean tryReserve(int quantity) {
+            while (true) {
+                long current = state.get();
+                int onHand = onHand(current);
+                int reserved = reserved(current);
+                if (onHand - reserved < quantity) {
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(onHand, reserved + quantity))) {
+                    return true;
+                }
+            }
+        }
+
+        public void release(int quantity) {
+            while (true) {
+                long current = state.get();
+                long next = pack(onHand(current), reserved(current) - quantity);
+                if (state.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        // Turns a reservation into a sale once the database decrement has succeeded
+        public void consume(int quantity) {
+            while (true) {
+                long current = state.get();
+                long next = pack(onHand(current) - quantity, reserved(current) - quantity);
+                if (state.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        void setOnHand(int onHand) {
+            while (true) {
+                long current = state.get();
+                if (state.compareAndSet(current, pack(onHand, reserved(current)))) {
+                    return;
+                }
+            }
+        }
+
+        private static long pack(int onHand, int reserved) {
+            return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+        }
+
+        private static int onHand(long state) {
+            return (int) (state >>> 32);
+        }
+
+        private static int reserved(long state) {
+            return (int) state;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.StockValuationDto;
+import com.example.inventory.dto.ValuationDriftDto;
+import com.example.inventory.dto.ValuationReconciliationDto;
+import com.example.inventory.repository.CategoryRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.SkuRepository;
+import com.example.inventory.service.ValuationService;
+import com.example.inventory.shard.ShardedSkuRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves valuation from {@link StockAggregates}. The counters are rebuilt from the database once
+ * the application is up; until then reads are computed from the database instead. Reconciliation
+ * recomputes every product's totals from the SKU table and compares them with the counters. A
+ * product that differs is read again before being reported, because a write can land between the
+ * scan and the comparison; one that still differs is logged, reported and, with
+ * {@code inventory.valuation.reconcile.repair}, reset from the database.
+ */
+@Service
+public class ValuationServiceImpl implements ValuationService {
+    private static final Logger log = LoggerFactory.getLogger(ValuationServiceImpl.class);
+    private static final int IN_CLAUSE_CHUNK = 1000;
+    private static final int MAX_REPORTED_DRIFTS = 100;
+
+    @Autowired
+    private SkuRepository skuRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private StockAggregates stockAggregates;
+    @Autowired
+    private ShardedSkuRepository shardedSkuRepository;
+
+    @Value("${inventory.valuation.enabled:true}")
+    private boolean enabled = true;
+    @Value("${inventory.valuation.scan-chunk-size:5000}")
+    private int chunkSize = 5000;
+    @Value("${inventory.valuation.reconcile.repair:true}")
+    private boolean repair = true;
+
+    // One reconciliation at a time; a lock rather than synchronized because the scans block on JDBC,
+    // which inside a monitor would pin a virtual thread's carrier
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private volatile ValuationReconciliationDto lastReconciliation;
+
+    private static StockValuationDto toDto(Long id, StockAggregates.Totals totals) {
+        StockValuationDto dto = new StockValuationDto();
+        dto.setId(id);
+        dto.setSkuCount(totals.getSkuCount());
+        dto.setUnits(totals.getUnits());
+        dto.setValue(StockAggregates.toMajorUnits(totals.getValueMinorUnits()));
+        dto.setValueMinorUnits(totals.getValueMinorUnits());
+        return dto;
+    }
+
+    private static StockAggregates.Totals add(StockAggregates.Totals totals, Object[] row) {
+        int quantity = ((Number) row[2]).intValue();
+        return totals.plus(1, quantity, quantity * StockAggregates.toMinorUnits(((Number) row[3]).doubleValue()));
+    }
+
+    @Override
+    public StockValuationDto getProductValuation(Long productId) {
+        if (stockAggregates.isReady()) {
+            StockAggregates.Totals totals = stockAggregates.getProduct(productId);
+            if (totals == null) {
+                throw new EntityNotFoundException("Product not found");
+            }
+            return toDto(productId, totals);
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new EntityNotFoundException("Product not found");
+        }
+        return toDto(productId, sumFromDatabase(Collections.singletonList(productId)));
+    }
+
+    @Override
+    public StockValuationDto getCategoryValuation(Long categoryId) {
+        if (stockAggregates.isReady()) {
+            StockAggregates.Totals totals = stockAggregates.getCategory(categoryId);
+            if (totals == null) {
+                throw new EntityNotFoundException("Category not found");
+            }
+            return toDto(categoryId, totals);
+        }
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new EntityNotFoundException("Category not found");
+        }
+        return toDto(categoryId, sumFromDatabase(productRepository.findIdsByCategoryId(categoryId)));
+    }
+
+    @Override
+    public List<StockValuationDto> getCategoryValuations() {
+        Map<Long, StockAggregates.Totals> categories;
+        if (stockAggregates.isReady()) {
+            categories = stockAggregates.getCategories();
+        } else {
+            categories = new TreeMap<>();
+            for (Long categoryId : categoryRepository.findAllIds()) {
+                categories.put(categoryId, StockAggregates.Totals.ZERO);
+            }
+            Map<Long, Long> productCategories = scanProductCategories();
+            for (Map.Entry<Long, StockAggregates.Totals> product : scanProductTotals(new long[1]).entrySet()) {
+                Long categoryId = productCategories.get(product.getKey());
+                StockAggregates.Totals totals = product.getValue();
+                if (categoryId != null) {
+                    categories.merge(categoryId, totals, (a, b) -> a.plus(b.getSkuCount(), b.getUnits(), b.getValueMinorUnits()));
+                }
+            }
+        }
+        List<StockValuationDto> result = new ArrayList<>(categories.size());
+        for (Map.Entry<Long, StockAggregates.Totals> category : categories.entrySet()) {
+            result.add(toDto(category.getKey(), category.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        stockAggregates.clear();
+        for (Long categoryId : categoryRepository.findAllIds()) {
+            stockAggregates.categorySaved(categoryId);
+        }
+        for (Map.Entry<Long, Long> product : scanProductCategories().entrySet()) {
+            stockAggregates.productSaved(product.getKey(), product.getValue());
+        }
+        long skus = 0;
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = valuationRows(afterId);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                stockAggregates.skuSaved(afterId, (Long) row[1], ((Number) row[2]).intValue(), ((Number) row[3]).doubleValue(), (Long) row[4]);
+            }
+            skus += rows.size();
+        } while (rows.size() == chunkSize);
+        stockAggregates.markReady();
+        log.info("Stock valuation counters rebuilt from {} SKUs in {} ms", skus, System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.valuation.reconcile.interval-ms:3600000}",
+            initialDelayString = "${inventory.valuation.reconcile.interval-ms:3600000}")
+    public void scheduledReconcile() {
+        if (enabled && stockAggregates.isReady()) {
+            reconcile();
+        }
+    }
+
+    @Override
+    public ValuationReconciliationDto reconcile() {
+        reconcileLock.lock();
+        try {
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            Map<Long, Long> expectedCategories = scanProductCategories();
+            long[] scanned = new long[1];
+            Map<Long, StockAggregates.Totals> expectedTotals = scanProductTotals(scanned);
+            Map<Long, Long> heldCategories = stockAggregates.getProductCategories();
+
+            Set<Long> suspects = new TreeSet<>();
+            Set<Long> productIds = new HashSet<>(expectedCategories.keySet());
+            productIds.addAll(heldCategories.keySet());
+            for (Long productId : productIds) {
+                if (differs(productId, expectedCategories, expectedTotals, heldCategories)) {
+                    suspects.add(productId);
+                }
+            }
+
+            List<ValuationDriftDto> drifts = new ArrayList<>();
+            long drifted = 0;
+            List<Long> suspectList = new ArrayList<>(suspects);
+            for (int from = 0; from < suspectList.size(); from += IN_CLAUSE_CHUNK) {
+                List<Long> chunk = suspectList.subList(from, Math.min(from + IN_CLAUSE_CHUNK, suspectList.size()));
+                Map<Long, Long> freshCategories = new HashMap<>();
+                for (Object[] row : productRepository.findCategoryIdsByIdIn(chunk)) {
+                    freshCategories.put((Long) row[0], (Long) row[1]);
+                }
+                Map<Long, List<Object[]>> freshRows = new HashMap<>();
+                Map<Long, StockAggregates.Totals> freshTotals = new HashMap<>();
+                for (Object[] row : valuationRows(chunk)) {
+                    Long productId = (Long) row[1];
+                    freshRows.computeIfAbsent(productId, id -> new ArrayList<>()).add(row);
+                    freshTotals.put(productId, add(freshTotals.getOrDefault(productId, StockAggregates.Totals.ZERO), row));
+                }
+                Map<Long, Long> held = stockAggregates.getProductCategories();
+                for (Long productId : chunk) {
+                    if (!differs(productId, freshCategories, freshTotals, held)) {
+                        continue;
+                    }
+                    drifted++;
+                    if (drifts.size() < MAX_REPORTED_DRIFTS) {
+                        drifts.add(drift(productId, freshCategories, freshTotals, held));
+                    }
+                    if (repair) {
+                        stockAggregates.resetProduct(productId, freshCategories.containsKey(productId), freshCategories.get(productId),
+                                freshRows.getOrDefault(productId, Collections.emptyList()));
+                    }
+                }
+            }
+            List<Long> categoriesRepaired = repair ? stockAggregates.repairCategoryTotals() : Collections.emptyList();
+
+            ValuationReconciliationDto result = new ValuationReconciliationDto();
+            result.setStartedAt(startedAt);
+            result.setSkusScanned(scanned[0]);
+            result.setProductsChecked(productIds.size());
+            result.setProductsDrifted(drifted);
+            result.setCategoriesRepaired(categoriesRepaired);
+            result.setRepaired(repair && (drifted > 0 || !categoriesRepaired.isEmpty()));
+            result.setDrifts(drifts);
+            result.setDriftsTruncated(drifted > drifts.size());
+            result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+            if (drifted > 0 || !categoriesRepaired.isEmpty()) {
+                log.warn("Stock valuation drift: {} of {} products, {} category totals{}; first: {}", drifted, productIds.size(),
+                        categoriesRepaired.size(), repair ? " (repaired)" : "", drifts.isEmpty() ? "-" : drifts.get(0));
+            } else {
+                log.info("Stock valuation reconciled {} products and {} SKUs in {} ms with no drift", productIds.size(), scanned[0],
+                        result.getElapsedMillis());
+            }
+            lastReconciliation = result;
+            return result;
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    @Override
+    public ValuationReconciliationDto getLastReconciliation() {
+        return lastReconciliation;
+    }
+
+    private boolean differs(Long productId, Map<Long, Long> expectedCategories, Map<Long, StockAggregates.Totals> expectedTotals,
+                            Map<Long, Long> heldCategories) {
+        boolean exists = expectedCategories.containsKey(productId);
+        StockAggregates.Totals held = stockAggregates.getProduct(productId);
+        if (!exists) {
+            return held != null || heldCategories.containsKey(productId);
+        }
+        return held == null
+                || !heldCategories.containsKey(productId)
+                || !Objects.equals(expectedCategories.get(productId), heldCategories.get(productId))
+                || !held.equals(expectedTotals.getOrDefault(productId, StockAggregates.Totals.ZERO));
+    }
+
+    private ValuationDriftDto drift(Long productId, Map<Long, Long> expectedCategories, Map<Long, StockAggregates.Totals> expectedTotals,
+                                    Map<Long, Long> heldCategories) {
+        ValuationDriftDto dto = new ValuationDriftDto();
+        dto.setProductId(productId);
+        dto.setExpectedCategoryId(expectedCategories.get(productId));
+        dto.setActualCategoryId(heldCategories.get(productId));
+        if (expectedCategories.containsKey(productId)) {
+            dto.setExpected(toDto(productId, expectedTotals.getOrDefault(productId, StockAggregates.Totals.ZERO)));
+        }
+        StockAggregates.Totals held = stockAggregates.getProduct(productId);
+        if (held != null) {
+            dto.setActual(toDto(productId, held));
+        }
+        return dto;
+    }
+
+    private StockAggregates.Totals sumFromDatabase(Collection<Long> productIds) {
+        StockAggregates.Totals totals = StockAggregates.Totals.ZERO;
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            for (Object[] row : valuationRows(ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size())))) {
+                totals = add(totals, row);
+            }
+        }
+        return totals;
+    }
+
+    // The next chunk of (id, productId, quantity, price, version) rows, in id order across all shards when sharded
+    private List<Object[]> valuationRows(long afterId) {
+        return shardedSkuRepository.isEnabled()
+                ? shardedSkuRepository.findValuationRows(afterId, chunkSize)
+                : skuRepository.findValuationRows(afterId, PageRequest.of(0, chunkSize));
+    }
+
+    private List<Object[]> valuationRows(Collection<Long> productIds) {
+        return shardedSkuRepository.isEnabled()
+                ? shardedSkuRepository.findValuationRowsByProductIdIn(productIds)
+                : skuRepository.findValuationRowsByProductIdIn(productIds);
+    }
+
+    private Map<Long, Long> scanProductCategories() {
+        Map<Long, Long> categories = new HashMap<>();
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = productRepository.findIndexRows(afterId, PageRequest.of(0, chunkSize));
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                categories.put(afterId, (Long) row[2]);
+            }
+        } while (rows.size() == chunkSize);
+        return categories;
+    }
+
+    private Map<Long, StockAggregates.Totals> scanProductTotals(long[] scanned) {
+        Map<Long, StockAggregates.Totals> totals = new HashMap<>();
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = valuationRows(afterId);
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                Long productId = (Long) row[1];
+                totals.put(productId, add(totals.getOrDefault(productId, StockAggregates.Totals.ZERO), row));
+            }
+            scanned[0] += rows.size();
+        } while (rows.size() == chunkSize);
+        return totals;
+    }
+}
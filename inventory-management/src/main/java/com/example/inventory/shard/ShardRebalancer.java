@@ -0,0 +1,131 @@
+package com.example.inventory.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Moves SKU rows to the shard their product hashes to under a new shard list: after shards are
+ * appended to {@code inventory.sku-shards.urls}, or to spread the main database's SKU table over the
+ * shards when sharding is first switched on. Each source is walked {@code batchSize} products at a
+ * time; a batch is copied to its targets with {@code MERGE} and only then deleted from the source, so
+ * a run that stops part way can simply be run again. Meant for a stopped application: a write
+ * landing on the old shard during a move can be lost. Can be run standalone:
+ * {@code java -cp app.jar -Dloader.main=com.example.inventory.shard.ShardRebalancer
+ * org.springframework.boot.loader.PropertiesLauncher <current urls> <new urls> [main database url]},
+ * with the url lists comma-separated and every database using user {@code sa} and an empty password.
+ */
+public final class ShardRebalancer {
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+    private static final String COLUMNS = "id, code, price, quantity, reorder_threshold, version, product_id";
+
+    private final List<DataSource> targets;
+    private final int batchSize;
+
+    /** {@code targets} is the new shard list; a source that is also a target is the same instance. */
+    public ShardRebalancer(List<DataSource> targets, int batchSize) {
+        this.targets = targets;
+        this.batchSize = batchSize;
+    }
+
+    /** What a run moved. */
+    public static final class Moved {
+        private long products;
+        private long skus;
+
+        public long getProducts() {
+            return products;
+        }
+
+        public long getSkus() {
+            return skus;
+        }
+    }
+
+    /** Moves every product of {@code sources} whose target under the new shard list is another database. */
+    public Moved rebalance(List<DataSource> sources) {
+        Moved moved = new Moved();
+        for (DataSource source : sources) {
+            drain(source, moved);
+        }
+        return moved;
+    }
+
+    private void drain(DataSource source, Moved moved) {
+        NamedParameterJdbcTemplate from = new NamedParameterJdbcTemplate(source);
+        TransactionTemplate fromTransaction = new TransactionTemplate(new DataSourceTransactionManager(source));
+        long afterProduct = 0;
+        List<Long> productIds;
+        do {
+            productIds = from.queryForList("SELECT DISTINCT product_id FROM sku WHERE product_id > :after ORDER BY product_id"
+                    + " FETCH FIRST :limit ROWS ONLY", new MapSqlParameterSource("after", afterProduct).addValue("limit", batchSize), Long.class);
+            Map<DataSource, List<Long>> leaving = new LinkedHashMap<>();
+            for (Long productId : productIds) {
+                afterProduct = productId;
+                DataSource target = targets.get(SkuShards.shardOf(productId, targets.size()));
+                if (target != source) {
+                    leaving.computeIfAbsent(target, t -> new ArrayList<>()).add(productId);
+                }
+            }
+            for (Map.Entry<DataSource, List<Long>> entry : leaving.entrySet()) {
+                MapSqlParameterSource ids = new MapSqlParameterSource("ids", entry.getValue());
+                List<Map<String, Object>> rows = from.queryForList("SELECT " + COLUMNS + " FROM sku WHERE product_id IN (:ids)", ids);
+                NamedParameterJdbcTemplate to = new NamedParameterJdbcTemplate(entry.getKey());
+                new TransactionTemplate(new DataSourceTransactionManager(entry.getKey())).executeWithoutResult(status ->
+                        to.batchUpdate("MERGE INTO sku (" + COLUMNS + ") KEY (id) VALUES"
+                                        + " (:id, :code, :price, :quantity, :reorder_threshold, :version, :product_id)",
+                                rows.stream().map(ShardRebalancer::parameters).toArray(SqlParameterSource[]::new)));
+                fromTransaction.executeWithoutResult(status -> from.update("DELETE FROM sku WHERE product_id IN (:ids)", ids));
+                moved.products += entry.getValue().size();
+                moved.skus += rows.size();
+            }
+        } while (productIds.size() == batchSize);
+    }
+
+    // Column maps come back keyed by the database's upper-case names
+    private static SqlParameterSource parameters(Map<String, Object> row) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        for (Map.Entry<String, Object> column : row.entrySet()) {
+            parameters.addValue(column.getKey().toLowerCase(Locale.ROOT), column.getValue());
+        }
+        return parameters;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: ShardRebalancer <current shard urls> <new shard urls> [main database url]");
+            System.exit(2);
+        }
+        Map<String, DataSource> databases = new LinkedHashMap<>();
+        List<DataSource> targets = new ArrayList<>();
+        for (String url : StringUtils.commaDelimitedListToStringArray(args[1])) {
+            DataSource target = databases.computeIfAbsent(url.trim(), u -> new DriverManagerDataSource(u, "sa", ""));
+            SkuShards.migrate(target);
+            targets.add(target);
+        }
+        List<DataSource> sources = new ArrayList<>();
+        if (args.length > 2) {
+            sources.add(new DriverManagerDataSource(args[2], "sa", ""));
+        }
+        if (StringUtils.hasText(args[0])) {
+            for (String url : StringUtils.commaDelimitedListToStringArray(args[0])) {
+                sources.add(databases.computeIfAbsent(url.trim(), u -> new DriverManagerDataSource(u, "sa", "")));
+            }
+        }
+        Moved moved = new ShardRebalancer(targets, 500).rebalance(sources);
+        log.info("Moved {} SKUs of {} products", moved.getSkus(), moved.getProducts());
+    }
+}
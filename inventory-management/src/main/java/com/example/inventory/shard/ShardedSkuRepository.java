@@ -0,0 +1,320 @@
+package com.example.inventory.shard;
+
+import com.example.inventory.dto.SkuDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SKU storage on {@link SkuShards}: the sharded counterpart of {@code SkuRepository}, in plain JDBC
+ * and returning DTOs since the rows are no longer reachable from the product entity. Anything keyed
+ * by product goes to that product's shard only. Lookups by SKU id alone and queries over all SKUs fan
+ * out; ordered queries take the first {@code limit} rows of each shard and merge them, which is
+ * exactly the first {@code limit} rows overall. SKU ids keep coming from the main database's
+ * {@code sku_seq}, so they stay unique across shards and a product's rows can move between shards
+ * unchanged.
+ */
+@Component
+public class ShardedSkuRepository {
+    // Upper bound on bind parameters per IN-list
+    private static final int IN_CLAUSE_CHUNK = 1000;
+    // Matches INCREMENT BY of sku_seq and the entity's allocationSize
+    private static final int ID_BLOCK = 50;
+    private static final String COLUMNS = "id, code, quantity, price, reorder_threshold, version, product_id";
+    private static final Comparator<Object[]> BY_ID = Comparator.comparing(row -> (Long) row[0]);
+
+    private static final RowMapper<SkuDto> SKU = (rs, rowNum) -> {
+        SkuDto dto = new SkuDto();
+        dto.setId(rs.getLong("id"));
+        dto.setCode(rs.getString("code"));
+        dto.setQuantity(rs.getInt("quantity"));
+        dto.setPrice(rs.getDouble("price"));
+        dto.setReorderThreshold(rs.getObject("reorder_threshold", Integer.class));
+        dto.setVersion(rs.getLong("version"));
+        dto.setProductId(rs.getLong("product_id"));
+        return dto;
+    };
+
+    // Same shape as SkuRepository.findValuationRows: (id, productId, quantity, price, version)
+    private static final RowMapper<Object[]> VALUATION_ROW = (rs, rowNum) -> new Object[]{
+            rs.getLong("id"), rs.getLong("product_id"), rs.getInt("quantity"), rs.getDouble("price"), rs.getLong("version")};
+
+    @Autowired
+    private SkuShards skuShards;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${inventory.sku.batch-size:500}")
+    private int batchSize = 500;
+
+    // Not a monitor: the sequence query runs under it, and blocking inside synchronized would pin a virtual thread's carrier
+    private final ReentrantLock idLock = new ReentrantLock();
+    // Guarded by idLock; the ids handed out are [nextId, lastId]
+    private long nextId = 1;
+    private long lastId = 0;
+
+    public boolean isEnabled() {
+        return skuShards.isEnabled();
+    }
+
+    /** Allocates a SKU id from the main database's sequence, a block of {@value #ID_BLOCK} at a time. */
+    public long nextId() {
+        idLock.lock();
+        try {
+            if (nextId > lastId) {
+                // Same blocks as Hibernate's pooled optimizer, so ids never collide with ones it handed out
+                long value = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR sku_seq", Long.class);
+                nextId = Math.max(1, value - ID_BLOCK + 1);
+                lastId = value;
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private static SkuDto copy(SkuDto source, Long productId, Long id) {
+        SkuDto sku = new SkuDto();
+        sku.setId(id);
+        sku.setProductId(productId);
+        sku.setCode(source.getCode());
+        sku.setQuantity(source.getQuantity());
+        sku.setPrice(source.getPrice());
+        sku.setReorderThreshold(source.getReorderThreshold());
+        sku.setVersion(0L);
+        return sku;
+    }
+
+    private static SqlParameterSource parameters(SkuDto sku) {
+        return new MapSqlParameterSource("id", sku.getId())
+                .addValue("code", sku.getCode())
+                .addValue("quantity", sku.getQuantity())
+                .addValue("price", sku.getPrice())
+                .addValue("reorderThreshold", sku.getReorderThreshold())
+                .addValue("version", sku.getVersion())
+                .addValue("productId", sku.getProductId());
+    }
+
+    public SkuDto insert(Long productId, SkuDto sku) {
+        return insertAll(productId, Collections.singletonList(sku)).get(0);
+    }
+
+    public List<SkuDto> insertAll(Long productId, List<SkuDto> skus) {
+        List<SkuDto> rows = new ArrayList<>(skus.size());
+        for (SkuDto sku : skus) {
+            rows.add(copy(sku, productId, null));
+        }
+        return insertAll(rows);
+    }
+
+    /**
+     * Inserts SKUs of any products, allocating ids for those without one. The rows of each shard go in
+     * one transaction, in JDBC batches of {@code inventory.sku.batch-size}; all SKUs of one product
+     * therefore succeed or fail together.
+     */
+    public List<SkuDto> insertAll(List<SkuDto> skus) {
+        List<SkuDto> rows = new ArrayList<>(skus.size());
+        Map<SkuShards.Shard, List<SkuDto>> byShard = new LinkedHashMap<>();
+        for (SkuDto sku : skus) {
+            SkuDto row = copy(sku, sku.getProductId(), sku.getId() != null ? sku.getId() : nextId());
+            rows.add(row);
+            byShard.computeIfAbsent(skuShards.forProduct(row.getProductId()), shard -> new ArrayList<>()).add(row);
+        }
+        for (Map.Entry<SkuShards.Shard, List<SkuDto>> entry : byShard.entrySet()) {
+            SkuShards.Shard shard = entry.getKey();
+            List<SkuDto> shardRows = entry.getValue();
+            shard.getTransaction().executeWithoutResult(status -> {
+                for (int from = 0; from < shardRows.size(); from += batchSize) {
+                    List<SkuDto> batch = shardRows.subList(from, Math.min(from + batchSize, shardRows.size()));
+                    shard.getJdbc().batchUpdate("INSERT INTO sku (" + COLUMNS + ") VALUES"
+                                    + " (:id, :code, :quantity, :price, :reorderThreshold, :version, :productId)",
+                            batch.stream().map(ShardedSkuRepository::parameters).toArray(SqlParameterSource[]::new));
+                }
+            });
+        }
+        return rows;
+    }
+
+    /** Overwrites the editable fields of {@code current}, provided its version is still the stored one. */
+    public SkuDto update(SkuDto current, SkuDto changes) {
+        SkuDto updated = copy(changes, current.getProductId(), current.getId());
+        updated.setVersion(current.getVersion() + 1);
+        int rows = skuShards.forProduct(current.getProductId()).getJdbc().update(
+                "UPDATE sku SET code = :code, quantity = :quantity, price = :price, reorder_threshold = :reorderThreshold,"
+                        + " version = :version WHERE id = :id AND version = :version - 1", parameters(updated));
+        if (rows == 0) {
+            throw new OptimisticLockingFailureException("SKU " + current.getId() + " was modified or deleted concurrently");
+        }
+        return updated;
+    }
+
+    /** As {@code SkuRepository.adjustQuantity}: the (quantity, version) after the update, or no row. */
+    public List<Object[]> adjustQuantity(Long productId, Long skuId, int delta, Long expectedVersion) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("id", skuId)
+                .addValue("productId", productId)
+                .addValue("delta", delta)
+                .addValue("expectedVersion", expectedVersion);
+        return skuShards.forProduct(productId).getJdbc().query(
+                "SELECT quantity, version FROM FINAL TABLE (UPDATE sku SET quantity = quantity + :delta, version = version + 1"
+                        + " WHERE id = :id AND product_id = :productId AND quantity + :delta >= 0"
+                        + (expectedVersion != null ? " AND version = :expectedVersion)" : ")"),
+                parameters, (rs, rowNum) -> new Object[]{rs.getInt(1), rs.getLong(2)});
+    }
+
+    public int delete(Long productId, Long skuId) {
+        return skuShards.forProduct(productId).getJdbc().update("DELETE FROM sku WHERE id = :id AND product_id = :productId",
+                new MapSqlParameterSource("id", skuId).addValue("productId", productId));
+    }
+
+    /** Removes every SKU of the given products; returns how many went. */
+    public int deleteByProducts(Collection<Long> productIds) {
+        int deleted = 0;
+        for (Map.Entry<SkuShards.Shard, List<Long>> entry : byShard(productIds).entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+                deleted += entry.getKey().getJdbc().update("DELETE FROM sku WHERE product_id IN (:ids)",
+                        new MapSqlParameterSource("ids", ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()))));
+            }
+        }
+        return deleted;
+    }
+
+    public List<String> findExistingCodes(Long productId, Collection<String> codes) {
+        return skuShards.forProduct(productId).getJdbc().queryForList(
+                "SELECT code FROM sku WHERE product_id = :productId AND code IN (:codes)",
+                new MapSqlParameterSource("productId", productId).addValue("codes", codes), String.class);
+    }
+
+    public Optional<SkuDto> findInProduct(Long productId, Long skuId) {
+        return skuShards.forProduct(productId).getJdbc().query(
+                "SELECT " + COLUMNS + " FROM sku WHERE id = :id AND product_id = :productId",
+                new MapSqlParameterSource("id", skuId).addValue("productId", productId), SKU).stream().findFirst();
+    }
+
+    public List<SkuDto> findByProduct(Long productId) {
+        return skuShards.forProduct(productId).getJdbc().query(
+                "SELECT " + COLUMNS + " FROM sku WHERE product_id = :productId ORDER BY id",
+                new MapSqlParameterSource("productId", productId), SKU);
+    }
+
+    /** The SKUs of many products, keyed by product; only the shards holding one of them are asked. */
+    public Map<Long, List<SkuDto>> findByProductIds(Collection<Long> productIds) {
+        Map<Long, List<SkuDto>> skusByProduct = new HashMap<>();
+        for (List<SkuDto> skus : onShards(productIds, (shard, ids) -> shard.getJdbc().query(
+                "SELECT " + COLUMNS + " FROM sku WHERE product_id IN (:ids) ORDER BY product_id, id", new MapSqlParameterSource("ids", ids), SKU))) {
+            for (SkuDto sku : skus) {
+                skusByProduct.computeIfAbsent(sku.getProductId(), id -> new ArrayList<>()).add(sku);
+            }
+        }
+        return skusByProduct;
+    }
+
+    /**
+     * A keyset page of low stock in the order of {@code SkuRepository.findQuantityBelow} (with
+     * {@code below}) or {@code findBelowReorderThreshold} (without), optionally limited to some
+     * products; {@code null} means all of them.
+     */
+    public List<SkuDto> findLowStock(Integer below, Collection<Long> productIds, int afterKey, long afterId, int limit) {
+        String key = below != null ? "quantity" : "reorder_gap";
+        String condition = below != null ? "quantity < :below" : "reorder_gap < 0";
+        String sql = "SELECT " + COLUMNS + " FROM sku WHERE " + condition + " AND " + key + " >= :afterKey"
+                + " AND (" + key + " > :afterKey OR id > :afterId)" + (productIds != null ? " AND product_id IN (:ids)" : "")
+                + " ORDER BY " + key + ", id FETCH FIRST :limit ROWS ONLY";
+        MapSqlParameterSource parameters = new MapSqlParameterSource("below", below)
+                .addValue("afterKey", afterKey)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        List<SkuDto> rows = new ArrayList<>();
+        for (List<SkuDto> shardRows : onShards(productIds, (shard, ids) -> shard.getJdbc().query(sql,
+                new MapSqlParameterSource(parameters.getValues()).addValue("ids", ids), SKU))) {
+            rows.addAll(shardRows);
+        }
+        Comparator<SkuDto> order = Comparator.comparingInt((SkuDto sku) -> below != null
+                ? sku.getQuantity() : sku.getQuantity() - sku.getReorderThreshold()).thenComparing(SkuDto::getId);
+        rows.sort(order);
+        return rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    public long countLowStock(Integer below, Collection<Long> productIds) {
+        String sql = "SELECT COUNT(*) FROM sku WHERE " + (below != null ? "quantity < :below" : "reorder_gap < 0")
+                + (productIds != null ? " AND product_id IN (:ids)" : "");
+        long count = 0;
+        for (List<Long> counts : onShards(productIds, (shard, ids) -> Collections.singletonList(shard.getJdbc().queryForObject(sql,
+                new MapSqlParameterSource("below", below).addValue("ids", ids), Long.class)))) {
+            for (Long shardCount : counts) {
+                count += shardCount;
+            }
+        }
+        return count;
+    }
+
+    /** As {@code SkuRepository.findValuationRows}: the next {@code limit} rows after {@code afterId}, in id order. */
+    public List<Object[]> findValuationRows(long afterId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("afterId", afterId).addValue("limit", limit);
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Object[]> shardRows : skuShards.fanOut(shard -> shard.getJdbc().query(
+                "SELECT id, product_id, quantity, price, version FROM sku WHERE id > :afterId ORDER BY id FETCH FIRST :limit ROWS ONLY",
+                parameters, VALUATION_ROW))) {
+            rows.addAll(shardRows);
+        }
+        rows.sort(BY_ID);
+        return rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    public List<Object[]> findValuationRowsByProductIdIn(Collection<Long> productIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Object[]> shardRows : onShards(productIds, (shard, ids) -> shard.getJdbc().query(
+                "SELECT id, product_id, quantity, price, version FROM sku WHERE product_id IN (:ids)",
+                new MapSqlParameterSource("ids", ids), VALUATION_ROW))) {
+            rows.addAll(shardRows);
+        }
+        return rows;
+    }
+
+    private interface ShardQuery<T> {
+        List<T> run(SkuShards.Shard shard, List<Long> productIds);
+    }
+
+    // Every shard when productIds is null, otherwise only the shards holding one of them, in IN-list chunks
+    private <T> List<List<T>> onShards(Collection<Long> productIds, ShardQuery<T> query) {
+        if (productIds == null) {
+            return skuShards.fanOut(shard -> query.run(shard, null));
+        }
+        Map<SkuShards.Shard, List<Long>> byShard = byShard(productIds);
+        if (byShard.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return skuShards.fanOut(new ArrayList<>(byShard.keySet()), shard -> {
+            List<Long> ids = byShard.get(shard);
+            List<T> results = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+                results.addAll(query.run(shard, ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size()))));
+            }
+            return results;
+        });
+    }
+
+    private Map<SkuShards.Shard, List<Long>> byShard(Collection<Long> productIds) {
+        Map<SkuShards.Shard, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long productId : productIds) {
+            byShard.computeIfAbsent(skuShards.forProduct(productId), shard -> new ArrayList<>()).add(productId);
+        }
+        return byShard;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.inventory.shard;
+
+import com.example.inventory.jdbc.QueryCounter;
+import com.example.inventory.jdbc.SlowQueryDataSource;
+import com.example.inventory.jdbc.SlowQueryLog;
+import com.example.inventory.reactive.ReactiveReadServer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The databases SKU rows are spread across when {@code inventory.sku-shards.urls} lists any. A
+ * product's SKUs all live on the shard its id hashes to, so per-product reads and writes touch one
+ * database; queries over every SKU run on all shards at once and their results are merged by the
+ * caller. Each shard has its own connection pool, timed and counted like the main one
+ * ({@link SlowQueryDataSource}), and its schema is migrated from
+ * {@code db/shard} at startup. The shard of a product depends only on its id and the number of
+ * shards, so a shard list must only ever grow at the end, with {@link ShardRebalancer} moving the
+ * rows whose shard changed while the application is stopped.
+ */
+@Component
+public class SkuShards {
+    private static final Logger log = LoggerFactory.getLogger(SkuShards.class);
+
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private ObjectProvider<SlowQueryLog> slowQueryLog;
+
+    private final List<String> urls = new ArrayList<>();
+    private final String username;
+    private final String password;
+    private final int poolSize;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final List<Shard> shards = new ArrayList<>();
+    private ExecutorService fanOut;
+
+    public SkuShards(@Value("${inventory.sku-shards.urls:}") String urls,
+                     @Value("${inventory.sku-shards.username:sa}") String username,
+                     @Value("${inventory.sku-shards.password:}") String password,
+                     @Value("${inventory.sku-shards.pool-size:5}") int poolSize) {
+        for (String url : StringUtils.commaDelimitedListToStringArray(urls)) {
+            if (StringUtils.hasText(url)) {
+                this.urls.add(url.trim());
+            }
+        }
+        this.username = username;
+        this.password = password;
+        this.poolSize = poolSize;
+    }
+
+    /** One shard: its position in the shard list and the pool, template and transactions for it. */
+    public static final class Shard {
+        private final int index;
+        private final DataSource dataSource;
+        private final NamedParameterJdbcTemplate jdbc;
+        private final TransactionTemplate transaction;
+
+        Shard(int index, DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+            this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+            this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public NamedParameterJdbcTemplate getJdbc() {
+            return jdbc;
+        }
+
+        public TransactionTemplate getTransaction() {
+            return transaction;
+        }
+    }
+
+    @PostConstruct
+    public void open() {
+        if (urls.isEmpty()) {
+            return;
+        }
+        // Both read the SKU table of the main database directly, which is empty once SKUs are sharded
+        if (environment.getProperty("inventory.snapshot.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("inventory.snapshot.enabled cannot be combined with inventory.sku-shards");
+        }
+        if (environment.acceptsProfiles(Profiles.of(ReactiveReadServer.PROFILE))) {
+            throw new IllegalStateException("The " + ReactiveReadServer.PROFILE + " profile cannot be combined with inventory.sku-shards");
+        }
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("sku-shard-" + i);
+            pool.setJdbcUrl(urls.get(i));
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(poolSize);
+            pools.add(pool);
+            migrate(pool);
+            shards.add(new Shard(i, new SlowQueryDataSource(pool, slowQueryLog)));
+        }
+        // Enough threads for every shard connection, so concurrent requests' fan-outs do not queue behind each other
+        fanOut = Executors.newFixedThreadPool(shards.size() * poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "sku-shard-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("SKU storage sharded by product across {} databases", shards.size());
+    }
+
+    static void migrate(DataSource dataSource) {
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/shard").load().migrate();
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public List<Shard> all() {
+        return Collections.unmodifiableList(shards);
+    }
+
+    public Shard forProduct(long productId) {
+        return shards.get(shardOf(productId, shards.size()));
+    }
+
+    /**
+     * Runs {@code query} on every shard in parallel and returns the results in shard order. The first
+     * shard is queried on the calling thread while the others run on the fan-out pool, counted by
+     * the caller's {@link QueryCounter}. The first failure is rethrown once all shards have answered.
+     */
+    public <T> List<T> fanOut(Function<Shard, T> query) {
+        return fanOut(shards, query);
+    }
+
+    /** As {@link #fanOut(Function)}, over a subset of the shards. */
+    public <T> List<T> fanOut(List<Shard> targets, Function<Shard, T> query) {
+        if (targets.size() == 1) {
+            return Collections.singletonList(query.apply(targets.get(0)));
+        }
+        List<Future<T>> futures = new ArrayList<>(targets.size() - 1);
+        for (Shard shard : targets.subList(1, targets.size())) {
+            futures.add(fanOut.submit(QueryCounter.propagate(() -> query.apply(shard))));
+        }
+        List<T> results = new ArrayList<>(targets.size());
+        RuntimeException failure = null;
+        try {
+            results.add(query.apply(targets.get(0)));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for SKU shards", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach): maps {@code key} to one of {@code buckets} buckets so
+     * that going from n to n + 1 buckets moves only about 1/(n + 1) of the keys, all of them into the
+     * new bucket.
+     */
+    public static int shardOf(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (fanOut != null) {
+            fanOut.shutdown();
+        }
+        for (HikariDataSource pool : pools) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.inventory.snapshot;
+
+/**
+ * Layout of a catalog snapshot file, all values big-endian:
+ * <pre>
+ * header   int magic "INVS", int format version, long created-at epoch millis
+ * records  byte tag, then
+ *            CATEGORY  long id, string name
+ *            PRODUCT   long id, long categoryId, string name
+ *            SKU       long id, long productId, string code, int quantity, double price,
+ *                      int reorderThreshold (since version 2), long version
+ * trailer  byte END, long categories, long products, long skus, long CRC32 of every preceding byte
+ * string   int UTF-8 length (-1 for null), bytes
+ * </pre>
+ * Records are written parent-first (category, its products, each product's SKUs), so a reader can
+ * insert them in file order without violating foreign keys.
+ */
+final class CatalogSnapshotFormat {
+    static final int MAGIC = 0x494E5653;
+    static final int VERSION = 2;
+    /** Oldest format still read; version 1 SKU records have no reorder threshold. */
+    static final int MIN_VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 8;
+    static final int TRAILER_BYTES = 1 + 8 + 8 + 8 + 8;
+
+    static final byte END = 0;
+    static final byte CATEGORY = 1;
+    static final byte PRODUCT = 2;
+    static final byte SKU = 3;
+
+    /** Stands in for a null SKU version, which JPA never writes but the column allows. */
+    static final long NO_VERSION = Long.MIN_VALUE;
+    /** Stands in for a SKU without a reorder threshold. */
+    static final int NO_THRESHOLD = Integer.MIN_VALUE;
+
+    private CatalogSnapshotFormat() {
+    }
+}
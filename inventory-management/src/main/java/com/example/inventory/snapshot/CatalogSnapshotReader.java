@@ -0,0 +1,163 @@
+package com.example.inventory.snapshot;
+
+import com.example.inventory.exception.SnapshotFormatException;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import static com.example.inventory.snapshot.CatalogSnapshotFormat.*;
+
+/**
+ * Memory-maps a snapshot file and checks its magic, version and checksum before any record is
+ * handed out, so a truncated or corrupted file is rejected without touching the database. Files
+ * are limited to 2 GB, the most a single mapping can address.
+ */
+public class CatalogSnapshotReader {
+    /** Receives records in file order. */
+    public interface Visitor {
+        void category(long id, String name) throws Exception;
+
+        void product(long id, long categoryId, String name) throws Exception;
+
+        void sku(long id, long productId, String code, int quantity, double price, Integer reorderThreshold, Long version) throws Exception;
+    }
+
+    private final MappedByteBuffer buffer;
+    private final long bytes;
+    private final int formatVersion;
+    private final long createdAtMillis;
+    private final long categories;
+    private final long products;
+    private final long skus;
+    private final long checksum;
+
+    public CatalogSnapshotReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            bytes = channel.size();
+            if (bytes > Integer.MAX_VALUE) {
+                throw new SnapshotFormatException("Snapshot " + path + " is " + bytes + " bytes; at most 2 GB is supported");
+            }
+            if (bytes < HEADER_BYTES + TRAILER_BYTES) {
+                throw new SnapshotFormatException("Snapshot " + path + " is truncated (" + bytes + " bytes)");
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+        }
+        int magic = buffer.getInt(0);
+        if (magic != MAGIC) {
+            throw new SnapshotFormatException("Not a catalog snapshot: " + path);
+        }
+        formatVersion = buffer.getInt(4);
+        if (formatVersion < MIN_VERSION || formatVersion > VERSION) {
+            throw new SnapshotFormatException("Unsupported snapshot format version " + formatVersion
+                    + " (expected " + MIN_VERSION + " to " + VERSION + ")");
+        }
+        createdAtMillis = buffer.getLong(8);
+        int trailer = (int) bytes - TRAILER_BYTES;
+        if (buffer.get(trailer) != END) {
+            throw new SnapshotFormatException("Snapshot " + path + " has no trailer; it was not written to completion");
+        }
+        categories = buffer.getLong(trailer + 1);
+        products = buffer.getLong(trailer + 9);
+        skus = buffer.getLong(trailer + 17);
+        checksum = buffer.getLong(trailer + 25);
+        CRC32 crc = new CRC32();
+        ByteBuffer covered = buffer.duplicate();
+        covered.position(0).limit((int) bytes - 8);
+        crc.update(covered);
+        if (crc.getValue() != checksum) {
+            throw new SnapshotFormatException(String.format("Snapshot %s checksum mismatch: stored %08x, computed %08x", path, checksum, crc.getValue()));
+        }
+    }
+
+    public void read(Visitor visitor) throws Exception {
+        ByteBuffer in = buffer.duplicate();
+        in.position(HEADER_BYTES).limit((int) bytes - 8);
+        byte[] scratch = new byte[256];
+        long seenCategories = 0;
+        long seenProducts = 0;
+        long seenSkus = 0;
+        try {
+            for (byte tag = in.get(); tag != END; tag = in.get()) {
+                switch (tag) {
+                    case CATEGORY:
+                        visitor.category(in.getLong(), readString(in, scratch));
+                        seenCategories++;
+                        break;
+                    case PRODUCT: {
+                        long id = in.getLong();
+                        long categoryId = in.getLong();
+                        visitor.product(id, categoryId, readString(in, scratch));
+                        seenProducts++;
+                        break;
+                    }
+                    case SKU: {
+                        long id = in.getLong();
+                        long productId = in.getLong();
+                        String code = readString(in, scratch);
+                        int quantity = in.getInt();
+                        double price = in.getDouble();
+                        int threshold = formatVersion >= 2 ? in.getInt() : NO_THRESHOLD;
+                        long version = in.getLong();
+                        visitor.sku(id, productId, code, quantity, price, threshold == NO_THRESHOLD ? null : threshold,
+                                version == NO_VERSION ? null : version);
+                        seenSkus++;
+                        break;
+                    }
+                    default:
+                        throw new SnapshotFormatException("Unknown record tag " + tag + " at offset " + (in.position() - 1));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new SnapshotFormatException("Snapshot records run past the trailer");
+        }
+        if (seenCategories != categories || seenProducts != products || seenSkus != skus) {
+            throw new SnapshotFormatException("Snapshot record counts do not match its trailer");
+        }
+    }
+
+    private static String readString(ByteBuffer in, byte[] scratch) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        in.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getCategories() {
+        return categories;
+    }
+
+    public long getProducts() {
+        return products;
+    }
+
+    public long getSkus() {
+        return skus;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+}
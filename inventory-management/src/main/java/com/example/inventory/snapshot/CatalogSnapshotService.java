@@ -0,0 +1,357 @@
+package com.example.inventory.snapshot;
+
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.SnapshotInfoDto;
+import com.example.inventory.exception.CustomValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the whole catalog to a binary snapshot and restores it into an empty database at startup.
+ * The snapshot is read by one joined query, so it is a consistent view even while writes continue,
+ * and is written to a temporary file that replaces the previous snapshot only once complete.
+ * Restore maps the file, validates it, and inserts with JDBC batches committed every
+ * {@code batch-size} records. A snapshot that fails validation stops startup rather than letting
+ * the next scheduled write replace it with an empty catalog.
+ */
+@Component
+public class CatalogSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final String SNAPSHOT_QUERY = "SELECT c.id, c.name, p.id, p.name, s.id, s.code, s.quantity, s.price, s.reorder_threshold, s.version"
+            + " FROM category c LEFT JOIN product p ON p.category_id = c.id LEFT JOIN sku s ON s.product_id = p.id"
+            + " ORDER BY c.id, p.id, s.id";
+
+    @Autowired
+    private DataSource dataSource;
+    // Injected so the schema exists before a startup restore runs
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Value("${inventory.snapshot.enabled:false}")
+    private boolean enabled;
+    @Value("${inventory.snapshot.path:data/catalog.snapshot}")
+    private String path;
+    @Value("${inventory.snapshot.restore-on-startup:true}")
+    private boolean restoreOnStartup;
+    @Value("${inventory.snapshot.write-on-shutdown:true}")
+    private boolean writeOnShutdown;
+    @Value("${inventory.snapshot.batch-size:5000}")
+    private int batchSize;
+
+    // One snapshot write or restore at a time; not a monitor, since both block on file and JDBC I/O
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile SnapshotInfoDto lastSnapshot;
+
+    @PostConstruct
+    public void restoreAtStartup() {
+        Path file = Paths.get(path);
+        if (!enabled || !restoreOnStartup || !Files.exists(file)) {
+            return;
+        }
+        if (!isCatalogEmpty()) {
+            log.info("Catalog already has data; not restoring snapshot {}", file);
+            return;
+        }
+        restore(file);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.snapshot.interval-ms:300000}", initialDelayString = "${inventory.snapshot.interval-ms:300000}")
+    public void scheduledSnapshot() {
+        if (enabled) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void snapshotAtShutdown() {
+        if (enabled && writeOnShutdown) {
+            writeSnapshot();
+        }
+    }
+
+    public SnapshotInfoDto getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    public SnapshotInfoDto writeSnapshot() {
+        return writeSnapshot(Paths.get(path));
+    }
+
+    public SnapshotInfoDto writeSnapshot(Path file) {
+        lock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            try {
+                Path directory = file.toAbsolutePath().getParent();
+                Files.createDirectories(directory);
+                Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+                long checksum;
+                CatalogSnapshotWriter writer;
+                try {
+                    try (OutputStream out = Files.newOutputStream(temp)) {
+                        writer = new CatalogSnapshotWriter(out, start);
+                        writeCatalog(writer);
+                        checksum = writer.finish();
+                    }
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                SnapshotInfoDto info = info(file, CatalogSnapshotFormat.VERSION, start, Files.size(file), writer.getCategories(), writer.getProducts(), writer.getSkus(), checksum);
+                info.setDurationMillis(System.currentTimeMillis() - start);
+                lastSnapshot = info;
+                log.info("Wrote catalog snapshot {}: {} categories, {} products, {} SKUs, {} bytes in {} ms",
+                        file, info.getCategories(), info.getProducts(), info.getSkus(), info.getBytes(), info.getDurationMillis());
+                return info;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write catalog snapshot " + file, e);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not read the catalog for snapshot " + file, e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads {@code file} into an empty catalog and moves the id generators past the restored ids.
+     * If an insert fails the partially restored rows are deleted again.
+     */
+    public SnapshotInfoDto restore(Path file) {
+        lock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            try {
+                CatalogSnapshotReader reader = new CatalogSnapshotReader(file);
+                if (!isCatalogEmpty()) {
+                    throw new CustomValidationException("Snapshots can only be restored into an empty catalog");
+                }
+                try (Connection connection = dataSource.getConnection()) {
+                    boolean autoCommit = connection.getAutoCommit();
+                    connection.setAutoCommit(false);
+                    try {
+                        insertAll(connection, reader);
+                        resetIdGenerators(connection);
+                        connection.commit();
+                        // Written straight through JDBC, so none of the per-entity version counters moved
+                        resourceVersions.invalidateAll();
+                    } catch (Exception e) {
+                        connection.rollback();
+                        deleteCatalog(connection);
+                        throw e;
+                    } finally {
+                        connection.setAutoCommit(autoCommit);
+                    }
+                }
+                SnapshotInfoDto info = info(file, reader.getFormatVersion(), reader.getCreatedAtMillis(), reader.getBytes(), reader.getCategories(), reader.getProducts(),
+                        reader.getSkus(), reader.getChecksum());
+                info.setDurationMillis(System.currentTimeMillis() - start);
+                log.info("Restored catalog snapshot {} ({}): {} categories, {} products, {} SKUs in {} ms",
+                        file, info.getCreatedAt(), info.getCategories(), info.getProducts(), info.getSkus(), info.getDurationMillis());
+                return info;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read catalog snapshot " + file, e);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not restore catalog snapshot " + file, e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeCatalog(CatalogSnapshotWriter writer) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SNAPSHOT_QUERY)) {
+            statement.setFetchSize(1000);
+            try (ResultSet rows = statement.executeQuery()) {
+                long categoryId = 0;
+                long productId = 0;
+                while (rows.next()) {
+                    long c = rows.getLong(1);
+                    if (c != categoryId) {
+                        writer.category(c, rows.getString(2));
+                        categoryId = c;
+                    }
+                    long p = rows.getLong(3);
+                    if (rows.wasNull()) {
+                        continue;
+                    }
+                    if (p != productId) {
+                        writer.product(p, c, rows.getString(4));
+                        productId = p;
+                    }
+                    long s = rows.getLong(5);
+                    if (!rows.wasNull()) {
+                        int threshold = rows.getInt(9);
+                        Integer reorderThreshold = rows.wasNull() ? null : threshold;
+                        long version = rows.getLong(10);
+                        writer.sku(s, p, rows.getString(6), rows.getInt(7), rows.getDouble(8), reorderThreshold, rows.wasNull() ? null : version);
+                    }
+                }
+            }
+        }
+    }
+
+    private void insertAll(Connection connection, CatalogSnapshotReader reader) throws Exception {
+        try (BatchInserter inserter = new BatchInserter(connection, batchSize)) {
+            reader.read(inserter);
+            inserter.flush();
+        }
+    }
+
+    // Identity columns and the pooled SKU sequence would otherwise hand out ids the snapshot already used
+    private void resetIdGenerators(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE category ALTER COLUMN id RESTART WITH " + (maxId(statement, "category") + 1));
+            statement.execute("ALTER TABLE product ALTER COLUMN id RESTART WITH " + (maxId(statement, "product") + 1));
+            // Hibernate's pooled optimizer hands out (value - 50, value], so the next value must clear the max by a whole block
+            statement.execute("ALTER SEQUENCE sku_seq RESTART WITH " + (maxId(statement, "sku") + 51));
+        }
+    }
+
+    private static long maxId(Statement statement, String table) throws SQLException {
+        try (ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private boolean isCatalogEmpty() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT (SELECT COUNT(*) FROM category) + (SELECT COUNT(*) FROM product) + (SELECT COUNT(*) FROM sku)")) {
+            rows.next();
+            return rows.getLong(1) == 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not check whether the catalog is empty", e);
+        }
+    }
+
+    private static void deleteCatalog(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM sku");
+            statement.execute("DELETE FROM product");
+            statement.execute("DELETE FROM category");
+        }
+        connection.commit();
+    }
+
+    private static SnapshotInfoDto info(Path file, int formatVersion, long createdAtMillis, long bytes, long categories, long products, long skus, long checksum) {
+        SnapshotInfoDto info = new SnapshotInfoDto();
+        info.setPath(file.toAbsolutePath().toString());
+        info.setFormatVersion(formatVersion);
+        info.setCreatedAt(Instant.ofEpochMilli(createdAtMillis));
+        info.setBytes(bytes);
+        info.setCategories(categories);
+        info.setProducts(products);
+        info.setSkus(skus);
+        info.setChecksum(String.format("%08x", checksum));
+        return info;
+    }
+
+    /** Batches each table separately; parents are flushed before children so every batch satisfies the foreign keys. */
+    private static final class BatchInserter implements CatalogSnapshotReader.Visitor, AutoCloseable {
+        private final Connection connection;
+        private final int batchSize;
+        private final PreparedStatement categories;
+        private final PreparedStatement products;
+        private final PreparedStatement skus;
+        private int pending;
+
+        BatchInserter(Connection connection, int batchSize) throws SQLException {
+            this.connection = connection;
+            this.batchSize = batchSize;
+            this.categories = connection.prepareStatement("INSERT INTO category (id, name) VALUES (?, ?)");
+            this.products = connection.prepareStatement("INSERT INTO product (id, category_id, name) VALUES (?, ?, ?)");
+            this.skus = connection.prepareStatement("INSERT INTO sku (id, product_id, code, quantity, price, reorder_threshold, version) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        }
+
+        @Override
+        public void category(long id, String name) throws SQLException {
+            categories.setLong(1, id);
+            categories.setString(2, name);
+            categories.addBatch();
+            added();
+        }
+
+        @Override
+        public void product(long id, long categoryId, String name) throws SQLException {
+            products.setLong(1, id);
+            products.setLong(2, categoryId);
+            products.setString(3, name);
+            products.addBatch();
+            added();
+        }
+
+        @Override
+        public void sku(long id, long productId, String code, int quantity, double price, Integer reorderThreshold, Long version) throws SQLException {
+            skus.setLong(1, id);
+            skus.setLong(2, productId);
+            skus.setString(3, code);
+            skus.setInt(4, quantity);
+            skus.setDouble(5, price);
+            if (reorderThreshold == null) {
+                skus.setNull(6, Types.INTEGER);
+            } else {
+                skus.setInt(6, reorderThreshold);
+            }
+            if (version == null) {
+                skus.setNull(7, Types.BIGINT);
+            } else {
+                skus.setLong(7, version);
+            }
+            skus.addBatch();
+            added();
+        }
+
+        private void added() throws SQLException {
+            if (++pending >= batchSize) {
+                flush();
+                connection.commit();
+            }
+        }
+
+        void flush() throws SQLException {
+            categories.executeBatch();
+            products.executeBatch();
+            skus.executeBatch();
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            categories.close();
+            products.close();
+            skus.close();
+        }
+    }
+}
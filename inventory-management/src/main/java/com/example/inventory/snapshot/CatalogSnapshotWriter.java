@@ -0,0 +1,103 @@
+package com.example.inventory.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static com.example.inventory.snapshot.CatalogSnapshotFormat.*;
+
+/**
+ * Streams records into the {@link CatalogSnapshotFormat} layout. Call {@link #finish()} to write the
+ * trailer; a writer closed without it leaves a file that fails validation.
+ */
+public class CatalogSnapshotWriter implements Closeable {
+    private final OutputStream target;
+    private final CRC32 crc = new CRC32();
+    private final DataOutputStream out;
+    private long categories;
+    private long products;
+    private long skus;
+    private long checksum = -1;
+
+    public CatalogSnapshotWriter(OutputStream target, long createdAtMillis) throws IOException {
+        this.target = target;
+        this.out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(target, crc), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(createdAtMillis);
+    }
+
+    public void category(long id, String name) throws IOException {
+        out.writeByte(CATEGORY);
+        out.writeLong(id);
+        writeString(name);
+        categories++;
+    }
+
+    public void product(long id, long categoryId, String name) throws IOException {
+        out.writeByte(PRODUCT);
+        out.writeLong(id);
+        out.writeLong(categoryId);
+        writeString(name);
+        products++;
+    }
+
+    public void sku(long id, long productId, String code, int quantity, double price, Integer reorderThreshold, Long version) throws IOException {
+        out.writeByte(SKU);
+        out.writeLong(id);
+        out.writeLong(productId);
+        writeString(code);
+        out.writeInt(quantity);
+        out.writeDouble(price);
+        out.writeInt(reorderThreshold != null ? reorderThreshold : NO_THRESHOLD);
+        out.writeLong(version != null ? version : NO_VERSION);
+        skus++;
+    }
+
+    /** Writes the trailer and returns the checksum stored in it. */
+    public long finish() throws IOException {
+        out.writeByte(END);
+        out.writeLong(categories);
+        out.writeLong(products);
+        out.writeLong(skus);
+        out.flush();
+        checksum = crc.getValue();
+        // The checksum itself goes straight to the target so it is not part of what it covers
+        DataOutputStream raw = new DataOutputStream(target);
+        raw.writeLong(checksum);
+        raw.flush();
+        return checksum;
+    }
+
+    public long getCategories() {
+        return categories;
+    }
+
+    public long getProducts() {
+        return products;
+    }
+
+    public long getSkus() {
+        return skus;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
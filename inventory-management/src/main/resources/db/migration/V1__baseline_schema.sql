@@ -0,0 +1,29 @@
+-- Catalog schema as previously generated by Hibernate (ddl-auto: update), including the low-stock columns and indexes
+CREATE SEQUENCE sku_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE category (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255)
+);
+
+CREATE TABLE product (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255),
+    category_id BIGINT,
+    CONSTRAINT fk_product_category FOREIGN KEY (category_id) REFERENCES category (id)
+);
+
+CREATE TABLE sku (
+    id BIGINT NOT NULL PRIMARY KEY,
+    code VARCHAR(255),
+    price DOUBLE PRECISION NOT NULL,
+    quantity INTEGER NOT NULL,
+    reorder_threshold INTEGER,
+    reorder_gap INTEGER GENERATED ALWAYS AS (quantity - reorder_threshold),
+    version BIGINT,
+    product_id BIGINT,
+    CONSTRAINT fk_sku_product FOREIGN KEY (product_id) REFERENCES product (id)
+);
+
+CREATE INDEX idx_sku_quantity ON sku (quantity, id);
+CREATE INDEX idx_sku_reorder_gap ON sku (reorder_gap, id);
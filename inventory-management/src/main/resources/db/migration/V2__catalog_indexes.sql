@@ -0,0 +1,8 @@
+-- One SKU code per product, enforced by the database instead of a lookup before each insert
+ALTER TABLE sku ADD CONSTRAINT uk_sku_product_code UNIQUE (product_id, code);
+
+-- SKU lookups by code alone, across products
+CREATE INDEX idx_sku_code ON sku (code);
+
+-- Name-ordered product pages and exact-name lookups
+CREATE INDEX idx_product_name ON product (name, id);
@@ -0,0 +1,17 @@
+-- The SKU table of one shard: the rows of the products whose id hashes here. Products live in the main
+-- database, so product_id has no foreign key; ids are drawn from the main database's sku_seq
+CREATE TABLE sku (
+    id BIGINT NOT NULL PRIMARY KEY,
+    code VARCHAR(255),
+    price DOUBLE PRECISION NOT NULL,
+    quantity INTEGER NOT NULL,
+    reorder_threshold INTEGER,
+    reorder_gap INTEGER GENERATED ALWAYS AS (quantity - reorder_threshold),
+    version BIGINT,
+    product_id BIGINT NOT NULL,
+    CONSTRAINT uk_sku_product_code UNIQUE (product_id, code)
+);
+
+CREATE INDEX idx_sku_code ON sku (code);
+CREATE INDEX idx_sku_quantity ON sku (quantity, id);
+CREATE INDEX idx_sku_reorder_gap ON sku (reorder_gap, id);
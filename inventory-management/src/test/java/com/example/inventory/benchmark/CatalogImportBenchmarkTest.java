@@ -0,0 +1,104 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.dto.ImportResultDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares rows/sec of onboarding a catalog through the per-row REST endpoints against one
+ * {@code POST /api/import} of the same rows, and requires the import to be at least 10x faster.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.com.example.inventory=WARN"})
+public class CatalogImportBenchmarkTest {
+    private static final int CATEGORIES = Integer.getInteger("benchmark.categories", 10);
+    private static final int PRODUCTS_PER_CATEGORY = 20;
+    private static final int SKUS_PER_PRODUCT = 10;
+    private static final int ROWS = CATEGORIES * (1 + PRODUCTS_PER_CATEGORY * (1 + SKUS_PER_PRODUCT));
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compareRestAndImport() throws Exception {
+        long start = System.nanoTime();
+        onboardThroughRest("Rest");
+        long restNanos = System.nanoTime() - start;
+
+        byte[] file = ndjson("Import");
+        start = System.nanoTime();
+        String body = mockMvc.perform(post("/api/import").contentType("application/x-ndjson").content(file))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long importNanos = System.nanoTime() - start;
+
+        ImportResultDto result = objectMapper.readValue(body, ImportResultDto.class);
+        assertEquals(ROWS, result.getCategoriesCreated() + result.getProductsCreated() + result.getSkusCreated());
+        double speedup = (double) restNanos / importNanos;
+        System.out.printf("Catalog onboarding, %d rows: per-row REST %.0f rows/sec, import %.0f rows/sec (%.1fx)%n",
+                ROWS, rowsPerSecond(restNanos), rowsPerSecond(importNanos), speedup);
+        assertTrue(speedup >= 10, "import should be at least 10x the per-row REST path, was " + speedup);
+    }
+
+    private void onboardThroughRest(String prefix) throws Exception {
+        for (int c = 0; c < CATEGORIES; c++) {
+            long categoryId = postForId("/api/categories", "{\"name\":\"" + prefix + " Category " + c + "\"}");
+            for (int p = 0; p < PRODUCTS_PER_CATEGORY; p++) {
+                long productId = postForId("/api/products",
+                        "{\"name\":\"" + prefix + " Product " + c + "-" + p + "\",\"categoryId\":" + categoryId + "}");
+                for (int s = 0; s < SKUS_PER_PRODUCT; s++) {
+                    postForId("/api/products/" + productId + "/skus",
+                            "{\"code\":\"SKU-" + s + "\",\"quantity\":" + s + ",\"price\":9.99}");
+                }
+            }
+        }
+    }
+
+    private long postForId(String uri, String json) throws Exception {
+        String body = mockMvc.perform(post(uri).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode node = objectMapper.readTree(body);
+        return node.get("id").asLong();
+    }
+
+    private static byte[] ndjson(String prefix) {
+        StringBuilder out = new StringBuilder();
+        for (int c = 0; c < CATEGORIES; c++) {
+            out.append("{\"type\":\"category\",\"id\":\"c").append(c).append("\",\"name\":\"")
+                    .append(prefix).append(" Category ").append(c).append("\"}\n");
+            for (int p = 0; p < PRODUCTS_PER_CATEGORY; p++) {
+                String productRef = c + "-" + p;
+                out.append("{\"type\":\"product\",\"id\":\"").append(productRef).append("\",\"categoryId\":\"c").append(c)
+                        .append("\",\"name\":\"").append(prefix).append(" Product ").append(productRef).append("\"}\n");
+                for (int s = 0; s < SKUS_PER_PRODUCT; s++) {
+                    out.append("{\"type\":\"sku\",\"productId\":\"").append(productRef).append("\",\"code\":\"SKU-").append(s)
+                            .append("\",\"quantity\":").append(s).append(",\"price\":9.99}\n");
+                }
+            }
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double rowsPerSecond(long nanos) {
+        return ROWS / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.dto.CategoryDeleteJobDto;
+import com.example.inventory.service.CategoryService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deleting one large category (10 SKUs per product) through the JPA cascade and through the chunked
+ * background job. While each runs, a probe thread keeps updating a SKU of the category's last product
+ * and records its longest wait, which is how long the delete keeps that row locked, and samples the
+ * heap left in use after each garbage collection. Size comes from {@code -Dbenchmark.skus}.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:category-delete-benchmark;DB_CLOSE_DELAY=-1",
+        "inventory.slow-query.enabled=false", "inventory.query-budget.enabled=false"})
+public class CategoryDeleteBenchmarkTest {
+    private static final int SKUS = Integer.getInteger("benchmark.skus", 100_000);
+    private static final int SKUS_PER_PRODUCT = 10;
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cascadeDeleteAgainstChunkedJob() throws Exception {
+        System.out.println("mode          elapsed ms   probe max wait ms   probe failures   retained heap MB");
+        run("cascade", 1, categoryId -> categoryService.deleteCategory(categoryId));
+        run("chunked job", 2, categoryId -> {
+            String jobId = categoryService.deleteCategoryAsync(categoryId).getId();
+            CategoryDeleteJobDto job;
+            while ((job = categoryService.getDeleteJob(jobId)).getStatus() != CategoryDeleteJobDto.Status.COMPLETED) {
+                if (job.getStatus() == CategoryDeleteJobDto.Status.FAILED) {
+                    throw new IllegalStateException(job.getError());
+                }
+                Thread.sleep(10);
+            }
+        });
+    }
+
+    private interface Delete {
+        void run(long categoryId) throws Exception;
+    }
+
+    private void run(String label, long categoryId, Delete delete) throws Exception {
+        int products = SKUS / SKUS_PER_PRODUCT;
+        long firstProduct = (categoryId - 1) * products + 1;
+        long lastProduct = categoryId * products;
+        jdbcTemplate.update("INSERT INTO category (id, name) VALUES (?, ?)", categoryId, "Category " + categoryId);
+        jdbcTemplate.update("INSERT INTO product (id, name, category_id) SELECT X, 'Product ' || X, ? FROM SYSTEM_RANGE(?, ?)",
+                categoryId, firstProduct, lastProduct);
+        jdbcTemplate.update("INSERT INTO sku (id, product_id, code, quantity, price, version)"
+                + " SELECT X, (X - 1) / ? + 1, 'SKU-' || X, 100, 9.99, 0 FROM SYSTEM_RANGE(?, ?)",
+                SKUS_PER_PRODUCT, (firstProduct - 1) * SKUS_PER_PRODUCT + 1, lastProduct * SKUS_PER_PRODUCT);
+        long probeSku = lastProduct * SKUS_PER_PRODUCT;
+
+        System.gc();
+        long baseline = heapAfterLastGc();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicLong maxWaitNanos = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread probe = new Thread(() -> {
+            while (!done.get()) {
+                long begin = System.nanoTime();
+                try {
+                    if (jdbcTemplate.update("UPDATE sku SET quantity = quantity + 1 WHERE id = ?", probeSku) == 0) {
+                        break;
+                    }
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+                maxWaitNanos.accumulateAndGet(System.nanoTime() - begin, Math::max);
+                peak.accumulateAndGet(heapAfterLastGc(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "delete-probe");
+
+        long start = System.nanoTime();
+        probe.start();
+        delete.run(categoryId);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        done.set(true);
+        probe.join();
+
+        assertEquals(0, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE category_id = ?", Long.class, categoryId));
+        System.out.printf("%-12s %11d %19.1f %16d %18.1f%n", label, elapsed, maxWaitNanos.get() / 1e6, failures.get(),
+                (peak.get() - baseline) / 1048576.0);
+    }
+
+    // Heap still in use after the most recent collection of each pool, i.e. what the delete keeps reachable
+    private static long heapAfterLastGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.ReservationDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.ReservationService;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of reserve/release and reserve/commit against a single hot SKU.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class HotSkuReservationBenchmarkTest {
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+    private static final int OPS_PER_THREAD = Integer.getInteger("benchmark.ops", 2000);
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private ReservationService reservationService;
+
+    @Test
+    void hotSkuThroughput() throws InterruptedException {
+        CategoryDto category = new CategoryDto();
+        category.setName("Benchmark");
+        ProductDto product = new ProductDto();
+        product.setName("Hot Product");
+        product.setCategoryId(categoryService.createCategory(category).getId());
+        Long productId = productService.createProduct(product).getId();
+        SkuDto sku = new SkuDto();
+        sku.setCode("HOT-1");
+        sku.setQuantity(Integer.MAX_VALUE / 2);
+        sku.setPrice(10.0);
+        Long skuId = skuService.addSkuToProduct(productId, sku).getId();
+
+        double releaseOps = run(() -> {
+            ReservationDto held = reservationService.reserve(productId, skuId, 1, 60);
+            reservationService.release(productId, skuId, held.getId());
+        });
+        double commitOps = run(() -> {
+            ReservationDto held = reservationService.reserve(productId, skuId, 1, 60);
+            reservationService.commit(productId, skuId, held.getId());
+        });
+        System.out.printf("Hot SKU, %d threads: reserve+release %.0f ops/sec, reserve+commit %.0f ops/sec%n",
+                THREADS, releaseOps, commitOps);
+    }
+
+    private double run(Runnable op) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    op.run();
+                }
+                return null;
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        return (double) THREADS * OPS_PER_THREAD / ((System.nanoTime() - begin) / 1_000_000_000.0);
+    }
+}
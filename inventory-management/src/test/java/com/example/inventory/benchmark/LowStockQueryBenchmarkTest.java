@@ -0,0 +1,103 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.dto.LowStockPageDto;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Low-stock queries over a large catalog (10 SKUs per product, 100 products per category), with the
+ * quantity and reorder-gap indexes in place and again after dropping them, which is the full crawl the
+ * replenishment job used to do. Size comes from {@code -Dbenchmark.skus}.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+// H2 otherwise hands back the cached result of an identical query on unchanged tables, which would hide the scan being measured
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:low-stock-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+        "inventory.slow-query.enabled=false"})
+public class LowStockQueryBenchmarkTest {
+    private static final int SKUS = Integer.getInteger("benchmark.skus", 1_000_000);
+    private static final int SKUS_PER_PRODUCT = 10;
+    private static final int PRODUCTS_PER_CATEGORY = 100;
+    private static final int BELOW = 10;
+    private static final int PAGE_SIZE = 100;
+    private static final int RUNS = 3;
+
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lowStockQueriesWithAndWithoutIndexes() {
+        int products = SKUS / SKUS_PER_PRODUCT;
+        int categories = products / PRODUCTS_PER_CATEGORY;
+        long seedStart = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO category (id, name) SELECT X, 'Category ' || X FROM SYSTEM_RANGE(1, ?)", categories);
+        jdbcTemplate.update("INSERT INTO product (id, name, category_id) SELECT X, 'Product ' || X, (X - 1) / ? + 1 FROM SYSTEM_RANGE(1, ?)",
+                PRODUCTS_PER_CATEGORY, products);
+        // Quantities spread over 0..999 and thresholds over 0..49, so about 1% of SKUs are under BELOW and ~2.5% under their threshold
+        jdbcTemplate.update("INSERT INTO sku (id, product_id, code, quantity, price, reorder_threshold, version)"
+                + " SELECT X, (X - 1) / ? + 1, 'SKU-' || X, MOD(X * 7919, 1000), 9.99, MOD(X * 31, 50), 0 FROM SYSTEM_RANGE(1, ?)",
+                SKUS_PER_PRODUCT, SKUS);
+        System.out.printf("Seeded %d SKUs in %d ms%n", SKUS, (System.nanoTime() - seedStart) / 1_000_000);
+
+        long matching = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sku WHERE quantity < ?", Long.class, BELOW);
+        long underThreshold = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sku WHERE quantity < reorder_threshold", Long.class);
+        System.out.printf("%d SKUs below %d, %d below their own threshold; page size %d, median of %d runs%n",
+                matching, BELOW, underThreshold, PAGE_SIZE, RUNS);
+
+        // Warm up the query paths before either measurement
+        walk(BELOW);
+        report("indexed");
+        jdbcTemplate.execute("DROP INDEX idx_sku_quantity");
+        jdbcTemplate.execute("DROP INDEX idx_sku_reorder_gap");
+        report("no index");
+
+        assertEquals(matching, skuService.countLowStock(BELOW, null).getCount());
+        assertEquals(underThreshold, skuService.countLowStock(null, null).getCount());
+    }
+
+    private void report(String label) {
+        long middleCategory = SKUS / SKUS_PER_PRODUCT / PRODUCTS_PER_CATEGORY / 2;
+        System.out.println(label + ":");
+        print("  below, first page", () -> skuService.getLowStock(BELOW, null, null, PAGE_SIZE).getSize());
+        print("  below, category page", () -> skuService.getLowStock(BELOW, middleCategory, null, PAGE_SIZE).getSize());
+        print("  below, every page", () -> walk(BELOW));
+        print("  below, count", () -> skuService.countLowStock(BELOW, null).getCount());
+        print("  threshold, first page", () -> skuService.getLowStock(null, null, null, PAGE_SIZE).getSize());
+        print("  threshold, every page", () -> walk(null));
+        print("  threshold, count", () -> skuService.countLowStock(null, null).getCount());
+    }
+
+    private long walk(Integer below) {
+        long rows = 0;
+        String cursor = null;
+        do {
+            LowStockPageDto page = skuService.getLowStock(below, null, cursor, PAGE_SIZE);
+            rows += page.getSize();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return rows;
+    }
+
+    private static void print(String label, LongSupplier query) {
+        long[] micros = new long[RUNS];
+        long rows = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            rows = query.getAsLong();
+            micros[i] = (System.nanoTime() - begin) / 1_000;
+        }
+        Arrays.sort(micros);
+        System.out.printf("%-26s %10.2f ms  (%d rows)%n", label, micros[RUNS / 2] / 1000.0, rows);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.inventory.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Catalog lookups over a large dataset (10 SKUs per product, 100 products per category, plus one wide
+ * product holding {@code WIDE_SKUS} SKUs) with the indexes from the V2 migration in place and again after
+ * dropping them, which is the schema {@code ddl-auto: update} used to produce. The (product, code) lookup
+ * is the query every SKU insert used to run before saving. Size comes from {@code -Dbenchmark.skus}.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+// H2 otherwise hands back the cached result of an identical query on unchanged tables, which would hide the scan being measured
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:schema-index-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+        "inventory.slow-query.enabled=false"})
+public class SchemaIndexBenchmarkTest {
+    private static final int SKUS = Integer.getInteger("benchmark.skus", 1_000_000);
+    private static final int SKUS_PER_PRODUCT = 10;
+    private static final int PRODUCTS_PER_CATEGORY = 100;
+    private static final int WIDE_SKUS = 20_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int LOOKUPS = 200;
+    private static final int RUNS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void catalogLookupsWithAndWithoutIndexes() {
+        int products = SKUS / SKUS_PER_PRODUCT;
+        int categories = products / PRODUCTS_PER_CATEGORY;
+        long seedStart = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO category (id, name) SELECT X, 'Category ' || X FROM SYSTEM_RANGE(1, ?)", categories + 1);
+        // Names in a different order from ids, so a name-ordered page cannot ride the primary key
+        jdbcTemplate.update("INSERT INTO product (id, name, category_id) SELECT X, 'Product ' || MOD(X * 7919, ?), (X - 1) / ? + 1"
+                + " FROM SYSTEM_RANGE(1, ?)", products, PRODUCTS_PER_CATEGORY, products + 1);
+        jdbcTemplate.update("INSERT INTO sku (id, product_id, code, quantity, price, version)"
+                + " SELECT X, (X - 1) / ? + 1, 'SKU-' || X, 100, 9.99, 0 FROM SYSTEM_RANGE(1, ?)", SKUS_PER_PRODUCT, SKUS);
+        jdbcTemplate.update("INSERT INTO sku (id, product_id, code, quantity, price, version)"
+                + " SELECT X, ?, 'WIDE-' || X, 100, 9.99, 0 FROM SYSTEM_RANGE(?, ?)", products + 1, SKUS + 1, SKUS + WIDE_SKUS);
+        System.out.printf("Seeded %d SKUs in %d ms; %d lookups per keyed row, median of %d runs%n",
+                SKUS + WIDE_SKUS, (System.nanoTime() - seedStart) / 1_000_000, LOOKUPS, RUNS);
+
+        // Warm up the query paths before either measurement
+        report("warm-up", false);
+        report("indexed", true);
+        jdbcTemplate.execute("ALTER TABLE sku DROP CONSTRAINT uk_sku_product_code");
+        jdbcTemplate.execute("DROP INDEX idx_sku_code");
+        jdbcTemplate.execute("DROP INDEX idx_product_name");
+        report("no index", true);
+
+        assertEquals(1L, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sku WHERE code = 'SKU-1'", Long.class));
+    }
+
+    private void report(String label, boolean print) {
+        long wideProduct = SKUS / SKUS_PER_PRODUCT + 1;
+        Timer timer = new Timer(print);
+        if (print) {
+            System.out.println(label + ":");
+        }
+        timer.time("  product + code", () -> lookups(i -> count("SELECT COUNT(*) FROM sku WHERE product_id = ? AND code = ?",
+                (i * 4999L) % (SKUS / SKUS_PER_PRODUCT) + 1, "SKU-" + ((i * 4999L) % (SKUS / SKUS_PER_PRODUCT) * SKUS_PER_PRODUCT + 1))));
+        timer.time("  wide product + code", () -> lookups(i -> count("SELECT COUNT(*) FROM sku WHERE product_id = ? AND code = ?",
+                wideProduct, "WIDE-" + (SKUS + 1 + i * 97L % WIDE_SKUS))));
+        timer.time("  code", () -> lookups(i -> count("SELECT COUNT(*) FROM sku WHERE code = ?", "SKU-" + (i * 4999L % SKUS + 1))));
+        timer.time("  product name", () -> lookups(i -> count("SELECT COUNT(*) FROM product WHERE name = ?", "Product " + i * 37)));
+        timer.time("  name-ordered page", () -> jdbcTemplate.queryForList(
+                "SELECT id, name FROM product ORDER BY name, id FETCH FIRST ? ROWS ONLY", PAGE_SIZE).size());
+        timer.time("  category page", () -> jdbcTemplate.queryForList(
+                "SELECT id, name FROM product WHERE category_id = ? ORDER BY id FETCH FIRST ? ROWS ONLY", SKUS / SKUS_PER_PRODUCT / PRODUCTS_PER_CATEGORY / 2,
+                PAGE_SIZE).size());
+    }
+
+    private interface Lookup {
+        long run(int i);
+    }
+
+    private static long lookups(Lookup lookup) {
+        long rows = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            rows += lookup.run(i);
+        }
+        return rows;
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    private static final class Timer {
+        private final boolean print;
+
+        private Timer(boolean print) {
+            this.print = print;
+        }
+
+        private void time(String label, LongSupplier query) {
+            long[] micros = new long[RUNS];
+            long rows = 0;
+            for (int i = 0; i < RUNS; i++) {
+                long begin = System.nanoTime();
+                rows = query.getAsLong();
+                micros[i] = (System.nanoTime() - begin) / 1_000;
+            }
+            Arrays.sort(micros);
+            if (print) {
+                System.out.printf("%-26s %10.2f ms  (%d rows)%n", label, micros[RUNS / 2] / 1000.0, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuBatchResultDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares rows/sec of the one-by-one SKU insert path against the batch ingest path.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class SkuIngestBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+
+    @Test
+    void compareSingleAndBatchIngest() {
+        Long singleProductId = createProduct("Single Insert");
+        Long batchProductId = createProduct("Batch Insert");
+        List<SkuDto> payload = payload(ROWS);
+
+        long start = System.nanoTime();
+        for (SkuDto dto : payload) {
+            skuService.addSkuToProduct(singleProductId, dto);
+        }
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        SkuBatchResultDto result = skuService.addSkusToProduct(batchProductId, payload);
+        long batchNanos = System.nanoTime() - start;
+
+        assertEquals(ROWS, result.getCreated());
+        System.out.printf("SKU ingest, %d rows: one-by-one %.0f rows/sec, batch %.0f rows/sec (%.1fx)%n",
+                ROWS, rowsPerSecond(singleNanos), rowsPerSecond(batchNanos), (double) singleNanos / batchNanos);
+    }
+
+    private Long createProduct(String name) {
+        CategoryDto category = new CategoryDto();
+        category.setName(name + " Category");
+        ProductDto product = new ProductDto();
+        product.setName(name);
+        product.setCategoryId(categoryService.createCategory(category).getId());
+        return productService.createProduct(product).getId();
+    }
+
+    private static List<SkuDto> payload(int rows) {
+        List<SkuDto> dtos = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            SkuDto dto = new SkuDto();
+            dto.setCode("SKU-" + i);
+            dto.setQuantity(i % 100);
+            dto.setPrice(9.99);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    private static double rowsPerSecond(long nanos) {
+        return ROWS / (nanos / 1_000_000_000.0);
+    }
+}
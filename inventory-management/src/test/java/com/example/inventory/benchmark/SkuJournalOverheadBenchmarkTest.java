@@ -0,0 +1,163 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.InventoryManagementApplication;
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.journal.JournalReplay;
+import com.example.inventory.journal.SkuJournal;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of {@code SkuService.updateSku} with the mutation journal off and on (fsync per group),
+ * from one caller and from many concurrent callers, so the group-commit saving is visible.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+public class SkuJournalOverheadBenchmarkTest {
+    private static final int SKUS = Integer.getInteger("benchmark.skus", 64);
+    private static final int UPDATES = Integer.getInteger("benchmark.updates", 2000);
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 16);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void updateLatencyWithAndWithoutJournal() throws Exception {
+        Result[] off = run(false);
+        Result[] on = run(true);
+        System.out.printf("updateSku x %d, %d SKUs%n", UPDATES, SKUS);
+        System.out.println("  1 client,  journal off: " + off[0]);
+        System.out.println("  1 client,  journal on:  " + on[0]);
+        System.out.println("  " + CLIENTS + " clients, journal off: " + off[1]);
+        System.out.println("  " + CLIENTS + " clients, journal on:  " + on[1]);
+    }
+
+    private Result[] run(boolean journalEnabled) throws Exception {
+        String name = journalEnabled ? "on" : "off";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:journal-" + name + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--inventory.slow-query.enabled=false",
+                        "--inventory.journal.enabled=" + journalEnabled,
+                        "--inventory.journal.directory=" + dir.resolve(name));
+        try {
+            SkuService skuService = context.getBean(SkuService.class);
+            SkuJournal journal = context.getBean(SkuJournal.class);
+            CategoryDto category = new CategoryDto();
+            category.setName("Journal " + name);
+            ProductDto product = new ProductDto();
+            product.setName("Journal Product");
+            product.setCategoryId(context.getBean(CategoryService.class).createCategory(category).getId());
+            Long productId = context.getBean(ProductService.class).createProduct(product).getId();
+            List<SkuDto> skus = new ArrayList<>();
+            for (int i = 0; i < SKUS; i++) {
+                SkuDto sku = new SkuDto();
+                sku.setCode("J-" + i);
+                sku.setQuantity(1);
+                sku.setPrice(1.5);
+                skus.add(skuService.addSkuToProduct(productId, sku));
+            }
+            // Warm up before either measurement
+            updates(skuService, skus, 0, UPDATES / 4, new long[UPDATES / 4]);
+
+            long syncsBefore = journal.getSyncs();
+            Result single = timed(skuService, skus, 1);
+            Result concurrent = timed(skuService, skus, CLIENTS);
+            if (journalEnabled) {
+                long records = UPDATES * 2L;
+                concurrent.note = String.format("; %d fsyncs for %d records", journal.getSyncs() - syncsBefore, records);
+            }
+            context.close();
+            if (journalEnabled) {
+                assertEquals(SKUS, JournalReplay.replay(dir.resolve(name)).size());
+            }
+            return new Result[]{single, concurrent};
+        } finally {
+            context.close();
+        }
+    }
+
+    private Result timed(SkuService skuService, List<SkuDto> skus, int clients) throws Exception {
+        int perClient = UPDATES / clients;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            futures.add(pool.submit(() -> {
+                long[] latencies = new long[perClient];
+                start.await();
+                updates(skuService, skus, client, perClient, latencies);
+                return latencies;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] all = new long[perClient * clients];
+        int n = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                all[n++] = latency;
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+        return new Result(all, elapsed);
+    }
+
+    // Each client owns the SKUs congruent to its index, so updates never race on a row version
+    private static void updates(SkuService skuService, List<SkuDto> skus, int client, int count, long[] latencies) {
+        for (int i = 0; i < count; i++) {
+            SkuDto sku = skus.get((client + i * CLIENTS) % skus.size());
+            SkuDto change = new SkuDto();
+            change.setCode(sku.getCode());
+            change.setQuantity(i % 100);
+            change.setPrice(1.5 + i % 7);
+            long begin = System.nanoTime();
+            skuService.updateSku(sku.getProductId(), sku.getId(), change);
+            latencies[i] = System.nanoTime() - begin;
+        }
+    }
+
+    private static final class Result {
+        final double throughput;
+        final double p50Micros;
+        final double p99Micros;
+        String note = "";
+
+        Result(long[] latencies, long elapsedNanos) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            throughput = sorted.length / (elapsedNanos / 1e9);
+            p50Micros = sorted[(int) Math.ceil(0.50 * sorted.length) - 1] / 1e3;
+            p99Micros = sorted[(int) Math.ceil(0.99 * sorted.length) - 1] / 1e3;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f updates/sec, p50 %.0fus, p99 %.0fus%s", throughput, p50Micros, p99Micros, note);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.dto.SnapshotInfoDto;
+import com.example.inventory.snapshot.CatalogSnapshotService;
+import com.example.inventory.snapshot.CatalogSnapshotWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Restore time of a catalog snapshot against catalog size (100 products per category, 10 SKUs per
+ * product), plus the time to write it back out. Sizes come from {@code -Dbenchmark.skuCounts}.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:snapshot-benchmark;DB_CLOSE_DELAY=-1", "inventory.slow-query.enabled=false"})
+public class SnapshotRestoreBenchmarkTest {
+    private static final String SKU_COUNTS = System.getProperty("benchmark.skuCounts", "10000,100000,1000000");
+    private static final int SKUS_PER_PRODUCT = 10;
+    private static final int PRODUCTS_PER_CATEGORY = 100;
+
+    @Autowired
+    private CatalogSnapshotService snapshotService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoreTimeByCatalogSize() throws Exception {
+        System.out.println("SKUs        file MB   restore ms   SKUs/sec    write ms");
+        for (String count : SKU_COUNTS.split(",")) {
+            int skus = Integer.parseInt(count.trim());
+            Path file = dir.resolve("catalog-" + skus + ".snapshot");
+            synthesize(file, skus);
+
+            SnapshotInfoDto restored = snapshotService.restore(file);
+            assertEquals(skus, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sku", Long.class));
+            SnapshotInfoDto written = snapshotService.writeSnapshot(dir.resolve("rewritten.snapshot"));
+            assertEquals(restored.getSkus(), written.getSkus());
+            System.out.printf("%-10d %8.1f %12d %10.0f %11d%n", skus, restored.getBytes() / 1048576.0, restored.getDurationMillis(),
+                    skus * 1000.0 / Math.max(1, restored.getDurationMillis()), written.getDurationMillis());
+
+            jdbcTemplate.execute("DELETE FROM sku");
+            jdbcTemplate.execute("DELETE FROM product");
+            jdbcTemplate.execute("DELETE FROM category");
+        }
+    }
+
+    private static void synthesize(Path file, int skus) throws Exception {
+        try (OutputStream out = Files.newOutputStream(file);
+             CatalogSnapshotWriter writer = new CatalogSnapshotWriter(out, System.currentTimeMillis())) {
+            long productId = 0;
+            long categoryId = 0;
+            for (long skuId = 1; skuId <= skus; skuId++) {
+                if ((skuId - 1) % SKUS_PER_PRODUCT == 0) {
+                    productId++;
+                    if ((productId - 1) % PRODUCTS_PER_CATEGORY == 0) {
+                        categoryId++;
+                        writer.category(categoryId, "Category " + categoryId);
+                    }
+                    writer.product(productId, categoryId, "Product " + productId);
+                }
+                writer.sku(skuId, productId, "SKU-" + skuId, (int) (skuId % 100), 9.99, null, 0L);
+            }
+            writer.finish();
+        }
+    }
+}
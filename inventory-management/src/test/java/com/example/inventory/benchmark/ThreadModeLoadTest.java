@@ -0,0 +1,228 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.InventoryManagementApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput and tail latency of {@code GET /api/products/{id}/skus} over real HTTP with
+ * {@code inventory.threads.mode} set to platform and then virtual. Each statement is delayed by
+ * {@code benchmark.dbLatencyMs} to stand in for a networked database, and Tomcat's worker pool is
+ * kept smaller than the connection pool so the thread model, not the database, is the limit.
+ * Excluded from the default build; run with {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+public class ThreadModeLoadTest {
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 200);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("benchmark.requests", 25);
+    private static final long DB_LATENCY_MS = Long.getLong("benchmark.dbLatencyMs", 5);
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    static {
+        // HttpURLConnection keeps only 5 idle connections per host by default; give every client its own
+        System.setProperty("http.maxConnections", String.valueOf(CLIENTS));
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run("platform");
+        Result virtual = run("virtual");
+        System.out.printf("%d clients x %d requests, %dms per statement%n", CLIENTS, REQUESTS_PER_CLIENT, DB_LATENCY_MS);
+        System.out.println("  platform: " + platform);
+        System.out.println("  virtual:  " + virtual);
+        assertEquals(0, platform.errors);
+        assertEquals(0, virtual.errors);
+        assertTrue(virtual.throughput > platform.throughput, "virtual threads should lift the worker-pool cap");
+    }
+
+    private Result run(String mode) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryManagementApplication.class, DbLatency.class)
+                // Command-line arguments, unlike builder default properties, take precedence over application.yml
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:threadmode-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=50",
+                        "--server.tomcat.threads.max=20",
+                        "--server.tomcat.threads.min-spare=20",
+                        "--inventory.threads.mode=" + mode,
+                        "--inventory.threads.db-max-concurrency=50",
+                        "--inventory.slow-query.enabled=false",
+                        "--benchmark.db-latency-ms=" + DB_LATENCY_MS);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port;
+            long categoryId = create(base + "/api/categories", "{\"name\":\"Load " + mode + "\"}");
+            long productId = create(base + "/api/products", "{\"name\":\"Load Product\",\"categoryId\":" + categoryId + "}");
+            for (int i = 0; i < 20; i++) {
+                create(base + "/api/products/" + productId + "/skus", "{\"code\":\"LOAD-" + i + "\",\"quantity\":10,\"price\":1.5}");
+            }
+            URL url = new URL(base + "/api/products/" + productId + "/skus");
+            for (int i = 0; i < 200; i++) {
+                get(url);
+            }
+            return load(url);
+        } finally {
+            context.close();
+        }
+    }
+
+    private Result load(URL url) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                long[] latencies = new long[REQUESTS_PER_CLIENT];
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    long begin = System.nanoTime();
+                    latencies[i] = get(url) == 200 ? System.nanoTime() - begin : -1;
+                }
+                return latencies;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] all = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        int n = 0;
+        for (Future<long[]> future : futures) {
+            for (long latency : future.get()) {
+                all[n++] = latency;
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.MINUTES);
+        return new Result(all, elapsed);
+    }
+
+    private static long create(String url, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        Matcher matcher = ID.matcher(read(connection.getInputStream()));
+        assertTrue(matcher.find(), "no id in response from " + url);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static int get(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        int status = connection.getResponseCode();
+        // Drain the body so the keep-alive connection is reused
+        read(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+        return status;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream body = in) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            for (int read; (read = body.read(chunk)) > 0; ) {
+                buffer.write(chunk, 0, read);
+            }
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Result {
+        final double throughput;
+        final double p50Millis;
+        final double p99Millis;
+        final double maxMillis;
+        final int errors;
+
+        Result(long[] latencies, long elapsedNanos) {
+            long[] ok = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+            errors = latencies.length - ok.length;
+            throughput = ok.length / (elapsedNanos / 1e9);
+            p50Millis = percentile(ok, 0.50);
+            p99Millis = percentile(ok, 0.99);
+            maxMillis = ok.length == 0 ? 0 : ok[ok.length - 1] / 1e6;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/sec, p50 %.1fms, p99 %.1fms, max %.1fms, %d errors", throughput, p50Millis, p99Millis, maxMillis, errors);
+        }
+    }
+
+    /** Not annotated, so component scanning in other tests never picks it up; added as a source above. */
+    static class DbLatency {
+        @Bean
+        static BeanPostProcessor dbLatencyPostProcessor(Environment environment) {
+            long latencyMillis = environment.getProperty("benchmark.db-latency-ms", Long.class, 0L);
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource) || latencyMillis <= 0) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource((DataSource) bean) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return delayed(super.getConnection(), latencyMillis);
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection delayed(Connection target, long latencyMillis) {
+            return (Connection) Proxy.newProxyInstance(DbLatency.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.inventory.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResourceVersionsTest {
+    private final ResourceVersions versions = new ResourceVersions(1024);
+
+    @Test
+    void testTagsAreStrongAndStableUntilChanged() {
+        String tag = versions.productTag(1L);
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+        assertEquals(tag, versions.productTag(1L));
+        versions.productChanged(1L);
+        assertNotEquals(tag, versions.productTag(1L));
+    }
+
+    @Test
+    void testChangesOnlyMoveTheirOwnTags() {
+        String product = versions.productTag(1L);
+        String skus = versions.productSkusTag(1L);
+        String expanded = versions.productWithSkusTag(1L);
+        String list = versions.categoryListTag();
+        versions.skusChanged(1L);
+        assertEquals(product, versions.productTag(1L));
+        assertNotEquals(skus, versions.productSkusTag(1L));
+        assertNotEquals(expanded, versions.productWithSkusTag(1L));
+        assertEquals(list, versions.categoryListTag());
+
+        String category = versions.categoryTag(3L);
+        versions.categoryChanged(3L);
+        assertNotEquals(category, versions.categoryTag(3L));
+        assertNotEquals(list, versions.categoryListTag());
+    }
+
+    @Test
+    void testInvalidateAllRetiresEveryTag() {
+        String product = versions.productTag(1L);
+        String list = versions.categoryListTag();
+        versions.invalidateAll();
+        assertNotEquals(product, versions.productTag(1L));
+        assertNotEquals(list, versions.categoryListTag());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.inventory.cache;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * A GET that runs while an update is still uncommitted reads, and may cache, the old row; the
+ * eviction at commit must still take it out again.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:response-cache-commit;DB_CLOSE_DELAY=-1")
+public class ResponseCacheCommitTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String fetch(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void testReadBeforeCommitIsNotServedAfterIt() throws Exception {
+        CategoryDto category = new CategoryDto();
+        category.setName("Cache Commit");
+        long categoryId = categoryService.createCategory(category).getId();
+        ProductDto product = new ProductDto();
+        product.setName("Old name");
+        product.setCategoryId(categoryId);
+        long productId = productService.createProduct(product).getId();
+        String url = "/api/products/" + productId;
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                ProductDto rename = new ProductDto();
+                rename.setName("New name");
+                productService.updateProduct(productId, rename);
+                try {
+                    // Another request, outside this transaction, still sees the committed row
+                    assertTrue(reader.submit(() -> fetch(url)).get().contains("Old name"));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            reader.shutdown();
+        }
+
+        assertTrue(fetch(url).contains("New name"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.inventory.cache;
+
+import com.example.inventory.dto.CategoryDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializedResponseCacheTest {
+    private SerializedResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        // 16 segments of 400 bytes each: room for two small entries per segment
+        cache = new SerializedResponseCache("category", new ObjectMapper(), 16 * 400);
+        loads = new AtomicInteger();
+    }
+
+    private CategoryDto load(Long id) {
+        loads.incrementAndGet();
+        CategoryDto dto = new CategoryDto();
+        dto.setId(id);
+        dto.setName("Category " + id);
+        return dto;
+    }
+
+    @Test
+    void testHitSkipsLoader() {
+        byte[] first = cache.get(1L, () -> load(1L));
+        byte[] second = cache.get(1L, () -> load(1L));
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertTrue(new String(second, StandardCharsets.UTF_8).contains("\"name\":\"Category 1\""));
+    }
+
+    @Test
+    void testEvict() {
+        cache.get(1L, () -> load(1L));
+        cache.evict(1L);
+        cache.get(1L, () -> load(1L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWithinByteBudget() {
+        // Ids 16 apart share a segment; a third entry pushes the segment over budget
+        cache.get(1L, () -> load(1L));
+        cache.get(17L, () -> load(17L));
+        cache.get(1L, () -> load(1L));
+        cache.get(33L, () -> load(33L));
+        assertTrue(cache.getEvictions() > 0);
+        assertTrue(cache.getBytes() <= cache.getMaxBytes());
+        int before = loads.get();
+        cache.get(1L, () -> load(1L));
+        assertEquals(before, loads.get());
+    }
+
+    @Test
+    void testLoadRacingWithEvictionIsNotStored() {
+        cache.get(1L, () -> {
+            cache.evict(1L);
+            return load(1L);
+        });
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testEvictionInAnotherSegmentDoesNotBlockStore() {
+        // Ids 1 and 2 hash to different segments
+        cache.get(1L, () -> {
+            cache.evict(2L);
+            return load(1L);
+        });
+        assertEquals(1, cache.getSize());
+    }
+}
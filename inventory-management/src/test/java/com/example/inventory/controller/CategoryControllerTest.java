@@ -1,7 +1,13 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.CategoryDeleteJobDto;
 import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
 import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ExpandOptions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,10 +17,12 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import javax.persistence.EntityNotFoundException;
 import java.util.Arrays;
 import java.util.List;
 
@@ -22,24 +30,33 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CategoryController.class)
+@Import({CacheConfig.class, ResourceVersions.class})
 public class CategoryControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private CategoryService categoryService;
+    @Autowired
+    private ResourceVersions resourceVersions;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private List<SerializedResponseCache> responseCaches;
+
     private CategoryDto categoryDto;
 
     @BeforeEach
     void setUp() {
+        responseCaches.forEach(SerializedResponseCache::clear);
         categoryDto = new CategoryDto();
         categoryDto.setId(1L);
         categoryDto.setName("Electronics");
@@ -67,6 +84,16 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$.name").value("Electronics"));
     }
 
+    @Test
+    void testGetCategoryById_ServedFromCache() throws Exception {
+        given(categoryService.getCategoryById(1L)).willReturn(categoryDto);
+        mockMvc.perform(get("/api/categories/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/categories/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Electronics"));
+        verify(categoryService, times(1)).getCategoryById(1L);
+    }
+
     @Test
     void testUpdateCategory() throws Exception {
         given(categoryService.updateCategory(eq(1L), any(CategoryDto.class))).willReturn(categoryDto);
@@ -87,13 +114,80 @@ public class CategoryControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void testDeleteCategoryAsync() throws Exception {
+        CategoryDeleteJobDto job = new CategoryDeleteJobDto();
+        job.setId("job-1");
+        job.setCategoryId(1L);
+        job.setStatus(CategoryDeleteJobDto.Status.QUEUED);
+        given(categoryService.deleteCategoryAsync(1L)).willReturn(job);
+        mockMvc.perform(delete("/api/categories/1").param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/categories/deletions/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+        verify(categoryService, times(0)).deleteCategory(1L);
+    }
+
+    @Test
+    void testGetDeleteJob_NotFound() throws Exception {
+        given(categoryService.getDeleteJob("missing")).willThrow(new EntityNotFoundException("Category delete job not found"));
+        mockMvc.perform(get("/api/categories/deletions/missing"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetAllCategories() throws Exception {
         List<CategoryDto> categories = Arrays.asList(categoryDto);
-        given(categoryService.getAllCategories()).willReturn(categories);
+        given(categoryService.getAllCategories(ExpandOptions.NONE)).willReturn(categories);
         mockMvc.perform(get("/api/categories"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].name").value("Electronics"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testGetCategoryById_ExpandProducts() throws Exception {
+        ProductDto product = new ProductDto();
+        product.setId(5L);
+        product.setName("iPhone");
+        categoryDto.setProducts(Arrays.asList(product));
+        given(categoryService.getCategoryById(eq(1L), any(ExpandOptions.class))).willReturn(categoryDto);
+        mockMvc.perform(get("/api/categories/1").param("expand", "products,skus"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name").value("iPhone"));
+        verify(categoryService, times(0)).getCategoryById(1L);
+    }
+
+    @Test
+    void testGetAllCategories_UnsupportedExpand() throws Exception {
+        mockMvc.perform(get("/api/categories").param("expand", "suppliers"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllCategories_NotModifiedUntilACategoryChanges() throws Exception {
+        given(categoryService.getAllCategories(ExpandOptions.NONE)).willReturn(Arrays.asList(categoryDto));
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        verify(categoryService, times(1)).getAllCategories(ExpandOptions.NONE);
+
+        resourceVersions.categoryChanged(7L);
+        mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Electronics"));
+        verify(categoryService, times(2)).getAllCategories(ExpandOptions.NONE);
+    }
+
+    @Test
+    void testGetAllCategories_ExpandedIsNotTagged() throws Exception {
+        given(categoryService.getAllCategories(any(ExpandOptions.class))).willReturn(Arrays.asList(categoryDto));
+        mockMvc.perform(get("/api/categories").param("expand", "products"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+}
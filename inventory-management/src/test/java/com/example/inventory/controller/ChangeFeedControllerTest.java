@@ -0,0 +1,75 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:change-feed-test;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class ChangeFeedControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ChangeFeed changeFeed;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+
+    // Events are written from a sender thread, so wait for them to show up in the response body
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+
+    @Test
+    void testStreamsCommittedChangesAndResumes() throws Exception {
+        MvcResult live = mockMvc.perform(get("/api/changes")).andExpect(request().asyncStarted()).andReturn();
+        CategoryDto category = new CategoryDto();
+        category.setName("Feed Tools");
+        Long categoryId = categoryService.createCategory(category).getId();
+        ProductDto product = new ProductDto();
+        product.setName("Feed Hammer");
+        product.setCategoryId(categoryId);
+        Long productId = productService.createProduct(product).getId();
+
+        long first = changeFeed.getSequence() - 1;
+        String content = awaitContent(live.getResponse(), "\"entity\":\"PRODUCT\"");
+        assertTrue(content.contains("id:" + changeFeed.eventId(first) + "\nevent:change\n"), content);
+        assertTrue(content.contains("\"entity\":\"CATEGORY\",\"type\":\"CREATED\",\"id\":" + categoryId), content);
+        assertTrue(content.contains("\"id\":" + productId + ",\"parentId\":" + categoryId), content);
+
+        // Reconnecting after the category event replays only the product event
+        MvcResult resumed = mockMvc.perform(get("/api/changes").header("Last-Event-ID", changeFeed.eventId(first)))
+                .andExpect(request().asyncStarted()).andReturn();
+        String replayed = awaitContent(resumed.getResponse(), "\"entity\":\"PRODUCT\"");
+        assertFalse(replayed.contains("\"entity\":\"CATEGORY\""), replayed);
+    }
+
+    @Test
+    void testUnknownPositionGetsResync() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/changes").param("lastEventId", "earlier-run:42"))
+                .andExpect(request().asyncStarted()).andReturn();
+        String content = awaitContent(result.getResponse(), "event:resync");
+        assertTrue(content.contains("\"resumeFrom\":\"" + changeFeed.eventId(changeFeed.getSequence()) + "\""), content);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.jdbc.QueryCountExtension;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each Category, Product and SKU endpoint issues, so an extra
+ * query or an N+1 introduced by a change fails here rather than in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EndpointQueryCountTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @RegisterExtension
+    final QueryCountExtension queries = new QueryCountExtension();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String prefix;
+    private long categoryId;
+    private long productId;
+    private long skuId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        prefix = "QueryCount " + SEQUENCE.incrementAndGet();
+        categoryId = create("/api/categories", "{\"name\":\"" + prefix + " Category\"}");
+        productId = create("/api/products", "{\"name\":\"" + prefix + " Product\",\"categoryId\":" + categoryId + "}");
+        for (int i = 0; i < 3; i++) {
+            skuId = create("/api/products/" + productId + "/skus", "{\"code\":\"" + prefix + " SKU " + i + "\",\"quantity\":5,\"price\":9.99}");
+        }
+    }
+
+    private long create(String url, String body) throws Exception {
+        MvcResult result = mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()).andReturn();
+        JsonNode json = objectMapper.readTree(result.getResponse().getContentAsString());
+        return json.get("id").asLong();
+    }
+
+    @Test
+    void testCategoryEndpoints() throws Throwable {
+        queries.expect(1, () -> mockMvc.perform(post("/api/categories").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + prefix + " Other\"}")).andExpect(status().isCreated()));
+        queries.expect(1, () -> mockMvc.perform(get("/api/categories/" + categoryId + "?expand=products")).andExpect(status().isOk()));
+        queries.expect(2, () -> mockMvc.perform(get("/api/categories/" + categoryId + "?expand=products,skus")).andExpect(status().isOk()));
+        queries.expect(1, () -> mockMvc.perform(get("/api/categories")).andExpect(status().isOk()));
+        queries.expect(2, () -> mockMvc.perform(put("/api/categories/" + categoryId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + prefix + " Renamed\"}")).andExpect(status().isOk()));
+        queries.expect(1, () -> mockMvc.perform(get("/api/categories/" + categoryId)).andExpect(status().isOk()));
+        // Served from the serialized response cache
+        queries.expect(0, () -> mockMvc.perform(get("/api/categories/" + categoryId)).andExpect(status().isOk()));
+        // The JPA cascade loads the category's products and then each product's SKUs
+        queries.expect(8, 2, () -> mockMvc.perform(delete("/api/categories/" + categoryId)).andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void testProductEndpoints() throws Throwable {
+        queries.expect(2, () -> mockMvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + prefix + " Other\",\"categoryId\":" + categoryId + "}")).andExpect(status().isCreated()));
+        queries.expect(2, () -> mockMvc.perform(get("/api/products/" + productId + "?expand=skus")).andExpect(status().isOk()));
+        // A short first page needs no count query
+        queries.expect(1, () -> mockMvc.perform(get("/api/products?categoryId=" + categoryId)).andExpect(status().isOk()));
+        queries.expect(2, () -> mockMvc.perform(get("/api/products?categoryId=" + categoryId + "&expand=skus&cursor=")).andExpect(status().isOk()));
+        queries.expect(3, () -> mockMvc.perform(put("/api/products/" + productId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + prefix + " Renamed\",\"categoryId\":" + categoryId + "}")).andExpect(status().isOk()));
+        queries.expect(1, () -> mockMvc.perform(get("/api/products/" + productId)).andExpect(status().isOk()));
+        queries.expect(0, () -> mockMvc.perform(get("/api/products/" + productId)).andExpect(status().isOk()));
+        queries.expect(5, 1, () -> mockMvc.perform(delete("/api/products/" + productId)).andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void testSkuEndpoints() throws Throwable {
+        String skus = "/api/products/" + productId + "/skus";
+        queries.expect(2, () -> mockMvc.perform(post(skus).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"code\":\"" + prefix + " SKU X\",\"quantity\":1,\"price\":1.0}")).andExpect(status().isCreated()));
+        // One IN lookup for existing codes and one JDBC batch for the inserts
+        queries.expect(3, () -> mockMvc.perform(post(skus + "/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"code\":\"" + prefix + " SKU Y\",\"quantity\":1,\"price\":1.0},{\"code\":\"" + prefix + " SKU Z\",\"quantity\":1,\"price\":1.0}]"))
+                .andExpect(status().isOk()));
+        queries.expect(2, () -> mockMvc.perform(get(skus)).andExpect(status().isOk()));
+        queries.expect(2, () -> mockMvc.perform(put(skus + "/" + skuId).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"code\":\"" + prefix + " SKU 2\",\"quantity\":7,\"price\":2.5}")).andExpect(status().isOk()));
+        // Single UPDATE ... RETURNING round trip
+        queries.expect(1, () -> mockMvc.perform(patch(skus + "/" + skuId + "/quantity").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"delta\":-2}")).andExpect(status().isOk()));
+        queries.expect(2, () -> mockMvc.perform(delete(skus + "/" + skuId)).andExpect(status().isNoContent()));
+    }
+
+    @Test
+    void testConditionalGets() throws Throwable {
+        String product = "/api/products/" + productId;
+        String skus = product + "/skus";
+        for (String url : new String[] {product, product + "?expand=skus", skus, "/api/categories", "/api/categories/" + categoryId}) {
+            String etag = etag(url);
+            queries.expect(0, () -> mockMvc.perform(get(url).header("If-None-Match", etag)).andExpect(status().isNotModified()));
+        }
+        // A stock change moves the SKU list's tag but not the product's
+        String productTag = etag(product);
+        String skusTag = etag(skus);
+        mockMvc.perform(patch(skus + "/" + skuId + "/quantity").contentType(MediaType.APPLICATION_JSON).content("{\"delta\":1}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(skus).header("If-None-Match", skusTag)).andExpect(status().isOk());
+        mockMvc.perform(get(product).header("If-None-Match", productTag)).andExpect(status().isNotModified());
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+    }
+
+    @Test
+    void testQueryCountHeaders() throws Exception {
+        mockMvc.perform(get("/api/categories/" + categoryId + "?expand=products,skus"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Query-Count", "2"))
+                .andExpect(header().string("X-Lazy-Load-Count", "0"));
+    }
+}
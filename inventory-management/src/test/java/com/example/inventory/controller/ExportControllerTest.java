@@ -0,0 +1,71 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+public class ExportControllerTest {
+    private static final String NDJSON = "{\"type\":\"category\",\"id\":1,\"name\":\"Electronics\"}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        given(exportService.exportCatalog(any(OutputStream.class))).willAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write(NDJSON.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+    }
+
+    @Test
+    void testExportCatalog() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(NDJSON));
+    }
+
+    @Test
+    void testExportCatalog_Gzip() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] buffer = new byte[1024];
+            int read = in.read(buffer);
+            assertEquals(NDJSON, new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+    }
+}
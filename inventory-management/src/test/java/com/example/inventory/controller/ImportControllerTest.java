@@ -0,0 +1,85 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.ImportResultDto;
+import com.example.inventory.service.ImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImportController.class)
+public class ImportControllerTest {
+    private static final String CSV = "type,id,name\ncategory,c1,Electronics\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ImportService importService;
+
+    private String received;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        given(importService.importCatalog(any(InputStream.class), any(ImportService.Format.class))).willAnswer(invocation -> {
+            InputStream in = invocation.getArgument(0);
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                body.write(buffer, 0, read);
+            }
+            received = new String(body.toByteArray(), StandardCharsets.UTF_8);
+            ImportResultDto result = new ImportResultDto();
+            result.setFormat(invocation.getArgument(1).toString());
+            result.setCompleted(true);
+            result.setCategoriesCreated(1);
+            result.setErrors(new ArrayList<>());
+            return result;
+        });
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        mockMvc.perform(post("/api/import").contentType("text/csv").content(CSV))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.format").value("CSV"))
+                .andExpect(jsonPath("$.categoriesCreated").value(1));
+        assertEquals(CSV, received);
+    }
+
+    @Test
+    void testImportNdjson_Gzip() throws Exception {
+        String ndjson = "{\"type\":\"category\",\"id\":1,\"name\":\"Electronics\"}\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+        mockMvc.perform(post("/api/import").contentType("application/x-ndjson")
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip").content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.format").value("NDJSON"));
+        assertEquals(ndjson, received);
+    }
+
+    @Test
+    void testImport_UnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/import").contentType(MediaType.APPLICATION_XML).content("<x/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.LowStockCountDto;
+import com.example.inventory.dto.LowStockPageDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LowStockController.class)
+public class LowStockControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SkuService skuService;
+
+    @Test
+    void testGetLowStock() throws Exception {
+        SkuDto sku = new SkuDto();
+        sku.setId(1L);
+        sku.setCode("SKU123");
+        sku.setQuantity(2);
+        sku.setReorderThreshold(10);
+        LowStockPageDto page = new LowStockPageDto();
+        page.setContent(Collections.singletonList(sku));
+        page.setSize(1);
+        page.setHasNext(true);
+        page.setNextCursor("abc");
+        given(skuService.getLowStock(5, 3L, null, 1)).willReturn(page);
+        mockMvc.perform(get("/api/skus/low-stock").param("below", "5").param("categoryId", "3").param("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].reorderThreshold").value(10))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("abc"));
+    }
+
+    @Test
+    void testCountLowStock() throws Exception {
+        LowStockCountDto count = new LowStockCountDto();
+        count.setCount(42);
+        given(skuService.countLowStock(null, null)).willReturn(count);
+        mockMvc.perform(get("/api/skus/low-stock/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(42));
+    }
+}
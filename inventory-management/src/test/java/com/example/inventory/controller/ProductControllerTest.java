@@ -1,6 +1,12 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.config.CacheConfig;
+import com.example.inventory.dto.ProductCursorPageDto;
 import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.service.ExpandOptions;
 import com.example.inventory.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +15,7 @@ import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -22,10 +29,13 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import({CacheConfig.class, ResourceVersions.class})
 public class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -36,10 +46,14 @@ public class ProductControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private List<SerializedResponseCache> responseCaches;
+
     private ProductDto productDto;
 
     @BeforeEach
     void setUp() {
+        responseCaches.forEach(SerializedResponseCache::clear);
         productDto = new ProductDto();
         productDto.setId(1L);
         productDto.setName("iPhone");
@@ -69,6 +83,16 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.name").value("iPhone"));
     }
 
+    @Test
+    void testGetProductById_ServedFromCache() throws Exception {
+        given(productService.getProductById(1L)).willReturn(productDto);
+        mockMvc.perform(get("/api/products/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("iPhone"));
+        verify(productService, times(1)).getProductById(1L);
+    }
+
     @Test
     void testUpdateProduct() throws Exception {
         given(productService.updateProduct(eq(1L), any(ProductDto.class))).willReturn(productDto);
@@ -94,10 +118,44 @@ public class ProductControllerTest {
     void testSearchProducts() throws Exception {
         List<ProductDto> products = Arrays.asList(productDto);
         Page<ProductDto> page = new PageImpl<>(products, PageRequest.of(0, 10), 1);
-        given(productService.searchProducts(anyString(), any(), any(Pageable.class))).willReturn(page);
+        given(productService.searchProducts(anyString(), any(), any(Pageable.class), eq(ExpandOptions.NONE))).willReturn(page);
         mockMvc.perform(get("/api/products?name=iphone&categoryId=2&page=0&pageSize=10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].id").value(1L))
                 .andExpect(jsonPath("$.content[0].name").value("iPhone"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSearchProductsByCursor() throws Exception {
+        ProductCursorPageDto page = new ProductCursorPageDto();
+        page.setContent(Arrays.asList(productDto));
+        page.setSize(1);
+        page.setHasNext(true);
+        page.setNextCursor("abc");
+        given(productService.searchProductsByCursor(isNull(), eq(2L), eq(""), eq(1), eq("id"), eq(ExpandOptions.NONE))).willReturn(page);
+        mockMvc.perform(get("/api/products").param("categoryId", "2").param("pageSize", "1").param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("iPhone"))
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void testSearchProducts_ExpandSkus() throws Exception {
+        SkuDto sku = new SkuDto();
+        sku.setId(7L);
+        sku.setCode("SKU-7");
+        productDto.setSkus(Arrays.asList(sku));
+        Page<ProductDto> page = new PageImpl<>(Arrays.asList(productDto), PageRequest.of(0, 10), 1);
+        given(productService.searchProducts(any(), any(), any(Pageable.class), argThat(ExpandOptions::isSkus))).willReturn(page);
+        mockMvc.perform(get("/api/products").param("expand", "skus"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].skus[0].code").value("SKU-7"));
+    }
+
+    @Test
+    void testGetProductById_UnsupportedExpand() throws Exception {
+        mockMvc.perform(get("/api/products/1").param("expand", "products"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.inventory.controller;
+
+import com.example.inventory.dto.ReservationDto;
+import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReservationController.class)
+public class ReservationControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ReservationDto reservationDto;
+
+    @BeforeEach
+    void setUp() {
+        reservationDto = new ReservationDto();
+        reservationDto.setId("r-1");
+        reservationDto.setProductId(2L);
+        reservationDto.setSkuId(1L);
+        reservationDto.setQuantity(3);
+        reservationDto.setStatus(ReservationDto.Status.HELD);
+        reservationDto.setExpiresAt(Instant.now().plusSeconds(60));
+    }
+
+    @Test
+    void testReserve() throws Exception {
+        given(reservationService.reserve(2L, 1L, 3, 60)).willReturn(reservationDto);
+        ReservationController.ReservationRequest request = new ReservationController.ReservationRequest();
+        request.setQuantity(3);
+        request.setTtlSeconds(60);
+        mockMvc.perform(post("/api/products/2/skus/1/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("r-1"))
+                .andExpect(jsonPath("$.status").value("HELD"));
+    }
+
+    @Test
+    void testReserve_InsufficientStock() throws Exception {
+        given(reservationService.reserve(eq(2L), eq(1L), anyInt(), any())).willThrow(new CustomValidationException("Insufficient stock"));
+        ReservationController.ReservationRequest request = new ReservationController.ReservationRequest();
+        request.setQuantity(3);
+        mockMvc.perform(post("/api/products/2/skus/1/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Insufficient stock"));
+    }
+
+    @Test
+    void testCommit() throws Exception {
+        reservationDto.setStatus(ReservationDto.Status.COMMITTED);
+        given(reservationService.commit(2L, 1L, "r-1")).willReturn(reservationDto);
+        mockMvc.perform(post("/api/products/2/skus/1/reservations/r-1/commit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMMITTED"));
+    }
+
+    @Test
+    void testRelease() throws Exception {
+        doNothing().when(reservationService).release(2L, 1L, "r-1");
+        mockMvc.perform(delete("/api/products/2/skus/1/reservations/r-1"))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.inventory.controller;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.SkuBatchItemDto;
+import com.example.inventory.dto.SkuBatchResultDto;
 import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.SkuQuantityDto;
 import com.example.inventory.service.SkuService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,19 +12,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SkuController.class)
+@Import(ResourceVersions.class)
 public class SkuControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -60,7 +69,7 @@ public class SkuControllerTest {
 
     @Test
     void testUpdateSku() throws Exception {
-        given(skuService.updateSku(eq(1L), any(SkuDto.class))).willReturn(skuDto);
+        given(skuService.updateSku(eq(2L), eq(1L), any(SkuDto.class))).willReturn(skuDto);
         SkuController.SkuRequest request = new SkuController.SkuRequest();
         request.setCode("SKU123");
         request.setQuantity(10);
@@ -75,7 +84,7 @@ public class SkuControllerTest {
 
     @Test
     void testDeleteSku() throws Exception {
-        doNothing().when(skuService).deleteSku(1L);
+        doNothing().when(skuService).deleteSku(2L, 1L);
         mockMvc.perform(delete("/api/products/2/skus/1"))
                 .andExpect(status().isNoContent());
     }
@@ -89,4 +98,79 @@ public class SkuControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].code").value("SKU123"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testGetSkusByProduct_NotModified() throws Exception {
+        given(skuService.getSkusByProduct(2L)).willReturn(Arrays.asList(skuDto));
+        String etag = mockMvc.perform(get("/api/products/2/skus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products/2/skus").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(skuService, times(1)).getSkusByProduct(2L);
+    }
+
+    @Test
+    void testAddSkusBatch() throws Exception {
+        SkuBatchItemDto item = new SkuBatchItemDto();
+        item.setIndex(0);
+        item.setCode("SKU123");
+        item.setStatus(SkuBatchItemDto.Status.CREATED);
+        item.setId(1L);
+        SkuBatchResultDto result = new SkuBatchResultDto();
+        result.setReceived(1);
+        result.setCreated(1);
+        result.setItems(Arrays.asList(item));
+        given(skuService.addSkusToProduct(eq(2L), anyList())).willReturn(result);
+        SkuController.SkuRequest request = new SkuController.SkuRequest();
+        request.setCode("SKU123");
+        request.setQuantity(10);
+        request.setPrice(99.99);
+        mockMvc.perform(post("/api/products/2/skus/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(request))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].id").value(1L));
+    }
+
+    @Test
+    void testAddSkusBatchPassesNullItemsOn() throws Exception {
+        SkuBatchResultDto result = new SkuBatchResultDto();
+        result.setReceived(1);
+        result.setRejected(1);
+        given(skuService.addSkusToProduct(eq(2L), eq(Collections.singletonList(null)))).willReturn(result);
+        mockMvc.perform(post("/api/products/2/skus/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[null]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
+
+    @Test
+    void testAdjustQuantity() throws Exception {
+        SkuQuantityDto result = new SkuQuantityDto();
+        result.setSkuId(1L);
+        result.setQuantity(7);
+        result.setVersion(5L);
+        given(skuService.adjustQuantity(2L, 1L, -3, 4L)).willReturn(result);
+        SkuController.QuantityAdjustmentRequest request = new SkuController.QuantityAdjustmentRequest();
+        request.setDelta(-3);
+        request.setExpectedVersion(4L);
+        mockMvc.perform(patch("/api/products/2/skus/1/quantity")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(7))
+                .andExpect(jsonPath("$.version").value(5L));
+    }
+
+    @Test
+    void testAdjustQuantity_MissingDelta() throws Exception {
+        mockMvc.perform(patch("/api/products/2/skus/1/quantity")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+}
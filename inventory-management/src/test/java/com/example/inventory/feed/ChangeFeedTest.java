@@ -0,0 +1,83 @@
+package com.example.inventory.feed;
+
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.exception.ChangeFeedUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedTest {
+    private static List<Long> drain(ChangeFeed.Subscription subscription) {
+        List<Long> sequences = new ArrayList<>();
+        for (ChangeEventDto event = subscription.poll(); event != null; event = subscription.poll()) {
+            sequences.add(event.getSequence());
+        }
+        return sequences;
+    }
+
+    private static void publish(ChangeFeed feed, int count) {
+        for (int i = 0; i < count; i++) {
+            feed.publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.UPDATED, i, 1L, (long) i);
+        }
+    }
+
+    @Test
+    void testSubscriberReceivesSequencedEventsAndResumes() {
+        ChangeFeed feed = new ChangeFeed(100, 10, 5);
+        AtomicInteger notified = new AtomicInteger();
+        ChangeFeed.Subscription live = feed.subscribe(null, notified::incrementAndGet);
+        publish(feed, 3);
+        assertEquals(3, notified.get());
+        List<Long> seen = drain(live);
+        assertEquals(3, seen.size());
+        assertEquals(1L, (long) seen.get(0));
+        assertEquals(3L, (long) seen.get(2));
+
+        // A reconnect after event 1 replays 2 and 3 from history, then continues live
+        ChangeFeed.Subscription resumed = feed.subscribe(feed.eventId(1), () -> { });
+        publish(feed, 1);
+        assertEquals(3, drain(resumed).size());
+        assertFalse(resumed.isResyncRequired());
+    }
+
+    @Test
+    void testSlowSubscriberIsDroppedToResyncWithoutBlockingOthers() {
+        ChangeFeed feed = new ChangeFeed(100, 4, 5);
+        ChangeFeed.Subscription slow = feed.subscribe(null, () -> { });
+        ChangeFeed.Subscription fast = feed.subscribe(null, () -> { });
+        publish(feed, 4);
+        assertEquals(4, drain(fast).size());
+        publish(feed, 2);
+        assertTrue(slow.isResyncRequired());
+        assertEquals(4, slow.getResyncSequence());
+        assertTrue(drain(slow).isEmpty());
+        assertEquals(2, drain(fast).size());
+        assertEquals(1, feed.getResyncs());
+    }
+
+    @Test
+    void testUnresumablePositionsRequireResync() {
+        ChangeFeed feed = new ChangeFeed(5, 100, 5);
+        publish(feed, 10);
+        // Event 2 has been overwritten in the five-event history
+        assertTrue(feed.subscribe(feed.eventId(2), () -> { }).isResyncRequired());
+        assertFalse(feed.subscribe(feed.eventId(5), () -> { }).isResyncRequired());
+        // An id from an earlier run of the server, or one that does not parse
+        assertTrue(feed.subscribe("0:9", () -> { }).isResyncRequired());
+        assertTrue(feed.subscribe("garbage", () -> { }).isResyncRequired());
+        assertEquals(10, feed.getSequence());
+    }
+
+    @Test
+    void testSubscriberLimit() {
+        ChangeFeed feed = new ChangeFeed(10, 10, 1);
+        ChangeFeed.Subscription only = feed.subscribe(null, () -> { });
+        assertThrows(ChangeFeedUnavailableException.class, () -> feed.subscribe(null, () -> { }));
+        feed.unsubscribe(only);
+        assertNotNull(feed.subscribe(null, () -> { }));
+    }
+}
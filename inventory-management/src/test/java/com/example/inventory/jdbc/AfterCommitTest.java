@@ -0,0 +1,36 @@
+package com.example.inventory.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AfterCommitTest {
+    @Test
+    void testRunsImmediatelyOutsideTransaction() {
+        AtomicInteger runs = new AtomicInteger();
+        AfterCommit.run(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testDefersUntilCommit() {
+        AtomicInteger runs = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            AfterCommit.run(runs::incrementAndGet);
+            assertEquals(0, runs.get());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            assertEquals(1, runs.get());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
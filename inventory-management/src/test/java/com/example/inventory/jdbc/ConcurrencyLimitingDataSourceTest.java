@@ -0,0 +1,45 @@
+package com.example.inventory.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ConcurrencyLimitingDataSourceTest {
+    @Test
+    void testPermitHeldUntilClose() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        Connection first = mock(Connection.class);
+        given(pool.getConnection()).willReturn(first, mock(Connection.class));
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(pool, 1, 50);
+
+        Connection connection = limited.getConnection();
+        assertEquals(1, limited.getActive());
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+
+        connection.close();
+        // A second close must not hand back a permit it no longer holds
+        connection.close();
+        verify(first, times(2)).close();
+        assertEquals(0, limited.getActive());
+        assertTrue(Proxy.isProxyClass(limited.getConnection().getClass()));
+        assertEquals(1, limited.getActive());
+    }
+
+    @Test
+    void testPermitReleasedWhenPoolFails() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        given(pool.getConnection()).willThrow(new SQLTransientConnectionException("pool exhausted"));
+        ConcurrencyLimitingDataSource limited = new ConcurrencyLimitingDataSource(pool, 1, 50);
+        assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+        assertEquals(0, limited.getActive());
+    }
+}
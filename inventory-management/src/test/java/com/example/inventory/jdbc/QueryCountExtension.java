@@ -0,0 +1,50 @@
+package com.example.inventory.jdbc;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts SQL statements and lazy loads on the test thread. Register it with
+ * {@code @RegisterExtension} and wrap the call under test, e.g. a MockMvc request:
+ * <pre>
+ * queries.expect(1, () -> mockMvc.perform(get("/api/categories")));
+ * </pre>
+ * Counts include requests served on the test thread, such as MockMvc dispatches.
+ */
+public class QueryCountExtension implements BeforeEachCallback, AfterEachCallback {
+    private QueryCounter counter;
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        counter = QueryCounter.open();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        counter.close();
+        counter = null;
+    }
+
+    public void expect(int statements, Executable action) throws Throwable {
+        expect(statements, 0, action);
+    }
+
+    public void expect(int statements, int lazyLoads, Executable action) throws Throwable {
+        counter.reset();
+        action.execute();
+        assertEquals(statements, counter.getStatements(), () -> "SQL statements, by text: " + counter.getStatementCounts());
+        assertEquals(lazyLoads, counter.getLazyLoads(), "lazy loads");
+    }
+
+    public int getStatements() {
+        return counter.getStatements();
+    }
+
+    public int getLazyLoads() {
+        return counter.getLazyLoads();
+    }
+}
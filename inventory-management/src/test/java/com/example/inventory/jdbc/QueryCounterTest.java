@@ -0,0 +1,43 @@
+package com.example.inventory.jdbc;
+
+import com.example.inventory.exception.QueryBudgetExceededException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryCounterTest {
+    @Test
+    void testNestedCountersSeeInnerStatements() {
+        try (QueryCounter outer = QueryCounter.open()) {
+            QueryCounter.recordStatement("select 1");
+            try (QueryCounter inner = QueryCounter.open()) {
+                QueryCounter.recordStatement("select 2");
+                QueryCounter.recordLazyLoad("Category.products");
+                assertEquals(1, inner.getStatements());
+                assertEquals(1, inner.getLazyLoads());
+            }
+            QueryCounter.recordStatement("select 2");
+            assertEquals(3, outer.getStatements());
+            assertEquals(1, outer.getLazyLoads());
+            assertEquals(1, outer.getRepeatedStatements(2).size());
+            assertEquals(2, outer.getRepeatedStatements(2).get("select 2"));
+        }
+        // Nothing is open any more, so this must be a no-op
+        QueryCounter.recordStatement("select 3");
+    }
+
+    @Test
+    void testBudget() {
+        try (QueryCounter counter = QueryCounter.open(1, 0, false)) {
+            QueryCounter.recordStatement("select 1");
+            assertFalse(counter.isOverBudget());
+            QueryCounter.recordStatement("select 1");
+            assertTrue(counter.isOverBudget());
+        }
+        try (QueryCounter counter = QueryCounter.open(1, 0, true)) {
+            QueryCounter.recordStatement("select 1");
+            assertThrows(QueryBudgetExceededException.class, () -> QueryCounter.recordStatement("select 1"));
+            assertThrows(QueryBudgetExceededException.class, () -> QueryCounter.recordLazyLoad("Product.skus"));
+        }
+    }
+}
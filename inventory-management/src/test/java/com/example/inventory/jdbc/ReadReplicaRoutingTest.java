@@ -0,0 +1,116 @@
+package com.example.inventory.jdbc;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.service.CategoryService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A second in-memory H2 database stands in for the replica. Nothing copies writes to it, so a write
+ * through the service stays invisible to replica reads, as if replication were lagging, and rows
+ * inserted straight into it are only visible to reads that were routed there.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"spring.datasource.url=" + ReadReplicaRoutingTest.PRIMARY_URL,
+        "inventory.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL})
+public class ReadReplicaRoutingTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    private static CategoryDto category(String name) {
+        CategoryDto dto = new CategoryDto();
+        dto.setName(name);
+        return dto;
+    }
+
+    private List<String> categoryNames() {
+        return categoryService.getAllCategories().stream().map(CategoryDto::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testReadOnlyServiceMethodsReadFromReplica() throws Exception {
+        replica.update("INSERT INTO category (name) VALUES ('Replica only')");
+        categoryService.createCategory(category("Primary only"));
+
+        List<String> names = categoryNames();
+        assertTrue(names.contains("Replica only"), names.toString());
+        assertFalse(names.contains("Primary only"), names.toString());
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem("Replica only")))
+                .andExpect(jsonPath("$[*].name", not(hasItem("Primary only"))));
+    }
+
+    @Test
+    void testReadsAfterWriteInScopeStayOnPrimary() {
+        replica.update("INSERT INTO category (name) VALUES ('Replica row')");
+        try (ReadYourWrites scope = ReadYourWrites.open()) {
+            assertTrue(categoryNames().contains("Replica row"));
+            assertFalse(scope.isPinned());
+
+            categoryService.createCategory(category("Written in scope"));
+
+            assertTrue(scope.isPinned());
+            List<String> names = categoryNames();
+            assertTrue(names.contains("Written in scope"), names.toString());
+            assertFalse(names.contains("Replica row"), names.toString());
+        }
+        assertFalse(categoryNames().contains("Written in scope"));
+    }
+
+    @Test
+    void testHttpWritesAfterReplicaReadsLandOnPrimary() throws Exception {
+        // The same rows on both databases, so the reads these requests start with succeed on either
+        for (JdbcTemplate database : Arrays.asList(primary, replica)) {
+            database.update("INSERT INTO category (id, name) VALUES (9001, 'Routed')");
+            database.update("INSERT INTO product (id, name, category_id) VALUES (9001, 'Before', 9001)");
+            database.update("INSERT INTO product (id, name, category_id) VALUES (9002, 'Doomed', 9001)");
+        }
+
+        mockMvc.perform(put("/api/products/9001")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"After\",\"categoryId\":9001}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/products/9002"))
+                .andExpect(status().isNoContent());
+
+        assertEquals("After", primary.queryForObject("SELECT name FROM product WHERE id = 9001", String.class));
+        assertEquals(0, (int) primary.queryForObject("SELECT COUNT(*) FROM product WHERE id = 9002", Integer.class));
+        assertEquals("Before", replica.queryForObject("SELECT name FROM product WHERE id = 9001", String.class));
+        assertEquals(1, (int) replica.queryForObject("SELECT COUNT(*) FROM product WHERE id = 9002", Integer.class));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.inventory.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "inventory.slow-query.threshold-ms=0"})
+public class SlowQueryCaptureTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc.perform(put("/api/admin/slow-queries/settings").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"enabled\":true,\"sampleRate\":1.0,\"thresholdMillis\":0}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/admin/slow-queries"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testCapturesStatementsWithCallerAndParameterShape() throws Exception {
+        mockMvc.perform(get("/api/products").param("categoryId", "1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/slow-queries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.settings.thresholdMillis").value(0))
+                .andExpect(jsonPath("$.entries[?(@.caller == 'ProductRepository.search')].sql", hasItem(containsString("from product"))))
+                .andExpect(jsonPath("$.entries[?(@.caller == 'ProductRepository.search')].parameterShape", hasItem(containsString("Long"))))
+                .andExpect(jsonPath("$.entries[?(@.caller == 'ProductRepository.search')].rows", everyItem(greaterThanOrEqualTo(0))));
+    }
+
+    @Test
+    void testDisabledCaptureRecordsNothing() throws Exception {
+        mockMvc.perform(put("/api/admin/slow-queries/settings").contentType(MediaType.APPLICATION_JSON).content("{\"enabled\":false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(false))
+                .andExpect(jsonPath("$.capacity").value(100));
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/slow-queries"))
+                .andExpect(jsonPath("$.captured").value(0));
+    }
+
+    @Test
+    void testRejectsInvalidSettings() throws Exception {
+        mockMvc.perform(put("/api/admin/slow-queries/settings").contentType(MediaType.APPLICATION_JSON).content("{\"sampleRate\":2}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.inventory.jdbc;
+
+import com.example.inventory.dto.SlowQueryDto;
+import com.example.inventory.dto.SlowQuerySettingsDto;
+import com.example.inventory.exception.CustomValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowQueryLogTest {
+    private static SlowQueryDto entry(double millis) {
+        SlowQueryDto entry = new SlowQueryDto();
+        entry.setSql("select " + millis);
+        entry.setDurationMillis(millis);
+        return entry;
+    }
+
+    private static List<Double> durations(List<SlowQueryDto> entries) {
+        return entries.stream().map(SlowQueryDto::getDurationMillis).collect(Collectors.toList());
+    }
+
+    @Test
+    void testKeepsSlowestEntriesSlowestFirst() {
+        SlowQueryLog log = new SlowQueryLog(true, 1.0, 10, 3);
+        for (double millis : new double[]{50, 20, 30, 40, 11}) {
+            log.record(entry(millis));
+        }
+        assertEquals(java.util.Arrays.asList(50.0, 40.0, 30.0), durations(log.snapshot()));
+        assertEquals(5, log.getCaptured());
+        assertTrue(log.isSlow(10_000_000));
+        assertFalse(log.isSlow(9_999_999));
+
+        log.clear();
+        assertTrue(log.snapshot().isEmpty());
+        assertEquals(0, log.getCaptured());
+    }
+
+    @Test
+    void testUpdateSettings() {
+        SlowQueryLog log = new SlowQueryLog(true, 1.0, 10, 4);
+        for (double millis : new double[]{3, 1, 4, 2}) {
+            log.record(entry(millis));
+        }
+        SlowQuerySettingsDto update = new SlowQuerySettingsDto();
+        update.setCapacity(2);
+        update.setSampleRate(0.0);
+        SlowQuerySettingsDto applied = log.updateSettings(update);
+        assertEquals(2, applied.getCapacity());
+        assertEquals(10L, applied.getThresholdMillis());
+        assertTrue(applied.getEnabled());
+        assertEquals(java.util.Arrays.asList(4.0, 3.0), durations(log.snapshot()));
+        assertFalse(log.sample());
+
+        SlowQuerySettingsDto invalid = new SlowQuerySettingsDto();
+        invalid.setSampleRate(1.5);
+        assertThrows(CustomValidationException.class, () -> log.updateSettings(invalid));
+        invalid.setSampleRate(null);
+        invalid.setCapacity(0);
+        assertThrows(CustomValidationException.class, () -> log.updateSettings(invalid));
+    }
+}
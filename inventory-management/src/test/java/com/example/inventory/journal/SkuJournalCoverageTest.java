@@ -0,0 +1,66 @@
+package com.example.inventory.journal;
+
+import com.example.inventory.dto.ImportResultDto;
+import com.example.inventory.dto.ReservationDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.service.ImportService;
+import com.example.inventory.service.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:journal-coverage;DB_CLOSE_DELAY=-1",
+        "inventory.journal.enabled=true"})
+public class SkuJournalCoverageTest {
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("inventory.journal.directory", () -> dir.toString());
+    }
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private SkuJournal skuJournal;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testImportedSkusAndCommittedReservationsAreJournaled() throws Exception {
+        String lines = String.join("\n",
+                "{\"type\":\"category\",\"id\":1,\"name\":\"Journaled Category\"}",
+                "{\"type\":\"product\",\"id\":10,\"categoryId\":1,\"name\":\"Journaled Product\"}",
+                "{\"type\":\"sku\",\"productId\":10,\"code\":\"JRN-1\",\"quantity\":5,\"price\":2.5}");
+        ImportResultDto result = importService.importCatalog(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)),
+                ImportService.Format.NDJSON);
+        assertEquals(1, result.getSkusCreated());
+        Long skuId = jdbcTemplate.queryForObject("SELECT id FROM sku WHERE code = 'JRN-1'", Long.class);
+        Long productId = jdbcTemplate.queryForObject("SELECT product_id FROM sku WHERE id = ?", Long.class, skuId);
+
+        ReservationDto held = reservationService.reserve(productId, skuId, 2, 60);
+        reservationService.commit(productId, skuId, held.getId());
+
+        Map<Long, SkuDto> replayed = JournalReplay.replay(dir);
+        SkuDto sku = replayed.get(skuId);
+        assertNotNull(sku);
+        assertEquals("JRN-1", sku.getCode());
+        assertEquals(3, sku.getQuantity());
+        assertEquals(jdbcTemplate.queryForObject("SELECT version FROM sku WHERE id = ?", Long.class, skuId), sku.getVersion());
+        assertEquals(0, skuJournal.getFailed());
+    }
+}
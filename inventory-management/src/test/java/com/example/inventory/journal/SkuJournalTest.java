@@ -0,0 +1,303 @@
+package com.example.inventory.journal;
+
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.exception.JournalCorruptedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkuJournalTest {
+    @TempDir
+    Path dir;
+
+    private SkuJournal open(long segmentBytes) throws Exception {
+        SkuJournal journal = new SkuJournal(true, dir.toString(), segmentBytes, true);
+        journal.open();
+        return journal;
+    }
+
+    private static SkuDto sku(long id, long productId, String code, int quantity, double price, long version) {
+        SkuDto sku = new SkuDto();
+        sku.setId(id);
+        sku.setProductId(productId);
+        sku.setCode(code);
+        sku.setQuantity(quantity);
+        sku.setPrice(price);
+        sku.setVersion(version);
+        return sku;
+    }
+
+    @Test
+    void testReplayAppliesMutationsInOrder() throws Exception {
+        SkuJournal journal = open(1 << 20);
+        journal.skuSaved(sku(1, 10, "A", 5, 9.5, 0));
+        journal.skusSaved(Arrays.asList(sku(2, 10, "B", 1, 1.0, 0), sku(3, 20, "C", 7, 2.0, 0)));
+        journal.skuSaved(sku(1, 10, "A-2", 6, 10.0, 1));
+        journal.quantityChanged(1, 4, 2);
+        journal.skuDeleted(2);
+        journal.productsDeleted(Arrays.asList(20L));
+        journal.close();
+        assertEquals(7, journal.getAppended());
+
+        Map<Long, SkuDto> skus = JournalReplay.replay(dir);
+        assertEquals(1, skus.size());
+        SkuDto replayed = skus.get(1L);
+        assertEquals("A-2", replayed.getCode());
+        assertEquals(4, replayed.getQuantity());
+        assertEquals(10.0, replayed.getPrice());
+        assertEquals(2L, replayed.getVersion());
+    }
+
+    @Test
+    void testStaleVersionsAndDeletedSkusDoNotWin() throws Exception {
+        SkuJournal journal = open(1 << 20);
+        journal.skuSaved(sku(1, 10, "A", 5, 1.0, 3));
+        journal.skuSaved(sku(1, 10, "A", 9, 1.0, 2));
+        journal.quantityChanged(1, 1, 1);
+        journal.skuDeleted(2);
+        journal.skuSaved(sku(2, 10, "B", 1, 1.0, 0));
+        journal.close();
+
+        Map<Long, SkuDto> skus = JournalReplay.replay(dir);
+        assertEquals(5, skus.get(1L).getQuantity());
+        assertFalse(skus.containsKey(2L));
+    }
+
+    @Test
+    void testConcurrentAppendsShareSyncs() throws Exception {
+        SkuJournal journal = open(1 << 20);
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = t * perThread;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    journal.skuSaved(sku(base + i + 1, 1, "S" + (base + i), i, 1.0, 0));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        journal.close();
+
+        assertEquals(threads * perThread, journal.getAppended());
+        assertTrue(journal.getSyncs() < journal.getAppended(), "concurrent records should be grouped into fewer fsyncs");
+        assertEquals(threads * perThread, JournalReplay.replay(dir).size());
+    }
+
+    @Test
+    void testRotatesSegmentsAndContinuesSequenceAfterReopen() throws Exception {
+        SkuJournal journal = open(256);
+        for (int i = 1; i <= 20; i++) {
+            journal.skuSaved(sku(i, 1, "SKU-" + i, i, 1.0, 0));
+        }
+        journal.close();
+        List<Path> segments = JournalSegments.list(dir);
+        assertTrue(segments.size() > 1);
+
+        SkuJournal reopened = open(256);
+        reopened.skuDeleted(1);
+        reopened.close();
+        Path newest = JournalSegments.list(dir).get(JournalSegments.list(dir).size() - 1);
+        List<JournalRecord> records = new ArrayList<>();
+        JournalSegments.scan(newest, false, records::add);
+        assertEquals(21L, records.get(records.size() - 1).getSequence());
+        assertEquals(19, JournalReplay.replay(dir).size());
+    }
+
+    @Test
+    void testTornTailIsTruncatedOnOpen() throws Exception {
+        SkuJournal journal = open(1 << 20);
+        journal.skuSaved(sku(1, 1, "A", 1, 1.0, 0));
+        journal.skuSaved(sku(2, 1, "B", 1, 1.0, 0));
+        journal.close();
+        Path segment = JournalSegments.list(dir).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Cut the last frame short, as a crash mid-write would
+            file.setLength(file.length() - 5);
+        }
+        assertEquals(1, JournalReplay.replay(dir).size());
+
+        SkuJournal reopened = open(1 << 20);
+        reopened.skuSaved(sku(3, 1, "C", 1, 1.0, 0));
+        reopened.close();
+        Map<Long, SkuDto> skus = JournalReplay.replay(dir);
+        assertEquals(Arrays.asList(1L, 3L), new ArrayList<>(skus.keySet()));
+    }
+
+    @Test
+    void testCorruptionBeforeNewestSegmentIsReported() throws Exception {
+        SkuJournal journal = open(128);
+        for (int i = 1; i <= 10; i++) {
+            journal.skuSaved(sku(i, 1, "SKU-" + i, i, 1.0, 0));
+        }
+        journal.close();
+        Path first = JournalSegments.list(dir).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(first.toFile(), "rw")) {
+            file.seek(20);
+            file.write(0x7F);
+        }
+        assertThrows(JournalCorruptedException.class, () -> JournalReplay.replay(dir));
+    }
+
+    @Test
+    void testFailedGroupIsCutOffTheSegment() throws Exception {
+        SkuJournal journal = open(1 << 20);
+        journal.skuSaved(sku(1, 1, "A", 1, 1.0, 0));
+        FileChannel segment = (FileChannel) ReflectionTestUtils.getField(journal, "channel");
+        ReflectionTestUtils.setField(journal, "channel", new FailingForceChannel(segment));
+
+        // The frames reach the file, then the fsync fails; the caller's change has already committed,
+        // so the failure is counted rather than thrown
+        journal.skuSaved(sku(2, 1, "B", 1, 1.0, 0));
+        assertEquals(1, journal.getFailed());
+        journal.skuSaved(sku(3, 1, "C", 1, 1.0, 0));
+        journal.close();
+
+        assertEquals(2, journal.getAppended());
+        assertEquals(1, journal.getFailed());
+        List<JournalRecord> records = new ArrayList<>();
+        JournalSegments.scan(JournalSegments.list(dir).get(0), false, records::add);
+        assertEquals(Arrays.asList(1L, 2L), Arrays.asList(records.get(0).getSequence(), records.get(1).getSequence()));
+        assertEquals(Arrays.asList(1L, 3L), new ArrayList<>(JournalReplay.replay(dir).keySet()));
+    }
+
+    // Fails the first fsync after it is installed, as a full or failing disk would
+    private static final class FailingForceChannel extends FileChannel {
+        private final FileChannel delegate;
+        private boolean failed;
+
+        FailingForceChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (!failed) {
+                failed = true;
+                throw new IOException("simulated fsync failure");
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+
+    @Test
+    void testDisabledJournalIgnoresRecords() throws Exception {
+        SkuJournal journal = new SkuJournal(false, dir.resolve("off").toString(), 1 << 20, true);
+        journal.open();
+        journal.skuSaved(sku(1, 1, "A", 1, 1.0, 0));
+        journal.close();
+        assertEquals(0, journal.getAppended());
+        assertTrue(JournalSegments.list(dir.resolve("off")).isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.inventory.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMetrics
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class PrometheusEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testScrapeIncludesEndpointServiceHibernatePoolCacheAndJournalMeters() throws Exception {
+        mockMvc.perform(post("/api/categories").contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Metrics Category\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "inventory_controller_requests_seconds{class=\"CategoryController\",method=\"createCategory\",quantile=\"0.95\",}")))
+                .andExpect(content().string(containsString(
+                        "inventory_controller_requests_seconds_bucket{class=\"CategoryController\",method=\"getAllCategories\"")))
+                .andExpect(content().string(containsString(
+                        "inventory_service_calls_seconds_count{class=\"CategoryServiceImpl\",method=\"createCategory\",}")))
+                .andExpect(content().string(containsString("http_server_requests_seconds{exception=\"None\",method=\"GET\"")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total")))
+                .andExpect(content().string(containsString("hibernate_entities_inserts_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")))
+                .andExpect(content().string(containsString("inventory_cache_requests_total{cache=\"product\",result=\"hit\",}")))
+                .andExpect(content().string(containsString("inventory_journal_failed_total 0.0")));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.inventory.reactive;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rows written through the JPA services must be readable through the reactive API on its own port.
+ */
+@SpringBootTest(properties = "inventory.reactive.port=0")
+@ActiveProfiles(ReactiveReadServer.PROFILE)
+public class ReactiveCatalogApiTest {
+    @Autowired
+    private ReactiveReadServer server;
+    @Autowired
+    private ReactiveCatalogRepository repository;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+
+    private WebTestClient client;
+    private Long categoryId;
+    private List<Long> productIds;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort()).build();
+        CategoryDto category = new CategoryDto();
+        category.setName("Reactive " + System.nanoTime());
+        categoryId = categoryService.createCategory(category).getId();
+        productIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ProductDto product = new ProductDto();
+            product.setName("Reactive Product " + i);
+            product.setCategoryId(categoryId);
+            productIds.add(productService.createProduct(product).getId());
+        }
+        SkuDto sku = new SkuDto();
+        sku.setCode("REACTIVE-" + categoryId);
+        sku.setQuantity(4);
+        sku.setPrice(2.5);
+        skuService.addSkuToProduct(productIds.get(0), sku);
+    }
+
+    @Test
+    void testReadEndpoints() {
+        client.get().uri("/api/categories/{id}", categoryId).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(categoryId.intValue());
+        client.get().uri("/api/products/{id}", productIds.get(1)).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.categoryId").isEqualTo(categoryId.intValue());
+        client.get().uri("/api/products/{id}/skus", productIds.get(0)).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].code").isEqualTo("REACTIVE-" + categoryId).jsonPath("$[0].quantity").isEqualTo(4);
+        client.get().uri("/api/products/{id}", Long.MAX_VALUE).exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Product not found");
+        client.get().uri("/api/products?limit=0").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Validation Error");
+    }
+
+    @Test
+    void testSearchStreamsNdjson() {
+        List<ProductDto> products = client.get().uri("/api/products?categoryId={id}&afterId={after}", categoryId, productIds.get(1))
+                .accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductDto.class).getResponseBody()
+                .collectList().block();
+        assertEquals(productIds.subList(2, 5), idsOf(products));
+    }
+
+    @Test
+    void testSearchHonoursDemand() {
+        StepVerifier.create(repository.searchProducts("reactive product", categoryId, 0, null), 2)
+                .expectNextCount(2)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .thenCancel()
+                .verify();
+    }
+
+    private static List<Long> idsOf(List<ProductDto> products) {
+        List<Long> ids = new ArrayList<>();
+        for (ProductDto product : products) {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.model.Category;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.Sku;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class CategoryRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void testStreamCatalogRows() {
+        Category empty = new Category();
+        empty.setName("Empty Category");
+        entityManager.persist(empty);
+        Category category = new Category();
+        category.setName("Electronics");
+        entityManager.persist(category);
+        Product product = new Product();
+        product.setName("Phone");
+        product.setCategory(category);
+        entityManager.persist(product);
+        for (String code : new String[]{"SKU-1", "SKU-2"}) {
+            Sku sku = new Sku();
+            sku.setCode(code);
+            sku.setPrice(9.5);
+            sku.setQuantity(3);
+            sku.setProduct(product);
+            entityManager.persist(sku);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Object[]> rows;
+        try (Stream<Object[]> stream = categoryRepository.streamCatalogRows()) {
+            rows = stream.collect(Collectors.toList());
+        }
+        assertEquals(3, rows.size());
+        assertEquals(empty.getId(), rows.get(0)[0]);
+        assertNull(rows.get(0)[2]);
+        assertEquals(product.getId(), rows.get(1)[2]);
+        assertEquals("SKU-1", rows.get(1)[5]);
+        assertEquals("SKU-2", rows.get(2)[5]);
+        assertFalse(entityManager.getEntityManager().contains(product));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.model.Category;
+import com.example.inventory.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ProductRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("Electronics");
+        entityManager.persist(category);
+        for (String name : new String[]{"Phone B", "Phone A", "Laptop", "Phone A"}) {
+            Product product = new Product();
+            product.setName(name);
+            product.setCategory(category);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void testSearchAfterId() {
+        List<Product> first = productRepository.searchAfterId("phone", category.getId(), 0L, PageRequest.of(0, 2));
+        assertEquals(2, first.size());
+        List<Product> rest = productRepository.searchAfterId("phone", category.getId(), first.get(1).getId(), PageRequest.of(0, 2));
+        assertEquals(1, rest.size());
+        assertTrue(rest.get(0).getId() > first.get(1).getId());
+    }
+
+    @Test
+    void testSearchAfterName() {
+        List<Product> first = productRepository.searchAfterName(null, null, null, 0L, PageRequest.of(0, 2));
+        assertEquals(Arrays.asList("Laptop", "Phone A"), names(first));
+        Product last = first.get(1);
+        List<Product> rest = productRepository.searchAfterName(null, null, last.getName(), last.getId(), PageRequest.of(0, 5));
+        assertEquals(Arrays.asList("Phone A", "Phone B"), names(rest));
+        assertNotEquals(last.getId(), rest.get(0).getId());
+    }
+}
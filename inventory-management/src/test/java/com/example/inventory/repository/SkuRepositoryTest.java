@@ -0,0 +1,144 @@
+package com.example.inventory.repository;
+
+import com.example.inventory.model.Category;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.Sku;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class SkuRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private SkuRepository skuRepository;
+
+    private Product product;
+    private Sku sku;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("Electronics");
+        entityManager.persist(category);
+        product = new Product();
+        product.setName("Phone");
+        product.setCategory(category);
+        entityManager.persist(product);
+        sku = new Sku();
+        sku.setCode("SKU123");
+        sku.setQuantity(10);
+        sku.setPrice(99.99);
+        sku.setProduct(product);
+        entityManager.persistAndFlush(sku);
+    }
+
+    @Test
+    void testAdjustQuantity() {
+        List<Object[]> rows = skuRepository.adjustQuantity(product.getId(), sku.getId(), -4);
+        assertEquals(1, rows.size());
+        assertEquals(6, ((Number) rows.get(0)[0]).intValue());
+        assertEquals(sku.getVersion() + 1, ((Number) rows.get(0)[1]).longValue());
+    }
+
+    @Test
+    void testAdjustQuantity_RejectsNegativeResultAndStaleVersion() {
+        assertTrue(skuRepository.adjustQuantity(product.getId(), sku.getId(), -11).isEmpty());
+        assertTrue(skuRepository.adjustQuantity(product.getId(), sku.getId(), 1, sku.getVersion() + 1).isEmpty());
+        assertEquals(1, skuRepository.adjustQuantity(product.getId(), sku.getId(), 1, sku.getVersion()).size());
+    }
+
+    private Sku sku(String code, int quantity, Integer reorderThreshold) {
+        Sku low = new Sku();
+        low.setCode(code);
+        low.setQuantity(quantity);
+        low.setPrice(1.0);
+        low.setReorderThreshold(reorderThreshold);
+        low.setProduct(product);
+        return entityManager.persist(low);
+    }
+
+    private static List<String> codes(List<Sku> skus) {
+        return skus.stream().map(Sku::getCode).collect(Collectors.toList());
+    }
+
+    @Test
+    void testQuantityBelowPagesInIndexOrder() {
+        Sku a = sku("LOW-A", 2, null);
+        sku("LOW-B", 0, null);
+        sku("LOW-C", 2, null);
+        entityManager.flush();
+
+        List<Sku> first = skuRepository.findQuantityBelow(5, Integer.MIN_VALUE, 0L, PageRequest.of(0, 2));
+        assertEquals(Arrays.asList("LOW-B", "LOW-A"), codes(first));
+        List<Sku> second = skuRepository.findQuantityBelow(5, a.getQuantity(), a.getId(), PageRequest.of(0, 2));
+        assertEquals(Collections.singletonList("LOW-C"), codes(second));
+        assertEquals(3, skuRepository.countQuantityBelow(5));
+        assertEquals(4, skuRepository.countQuantityBelowInCategory(11, product.getCategory().getId()));
+        assertEquals(0, skuRepository.countQuantityBelowInCategory(11, -1L));
+        assertEquals(Collections.singletonList("LOW-B"), codes(skuRepository.findQuantityBelowInCategory(1, product.getCategory().getId(),
+                Integer.MIN_VALUE, 0L, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void testBelowReorderThresholdFollowsSingleStatementUpdates() {
+        Sku under = sku("RO-UNDER", 1, 5);
+        sku("RO-EXACT", 5, 5);
+        sku("RO-NONE", 0, null);
+        entityManager.flush();
+        assertEquals(Collections.singletonList("RO-UNDER"), codes(skuRepository.findBelowReorderThreshold(Integer.MIN_VALUE, 0L, PageRequest.of(0, 10))));
+
+        // The gap column is computed by the database, so a native quantity update moves the SKU out of range
+        skuRepository.adjustQuantity(product.getId(), under.getId(), 10);
+        entityManager.clear();
+        assertEquals(0, skuRepository.countBelowReorderThreshold());
+        skuRepository.adjustQuantity(product.getId(), sku.getId(), -10);
+        assertEquals(0, skuRepository.countBelowReorderThresholdInCategory(product.getCategory().getId()));
+    }
+
+    @Test
+    void testLowStockQueriesUseIndexes() {
+        String byQuantity = (String) entityManager.getEntityManager()
+                .createNativeQuery("EXPLAIN SELECT id FROM sku WHERE quantity < 5 AND quantity >= 0 ORDER BY quantity, id")
+                .getSingleResult();
+        assertTrue(byQuantity.toUpperCase().contains("IDX_SKU_QUANTITY"), byQuantity);
+        String byGap = (String) entityManager.getEntityManager()
+                .createNativeQuery("EXPLAIN SELECT id FROM sku WHERE reorder_gap < 0 ORDER BY reorder_gap, id")
+                .getSingleResult();
+        assertTrue(byGap.toUpperCase().contains("IDX_SKU_REORDER_GAP"), byGap);
+    }
+
+    @Test
+    void testDuplicateCodePerProductIsRejectedByConstraint() {
+        Sku duplicate = new Sku();
+        duplicate.setCode("SKU123");
+        duplicate.setQuantity(1);
+        duplicate.setPrice(1.0);
+        duplicate.setProduct(product);
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class, () -> skuRepository.saveAndFlush(duplicate));
+        assertTrue(e.getMostSpecificCause().getMessage().toUpperCase().contains("UK_SKU_PRODUCT_CODE"), e.getMostSpecificCause().getMessage());
+    }
+
+    @Test
+    void testCatalogLookupsUseMigrationIndexes() {
+        assertTrue(explain("SELECT id FROM sku WHERE product_id = 1 AND code = 'SKU123'").contains("UK_SKU_PRODUCT_CODE"));
+        assertTrue(explain("SELECT id FROM sku WHERE code = 'SKU123'").contains("IDX_SKU_CODE"));
+        assertTrue(explain("SELECT id FROM product WHERE name = 'Phone'").contains("IDX_PRODUCT_NAME"));
+    }
+
+    private String explain(String sql) {
+        return ((String) entityManager.getEntityManager().createNativeQuery("EXPLAIN " + sql).getSingleResult()).toUpperCase();
+    }
+}
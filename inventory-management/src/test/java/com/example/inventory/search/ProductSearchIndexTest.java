@@ -0,0 +1,81 @@
+package com.example.inventory.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(1L, "iPhone 13 Pro", 10L);
+        index.index(2L, "Pixel Phone", 10L);
+        index.index(3L, "Phone Case", 20L);
+        index.index(4L, "Laptop", 20L);
+    }
+
+    @Test
+    void testSubstringMatchIsCaseInsensitive() {
+        assertArrayEquals(new long[]{1L, 2L, 3L}, index.search("PHONE", null));
+        assertArrayEquals(new long[]{1L}, index.search("hone 13", null));
+        assertArrayEquals(new long[0], index.search("tablet", null));
+    }
+
+    @Test
+    void testCategoryFilter() {
+        assertArrayEquals(new long[]{1L, 2L}, index.search("phone", 10L));
+        assertArrayEquals(new long[]{3L}, index.search("phone", 20L));
+    }
+
+    @Test
+    void testShortQueryFallsBackToScan() {
+        assertArrayEquals(new long[]{1L, 2L, 3L, 4L}, index.search("p", null));
+        assertArrayEquals(new long[]{3L, 4L}, index.search("a", null));
+    }
+
+    @Test
+    void testReindexAndRemove() {
+        index.index(2L, "Pixel Tablet", 10L);
+        assertArrayEquals(new long[]{1L, 3L}, index.search("phone", null));
+        assertArrayEquals(new long[]{2L}, index.search("tablet", null));
+        index.remove(1L);
+        assertArrayEquals(new long[]{3L}, index.search("phone", null));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testTrigramsMustBeAdjacent() {
+        // "pho" and "one" both occur in "phoXone" but "phone" does not
+        index.index(5L, "phoXone", 30L);
+        assertArrayEquals(new long[0], index.search("phone", 30L));
+    }
+
+    @Test
+    void testRebuildSwapsInWithChangesMadeWhileLoading() {
+        ProductSearchIndex.Rebuild rebuild = index.startRebuild();
+        // Committed while the rebuild reads the database: a rename of a product it has already read,
+        // a delete of one it is yet to read, and a new product past its last page
+        index.index(1L, "iPhone 14 Pro", 10L);
+        rebuild.add(1L, "iPhone 13 Pro", 10L);
+        rebuild.add(2L, "Pixel Phone", 10L);
+        index.remove(3L);
+        rebuild.add(3L, "Phone Case", 20L);
+        index.index(5L, "Phone Stand", 20L);
+        // The live index keeps serving until the swap; 4L is gone from the database, so the rebuild never reads it
+        assertArrayEquals(new long[]{1L, 2L, 5L}, index.search("phone", null));
+        assertFalse(index.isReady());
+
+        index.finishRebuild(rebuild);
+
+        assertTrue(index.isReady());
+        assertArrayEquals(new long[]{1L, 2L, 5L}, index.search("phone", null));
+        assertArrayEquals(new long[]{1L}, index.search("14", null));
+        assertArrayEquals(new long[0], index.search("laptop", null));
+        assertEquals(3, index.size());
+        index.index(2L, "Pixel Tablet", 10L);
+        assertArrayEquals(new long[]{1L, 5L}, index.search("phone", null));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.CategoryDeleteJobDto;
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.search.ProductSearchIndex;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.ReservationService;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doCallRealMethod;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:category-delete-test;DB_CLOSE_DELAY=-1",
+        "inventory.category-delete.chunk-size=2"})
+public class CategoryDeleteJobsTest {
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private StockLedger stockLedger;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @SpyBean
+    private StockAggregates stockAggregates;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long createCategory(String name, int products, int skusPerProduct) {
+        CategoryDto category = new CategoryDto();
+        category.setName(name);
+        long categoryId = categoryService.createCategory(category).getId();
+        for (int p = 0; p < products; p++) {
+            ProductDto product = new ProductDto();
+            product.setName(name + " Product " + p);
+            product.setCategoryId(categoryId);
+            long productId = productService.createProduct(product).getId();
+            for (int s = 0; s < skusPerProduct; s++) {
+                SkuDto sku = new SkuDto();
+                sku.setCode(name + "-" + p + "-" + s);
+                sku.setQuantity(5);
+                sku.setPrice(9.99);
+                skuService.addSkuToProduct(productId, sku);
+            }
+        }
+        return categoryId;
+    }
+
+    private CategoryDeleteJobDto awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            CategoryDeleteJobDto job = categoryService.getDeleteJob(jobId);
+            if (job.getStatus() == CategoryDeleteJobDto.Status.COMPLETED || job.getStatus() == CategoryDeleteJobDto.Status.FAILED) {
+                return job;
+            }
+            Thread.sleep(25);
+        }
+        return fail("Delete job did not finish");
+    }
+
+    @Test
+    void testDeletesProductsAndSkusInChunks() throws Exception {
+        long doomed = createCategory("Doomed", 5, 3);
+        long kept = createCategory("Kept", 2, 2);
+
+        CategoryDeleteJobDto job = awaitFinished(categoryService.deleteCategoryAsync(doomed).getId());
+
+        assertEquals(CategoryDeleteJobDto.Status.COMPLETED, job.getStatus());
+        assertEquals(doomed, job.getCategoryId());
+        assertEquals(5, job.getProductsDeleted());
+        assertEquals(15, job.getSkusDeleted());
+        // Three chunks of at most two products, then the category row
+        assertEquals(4, job.getChunksCommitted());
+        assertNotNull(job.getFinishedAt());
+        assertThrows(EntityNotFoundException.class, () -> categoryService.getCategoryById(doomed));
+        assertEquals(0, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE category_id = ?", Integer.class, doomed));
+        assertEquals(4, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sku s JOIN product p ON s.product_id = p.id WHERE p.category_id = ?", Integer.class, kept));
+    }
+
+    @Test
+    void testEvictsDeletedSkusFromStockLedger() throws Exception {
+        long categoryId = createCategory("Reserved", 3, 1);
+        Long skuId = jdbcTemplate.queryForObject(
+                "SELECT MIN(s.id) FROM sku s JOIN product p ON s.product_id = p.id WHERE p.category_id = ?", Long.class, categoryId);
+        Long productId = jdbcTemplate.queryForObject("SELECT product_id FROM sku WHERE id = ?", Long.class, skuId);
+        reservationService.reserve(productId, skuId, 2, null);
+        assertNotNull(stockLedger.get(skuId));
+
+        assertEquals(CategoryDeleteJobDto.Status.COMPLETED, awaitFinished(categoryService.deleteCategoryAsync(categoryId).getId()).getStatus());
+
+        assertNull(stockLedger.get(skuId));
+    }
+
+    @Test
+    void testResubmitReturnsTheQueuedOrRunningJob() throws Exception {
+        long categoryId = createCategory("Twice", 1, 1);
+        CategoryDeleteJobDto first = categoryService.deleteCategoryAsync(categoryId);
+        CategoryDeleteJobDto finished = awaitFinished(first.getId());
+        assertEquals(CategoryDeleteJobDto.Status.COMPLETED, finished.getStatus());
+        assertThrows(EntityNotFoundException.class, () -> categoryService.deleteCategoryAsync(categoryId));
+        assertThrows(EntityNotFoundException.class, () -> categoryService.getDeleteJob("no-such-job"));
+    }
+
+    @Test
+    void testRolledBackChunkKeepsItsProductsSearchable() throws Exception {
+        long categoryId = createCategory("Held", 3, 1);
+        // The first chunk commits; the second fails after its statements and hooks have run, and rolls back
+        doCallRealMethod().doThrow(new IllegalStateException("Aggregates unavailable")).when(stockAggregates).productsRemoved(anyCollection());
+
+        assertEquals(CategoryDeleteJobDto.Status.FAILED, awaitFinished(categoryService.deleteCategoryAsync(categoryId).getId()).getStatus());
+
+        List<Long> remaining = jdbcTemplate.queryForList("SELECT id FROM product WHERE category_id = ? ORDER BY id", Long.class, categoryId);
+        assertEquals(1, remaining.size());
+        assertEquals(remaining, Arrays.stream(productSearchIndex.search("Held", categoryId)).boxed().collect(Collectors.toList()));
+    }
+}
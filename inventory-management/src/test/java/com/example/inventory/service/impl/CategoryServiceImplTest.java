@@ -1,9 +1,22 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.dto.CategoryDeleteJobDto;
 import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.SkuDto;
 import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
 import com.example.inventory.model.Category;
+import com.example.inventory.model.Product;
 import com.example.inventory.repository.CategoryRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.search.ProductSearchIndex;
+import com.example.inventory.service.ExpandOptions;
+import com.example.inventory.service.SkuService;
+import com.example.inventory.shard.ShardedSkuRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,6 +25,7 @@ import org.mockito.MockitoAnnotations;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +37,30 @@ import static org.mockito.Mockito.*;
 public class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private SerializedResponseCache categoryResponseCache;
+    @Mock
+    private SerializedResponseCache productResponseCache;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private SkuJournal skuJournal;
+    @Mock
+    private StockAggregates stockAggregates;
+    @Mock
+    private StockLedger stockLedger;
+    @Mock
+    private ChangeFeed changeFeed;
+    @Mock
+    private ResourceVersions resourceVersions;
+    @Mock
+    private SkuService skuService;
+    @Mock
+    private CategoryDeleteJobs categoryDeleteJobs;
+    @Mock
+    private ShardedSkuRepository shardedSkuRepository;
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -73,6 +111,7 @@ public class CategoryServiceImplTest {
         given(categoryRepository.save(any(Category.class))).willReturn(category);
         CategoryDto result = categoryService.updateCategory(1L, dto);
         assertEquals("Home Appliances", result.getName());
+        verify(resourceVersions).categoryChanged(1L);
     }
 
     @Test
@@ -94,8 +133,23 @@ public class CategoryServiceImplTest {
     @Test
     void testDeleteCategory() {
         given(categoryRepository.existsById(1L)).willReturn(true);
+        given(productRepository.findIdsByCategoryId(1L)).willReturn(Arrays.asList(10L, 11L));
         doNothing().when(categoryRepository).deleteById(1L);
         assertDoesNotThrow(() -> categoryService.deleteCategory(1L));
+        verify(categoryResponseCache).evict(1L);
+        verify(productResponseCache).evict(10L);
+        verify(productResponseCache).evict(11L);
+        verify(productSearchIndex).remove(10L);
+        verify(productSearchIndex).remove(11L);
+        verify(skuJournal).productsDeleted(Arrays.asList(10L, 11L));
+        verify(stockAggregates).productsRemoved(Arrays.asList(10L, 11L));
+        verify(stockLedger).productsRemoved(Arrays.asList(10L, 11L));
+        verify(stockAggregates).categoryRemoved(1L);
+        verify(changeFeed).publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.DELETED, 10L, 1L);
+        verify(changeFeed).publish(ChangeEventDto.Entity.CATEGORY, ChangeEventDto.Type.DELETED, 1L, null);
+        verify(resourceVersions).productChanged(10L);
+        verify(resourceVersions).skusChanged(10L);
+        verify(resourceVersions).categoryChanged(1L);
     }
 
     @Test
@@ -104,6 +158,23 @@ public class CategoryServiceImplTest {
         assertThrows(EntityNotFoundException.class, () -> categoryService.deleteCategory(99L));
     }
 
+    @Test
+    void testDeleteCategoryAsync() {
+        CategoryDeleteJobDto job = new CategoryDeleteJobDto();
+        job.setId("job-1");
+        given(categoryRepository.existsById(1L)).willReturn(true);
+        given(categoryDeleteJobs.submit(1L)).willReturn(job);
+        assertSame(job, categoryService.deleteCategoryAsync(1L));
+        verify(categoryRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void testDeleteCategoryAsync_NotFound() {
+        given(categoryRepository.existsById(99L)).willReturn(false);
+        assertThrows(EntityNotFoundException.class, () -> categoryService.deleteCategoryAsync(99L));
+        verifyNoInteractions(categoryDeleteJobs);
+    }
+
     @Test
     void testGetAllCategories() {
         given(categoryRepository.findAll()).willReturn(Arrays.asList(category));
@@ -111,4 +182,31 @@ public class CategoryServiceImplTest {
         assertEquals(1, result.size());
         assertEquals("Electronics", result.get(0).getName());
     }
+
+    @Test
+    void testGetCategoryById_ExpandProductsAndSkus() {
+        Product product = new Product();
+        product.setId(10L);
+        product.setName("iPhone");
+        product.setCategory(category);
+        category.setProducts(Arrays.asList(product));
+        SkuDto sku = new SkuDto();
+        sku.setId(100L);
+        sku.setProductId(10L);
+        given(categoryRepository.findWithProductsById(1L)).willReturn(Optional.of(category));
+        given(skuService.getSkusByProductIds(Arrays.asList(10L))).willReturn(Collections.singletonMap(10L, Arrays.asList(sku)));
+        CategoryDto result = categoryService.getCategoryById(1L, ExpandOptions.parse("products,skus", ExpandOptions.PRODUCTS, ExpandOptions.SKUS));
+        assertEquals("iPhone", result.getProducts().get(0).getName());
+        assertEquals(100L, result.getProducts().get(0).getSkus().get(0).getId());
+        verify(categoryRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetAllCategories_ExpandProducts() {
+        category.setProducts(Collections.emptyList());
+        given(categoryRepository.findAllWithProducts()).willReturn(Arrays.asList(category));
+        List<CategoryDto> result = categoryService.getAllCategories(ExpandOptions.parse("products", ExpandOptions.PRODUCTS, ExpandOptions.SKUS));
+        assertTrue(result.get(0).getProducts().isEmpty());
+        verify(skuService, never()).getSkusByProductIds(any());
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuBatchResultDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ExpandOptions;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.SkuService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Expanded reads must issue the same number of SQL statements however many products and SKUs hang
+ * off the requested rows.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class ExpandQueryCountTest {
+    private static final ExpandOptions CATEGORY_EXPAND = ExpandOptions.parse("products,skus", ExpandOptions.PRODUCTS, ExpandOptions.SKUS);
+    private static final ExpandOptions PRODUCT_EXPAND = ExpandOptions.parse("skus", ExpandOptions.SKUS);
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Long createCategory(String name, int products, int skusPerProduct) {
+        CategoryDto category = new CategoryDto();
+        category.setName(name);
+        Long categoryId = categoryService.createCategory(category).getId();
+        for (int p = 0; p < products; p++) {
+            ProductDto product = new ProductDto();
+            product.setName(name + " Product " + p);
+            product.setCategoryId(categoryId);
+            Long productId = productService.createProduct(product).getId();
+            List<SkuDto> skus = new ArrayList<>();
+            for (int s = 0; s < skusPerProduct; s++) {
+                SkuDto sku = new SkuDto();
+                sku.setCode("SKU-" + s);
+                sku.setQuantity(s);
+                sku.setPrice(1.0 + s);
+                skus.add(sku);
+            }
+            SkuBatchResultDto result = skuService.addSkusToProduct(productId, skus);
+            assertEquals(skusPerProduct, result.getCreated());
+        }
+        return categoryId;
+    }
+
+    private <T> long statementsFor(Supplier<T> read) {
+        statistics.clear();
+        read.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void testStatementCountIndependentOfChildren() {
+        Long small = createCategory("Small Expand", 1, 1);
+        Long large = createCategory("Large Expand", 25, 8);
+
+        long smallCategory = statementsFor(() -> categoryService.getCategoryById(small, CATEGORY_EXPAND));
+        long largeCategory = statementsFor(() -> categoryService.getCategoryById(large, CATEGORY_EXPAND));
+        assertEquals(2, smallCategory);
+        assertEquals(smallCategory, largeCategory);
+        assertEquals(25, categoryService.getCategoryById(large, CATEGORY_EXPAND).getProducts().size());
+
+        long allBefore = statementsFor(() -> categoryService.getAllCategories(CATEGORY_EXPAND));
+        createCategory("Extra Expand", 10, 5);
+        long allAfter = statementsFor(() -> categoryService.getAllCategories(CATEGORY_EXPAND));
+        assertEquals(allBefore, allAfter);
+
+        long smallSearch = statementsFor(() -> productService.searchProducts(null, small, PageRequest.of(0, 50), PRODUCT_EXPAND));
+        long largeSearch = statementsFor(() -> productService.searchProducts(null, large, PageRequest.of(0, 50), PRODUCT_EXPAND));
+        assertEquals(smallSearch, largeSearch);
+        assertEquals(8, productService.searchProducts(null, large, PageRequest.of(0, 50), PRODUCT_EXPAND)
+                .getContent().get(0).getSkus().size());
+    }
+}
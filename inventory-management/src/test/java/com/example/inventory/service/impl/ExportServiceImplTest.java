@@ -0,0 +1,65 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.repository.CategoryRepository;
+import com.example.inventory.shard.ShardedSkuRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+public class ExportServiceImplTest {
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock
+    private ShardedSkuRepository shardedSkuRepository;
+    @InjectMocks
+    private ExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testExportCatalog() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        given(categoryRepository.streamCatalogRows()).willReturn(Stream.of(
+                new Object[]{1L, "Empty Category", null, null, null, null, null, null},
+                new Object[]{2L, "Electronics", 10L, "Phone", 100L, "SKU-1", 5, 9.5},
+                new Object[]{2L, "Electronics", 10L, "Phone", 101L, "SKU-2", 0, 12.0},
+                new Object[]{2L, "Electronics", 11L, "Cable", null, null, null, null}
+        ).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long records = exportService.exportCatalog(out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(6, records);
+        assertEquals(6, lines.length);
+        assertEquals("category", objectMapper.readTree(lines[0]).get("type").asText());
+        JsonNode product = objectMapper.readTree(lines[2]);
+        assertEquals("product", product.get("type").asText());
+        assertEquals(2L, product.get("categoryId").asLong());
+        JsonNode sku = objectMapper.readTree(lines[3]);
+        assertEquals("sku", sku.get("type").asText());
+        assertEquals(10L, sku.get("productId").asLong());
+        assertEquals("SKU-1", sku.get("code").asText());
+        assertEquals(5, sku.get("quantity").asInt());
+        assertEquals("Cable", objectMapper.readTree(lines[5]).get("name").asText());
+        assertTrue(closed.get());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.ImportResultDto;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.Sku;
+import com.example.inventory.repository.CategoryRepository;
+import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.repository.SkuRepository;
+import com.example.inventory.search.ProductSearchIndex;
+import com.example.inventory.service.ImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "inventory.import.chunk-size=3", "inventory.sku.batch-size=2"})
+public class ImportServiceImplTest {
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private SkuRepository skuRepository;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    private ImportResultDto importLines(ImportService.Format format, String... lines) throws Exception {
+        byte[] body = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return importService.importCatalog(new ByteArrayInputStream(body), format);
+    }
+
+    private Product findProduct(String name) {
+        List<Product> products = productRepository.search(name, null, PageRequest.of(0, 10)).getContent();
+        assertEquals(1, products.size());
+        return products.get(0);
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        ImportResultDto result = importLines(ImportService.Format.NDJSON,
+                "{\"type\":\"category\",\"id\":1,\"name\":\"Ndjson Import Category\"}",
+                "{\"type\":\"product\",\"id\":10,\"categoryId\":1,\"name\":\"Ndjson Import Phone\"}",
+                "{\"type\":\"sku\",\"id\":100,\"productId\":10,\"code\":\"NDJ-1\",\"quantity\":5,\"price\":9.5}",
+                "",
+                "{\"type\":\"sku\",\"productId\":10,\"code\":\"NDJ-2\",\"quantity\":1,\"price\":3.0}",
+                "{\"type\":\"sku\",\"productId\":10,\"code\":\"NDJ-1\",\"quantity\":1,\"price\":3.0}",
+                "{\"type\":\"sku\",\"productId\":99,\"code\":\"NDJ-3\",\"quantity\":1,\"price\":3.0}",
+                "{\"type\":\"product\",\"id\":11,\"categoryId\":1,\"name\":\"Ndjson Import Cable\"}",
+                "not json",
+                "{\"type\":\"sku\",\"productId\":11,\"code\":\"NDJ-1\",\"quantity\":0,\"price\":1.0}");
+
+        assertTrue(result.isCompleted());
+        assertEquals(10, result.getLines());
+        assertEquals(1, result.getCategoriesCreated());
+        assertEquals(2, result.getProductsCreated());
+        assertEquals(3, result.getSkusCreated());
+        assertEquals(3, result.getRejected());
+        assertEquals(3, result.getChunksCommitted());
+        assertEquals(Arrays.asList(6L, 7L, 9L), Arrays.asList(result.getErrors().get(0).getLine(),
+                result.getErrors().get(1).getLine(), result.getErrors().get(2).getLine()));
+
+        Product phone = findProduct("Ndjson Import Phone");
+        assertEquals("Ndjson Import Category", categoryRepository.findById(phone.getCategory().getId()).get().getName());
+        List<Sku> skus = skuRepository.findByProduct(phone);
+        assertEquals(2, skus.size());
+        assertTrue(productSearchIndex.search("ndjson import", null).length >= 2);
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        ImportResultDto result = importLines(ImportService.Format.CSV,
+                "type,id,categoryId,productId,name,code,quantity,price",
+                "category,c1,,,Csv Import Category,,,",
+                "product,p1,c1,,\"Csv Import Lamp, \"\"Deluxe\"\"\",,,",
+                "sku,,,p1,,CSV-1,4,19.99",
+                "sku,,,p1,,CSV-2,-1,19.99",
+                "product,p2,missing,,Orphan,,,");
+
+        assertTrue(result.isCompleted());
+        assertEquals(1, result.getCategoriesCreated());
+        assertEquals(1, result.getProductsCreated());
+        assertEquals(1, result.getSkusCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals("Quantity must be >= 0", result.getErrors().get(0).getMessage());
+        assertEquals("Unknown category id missing", result.getErrors().get(1).getMessage());
+
+        Product lamp = findProduct("Csv Import Lamp");
+        assertEquals("Csv Import Lamp, \"Deluxe\"", lamp.getName());
+        assertEquals(4, skuRepository.findByProduct(lamp).get(0).getQuantity());
+    }
+
+    @Test
+    void testParseCsv() {
+        assertEquals(Arrays.asList("a", "", "b,c", "d\"e"), ImportServiceImpl.parseCsv("a,,\"b,c\",\"d\"\"e\""));
+        assertThrows(IllegalArgumentException.class, () -> ImportServiceImpl.parseCsv("\"open"));
+    }
+}
@@ -1,11 +1,22 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.cache.SerializedResponseCache;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.ProductCursorPageDto;
 import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
 import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
 import com.example.inventory.model.Category;
 import com.example.inventory.model.Product;
 import com.example.inventory.repository.CategoryRepository;
 import com.example.inventory.repository.ProductRepository;
+import com.example.inventory.search.ProductSearchIndex;
+import com.example.inventory.service.ExpandOptions;
+import com.example.inventory.service.SkuService;
+import com.example.inventory.shard.ShardedSkuRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -18,6 +29,7 @@ import org.springframework.data.domain.Pageable;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +42,24 @@ public class ProductServiceImplTest {
     private ProductRepository productRepository;
     @Mock
     private CategoryRepository categoryRepository;
+    @Mock
+    private SerializedResponseCache productResponseCache;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private SkuJournal skuJournal;
+    @Mock
+    private StockAggregates stockAggregates;
+    @Mock
+    private StockLedger stockLedger;
+    @Mock
+    private ChangeFeed changeFeed;
+    @Mock
+    private ResourceVersions resourceVersions;
+    @Mock
+    private SkuService skuService;
+    @Mock
+    private ShardedSkuRepository shardedSkuRepository;
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -58,6 +88,10 @@ public class ProductServiceImplTest {
         ProductDto result = productService.createProduct(dto);
         assertEquals("iPhone", result.getName());
         assertEquals(2L, result.getCategoryId());
+        verify(stockAggregates).productSaved(1L, 2L);
+        verify(changeFeed).publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.CREATED, 1L, 2L);
+        verify(resourceVersions).productChanged(1L);
+        verify(resourceVersions).skusChanged(1L);
     }
 
     @Test
@@ -100,6 +134,8 @@ public class ProductServiceImplTest {
         given(productRepository.save(any(Product.class))).willReturn(product);
         ProductDto result = productService.updateProduct(1L, dto);
         assertEquals("iPhone 13", result.getName());
+        verify(productResponseCache).evict(1L);
+        verify(resourceVersions).productChanged(1L);
     }
 
     @Test
@@ -107,6 +143,14 @@ public class ProductServiceImplTest {
         given(productRepository.existsById(1L)).willReturn(true);
         doNothing().when(productRepository).deleteById(1L);
         assertDoesNotThrow(() -> productService.deleteProduct(1L));
+        verify(productResponseCache).evict(1L);
+        verify(productSearchIndex).remove(1L);
+        verify(skuJournal).productsDeleted(Collections.singletonList(1L));
+        verify(stockAggregates).productsRemoved(Collections.singletonList(1L));
+        verify(stockLedger).productsRemoved(Collections.singletonList(1L));
+        verify(changeFeed).publish(ChangeEventDto.Entity.PRODUCT, ChangeEventDto.Type.DELETED, 1L, null);
+        verify(resourceVersions).productChanged(1L);
+        verify(resourceVersions).skusChanged(1L);
     }
 
     @Test
@@ -124,4 +168,85 @@ public class ProductServiceImplTest {
         assertEquals(1, result.getTotalElements());
         assertEquals("iPhone", result.getContent().get(0).getName());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSearchProducts_ExpandSkus() {
+        Pageable pageable = PageRequest.of(0, 10);
+        given(productRepository.search(isNull(), eq(2L), any(Pageable.class))).willReturn(new PageImpl<>(Arrays.asList(product), pageable, 1));
+        SkuDto sku = new SkuDto();
+        sku.setId(100L);
+        sku.setProductId(1L);
+        given(skuService.getSkusByProductIds(Arrays.asList(1L))).willReturn(Collections.singletonMap(1L, Arrays.asList(sku)));
+        Page<ProductDto> result = productService.searchProducts(null, 2L, pageable, ExpandOptions.parse("skus", ExpandOptions.SKUS));
+        assertEquals(100L, result.getContent().get(0).getSkus().get(0).getId());
+    }
+
+    @Test
+    void testSearchProducts_UsesIndexWhenReady() {
+        Pageable pageable = PageRequest.of(1, 2);
+        Product other = new Product();
+        other.setId(7L);
+        other.setName("iPhone Case");
+        other.setCategory(category);
+        given(productSearchIndex.isReady()).willReturn(true);
+        given(productSearchIndex.search("iphone", null)).willReturn(new long[]{1L, 3L, 7L});
+        given(productRepository.findAllById(Arrays.asList(7L))).willReturn(Arrays.asList(other));
+        Page<ProductDto> result = productService.searchProducts("iphone", null, pageable);
+        assertEquals(3, result.getTotalElements());
+        assertEquals(1, result.getContent().size());
+        assertEquals("iPhone Case", result.getContent().get(0).getName());
+        verify(productRepository, never()).search(any(), any(), any());
+    }
+
+    @Test
+    void testSearchProductsByCursor() {
+        Product second = new Product();
+        second.setId(5L);
+        second.setName("iPhone 14");
+        second.setCategory(category);
+        Product third = new Product();
+        third.setId(9L);
+        third.setName("iPhone 15");
+        third.setCategory(category);
+        given(productRepository.searchAfterId(isNull(), eq(2L), eq(0L), any(Pageable.class)))
+                .willReturn(Arrays.asList(product, second, third));
+        ProductCursorPageDto first = productService.searchProductsByCursor(null, 2L, "", 2, "id");
+        assertEquals(2, first.getSize());
+        assertTrue(first.isHasNext());
+        assertNotNull(first.getNextCursor());
+
+        given(productRepository.searchAfterId(isNull(), eq(2L), eq(5L), any(Pageable.class)))
+                .willReturn(Arrays.asList(third));
+        ProductCursorPageDto next = productService.searchProductsByCursor(null, 2L, first.getNextCursor(), 2, "id");
+        assertEquals(1, next.getSize());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+        verify(productRepository, never()).search(any(), any(), any());
+    }
+
+    @Test
+    void testSearchProductsByCursor_UsesIndexWhenReady() {
+        Product other = new Product();
+        other.setId(7L);
+        other.setName("iPhone Case");
+        other.setCategory(category);
+        given(productSearchIndex.isReady()).willReturn(true);
+        given(productSearchIndex.search("iphone", null)).willReturn(new long[]{1L, 7L});
+        given(productRepository.findAllById(Arrays.asList(1L, 7L))).willReturn(Arrays.asList(other, product));
+        ProductCursorPageDto first = productService.searchProductsByCursor("iphone", null, "", 1, "id");
+        assertEquals(1L, first.getContent().get(0).getId());
+        assertTrue(first.isHasNext());
+
+        given(productRepository.findAllById(Arrays.asList(7L))).willReturn(Arrays.asList(other));
+        ProductCursorPageDto next = productService.searchProductsByCursor("iphone", null, first.getNextCursor(), 1, "id");
+        assertEquals(7L, next.getContent().get(0).getId());
+        assertFalse(next.isHasNext());
+        verify(productRepository, never()).searchAfterId(any(), any(), any(), any());
+    }
+
+    @Test
+    void testSearchProductsByCursor_InvalidCursor() {
+        assertThrows(CustomValidationException.class, () -> productService.searchProductsByCursor(null, null, "not-a-cursor", 10, "id"));
+        assertThrows(CustomValidationException.class, () -> productService.searchProductsByCursor(null, null, "", 10, "price"));
+    }
+}
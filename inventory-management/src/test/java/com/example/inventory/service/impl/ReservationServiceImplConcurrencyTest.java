@@ -0,0 +1,112 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.ReservationDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.repository.SkuRepository;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.ReservationService;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class ReservationServiceImplConcurrencyTest {
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private SkuRepository skuRepository;
+    @Autowired
+    private StockLedger stockLedger;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws InterruptedException {
+        CategoryDto category = new CategoryDto();
+        category.setName("Concurrency");
+        ProductDto product = new ProductDto();
+        product.setName("Hot Product");
+        product.setCategoryId(categoryService.createCategory(category).getId());
+        Long productId = productService.createProduct(product).getId();
+        SkuDto sku = new SkuDto();
+        sku.setCode("HOT-1");
+        sku.setQuantity(50);
+        sku.setPrice(10.0);
+        Long skuId = skuService.addSkuToProduct(productId, sku).getId();
+
+        int threads = 12;
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        ReservationDto held = reservationService.reserve(productId, skuId, 1, 60);
+                        reservationService.commit(productId, skuId, held.getId());
+                        sold.incrementAndGet();
+                    } catch (CustomValidationException ignored) {
+                        // sold out
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(50, sold.get());
+        assertEquals(0, skuRepository.findById(skuId).get().getQuantity());
+    }
+
+    @Test
+    void rolledBackUpdateLeavesLedgerOnHandUntouched() {
+        CategoryDto category = new CategoryDto();
+        category.setName("Rollback");
+        ProductDto product = new ProductDto();
+        product.setName("Rollback Product");
+        product.setCategoryId(categoryService.createCategory(category).getId());
+        Long productId = productService.createProduct(product).getId();
+        SkuDto sku = new SkuDto();
+        sku.setCode("ROLLBACK-1");
+        sku.setQuantity(10);
+        sku.setPrice(10.0);
+        Long skuId = skuService.addSkuToProduct(productId, sku).getId();
+        reservationService.reserve(productId, skuId, 1, 60);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            SkuDto update = new SkuDto();
+            update.setCode("ROLLBACK-1");
+            update.setQuantity(0);
+            update.setPrice(10.0);
+            skuService.updateSku(productId, skuId, update);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(10, stockLedger.get(skuId).getOnHand());
+        assertEquals(5, reservationService.reserve(productId, skuId, 5, 60).getQuantity());
+    }
+}
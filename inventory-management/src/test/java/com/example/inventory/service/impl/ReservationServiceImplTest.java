@@ -0,0 +1,210 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.ReservationDto;
+import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
+import com.example.inventory.model.Product;
+import com.example.inventory.model.Sku;
+import com.example.inventory.repository.SkuRepository;
+import com.example.inventory.shard.ShardedSkuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class ReservationServiceImplTest {
+    @Mock
+    private SkuRepository skuRepository;
+    @Spy
+    private StockLedger stockLedger = new StockLedger();
+    @Mock
+    private SkuJournal skuJournal;
+    @Mock
+    private StockAggregates stockAggregates;
+    @Mock
+    private ChangeFeed changeFeed;
+    @Mock
+    private ResourceVersions resourceVersions;
+    @Mock
+    private ShardedSkuRepository shardedSkuRepository;
+    @InjectMocks
+    private ReservationServiceImpl reservationService;
+
+    private Sku sku;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Product product = new Product();
+        product.setId(2L);
+        sku = new Sku();
+        sku.setId(1L);
+        sku.setCode("SKU123");
+        sku.setQuantity(10);
+        sku.setProduct(product);
+        given(skuRepository.findById(1L)).willReturn(Optional.of(sku));
+    }
+
+    // The (quantity, version) row the conditional decrement hands back
+    private static List<Object[]> row(int quantity, long version) {
+        return Collections.singletonList(new Object[]{quantity, version});
+    }
+
+    @Test
+    void testReserveAndCommit() {
+        given(skuRepository.adjustQuantity(2L, 1L, -4)).willReturn(row(6, 1L));
+        ReservationDto held = reservationService.reserve(2L, 1L, 4, 60);
+        assertEquals(ReservationDto.Status.HELD, held.getStatus());
+        assertEquals(6, stockLedger.get(1L).getAvailable());
+
+        ReservationDto committed = reservationService.commit(2L, 1L, held.getId());
+        assertEquals(ReservationDto.Status.COMMITTED, committed.getStatus());
+        assertEquals(6, stockLedger.get(1L).getOnHand());
+        assertEquals(0, stockLedger.get(1L).getReserved());
+        verify(skuRepository).adjustQuantity(2L, 1L, -4);
+        verify(skuJournal).quantityChanged(1L, 6, 1L);
+        verify(stockAggregates).quantityDecremented(1L, 4);
+        verify(changeFeed).publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.UPDATED, 1L, 2L);
+        verify(resourceVersions).skusChanged(2L);
+    }
+
+    @Test
+    void testReserve_InsufficientStock() {
+        reservationService.reserve(2L, 1L, 8, 60);
+        assertThrows(CustomValidationException.class, () -> reservationService.reserve(2L, 1L, 3, 60));
+        verify(skuRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testReserve_WrongProduct() {
+        assertThrows(EntityNotFoundException.class, () -> reservationService.reserve(3L, 1L, 1, 60));
+    }
+
+    @Test
+    void testRelease() {
+        ReservationDto held = reservationService.reserve(2L, 1L, 5, 60);
+        reservationService.release(2L, 1L, held.getId());
+        assertEquals(10, stockLedger.get(1L).getAvailable());
+        assertThrows(EntityNotFoundException.class, () -> reservationService.release(2L, 1L, held.getId()));
+    }
+
+    @Test
+    void testCommit_DatabaseRefusesDecrement() {
+        given(skuRepository.adjustQuantity(2L, 1L, -5)).willReturn(Collections.emptyList());
+        ReservationDto held = reservationService.reserve(2L, 1L, 5, 60);
+        assertThrows(CustomValidationException.class, () -> reservationService.commit(2L, 1L, held.getId()));
+        assertEquals(0, stockLedger.get(1L).getReserved());
+    }
+
+    @Test
+    void testCommit_DecrementFailureReleasesHold() {
+        given(skuRepository.adjustQuantity(2L, 1L, -5)).willThrow(new QueryTimeoutException("timeout"));
+        ReservationDto held = reservationService.reserve(2L, 1L, 5, 60);
+        assertThrows(QueryTimeoutException.class, () -> reservationService.commit(2L, 1L, held.getId()));
+        assertEquals(0, stockLedger.get(1L).getReserved());
+        assertEquals(10, stockLedger.get(1L).getOnHand());
+    }
+
+    @Test
+    void testCommit_ConsumesOnlyAfterTransactionCommits() {
+        given(skuRepository.adjustQuantity(2L, 1L, -4)).willReturn(row(6, 1L));
+        ReservationDto held = reservationService.reserve(2L, 1L, 4, 60);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            reservationService.commit(2L, 1L, held.getId());
+            assertEquals(10, stockLedger.get(1L).getOnHand());
+            assertEquals(4, stockLedger.get(1L).getReserved());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(10, stockLedger.get(1L).getOnHand());
+        assertEquals(0, stockLedger.get(1L).getReserved());
+    }
+
+    @Test
+    void testExpireReservations() throws InterruptedException {
+        reservationService.reserve(2L, 1L, 5, 1);
+        Thread.sleep(1100);
+        assertEquals(1, reservationService.expireReservations());
+        assertEquals(10, stockLedger.get(1L).getAvailable());
+    }
+
+    @Test
+    void testConcurrentReserveAndCommit_NoOversell() throws InterruptedException {
+        // Simulates the conditional UPDATE so the test exercises the ledger under contention
+        AtomicInteger dbQuantity = new AtomicInteger(100);
+        sku.setQuantity(100);
+        given(skuRepository.adjustQuantity(eq(2L), eq(1L), anyInt())).willAnswer(invocation -> {
+            int amount = -(int) invocation.getArgument(2);
+            while (true) {
+                int current = dbQuantity.get();
+                if (current < amount) {
+                    return Collections.emptyList();
+                }
+                if (dbQuantity.compareAndSet(current, current - amount)) {
+                    return row(current - amount, 1L);
+                }
+            }
+        });
+        int threads = 16;
+        int attemptsPerThread = 50;
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        ReservationDto held = reservationService.reserve(2L, 1L, 1, 60);
+                        if (i % 3 == 0) {
+                            reservationService.release(2L, 1L, held.getId());
+                        } else {
+                            reservationService.commit(2L, 1L, held.getId());
+                            sold.incrementAndGet();
+                        }
+                    } catch (CustomValidationException ignored) {
+                        // sold out
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(100, sold.get());
+        assertEquals(0, dbQuantity.get());
+        assertEquals(0, stockLedger.get(1L).getOnHand());
+        assertEquals(0, stockLedger.get(1L).getReserved());
+    }
+}
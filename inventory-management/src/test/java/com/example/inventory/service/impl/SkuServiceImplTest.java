@@ -1,20 +1,43 @@
 package com.example.inventory.service.impl;
 
+import com.example.inventory.cache.ResourceVersions;
+import com.example.inventory.dto.ChangeEventDto;
+import com.example.inventory.dto.LowStockPageDto;
+import com.example.inventory.dto.SkuBatchItemDto;
+import com.example.inventory.dto.SkuBatchResultDto;
 import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.SkuQuantityDto;
 import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.feed.ChangeFeed;
+import com.example.inventory.journal.SkuJournal;
 import com.example.inventory.model.Product;
 import com.example.inventory.model.Sku;
 import com.example.inventory.repository.ProductRepository;
 import com.example.inventory.repository.SkuRepository;
+import com.example.inventory.shard.ShardedSkuRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -23,6 +46,20 @@ public class SkuServiceImplTest {
     private SkuRepository skuRepository;
     @Mock
     private ProductRepository productRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private StockLedger stockLedger;
+    @Mock
+    private SkuJournal skuJournal;
+    @Mock
+    private StockAggregates stockAggregates;
+    @Mock
+    private ChangeFeed changeFeed;
+    @Mock
+    private ResourceVersions resourceVersions;
+    @Mock
+    private ShardedSkuRepository shardedSkuRepository;
     @InjectMocks
     private SkuServiceImpl skuService;
 
@@ -50,11 +87,14 @@ public class SkuServiceImplTest {
         dto.setQuantity(10);
         dto.setPrice(99.99);
         given(productRepository.findById(2L)).willReturn(Optional.of(product));
-        given(skuRepository.findByProductAndCode(product, "SKU123")).willReturn(Optional.empty());
         given(skuRepository.save(any(Sku.class))).willReturn(sku);
         SkuDto result = skuService.addSkuToProduct(2L, dto);
         assertEquals("SKU123", result.getCode());
         assertEquals(99.99, result.getPrice());
+        verify(skuJournal).skuSaved(result);
+        verify(stockAggregates).skuSaved(1L, 2L, 10, 99.99, null);
+        verify(changeFeed).publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.CREATED, 1L, 2L, null);
+        verify(resourceVersions).skusChanged(2L);
     }
 
     @Test
@@ -64,8 +104,10 @@ public class SkuServiceImplTest {
         dto.setQuantity(10);
         dto.setPrice(99.99);
         given(productRepository.findById(2L)).willReturn(Optional.of(product));
-        given(skuRepository.findByProductAndCode(product, "SKU123")).willReturn(Optional.of(sku));
+        given(skuRepository.save(any(Sku.class))).willThrow(new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_SKU_PRODUCT_CODE_INDEX_1 ON PUBLIC.SKU(PRODUCT_ID, CODE)\"")));
         assertThrows(CustomValidationException.class, () -> skuService.addSkuToProduct(2L, dto));
+        verifyNoInteractions(skuJournal, stockAggregates);
     }
 
     @Test
@@ -85,9 +127,159 @@ public class SkuServiceImplTest {
         dto.setQuantity(20);
         dto.setPrice(199.99);
         given(skuRepository.findById(1L)).willReturn(Optional.of(sku));
-        given(skuRepository.save(any(Sku.class))).willReturn(sku);
-        SkuDto result = skuService.updateSku(1L, dto);
+        given(skuRepository.saveAndFlush(any(Sku.class))).willReturn(sku);
+        SkuDto result = skuService.updateSku(2L, 1L, dto);
         assertEquals(20, result.getQuantity());
         assertEquals(199.99, result.getPrice());
+        verify(skuJournal).skuSaved(result);
+    }
+
+    @Test
+    void testAddSkusToProduct() {
+        SkuDto valid = new SkuDto();
+        valid.setCode("SKU-A");
+        valid.setQuantity(5);
+        valid.setPrice(10.0);
+        SkuDto existing = new SkuDto();
+        existing.setCode("SKU123");
+        existing.setQuantity(5);
+        existing.setPrice(10.0);
+        SkuDto invalid = new SkuDto();
+        invalid.setCode("SKU-B");
+        invalid.setQuantity(-1);
+        invalid.setPrice(10.0);
+        SkuDto duplicate = new SkuDto();
+        duplicate.setCode("SKU-A");
+        duplicate.setQuantity(1);
+        duplicate.setPrice(10.0);
+        given(productRepository.findById(2L)).willReturn(Optional.of(product));
+        given(skuRepository.findExistingCodes(eq(2L), anyCollection())).willReturn(Collections.singletonList("SKU123"));
+        // Stands in for the sequence id Hibernate assigns on persist
+        doAnswer(invocation -> {
+            ((Sku) invocation.getArgument(0)).setId(50L);
+            return null;
+        }).when(entityManager).persist(any(Sku.class));
+
+        SkuBatchResultDto result = skuService.addSkusToProduct(2L, Arrays.asList(valid, existing, invalid, duplicate));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(1, result.getCreated());
+        assertEquals(3, result.getRejected());
+        assertEquals(SkuBatchItemDto.Status.CREATED, result.getItems().get(0).getStatus());
+        assertEquals(SkuBatchItemDto.Status.REJECTED, result.getItems().get(1).getStatus());
+        assertEquals(SkuBatchItemDto.Status.REJECTED, result.getItems().get(2).getStatus());
+        assertEquals(SkuBatchItemDto.Status.REJECTED, result.getItems().get(3).getStatus());
+        verify(skuRepository, times(1)).findExistingCodes(eq(2L), anyCollection());
+        verify(entityManager, times(1)).persist(any(Sku.class));
+        verify(stockAggregates).skuSaved(50L, 2L, 5, 10.0, null);
+    }
+
+    @Test
+    void testAddSkusBatchRejectsNullItemAtItsIndex() {
+        SkuDto valid = new SkuDto();
+        valid.setCode("SKU-A");
+        valid.setQuantity(5);
+        valid.setPrice(10.0);
+        given(productRepository.findById(2L)).willReturn(Optional.of(product));
+        given(skuRepository.findExistingCodes(eq(2L), anyCollection())).willReturn(Collections.emptyList());
+        doAnswer(invocation -> {
+            ((Sku) invocation.getArgument(0)).setId(50L);
+            return null;
+        }).when(entityManager).persist(any(Sku.class));
+
+        SkuBatchResultDto result = skuService.addSkusToProduct(2L, Arrays.asList(null, valid));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(SkuBatchItemDto.Status.REJECTED, result.getItems().get(0).getStatus());
+        assertEquals("SKU must not be null", result.getItems().get(0).getMessage());
+        assertEquals(SkuBatchItemDto.Status.CREATED, result.getItems().get(1).getStatus());
+    }
+
+    @Test
+    void testAddSkusBatchOverLimit() {
+        ReflectionTestUtils.setField(skuService, "maxBatchItems", 1);
+        SkuDto sku = new SkuDto();
+        assertThrows(CustomValidationException.class, () -> skuService.addSkusToProduct(2L, Arrays.asList(sku, sku)));
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void testAdjustQuantity() {
+        given(skuRepository.adjustQuantity(2L, 1L, -3, 4L)).willReturn(Collections.singletonList(new Object[]{7, 5L}));
+        SkuQuantityDto result = skuService.adjustQuantity(2L, 1L, -3, 4L);
+        assertEquals(7, result.getQuantity());
+        assertEquals(5L, result.getVersion());
+        verify(skuRepository, never()).findById(any());
+        verify(stockLedger).updateOnHand(1L, 7);
+        verify(skuJournal).quantityChanged(1L, 7, 5L);
+        verify(stockAggregates).quantityChanged(1L, 7, 5L);
+        verify(changeFeed).publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.UPDATED, 1L, 2L, 5L);
+        verify(resourceVersions).skusChanged(2L);
+    }
+
+    @Test
+    void testAdjustQuantity_VersionMismatch() {
+        sku.setVersion(6L);
+        given(skuRepository.adjustQuantity(2L, 1L, 1, 4L)).willReturn(Collections.emptyList());
+        given(skuRepository.findById(1L)).willReturn(Optional.of(sku));
+        assertThrows(OptimisticLockingFailureException.class, () -> skuService.adjustQuantity(2L, 1L, 1, 4L));
+    }
+
+    @Test
+    void testAdjustQuantity_BelowZero() {
+        given(skuRepository.adjustQuantity(2L, 1L, -11)).willReturn(Collections.emptyList());
+        given(skuRepository.findById(1L)).willReturn(Optional.of(sku));
+        assertThrows(CustomValidationException.class, () -> skuService.adjustQuantity(2L, 1L, -11, null));
+    }
+
+    @Test
+    void testUpdateAndDeleteSkuOfAnotherProduct() {
+        given(skuRepository.findById(1L)).willReturn(Optional.of(sku));
+        SkuDto dto = new SkuDto();
+        dto.setCode("SKU123");
+        dto.setQuantity(1);
+        dto.setPrice(1.0);
+        assertThrows(EntityNotFoundException.class, () -> skuService.updateSku(3L, 1L, dto));
+        assertThrows(EntityNotFoundException.class, () -> skuService.deleteSku(3L, 1L));
+        verify(skuRepository, never()).delete(any(Sku.class));
+    }
+
+    @Test
+    void testDeleteSku() {
+        given(skuRepository.findById(1L)).willReturn(Optional.of(sku));
+        skuService.deleteSku(2L, 1L);
+        verify(skuRepository).delete(sku);
+        verify(stockLedger).remove(1L);
+        verify(skuJournal).skuDeleted(1L);
+        verify(stockAggregates).skuRemoved(1L);
+        verify(changeFeed).publish(ChangeEventDto.Entity.SKU, ChangeEventDto.Type.DELETED, 1L, 2L);
+        verify(resourceVersions).skusChanged(2L);
+    }
+
+    @Test
+    void testGetLowStock_CursorResumesAfterLastRow() {
+        Sku second = new Sku();
+        second.setId(7L);
+        second.setCode("SKU7");
+        second.setQuantity(2);
+        second.setReorderThreshold(5);
+        second.setProduct(product);
+        sku.setQuantity(1);
+        sku.setReorderThreshold(5);
+        given(skuRepository.findBelowReorderThreshold(Integer.MIN_VALUE, 0L, PageRequest.of(0, 2)))
+                .willReturn(Arrays.asList(sku, second));
+        LowStockPageDto first = skuService.getLowStock(null, null, null, 1);
+        assertTrue(first.isHasNext());
+        assertEquals(Integer.valueOf(5), first.getContent().get(0).getReorderThreshold());
+
+        given(skuRepository.findBelowReorderThreshold(-4, 1L, PageRequest.of(0, 2))).willReturn(Collections.singletonList(second));
+        LowStockPageDto next = skuService.getLowStock(null, null, first.getNextCursor(), 1);
+        assertFalse(next.isHasNext());
+        assertEquals("SKU7", next.getContent().get(0).getCode());
+
+        // A threshold-mode cursor cannot continue a fixed-limit query
+        assertThrows(CustomValidationException.class, () -> skuService.getLowStock(3, null, first.getNextCursor(), 1));
+        assertThrows(CustomValidationException.class, () -> skuService.countLowStock(-1, null));
+        verify(skuRepository, never()).findQuantityBelow(anyInt(), anyInt(), anyLong(), any());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.example.inventory.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockAggregatesTest {
+    private StockAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        aggregates = new StockAggregates();
+        aggregates.categorySaved(1L);
+        aggregates.categorySaved(2L);
+        aggregates.productSaved(10L, 1L);
+        aggregates.productSaved(11L, 1L);
+    }
+
+    @Test
+    void testMinorUnitConversionIsExact() {
+        assertEquals(101L, StockAggregates.toMinorUnits(1.005));
+        assertEquals(10L, StockAggregates.toMinorUnits(0.1));
+        assertEquals(new BigDecimal("12345.67"), StockAggregates.toMajorUnits(1234567L));
+        for (int i = 0; i < 1000; i++) {
+            aggregates.skuSaved(i, 10L, 1, 0.1, 0L);
+        }
+        // 1000 * 0.1 summed as doubles is 99.9999999999986
+        assertEquals(10000L, aggregates.getProduct(10L).getValueMinorUnits());
+        assertEquals(new BigDecimal("100.00"), StockAggregates.toMajorUnits(aggregates.getCategory(1L).getValueMinorUnits()));
+    }
+
+    @Test
+    void testSkuMutationsAdjustProductAndCategory() {
+        aggregates.skuSaved(100L, 10L, 5, 2.50, 0L);
+        aggregates.skuSaved(101L, 11L, 3, 1.00, 0L);
+        assertEquals(new StockAggregates.Totals(1, 5, 1250), aggregates.getProduct(10L));
+        assertEquals(new StockAggregates.Totals(2, 8, 1550), aggregates.getCategory(1L));
+
+        aggregates.skuSaved(100L, 10L, 7, 3.00, 1L);
+        aggregates.quantityChanged(101L, 1, 1L);
+        aggregates.quantityDecremented(100L, 2);
+        assertEquals(new StockAggregates.Totals(1, 5, 1500), aggregates.getProduct(10L));
+        assertEquals(new StockAggregates.Totals(2, 6, 1600), aggregates.getCategory(1L));
+
+        aggregates.skuRemoved(100L);
+        assertEquals(StockAggregates.Totals.ZERO, aggregates.getProduct(10L));
+        assertEquals(new StockAggregates.Totals(1, 1, 100), aggregates.getCategory(1L));
+    }
+
+    @Test
+    void testOlderVersionIsIgnored() {
+        aggregates.skuSaved(100L, 10L, 5, 1.00, 3L);
+        aggregates.skuSaved(100L, 10L, 9, 1.00, 2L);
+        aggregates.quantityChanged(100L, 1, 1L);
+        assertEquals(5, aggregates.getProduct(10L).getUnits());
+    }
+
+    @Test
+    void testProductMoveAndRemoval() {
+        aggregates.skuSaved(100L, 10L, 5, 2.00, 0L);
+        aggregates.skuSaved(101L, 11L, 1, 1.00, 0L);
+        aggregates.productSaved(10L, 2L);
+        assertEquals(new StockAggregates.Totals(1, 1, 100), aggregates.getCategory(1L));
+        assertEquals(new StockAggregates.Totals(1, 5, 1000), aggregates.getCategory(2L));
+
+        aggregates.productsRemoved(Arrays.asList(10L));
+        assertNull(aggregates.getProduct(10L));
+        assertEquals(StockAggregates.Totals.ZERO, aggregates.getCategory(2L));
+        // The removed product's SKU is gone too, so a late update for it cannot resurrect stale totals
+        aggregates.quantityChanged(100L, 50, 5L);
+        assertNull(aggregates.getProduct(10L));
+
+        aggregates.categoryRemoved(2L);
+        assertEquals(Collections.singleton(1L), aggregates.getCategories().keySet());
+    }
+
+    @Test
+    void testResetProductAndRepairCategories() {
+        aggregates.skuSaved(100L, 10L, 5, 2.00, 0L);
+        aggregates.skuSaved(101L, 10L, 1, 1.00, 0L);
+        aggregates.resetProduct(10L, true, 1L, Collections.singletonList(new Object[]{100L, 10L, 4, 2.00, 1L}));
+        assertEquals(new StockAggregates.Totals(1, 4, 800), aggregates.getProduct(10L));
+        assertEquals(new StockAggregates.Totals(1, 4, 800), aggregates.getCategory(1L));
+        assertTrue(aggregates.repairCategoryTotals().isEmpty());
+
+        aggregates.resetProduct(10L, false, null, Collections.emptyList());
+        assertNull(aggregates.getProduct(10L));
+        assertEquals(StockAggregates.Totals.ZERO, aggregates.getCategory(1L));
+    }
+}
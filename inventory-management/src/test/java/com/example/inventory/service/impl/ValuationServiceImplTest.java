@@ -0,0 +1,139 @@
+package com.example.inventory.service.impl;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.StockValuationDto;
+import com.example.inventory.dto.ValuationReconciliationDto;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.ReservationService;
+import com.example.inventory.service.SkuService;
+import com.example.inventory.service.ValuationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs on its own in-memory database so reconciliation only sees rows written here.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:valuation-test;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class ValuationServiceImplTest {
+    @Autowired
+    private ValuationService valuationService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Long category(String name) {
+        CategoryDto dto = new CategoryDto();
+        dto.setName(name);
+        return categoryService.createCategory(dto).getId();
+    }
+
+    private Long product(String name, Long categoryId) {
+        ProductDto dto = new ProductDto();
+        dto.setName(name);
+        dto.setCategoryId(categoryId);
+        return productService.createProduct(dto).getId();
+    }
+
+    private static SkuDto sku(String code, int quantity, double price) {
+        SkuDto dto = new SkuDto();
+        dto.setCode(code);
+        dto.setQuantity(quantity);
+        dto.setPrice(price);
+        return dto;
+    }
+
+    @Test
+    void testCountersFollowEveryMutationPath() throws Exception {
+        Long tools = category("Valuation Tools");
+        Long garden = category("Valuation Garden");
+        Long hammer = product("Hammer", tools);
+        Long rake = product("Rake", garden);
+
+        SkuDto small = skuService.addSkuToProduct(hammer, sku("HAM-S", 10, 9.99));
+        skuService.addSkusToProduct(hammer, Arrays.asList(sku("HAM-M", 4, 12.50), sku("HAM-L", 2, 15.01)));
+        skuService.addSkuToProduct(rake, sku("RAKE-1", 3, 20.00));
+        StockValuationDto hammerValue = valuationService.getProductValuation(hammer);
+        assertEquals(3, hammerValue.getSkuCount());
+        assertEquals(16, hammerValue.getUnits());
+        assertEquals(new BigDecimal("179.92"), hammerValue.getValue());
+
+        skuService.updateSku(hammer, small.getId(), sku("HAM-S", 5, 10.00));
+        skuService.adjustQuantity(hammer, small.getId(), -1, null);
+        String reservation = reservationService.reserve(hammer, small.getId(), 2, 60).getId();
+        reservationService.commit(hammer, small.getId(), reservation);
+        assertEquals(new BigDecimal("100.02"), valuationService.getProductValuation(hammer).getValue());
+        assertEquals(new BigDecimal("100.02"), valuationService.getCategoryValuation(tools).getValue());
+
+        ProductDto move = new ProductDto();
+        move.setCategoryId(garden);
+        productService.updateProduct(hammer, move);
+        assertEquals(0, valuationService.getCategoryValuation(tools).getUnits());
+        assertEquals(new BigDecimal("160.02"), valuationService.getCategoryValuation(garden).getValue());
+
+        productService.deleteProduct(rake);
+        assertEquals(new BigDecimal("100.02"), valuationService.getCategoryValuation(garden).getValue());
+
+        mockMvc.perform(get("/api/valuation/products/" + hammer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.units").value(8))
+                .andExpect(jsonPath("$.valueMinorUnits").value(10002));
+        mockMvc.perform(get("/api/valuation/categories/" + garden))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value(100.02));
+        mockMvc.perform(get("/api/valuation/products/999999"))
+                .andExpect(status().isNotFound());
+
+        ValuationReconciliationDto clean = valuationService.reconcile();
+        assertEquals(0, clean.getProductsDrifted());
+        assertTrue(clean.getCategoriesRepaired().isEmpty());
+    }
+
+    @Test
+    void testReconciliationRepairsDrift() throws Exception {
+        Long categoryId = category("Valuation Drift");
+        Long productId = product("Drill", categoryId);
+        SkuDto drill = skuService.addSkuToProduct(productId, sku("DRILL-1", 4, 50.00));
+        // A write that bypasses the service layer, so the counters never hear about it
+        jdbcTemplate.update("UPDATE sku SET quantity = 6, version = version + 1 WHERE id = ?", drill.getId());
+        assertEquals(4, valuationService.getProductValuation(productId).getUnits());
+
+        mockMvc.perform(post("/api/admin/valuation/reconciliation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productsDrifted").value(1))
+                .andExpect(jsonPath("$.drifts[0].productId").value(productId))
+                .andExpect(jsonPath("$.drifts[0].expected.units").value(6))
+                .andExpect(jsonPath("$.drifts[0].actual.units").value(4))
+                .andExpect(jsonPath("$.repaired").value(true));
+        assertEquals(new BigDecimal("300.00"), valuationService.getCategoryValuation(categoryId).getValue());
+        assertEquals(0, valuationService.reconcile().getProductsDrifted());
+        mockMvc.perform(get("/api/admin/valuation/reconciliation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productsDrifted").value(0));
+    }
+}
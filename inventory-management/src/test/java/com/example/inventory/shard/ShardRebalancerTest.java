@@ -0,0 +1,86 @@
+package com.example.inventory.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardRebalancerTest {
+    private static final int PRODUCTS = 300;
+    private static final int SKUS_PER_PRODUCT = 2;
+
+    private static List<DataSource> databases(String prefix, int count) {
+        List<DataSource> databases = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            DataSource database = new DriverManagerDataSource("jdbc:h2:mem:" + prefix + "-" + i + ";DB_CLOSE_DELAY=-1", "sa", "");
+            SkuShards.migrate(database);
+            databases.add(database);
+        }
+        return databases;
+    }
+
+    private static void insert(DataSource database, long productId) {
+        for (int s = 0; s < SKUS_PER_PRODUCT; s++) {
+            long id = productId * SKUS_PER_PRODUCT + s;
+            new JdbcTemplate(database).update("INSERT INTO sku (id, code, price, quantity, version, product_id) VALUES (?, ?, 1.5, 3, 0, ?)",
+                    id, "C-" + id, productId);
+        }
+    }
+
+    private static void assertPlaced(List<DataSource> shards) {
+        long total = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (Long productId : new JdbcTemplate(shards.get(shard)).queryForList("SELECT product_id FROM sku", Long.class)) {
+                assertEquals(SkuShards.shardOf(productId, shards.size()), shard, "product " + productId);
+                total++;
+            }
+        }
+        assertEquals(PRODUCTS * SKUS_PER_PRODUCT, total);
+    }
+
+    @Test
+    void testGrowingTheShardListMovesRowsToTheNewShards() {
+        List<DataSource> shards = databases("rebalance-grow", 4);
+        List<DataSource> current = shards.subList(0, 2);
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            insert(current.get(SkuShards.shardOf(productId, 2)), productId);
+        }
+
+        ShardRebalancer rebalancer = new ShardRebalancer(shards, 50);
+        ShardRebalancer.Moved moved = rebalancer.rebalance(current);
+
+        assertPlaced(shards);
+        long expected = 0;
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            if (SkuShards.shardOf(productId, 4) >= 2) {
+                expected++;
+            }
+        }
+        assertEquals(expected, moved.getProducts());
+        assertEquals(expected * SKUS_PER_PRODUCT, moved.getSkus());
+        // Nothing left to move on a second run
+        assertEquals(0, rebalancer.rebalance(shards).getSkus());
+    }
+
+    @Test
+    void testSpreadsAnUnshardedTableOverTheShards() {
+        List<DataSource> databases = databases("rebalance-initial", 4);
+        DataSource main = databases.get(0);
+        List<DataSource> shards = databases.subList(1, 4);
+        for (long productId = 1; productId <= PRODUCTS; productId++) {
+            insert(main, productId);
+        }
+
+        ShardRebalancer.Moved moved = new ShardRebalancer(shards, 64).rebalance(Arrays.asList(main));
+
+        assertEquals(PRODUCTS, moved.getProducts());
+        assertEquals(0, (int) new JdbcTemplate(main).queryForObject("SELECT COUNT(*) FROM sku", Integer.class));
+        assertPlaced(shards);
+    }
+}
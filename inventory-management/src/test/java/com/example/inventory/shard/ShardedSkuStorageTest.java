@@ -0,0 +1,263 @@
+package com.example.inventory.shard;
+
+import com.example.inventory.dto.CategoryDeleteJobDto;
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ImportResultDto;
+import com.example.inventory.dto.LowStockPageDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuBatchResultDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.exception.QueryBudgetExceededException;
+import com.example.inventory.jdbc.QueryCounter;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ExportService;
+import com.example.inventory.service.ImportService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.ReservationService;
+import com.example.inventory.service.SkuService;
+import com.example.inventory.service.ValuationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three in-memory H2 databases as SKU shards next to the main one. Rows are checked where they
+ * actually landed, through each shard's own template.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:sharded-main;DB_CLOSE_DELAY=-1",
+        "inventory.sku-shards.urls=jdbc:h2:mem:sku-shard-0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:sku-shard-1;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sku-shard-2;DB_CLOSE_DELAY=-1"})
+public class ShardedSkuStorageTest {
+    @Autowired
+    private SkuShards skuShards;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private ValuationService valuationService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long category(String name) {
+        CategoryDto category = new CategoryDto();
+        category.setName(name);
+        return categoryService.createCategory(category).getId();
+    }
+
+    private long product(long categoryId, String name) {
+        ProductDto product = new ProductDto();
+        product.setName(name);
+        product.setCategoryId(categoryId);
+        return productService.createProduct(product).getId();
+    }
+
+    private static SkuDto sku(String code, int quantity, Integer reorderThreshold) {
+        SkuDto sku = new SkuDto();
+        sku.setCode(code);
+        sku.setQuantity(quantity);
+        sku.setPrice(2.5);
+        sku.setReorderThreshold(reorderThreshold);
+        return sku;
+    }
+
+    private int rowsOn(int shard, long productId) {
+        return skuShards.all().get(shard).getJdbc().getJdbcOperations()
+                .queryForObject("SELECT COUNT(*) FROM sku WHERE product_id = ?", Integer.class, productId);
+    }
+
+    // Products of one category, created until they cover at least two shards
+    private List<Long> productsOnSeveralShards(long categoryId, String prefix) {
+        List<Long> products = new ArrayList<>();
+        Set<Integer> shards = new HashSet<>();
+        while (products.size() < 6 || shards.size() < 2) {
+            long productId = product(categoryId, prefix + " " + products.size());
+            products.add(productId);
+            shards.add(SkuShards.shardOf(productId, 3));
+        }
+        return products;
+    }
+
+    @Test
+    void testSkusLiveOnlyOnTheirProductsShard() {
+        long categoryId = category("Placement");
+        List<Long> products = productsOnSeveralShards(categoryId, "Placed");
+        Set<Long> ids = new HashSet<>();
+        for (long productId : products) {
+            ids.add(skuService.addSkuToProduct(productId, sku("P-" + productId + "-A", 5, null)).getId());
+            SkuBatchResultDto batch = skuService.addSkusToProduct(productId,
+                    Arrays.asList(sku("P-" + productId + "-B", 6, null), sku("P-" + productId + "-C", 7, null)));
+            assertEquals(2, batch.getCreated());
+            batch.getItems().forEach(item -> ids.add(item.getId()));
+        }
+
+        assertEquals(products.size() * 3, ids.size());
+        for (long productId : products) {
+            int home = SkuShards.shardOf(productId, 3);
+            for (int shard = 0; shard < 3; shard++) {
+                assertEquals(shard == home ? 3 : 0, rowsOn(shard, productId), "product " + productId + " on shard " + shard);
+            }
+            assertEquals(3, skuService.getSkusByProduct(productId).size());
+        }
+        assertEquals(0, (int) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sku", Integer.class));
+        assertEquals(products.size(), skuService.getSkusByProductIds(products).size());
+    }
+
+    @Test
+    void testPerProductWritesOnShard() {
+        long productId = product(category("Writes"), "Written");
+        SkuDto created = skuService.addSkuToProduct(productId, sku("W-1", 10, null));
+        assertThrows(CustomValidationException.class, () -> skuService.addSkuToProduct(productId, sku("W-1", 1, null)));
+
+        assertEquals(13, skuService.adjustQuantity(productId, created.getId(), 3, null).getQuantity());
+        assertThrows(CustomValidationException.class, () -> skuService.adjustQuantity(productId, created.getId(), -20, null));
+        SkuDto updated = skuService.updateSku(productId, created.getId(), sku("W-2", 8, 2));
+        assertEquals("W-2", updated.getCode());
+        assertEquals(2L, updated.getVersion());
+
+        String reservation = reservationService.reserve(productId, created.getId(), 3, null).getId();
+        reservationService.commit(productId, created.getId(), reservation);
+        SkuDto stored = skuService.getSkusByProduct(productId).get(0);
+        assertEquals(5, stored.getQuantity());
+        assertEquals(Integer.valueOf(2), stored.getReorderThreshold());
+
+        long otherProduct = product(category("Other Writes"), "Other");
+        assertThrows(EntityNotFoundException.class, () -> skuService.updateSku(otherProduct, created.getId(), sku("W-3", 1, null)));
+        assertThrows(EntityNotFoundException.class, () -> skuService.deleteSku(otherProduct, created.getId()));
+        skuService.deleteSku(productId, created.getId());
+        assertThrows(EntityNotFoundException.class, () -> skuService.deleteSku(productId, created.getId()));
+        assertTrue(skuService.getSkusByProduct(productId).isEmpty());
+        assertEquals(0, rowsOn(SkuShards.shardOf(productId, 3), productId));
+    }
+
+    @Test
+    void testFanOutQueriesFirstShardOnCallingThread() {
+        Thread caller = Thread.currentThread();
+        assertEquals(Arrays.asList(true, false, false), skuShards.fanOut(shard -> Thread.currentThread() == caller));
+        assertEquals(Arrays.asList(0, 1, 2), skuShards.fanOut(SkuShards.Shard::getIndex));
+        assertThrows(IllegalStateException.class, () -> skuShards.fanOut(shard -> {
+            throw new IllegalStateException("shard " + shard.getIndex() + " down");
+        }));
+    }
+
+    @Test
+    void testCrossShardQueriesAreMerged() throws Exception {
+        long categoryId = category("Low Stock Spread");
+        List<Long> products = productsOnSeveralShards(categoryId, "Spread");
+        for (int i = 0; i < products.size(); i++) {
+            skuService.addSkuToProduct(products.get(i), sku("L-" + i, i % 3, 4));
+            skuService.addSkuToProduct(products.get(i), sku("H-" + i, 50, 4));
+        }
+
+        List<SkuDto> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            LowStockPageDto page = skuService.getLowStock(3, categoryId, cursor, 2);
+            paged.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(products.size(), paged.size());
+        for (int i = 1; i < paged.size(); i++) {
+            SkuDto previous = paged.get(i - 1);
+            SkuDto current = paged.get(i);
+            assertTrue(previous.getQuantity() < current.getQuantity()
+                    || (previous.getQuantity() == current.getQuantity() && previous.getId() < current.getId()), paged.toString());
+        }
+        assertEquals(products.size(), skuService.countLowStock(null, categoryId).getCount());
+        long lowEverywhere = 0;
+        for (SkuShards.Shard shard : skuShards.all()) {
+            lowEverywhere += shard.getJdbc().getJdbcOperations().queryForObject("SELECT COUNT(*) FROM sku WHERE quantity < 3", Long.class);
+        }
+        assertEquals(lowEverywhere, skuService.countLowStock(3, null).getCount());
+
+        valuationService.rebuild();
+        assertEquals(products.size() * 2, valuationService.getCategoryValuation(categoryId).getSkuCount());
+        assertEquals(0, valuationService.reconcile().getProductsDrifted());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportCatalog(out);
+        String export = out.toString(StandardCharsets.UTF_8.name());
+        for (int i = 0; i < products.size(); i++) {
+            assertTrue(export.contains("\"code\":\"L-" + i + "\""), "L-" + i);
+        }
+    }
+
+    @Test
+    void testDeletesRemoveShardRows() throws Exception {
+        long categoryId = category("Sharded Deletes");
+        List<Long> products = productsOnSeveralShards(categoryId, "Deleted");
+        for (long productId : products) {
+            skuService.addSkuToProduct(productId, sku("D-" + productId, 1, null));
+        }
+
+        productService.deleteProduct(products.get(0));
+        assertEquals(0, rowsOn(SkuShards.shardOf(products.get(0), 3), products.get(0)));
+
+        CategoryDeleteJobDto job = categoryService.deleteCategoryAsync(categoryId);
+        for (int i = 0; i < 200 && job.getStatus() != CategoryDeleteJobDto.Status.COMPLETED
+                && job.getStatus() != CategoryDeleteJobDto.Status.FAILED; i++) {
+            Thread.sleep(25);
+            job = categoryService.getDeleteJob(job.getId());
+        }
+        assertEquals(CategoryDeleteJobDto.Status.COMPLETED, job.getStatus());
+        assertEquals(products.size() - 1, job.getSkusDeleted());
+        for (long productId : products) {
+            assertEquals(0, rowsOn(SkuShards.shardOf(productId, 3), productId));
+        }
+    }
+
+    @Test
+    void testImportWritesSkusToShardsAfterTheirProducts() throws Exception {
+        String catalog = "{\"type\":\"category\",\"id\":\"c\",\"name\":\"Imported Shards\"}\n"
+                + "{\"type\":\"product\",\"id\":\"p\",\"categoryId\":\"c\",\"name\":\"Imported Sharded Product\"}\n"
+                + "{\"type\":\"sku\",\"productId\":\"p\",\"code\":\"I-1\",\"quantity\":4,\"price\":1.5}\n"
+                + "{\"type\":\"sku\",\"productId\":\"p\",\"code\":\"I-2\",\"quantity\":6,\"price\":2.5}\n";
+
+        ImportResultDto result = importService.importCatalog(new ByteArrayInputStream(catalog.getBytes(StandardCharsets.UTF_8)),
+                ImportService.Format.NDJSON);
+
+        assertTrue(result.isCompleted());
+        assertEquals(2, result.getSkusCreated());
+        long productId = jdbcTemplate.queryForObject("SELECT id FROM product WHERE name = 'Imported Sharded Product'", Long.class);
+        assertEquals(2, rowsOn(SkuShards.shardOf(productId, 3), productId));
+        assertEquals(2, skuService.getSkusByProduct(productId).size());
+    }
+
+    @Test
+    void testJdbcTemplateAndShardStatementsAreCounted() {
+        try (QueryCounter counter = QueryCounter.open()) {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Long.class);
+            skuShards.fanOut(shard -> shard.getJdbc().getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM sku", Long.class));
+            assertEquals(4, counter.getStatements());
+            assertEquals(3, counter.getStatementCounts().get("SELECT COUNT(*) FROM sku"));
+        }
+        // Shards queried on the fan-out pool break the caller's budget too
+        try (QueryCounter counter = QueryCounter.open(1, 0, true)) {
+            assertThrows(QueryBudgetExceededException.class,
+                    () -> skuShards.fanOut(shard -> shard.getJdbc().getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM sku", Long.class)));
+        }
+    }
+}
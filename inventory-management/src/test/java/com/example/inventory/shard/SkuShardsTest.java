@@ -0,0 +1,35 @@
+package com.example.inventory.shard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkuShardsTest {
+    private static final int KEYS = 100_000;
+
+    @Test
+    void testShardOfSpreadsKeysEvenly() {
+        int[] counts = new int[8];
+        for (long key = 1; key <= KEYS; key++) {
+            counts[SkuShards.shardOf(key, 8)]++;
+        }
+        for (int count : counts) {
+            assertEquals(KEYS / 8.0, count, KEYS / 8.0 * 0.05);
+        }
+        assertEquals(0, SkuShards.shardOf(42, 1));
+    }
+
+    @Test
+    void testAddingAShardOnlyMovesKeysOntoIt() {
+        int moved = 0;
+        for (long key = 1; key <= KEYS; key++) {
+            int before = SkuShards.shardOf(key, 4);
+            int after = SkuShards.shardOf(key, 5);
+            if (before != after) {
+                assertEquals(4, after, "key " + key);
+                moved++;
+            }
+        }
+        assertEquals(KEYS / 5.0, moved, KEYS / 5.0 * 0.05);
+    }
+}
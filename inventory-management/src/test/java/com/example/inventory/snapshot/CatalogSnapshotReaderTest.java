@@ -0,0 +1,100 @@
+package com.example.inventory.snapshot;
+
+import com.example.inventory.exception.SnapshotFormatException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotReaderTest {
+    @TempDir
+    Path dir;
+
+    private Path write() throws Exception {
+        Path file = dir.resolve("catalog.snapshot");
+        try (OutputStream out = Files.newOutputStream(file);
+             CatalogSnapshotWriter writer = new CatalogSnapshotWriter(out, 1234L)) {
+            writer.category(1, "Électronique");
+            writer.product(10, 1, "iPhone");
+            writer.sku(100, 10, "IP-128", 5, 999.5, 2, 3L);
+            writer.sku(101, 10, null, 0, 0.0, null, null);
+            writer.finish();
+        }
+        return file;
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        CatalogSnapshotReader reader = new CatalogSnapshotReader(write());
+        assertEquals(1234L, reader.getCreatedAtMillis());
+        assertEquals(1, reader.getCategories());
+        assertEquals(2, reader.getSkus());
+        List<String> records = new ArrayList<>();
+        reader.read(new CatalogSnapshotReader.Visitor() {
+            @Override
+            public void category(long id, String name) {
+                records.add("C" + id + ":" + name);
+            }
+
+            @Override
+            public void product(long id, long categoryId, String name) {
+                records.add("P" + id + "/" + categoryId + ":" + name);
+            }
+
+            @Override
+            public void sku(long id, long productId, String code, int quantity, double price, Integer reorderThreshold, Long version) {
+                records.add("S" + id + "/" + productId + ":" + code + "," + quantity + "," + price + "," + reorderThreshold + "," + version);
+            }
+        });
+        assertEquals(4, records.size());
+        assertEquals("C1:Électronique", records.get(0));
+        assertEquals("P10/1:iPhone", records.get(1));
+        assertEquals("S100/10:IP-128,5,999.5,2,3", records.get(2));
+        assertEquals("S101/10:null,0,0.0,null,null", records.get(3));
+    }
+
+    @Test
+    void testCorruptedByteFailsChecksum() throws Exception {
+        Path file = write();
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(30);
+            int value = raw.read();
+            raw.seek(30);
+            raw.write(value ^ 0xFF);
+        }
+        SnapshotFormatException e = assertThrows(SnapshotFormatException.class, () -> new CatalogSnapshotReader(file));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testTruncatedAndForeignFilesRejected() throws Exception {
+        Path file = write();
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 10);
+        }
+        assertThrows(SnapshotFormatException.class, () -> new CatalogSnapshotReader(file));
+
+        Path other = dir.resolve("other.bin");
+        Files.write(other, new byte[64]);
+        SnapshotFormatException e = assertThrows(SnapshotFormatException.class, () -> new CatalogSnapshotReader(other));
+        assertTrue(e.getMessage().startsWith("Not a catalog snapshot"));
+    }
+
+    @Test
+    void testNewerFormatVersionRejected() throws Exception {
+        Path file = write();
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(4);
+            raw.writeInt(CatalogSnapshotFormat.VERSION + 1);
+        }
+        SnapshotFormatException e = assertThrows(SnapshotFormatException.class, () -> new CatalogSnapshotReader(file));
+        assertTrue(e.getMessage().contains("version"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.inventory.snapshot;
+
+import com.example.inventory.dto.CategoryDto;
+import com.example.inventory.dto.ProductDto;
+import com.example.inventory.dto.SkuDto;
+import com.example.inventory.dto.SnapshotInfoDto;
+import com.example.inventory.exception.CustomValidationException;
+import com.example.inventory.service.CategoryService;
+import com.example.inventory.service.ProductService;
+import com.example.inventory.service.SkuService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs on its own in-memory database so it can empty the catalog before restoring.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:snapshot-test;DB_CLOSE_DELAY=-1")
+public class CatalogSnapshotServiceTest {
+    @Autowired
+    private CatalogSnapshotService snapshotService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private SkuService skuService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testWriteThenRestoreIntoEmptyCatalog() {
+        CategoryDto category = new CategoryDto();
+        category.setName("Snapshot Category");
+        Long categoryId = categoryService.createCategory(category).getId();
+        ProductDto product = new ProductDto();
+        product.setName("Snapshot Product");
+        product.setCategoryId(categoryId);
+        Long productId = productService.createProduct(product).getId();
+        ProductDto empty = new ProductDto();
+        empty.setName("Product Without SKUs");
+        empty.setCategoryId(categoryId);
+        productService.createProduct(empty);
+        for (int i = 0; i < 3; i++) {
+            SkuDto sku = new SkuDto();
+            sku.setCode("SNAP-" + i);
+            sku.setQuantity(i);
+            sku.setPrice(1.5 * (i + 1));
+            sku.setReorderThreshold(i == 2 ? 10 : null);
+            skuService.addSkuToProduct(productId, sku);
+        }
+
+        Path file = dir.resolve("catalog.snapshot");
+        SnapshotInfoDto written = snapshotService.writeSnapshot(file);
+        assertEquals(1, written.getCategories());
+        assertEquals(2, written.getProducts());
+        assertEquals(3, written.getSkus());
+        assertThrows(CustomValidationException.class, () -> snapshotService.restore(file));
+
+        Long maxSkuId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM sku", Long.class);
+        jdbcTemplate.execute("DELETE FROM sku");
+        jdbcTemplate.execute("DELETE FROM product");
+        jdbcTemplate.execute("DELETE FROM category");
+
+        SnapshotInfoDto restored = snapshotService.restore(file);
+        assertEquals(written.getChecksum(), restored.getChecksum());
+        assertEquals("Snapshot Category", categoryService.getCategoryById(categoryId).getName());
+        List<SkuDto> skus = skuService.getSkusByProduct(productId);
+        assertEquals(3, skus.size());
+        assertEquals("SNAP-2", skus.get(2).getCode());
+        assertEquals(4.5, skus.get(2).getPrice());
+        assertEquals(Integer.valueOf(10), skus.get(2).getReorderThreshold());
+        assertNull(skus.get(0).getReorderThreshold());
+
+        // Generated ids continue past the restored ones
+        CategoryDto next = new CategoryDto();
+        next.setName("After Restore");
+        assertTrue(categoryService.createCategory(next).getId() > categoryId);
+        SkuDto sku = new SkuDto();
+        sku.setCode("SNAP-NEW");
+        sku.setQuantity(1);
+        sku.setPrice(1.0);
+        assertTrue(skuService.addSkuToProduct(productId, sku).getId() > maxSkuId);
+    }
+}